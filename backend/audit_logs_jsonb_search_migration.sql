@@ -0,0 +1,34 @@
+-- Audit search: jsonb storage and targeted indexes
+-- additionalData and complianceTags become jsonb so they can be queried with GIN indexes.
+-- Rows written by the old builder may hold invalid JSON (unescaped values); those are kept
+-- as {"raw": "<original text>"} instead of failing the migration.
+
+CREATE OR REPLACE FUNCTION audit_try_jsonb(value TEXT, fallback_array BOOLEAN) RETURNS jsonb AS $$
+BEGIN
+    IF value IS NULL OR value = '' THEN
+        RETURN NULL;
+    END IF;
+    RETURN value::jsonb;
+EXCEPTION WHEN others THEN
+    IF fallback_array THEN
+        RETURN jsonb_build_array(value);
+    END IF;
+    RETURN jsonb_build_object('raw', value);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+ALTER TABLE audit_logs
+    ALTER COLUMN additional_data TYPE jsonb USING audit_try_jsonb(additional_data, false),
+    ALTER COLUMN compliance_tags TYPE jsonb USING audit_try_jsonb(compliance_tags, true);
+
+DROP FUNCTION audit_try_jsonb(TEXT, BOOLEAN);
+
+-- Containment queries: additional_data @> '{"cardBin":"411111"}', compliance_tags @> '["KVKK"]'
+CREATE INDEX IF NOT EXISTS idx_audit_additional_data ON audit_logs USING GIN (additional_data jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_audit_compliance_tags ON audit_logs USING GIN (compliance_tags jsonb_path_ops);
+
+-- Keyset paging is ordered by ("timestamp", id) DESC; these cover the common leading filters
+CREATE INDEX IF NOT EXISTS idx_audit_event_type_ts ON audit_logs (event_type, "timestamp" DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_actor_ts ON audit_logs (actor, "timestamp" DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_resource_ts ON audit_logs (resource_type, resource_id, "timestamp" DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_ts_id ON audit_logs ("timestamp" DESC, id DESC);
@@ -0,0 +1,61 @@
+-- Monthly range partitioning for audit_logs
+-- Converts audit_logs into a table partitioned by month on "timestamp".
+-- AuditPartitionService then creates upcoming partitions and drops/detaches expired ones.
+-- Run once during a maintenance window (the copy locks the legacy table).
+
+BEGIN;
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER INDEX IF EXISTS idx_audit_timestamp RENAME TO idx_audit_legacy_timestamp;
+ALTER INDEX IF EXISTS idx_audit_event_type RENAME TO idx_audit_legacy_event_type;
+ALTER INDEX IF EXISTS idx_audit_actor RENAME TO idx_audit_legacy_actor;
+ALTER INDEX IF EXISTS idx_audit_resource RENAME TO idx_audit_legacy_resource;
+ALTER INDEX IF EXISTS idx_audit_region RENAME TO idx_audit_legacy_region;
+
+-- Identity columns are not supported on partitioned tables before PostgreSQL 17,
+-- so ids come from a plain sequence default (Hibernate IDENTITY reads it back the same way)
+CREATE SEQUENCE IF NOT EXISTS audit_logs_id_seq;
+SELECT setval('audit_logs_id_seq', COALESCE((SELECT MAX(id) FROM audit_logs_legacy), 0) + 1, false);
+
+CREATE TABLE audit_logs (LIKE audit_logs_legacy INCLUDING DEFAULTS EXCLUDING IDENTITY)
+    PARTITION BY RANGE ("timestamp");
+ALTER TABLE audit_logs ALTER COLUMN id SET DEFAULT nextval('audit_logs_id_seq');
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- The partition key has to be part of the primary key
+ALTER TABLE audit_logs ADD PRIMARY KEY (id, "timestamp");
+
+-- One partition per month from the oldest row up to three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', now() + INTERVAL '3 months')::date;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN("timestamp")), date_trunc('month', now()))::date
+      INTO month_start FROM audit_logs_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+            'audit_logs_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Safety net for rows outside the created ranges; expected to stay empty
+CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- Indexes on the parent are created on every partition
+CREATE INDEX idx_audit_timestamp ON audit_logs ("timestamp");
+CREATE INDEX idx_audit_event_type ON audit_logs (event_type);
+CREATE INDEX idx_audit_actor ON audit_logs (actor);
+CREATE INDEX idx_audit_resource ON audit_logs (resource_type, resource_id);
+CREATE INDEX idx_audit_region ON audit_logs (region_name);
+
+INSERT INTO audit_logs SELECT * FROM audit_logs_legacy;
+
+COMMIT;
+
+-- After verifying row counts:
+-- DROP TABLE audit_logs_legacy;
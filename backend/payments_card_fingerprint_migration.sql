@@ -0,0 +1,25 @@
+-- Card fingerprint: HMAC-SHA256(PAN) keyed by app.security.card-fingerprint.key
+-- Velocity, blacklist and card-history lookups switch from masked card_number LIKE scans
+-- to exact fingerprint lookups. Existing rows cannot be backfilled (the PAN is not stored);
+-- they simply age out of the velocity windows.
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS card_fingerprint VARCHAR(64);
+ALTER TABLE risk_assessments ADD COLUMN IF NOT EXISTS card_fingerprint VARCHAR(64);
+
+-- Run outside a transaction block (CONCURRENTLY). INCLUDE makes the velocity
+-- COUNT/SUM queries index-only: (fingerprint = ? AND created_at BETWEEN ? AND ?) + status/amount.
+-- This script owns the index, the Payment entity deliberately declares none so ddl-auto cannot
+-- create a same-named index without INCLUDE first.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_card_fingerprint_created
+    ON payments (card_fingerprint, created_at) INCLUDE (status, amount);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_risk_card_fingerprint_assessed
+    ON risk_assessments (card_fingerprint, assessed_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_blacklist_type_value
+    ON blacklist_entries (type, value);
+
+-- Hibernate 6 generates a CHECK constraint for enum columns and ddl-auto=update never widens it
+ALTER TABLE blacklist_entries DROP CONSTRAINT IF EXISTS blacklist_entries_type_check;
+ALTER TABLE blacklist_entries ADD CONSTRAINT blacklist_entries_type_check CHECK (type IN (
+    'CARD_BIN_LAST4', 'CARD_FINGERPRINT', 'CARD_BIN', 'EMAIL', 'IP_ADDRESS', 'PHONE', 'DEVICE_ID', 'USER_AGENT'));
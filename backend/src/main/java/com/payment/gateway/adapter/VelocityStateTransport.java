@@ -0,0 +1,28 @@
+package com.payment.gateway.adapter;
+
+import com.payment.gateway.dto.VelocityCounterDelta;
+
+import java.util.function.Consumer;
+
+/**
+ * Velocity counter CRDT state'inin node'lar arasında taşınması
+ * Loopback (tek JVM / test) ve HTTP (peer listesi) implementasyonları vardır
+ */
+public interface VelocityStateTransport {
+    
+    /**
+     * Transport adı (loopback, http)
+     */
+    String getName();
+    
+    /**
+     * State'i diğer node'lara gönder. Teslimat garantisi gerekmez: CRDT merge idempotent
+     * olduğu için kaybolan delta'lar bir sonraki full-state gönderiminde telafi edilir.
+     */
+    void publish(VelocityCounterDelta delta);
+    
+    /**
+     * Diğer node'lardan gelen state için dinleyici kaydet
+     */
+    void subscribe(Consumer<VelocityCounterDelta> listener);
+}
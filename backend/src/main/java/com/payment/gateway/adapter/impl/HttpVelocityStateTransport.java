@@ -0,0 +1,100 @@
+package com.payment.gateway.adapter.impl;
+
+import com.payment.gateway.adapter.VelocityStateTransport;
+import com.payment.gateway.dto.VelocityCounterDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Peer listesine HTTP POST ile state gönderimi.
+ * Karşı taraf /v1/risk/velocity/cluster/state endpoint'inde {@link #receive} çağırır.
+ * Ulaşılamayan peer loglanır ve atlanır; state bir sonraki full-state turunda yakalanır.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.cluster.transport", havingValue = "http")
+@Slf4j
+public class HttpVelocityStateTransport implements VelocityStateTransport {
+    
+    public static final String TOKEN_HEADER = "X-Velocity-Cluster-Token";
+    private static final String STATE_PATH = "/v1/risk/velocity/cluster/state";
+    
+    private final List<String> peers;
+    private final String token;
+    private final RestTemplate restTemplate;
+    private final List<Consumer<VelocityCounterDelta>> listeners = new CopyOnWriteArrayList<>();
+    
+    public HttpVelocityStateTransport(@Value("${app.fraud.velocity.cluster.peers:}") String peers,
+                                      @Value("${app.fraud.velocity.cluster.token:}") String token,
+                                      @Value("${app.fraud.velocity.cluster.timeout-ms:500}") int timeoutMs) {
+        this.peers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .toList();
+        if (token == null || token.isBlank()) {
+            // Peer endpoint'i token'sız açık kalmamalı: cluster modunda token zorunlu
+            throw new IllegalStateException("app.fraud.velocity.cluster.token must be set when transport is http");
+        }
+        this.token = token;
+        // Kısa timeout: yavaş bir peer exchange turunu bekletmemeli
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(timeoutMs);
+        factory.setReadTimeout(timeoutMs);
+        this.restTemplate = new RestTemplate(factory);
+    }
+    
+    @Override
+    public String getName() {
+        return "http";
+    }
+    
+    @Override
+    public void publish(VelocityCounterDelta delta) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(TOKEN_HEADER, token);
+        HttpEntity<VelocityCounterDelta> request = new HttpEntity<>(delta, headers);
+        
+        for (String peer : peers) {
+            try {
+                restTemplate.postForEntity(peer + STATE_PATH, request, Void.class);
+            } catch (Exception e) {
+                log.warn("Velocity state could not be sent to peer {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<VelocityCounterDelta> listener) {
+        listeners.add(listener);
+    }
+    
+    public boolean isAuthorized(String presentedToken) {
+        // Sabit süreli karşılaştırma: token byte byte tahmin edilemesin
+        return presentedToken != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), presentedToken.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public void receive(VelocityCounterDelta delta) {
+        for (Consumer<VelocityCounterDelta> listener : listeners) {
+            listener.accept(delta);
+        }
+    }
+    
+    public List<String> getPeers() {
+        return peers;
+    }
+}
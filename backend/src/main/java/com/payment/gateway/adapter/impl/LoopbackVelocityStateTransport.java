@@ -0,0 +1,39 @@
+package com.payment.gateway.adapter.impl;
+
+import com.payment.gateway.adapter.VelocityStateTransport;
+import com.payment.gateway.dto.VelocityCounterDelta;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Aynı JVM içindeki dinleyicilere senkron teslimat.
+ * Tek node kurulumlarda varsayılan transport; testlerde birden fazla counter store'u
+ * aynı instance'a bağlayarak cluster simüle edilir.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.cluster.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackVelocityStateTransport implements VelocityStateTransport {
+    
+    private final List<Consumer<VelocityCounterDelta>> listeners = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public String getName() {
+        return "loopback";
+    }
+    
+    @Override
+    public void publish(VelocityCounterDelta delta) {
+        for (Consumer<VelocityCounterDelta> listener : listeners) {
+            listener.accept(delta);
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<VelocityCounterDelta> listener) {
+        listeners.add(listener);
+    }
+}
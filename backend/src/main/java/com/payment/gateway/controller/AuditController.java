@@ -0,0 +1,162 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.AuditExportRequest;
+import com.payment.gateway.dto.AuditExportResponse;
+import com.payment.gateway.dto.AuditSearchRequest;
+import com.payment.gateway.dto.AuditSearchResponse;
+import com.payment.gateway.dto.AuditSummaryResponse;
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.service.AuditExportService;
+import com.payment.gateway.service.AuditRollupService;
+import com.payment.gateway.service.AuditSearchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/audit")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AuditController {
+    
+    private static final String DATA_PARAM_PREFIX = "data.";
+    
+    private final AuditSearchService auditSearchService;
+    private final AuditRollupService auditRollupService;
+    private final AuditExportService auditExportService;
+    
+    /**
+     * Example: /v1/audit/search?complianceTag=KVKK&data.cardBin=411111&from=2026-07-01T00:00:00
+     * Pass nextCursor from the response as cursor to get the next page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<AuditSearchResponse> search(
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) AuditLog.Severity severity,
+            @RequestParam(required = false) String resourceType,
+            @RequestParam(required = false) String resourceId,
+            @RequestParam(required = false) String complianceTag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam Map<String, String> allParams) {
+        
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setEventType(eventType);
+        request.setActor(actor);
+        request.setSeverity(severity);
+        request.setResourceType(resourceType);
+        request.setResourceId(resourceId);
+        request.setComplianceTag(complianceTag);
+        request.setFrom(from);
+        request.setTo(to);
+        request.setCursor(cursor);
+        request.setLimit(limit);
+        allParams.forEach((key, value) -> {
+            if (key.startsWith(DATA_PARAM_PREFIX) && key.length() > DATA_PARAM_PREFIX.length()) {
+                request.getData().put(key.substring(DATA_PARAM_PREFIX.length()), value);
+            }
+        });
+        
+        log.info("Audit search - eventType: {}, actor: {}, complianceTag: {}, data: {}",
+                eventType, actor, complianceTag, request.getData());
+        AuditSearchResponse response = auditSearchService.search(request);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Starts an asynchronous export; poll GET /v1/audit/exports/{exportId} for progress.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<AuditExportResponse> startExport(@Valid @RequestBody AuditExportRequest request) {
+        log.info("Audit export requested by {} - format: {}, from: {}, to: {}", request.getRequestedBy(),
+                request.getFormat(), request.getFilter().getFrom(), request.getFilter().getTo());
+        AuditExportResponse response = auditExportService.startExport(request);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/exports/{exportId}")
+    public ResponseEntity<AuditExportResponse> getExportStatus(@PathVariable String exportId) {
+        AuditExportResponse response = auditExportService.getExportStatus(exportId);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/summary/event-types")
+    public ResponseEntity<AuditSummaryResponse> summaryByEventType(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return toResponse(auditRollupService.summarizeByEventType(startOf(from, end), end));
+    }
+    
+    @GetMapping("/summary/actors")
+    public ResponseEntity<AuditSummaryResponse> summaryByActor(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return toResponse(auditRollupService.summarizeByActor(startOf(from, end), end));
+    }
+    
+    @GetMapping("/summary/severities")
+    public ResponseEntity<AuditSummaryResponse> summaryBySeverity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return toResponse(auditRollupService.summarizeBySeverity(startOf(from, end), end));
+    }
+    
+    @GetMapping("/summary/security")
+    public ResponseEntity<AuditSummaryResponse> securitySummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return toResponse(auditRollupService.summarizeSecurityEvents(startOf(from, end), end));
+    }
+    
+    @GetMapping("/summary/timeline")
+    public ResponseEntity<AuditSummaryResponse> hourlyTimeline(
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return toResponse(auditRollupService.hourlyTimeline(startOf(from, end), end, eventType));
+    }
+    
+    // Summaries default to the last 24 hours
+    private static LocalDateTime startOf(LocalDateTime from, LocalDateTime to) {
+        return from != null ? from : to.minusHours(24);
+    }
+    
+    private static ResponseEntity<AuditSummaryResponse> toResponse(AuditSummaryResponse response) {
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.event.AnalyticsEventSubscriber;
+import com.payment.gateway.event.DomainEventBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/events")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class DomainEventController {
+    
+    private final DomainEventBus domainEventBus;
+    private final AnalyticsEventSubscriber analyticsEventSubscriber;
+    
+    /**
+     * Queue depth, throughput, lag and blocked/dropped publish counts per subscriber.
+     */
+    @GetMapping("/subscribers")
+    public ResponseEntity<Map<String, Object>> getSubscriberStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("subscribers", domainEventBus.getStats());
+        response.put("discardedOnRollback", domainEventBus.getDiscardedOnRollback());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/analytics/{merchantId}")
+    public ResponseEntity<Map<String, Object>> getMerchantAnalytics(@PathVariable String merchantId) {
+        return ResponseEntity.ok(analyticsEventSubscriber.getMerchantMetrics(merchantId));
+    }
+}
@@ -0,0 +1,35 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.EventLogResponse;
+import com.payment.gateway.service.PaymentEventLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/event-log")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class EventLogController {
+    
+    private final PaymentEventLog paymentEventLog;
+    
+    /**
+     * Tailing read: start with fromOffset=0, then pass nextOffset from each response.
+     * An empty batch means the consumer is caught up.
+     */
+    @GetMapping
+    public ResponseEntity<EventLogResponse> read(
+            @RequestParam(defaultValue = "0") long fromOffset,
+            @RequestParam(defaultValue = "500") int maxEvents) {
+        EventLogResponse response = paymentEventLog.read(fromOffset, maxEvents);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+}
@@ -1,9 +1,28 @@
 package com.payment.gateway.controller;
 
+import com.payment.gateway.adapter.impl.HttpVelocityStateTransport;
+import com.payment.gateway.dto.RiskBacktestRequest;
+import com.payment.gateway.dto.RiskBacktestResponse;
+import com.payment.gateway.dto.VelocityCounterDelta;
 import com.payment.gateway.model.RiskAssessment;
+import com.payment.gateway.risk.CompiledRuleSet;
+import com.payment.gateway.risk.ModelDefinition;
+import com.payment.gateway.risk.RiskModelEngine;
+import com.payment.gateway.risk.RiskRuleEngine;
+import com.payment.gateway.risk.RuleSetDefinition;
+import com.payment.gateway.risk.ShadowScoringService;
+import com.payment.gateway.service.BehaviorFeatureStore;
+import com.payment.gateway.service.CardTestingDetector;
+import com.payment.gateway.service.IpVelocityTracker;
 import com.payment.gateway.service.RiskAssessmentService;
+import com.payment.gateway.service.RiskBacktestService;
+import com.payment.gateway.service.VelocityCheckWriter;
+import com.payment.gateway.service.VelocityCounterStore;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,6 +41,16 @@ import java.util.Map;
 public class RiskAssessmentController {
     
     private final RiskAssessmentService riskAssessmentService;
+    private final IpVelocityTracker ipVelocityTracker;
+    private final VelocityCheckWriter velocityCheckWriter;
+    private final VelocityCounterStore velocityCounterStore;
+    private final ObjectProvider<HttpVelocityStateTransport> httpVelocityStateTransport;
+    private final RiskRuleEngine riskRuleEngine;
+    private final ShadowScoringService shadowScoringService;
+    private final RiskBacktestService riskBacktestService;
+    private final RiskModelEngine riskModelEngine;
+    private final BehaviorFeatureStore behaviorFeatureStore;
+    private final CardTestingDetector cardTestingDetector;
     
     /**
      * Payment ID'ye göre risk assessment getir
@@ -94,4 +123,232 @@ public class RiskAssessmentController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    /**
+     * Exact izlenen (heavy hitter) IP'ler, son bir saatteki işlem sayısına göre
+     */
+    @GetMapping("/velocity/ip/top")
+    public ResponseEntity<Map<String, Object>> getTopIpOffenders(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("tracked", ipVelocityTracker.getTrackedCount());
+            response.put("offenders", ipVelocityTracker.getTopOffenders(limit));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error getting top IP offenders: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Velocity check write-behind buffer durumu
+     */
+    @GetMapping("/velocity/write-behind/stats")
+    public ResponseEntity<Map<String, Object>> getVelocityWriterStats() {
+        return ResponseEntity.ok(velocityCheckWriter.getStats());
+    }
+    
+    /**
+     * Velocity counter CRDT durumu (node, bucket sayısı, gönderilen/alınan state)
+     */
+    @GetMapping("/velocity/cluster/stats")
+    public ResponseEntity<Map<String, Object>> getVelocityClusterStats() {
+        return ResponseEntity.ok(velocityCounterStore.getStats());
+    }
+    
+    /**
+     * Diğer gateway node'larından gelen velocity counter state'i (HTTP transport)
+     */
+    @PostMapping("/velocity/cluster/state")
+    public ResponseEntity<Void> receiveVelocityState(
+            @RequestHeader(value = HttpVelocityStateTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody VelocityCounterDelta delta) {
+        HttpVelocityStateTransport transport = httpVelocityStateTransport.getIfAvailable();
+        if (transport == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!transport.isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            transport.receive(delta);
+            return ResponseEntity.accepted().build();
+        } catch (Exception e) {
+            log.error("Error applying velocity state from node {}: {}", delta.getNodeId(), e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Aktif rule set: versiyon ve kural bazında hit sayıları
+     */
+    @GetMapping("/rules")
+    public ResponseEntity<Map<String, Object>> getRules() {
+        return ResponseEntity.ok(riskRuleEngine.describe(riskRuleEngine.getActive()));
+    }
+    
+    /**
+     * Rule set'i yeniden yükle. Body verilirse o tanım, verilmezse app.risk.rules.location kullanılır.
+     * Derlenemeyen rule set reddedilir, mevcut rule set çalışmaya devam eder.
+     */
+    @PostMapping("/rules/reload")
+    public ResponseEntity<Map<String, Object>> reloadRules(@RequestBody(required = false) RuleSetDefinition definition) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            CompiledRuleSet ruleSet = definition != null
+                    ? riskRuleEngine.reload(definition)
+                    : riskRuleEngine.reload();
+            response.put("success", true);
+            response.put("message", "Rule set reloaded");
+            response.put("ruleSet", riskRuleEngine.describe(ruleSet));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error reloading risk rules: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Rule set could not be loaded: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    /**
+     * Shadow rule set'lerin canlı kararlarla karşılaştırması (uyuşmazlık oranı, aksiyon matrisi, latency)
+     */
+    @GetMapping("/shadow/report")
+    public ResponseEntity<Map<String, Object>> getShadowReport() {
+        return ResponseEntity.ok(shadowScoringService.getReport());
+    }
+    
+    /**
+     * Shadow rule set ekle (aynı versiyon varsa değiştirilir)
+     */
+    @PostMapping("/shadow/rule-sets")
+    public ResponseEntity<Map<String, Object>> addShadowRuleSet(@RequestBody RuleSetDefinition definition) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("shadowRuleSets", shadowScoringService.addOrReplace(definition));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @DeleteMapping("/shadow/rule-sets/{version}")
+    public ResponseEntity<Void> removeShadowRuleSet(@PathVariable String version) {
+        return shadowScoringService.remove(version)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Shadow rule set'leri app.risk.shadow.locations'dan yeniden yükle
+     */
+    @PostMapping("/shadow/reload")
+    public ResponseEntity<Map<String, Object>> reloadShadowRuleSets() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("shadowRuleSets", shadowScoringService.reload());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error reloading shadow rule sets: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Shadow rule sets could not be loaded: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    /**
+     * Aday rule set'i geçmiş ödemeler üzerinde çalıştır; ilerleme GET /v1/risk/backtests/{backtestId}
+     */
+    @PostMapping("/backtests")
+    public ResponseEntity<RiskBacktestResponse> startBacktest(@Valid @RequestBody RiskBacktestRequest request) {
+        RiskBacktestResponse response = riskBacktestService.startBacktest(request);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/backtests/{backtestId}")
+    public ResponseEntity<RiskBacktestResponse> getBacktest(@PathVariable String backtestId) {
+        RiskBacktestResponse response = riskBacktestService.getBacktest(backtestId);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/model")
+    public ResponseEntity<Map<String, Object>> getModel() {
+        return ResponseEntity.ok(riskModelEngine.describe());
+    }
+    
+    /**
+     * Risk modelini yeniden yükle. Body verilirse o tanım, verilmezse app.risk.model.location kullanılır.
+     * Derlenemeyen model reddedilir, mevcut model çalışmaya devam eder.
+     */
+    @PostMapping("/model/reload")
+    public ResponseEntity<Map<String, Object>> reloadModel(@RequestBody(required = false) ModelDefinition definition) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (definition != null) {
+                riskModelEngine.reload(definition);
+            } else {
+                riskModelEngine.reload();
+            }
+            response.put("success", true);
+            response.put("message", "Risk model reloaded");
+            response.put("model", riskModelEngine.describe());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error reloading risk model: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Risk model could not be loaded: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    /**
+     * Modeli devre dışı bırak; kararları yalnızca rule set verir
+     */
+    @DeleteMapping("/model")
+    public ResponseEntity<Void> disableModel() {
+        riskModelEngine.disable();
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Davranış feature store'u: profil sayıları ve snapshot bilgisi
+     */
+    @GetMapping("/features/stats")
+    public ResponseEntity<Map<String, Object>> getBehaviorFeatureStats() {
+        return ResponseEntity.ok(behaviorFeatureStore.getStats());
+    }
+    
+    /**
+     * Card testing dedektörü: izlenen BIN/merchant sayıları ve aktif bloklar
+     */
+    @GetMapping("/card-testing")
+    public ResponseEntity<Map<String, Object>> getCardTestingStats() {
+        return ResponseEntity.ok(cardTestingDetector.getStats());
+    }
 }
@@ -2,10 +2,17 @@ package com.payment.gateway.controller;
 
 import com.payment.gateway.dto.WebhookDeliveryRequest;
 import com.payment.gateway.dto.WebhookDeliveryResponse;
+import com.payment.gateway.dto.WebhookReplayRequest;
+import com.payment.gateway.dto.WebhookReplayResponse;
 import com.payment.gateway.dto.WebhookRequest;
 import com.payment.gateway.dto.WebhookResponse;
+import com.payment.gateway.dto.WebhookStatsResponse;
 import com.payment.gateway.model.Webhook;
+import com.payment.gateway.service.MerchantNotificationService;
+import com.payment.gateway.service.WebhookReplayService;
+import com.payment.gateway.service.WebhookRetentionService;
 import com.payment.gateway.service.WebhookService;
+import com.payment.gateway.service.WebhookStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/v1/webhooks")
@@ -23,6 +31,10 @@ import java.util.List;
 public class WebhookController {
     
     private final WebhookService webhookService;
+    private final WebhookReplayService webhookReplayService;
+    private final WebhookStatsService webhookStatsService;
+    private final WebhookRetentionService webhookRetentionService;
+    private final MerchantNotificationService merchantNotificationService;
     
     @PostMapping("/")
     public ResponseEntity<WebhookResponse> createWebhook(@Valid @RequestBody WebhookRequest request) {
@@ -142,6 +154,63 @@ public class WebhookController {
         return ResponseEntity.ok(deliveries);
     }
     
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<WebhookReplayResponse> replayDeadLetters(
+            @PathVariable Long id,
+            @Valid @RequestBody(required = false) WebhookReplayRequest request) {
+        log.info("Replaying dead-lettered events for webhook ID: {}", id);
+        WebhookReplayResponse response = webhookReplayService.startReplay(id, request);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.accepted().body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/{id}/replay")
+    public ResponseEntity<WebhookReplayResponse> getReplayStatus(@PathVariable Long id) {
+        log.info("Retrieving replay status for webhook ID: {}", id);
+        WebhookReplayResponse response = webhookReplayService.getReplayStatus(id);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/webhook-id/{webhookId}/stats")
+    public ResponseEntity<WebhookStatsResponse> getWebhookStats(@PathVariable String webhookId) {
+        log.info("Retrieving delivery stats for webhook: {}", webhookId);
+        WebhookStatsResponse response = webhookStatsService.getStats(webhookId);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<MerchantNotificationService.NotificationStats> getNotificationStats() {
+        return ResponseEntity.ok(merchantNotificationService.getStats());
+    }
+    
+    @GetMapping("/merchant/{merchantId}/stats")
+    public ResponseEntity<List<WebhookStatsResponse>> getMerchantWebhookStats(@PathVariable String merchantId) {
+        log.info("Retrieving webhook delivery stats for merchant: {}", merchantId);
+        return ResponseEntity.ok(webhookStatsService.getStatsByMerchantId(merchantId));
+    }
+    
+    @GetMapping("/deliveries/archive/{deliveryId}")
+    public ResponseEntity<Map<String, Object>> getArchivedDelivery(@PathVariable String deliveryId) {
+        log.info("Looking up archived webhook delivery: {}", deliveryId);
+        return webhookRetentionService.findArchivedDelivery(deliveryId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping("/retries/process")
     public ResponseEntity<Void> processRetries() {
         log.info("Processing webhook retries");
@@ -0,0 +1,28 @@
+package com.payment.gateway.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditExportRequest {
+    
+    @Pattern(regexp = "NDJSON|CSV", message = "Format must be NDJSON or CSV")
+    private String format = "NDJSON";
+    
+    @NotNull(message = "Filter with from/to is required")
+    private AuditSearchRequest filter; // cursor and limit are ignored
+    
+    @Min(value = 1000, message = "Rows per chunk must be at least 1000")
+    @Max(value = 5000000, message = "Rows per chunk cannot exceed 5000000")
+    private Integer rowsPerChunk = 500000;
+    
+    private String requestedBy;
+    private String reason; // e.g. KVKK data subject request, PCI audit
+}
@@ -0,0 +1,36 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditExportResponse {
+    
+    private boolean success;
+    private String message;
+    private String exportId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String format;
+    private Long rowsExported;
+    private List<Chunk> chunks;
+    private String manifestPath;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String error;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chunk {
+        private String file;
+        private Long rows;
+        private Long bytes;
+        private String sha256;
+    }
+}
@@ -0,0 +1,28 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.model.AuditLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchRequest {
+    
+    private String eventType;
+    private String actor;
+    private AuditLog.Severity severity;
+    private String resourceType;
+    private String resourceId;
+    private String complianceTag; // KVKK, GDPR, PCI_DSS, ...
+    private Map<String, String> data = new LinkedHashMap<>(); // additionalData key/value equality
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+}
@@ -0,0 +1,20 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.model.AuditLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchResponse {
+    
+    private boolean success;
+    private String message;
+    private List<AuditLog> events;
+    private int count;
+    private String nextCursor; // null on the last page
+}
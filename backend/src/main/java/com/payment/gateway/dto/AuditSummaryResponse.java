@@ -0,0 +1,22 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSummaryResponse {
+    
+    private boolean success;
+    private String message;
+    private String dimension; // EVENT_TYPE, ACTOR, SEVERITY, SECURITY_EVENT_TYPE, HOUR
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long total;
+    private Map<String, Long> counts; // Ordered by count (or by hour for HOUR)
+}
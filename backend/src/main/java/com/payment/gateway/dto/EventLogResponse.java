@@ -0,0 +1,35 @@
+package com.payment.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventLogResponse {
+    
+    private boolean success;
+    private String message;
+    private Long fromOffset;
+    private Long nextOffset; // Pass as fromOffset on the next call
+    private Long startOffset;
+    private Long endOffset;
+    private Boolean truncated; // fromOffset was already removed by retention
+    private Long missedEvents; // Events not appended whose gap record is not written yet
+    private List<Entry> events;
+    private Integer count;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private long offset;
+        private long nextOffset;
+        private String type;
+        private JsonNode event;
+    }
+}
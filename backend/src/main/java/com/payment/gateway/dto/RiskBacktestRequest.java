@@ -0,0 +1,38 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.risk.RuleSetDefinition;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskBacktestRequest {
+    
+    // Candidate rule set given inline; when null the rule set named by ruleSetKey is loaded
+    private RuleSetDefinition ruleSet;
+    // Key from app.risk.backtest.rule-sets, or "live" (default) for app.risk.rules.location
+    private String ruleSetKey;
+    
+    // Either an explicit range or the last N months
+    private LocalDateTime from;
+    private LocalDateTime to;
+    
+    @Min(value = 1, message = "Months must be at least 1")
+    @Max(value = 24, message = "Months cannot exceed 24")
+    private Integer months = 3;
+    
+    // Card velocity limits to replay; null uses the live app.fraud.velocity.card.* values
+    private Integer cardTransactionsPerMinute;
+    private Integer cardTransactionsPerHour;
+    private Integer cardTransactionsPerDay;
+    private BigDecimal cardAmountPerHour;
+    
+    private String requestedBy;
+}
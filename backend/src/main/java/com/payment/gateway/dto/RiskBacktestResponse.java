@@ -0,0 +1,51 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskBacktestResponse {
+    
+    private boolean success;
+    private String message;
+    private String backtestId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String ruleSetVersion;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long rowsScanned; // includes the velocity warm-up day before 'from'
+    private Long paymentsScored;
+    private ConfusionMatrix candidate;
+    private ConfusionMatrix live; // actions stored in risk_assessments for the same payments
+    private Map<String, Long> ruleHits;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String error;
+    
+    /**
+     * Positive = DECLINE, fraud = payment has a fraud/unauthorized dispute the merchant did not win
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConfusionMatrix {
+        private long truePositives;
+        private long falsePositives;
+        private long falseNegatives;
+        private long trueNegatives;
+        private Double declineRate;
+        private Double fraudCatchRate; // recall
+        private Double fraudCatchRateWithReview; // DECLINE or REVIEW
+        private Double precision;
+        private BigDecimal fraudAmount;
+        private BigDecimal fraudAmountCaught;
+        private Map<String, Map<String, Long>> actionsByLabel; // action -> FRAUD/LEGITIMATE -> count
+    }
+}
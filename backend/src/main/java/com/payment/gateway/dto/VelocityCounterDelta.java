@@ -0,0 +1,34 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Velocity counter state exchanged between gateway nodes.
+ * Delta messages carry only the sender's own counts for buckets changed since the last exchange;
+ * full-state messages carry every node's counts for all live buckets (anti-entropy for new or lagging nodes).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocityCounterDelta {
+    
+    private String nodeId;
+    private boolean fullState;
+    private List<Entry> entries;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String scope;
+        private String identifier;
+        private String window;
+        private long epoch;
+        private Map<String, Long> counts; // nodeId -> count
+    }
+}
@@ -28,5 +28,8 @@ public class WebhookDeliveryResponse {
     private LocalDateTime receivedAt;
     private Integer responseTimeMs;
     private String headers;
+    private String batchId;
+    private boolean compacted; // Payload moved to webhook_payloads, headers dropped, response body truncated
+    private LocalDateTime compactedAt;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,21 @@
+package com.payment.gateway.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookReplayRequest {
+    
+    @Min(value = 1, message = "Max events must be at least 1")
+    private Integer maxEvents; // null = replay the whole dead-letter backlog
+    
+    @DecimalMin(value = "0.1", message = "Rate must be at least 0.1 events per second")
+    @DecimalMax(value = "100.0", message = "Rate cannot exceed 100 events per second")
+    private Double ratePerSecond; // null = app.webhook.replay.default-rate-per-second
+}
@@ -0,0 +1,25 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookReplayResponse {
+    
+    private boolean success;
+    private String message;
+    private String replayId;
+    private String webhookId;
+    private String status; // RUNNING, COMPLETED, STOPPED, FAILED
+    private Long pendingEvents;
+    private Long replayedEvents;
+    private Long failedEvents;
+    private Double ratePerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
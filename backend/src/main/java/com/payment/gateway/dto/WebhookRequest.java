@@ -42,4 +42,14 @@ public class WebhookRequest {
     
     @NotNull(message = "Active status is required")
     private Boolean isActive = true;
+    
+    private Boolean batchEnabled = false;
+    
+    @Min(value = 2, message = "Batch size must be at least 2")
+    @Max(value = 500, message = "Batch size cannot exceed 500")
+    private Integer batchMaxEvents = 50;
+    
+    @Min(value = 100, message = "Batch wait must be at least 100 ms")
+    @Max(value = 60000, message = "Batch wait cannot exceed 60000 ms")
+    private Integer batchMaxWaitMs = 1000;
 }
\ No newline at end of file
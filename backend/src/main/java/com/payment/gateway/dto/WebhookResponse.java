@@ -29,6 +29,9 @@ public class WebhookResponse {
     private Integer lastResponseCode;
     private String description;
     private Boolean isActive;
+    private Boolean batchEnabled;
+    private Integer batchMaxEvents;
+    private Integer batchMaxWaitMs;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.payment.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookStatsResponse {
+    
+    private boolean success;
+    private String message;
+    private String webhookId;
+    private String merchantId;
+    
+    // Since the stats were first recorded; counts are HTTP attempts, items are events
+    private Long successCount;
+    private Long failureCount;
+    private Long deliveredItemCount;
+    private Long failedItemCount;
+    
+    // Rolling window (app.webhook.stats.window-minutes)
+    private Integer windowMinutes;
+    private Long windowSuccessCount;
+    private Long windowFailureCount;
+    private Double windowSuccessRate;
+    private Double avgResponseTimeMs;
+    private Integer p50ResponseTimeMs;
+    private Integer p95ResponseTimeMs;
+    private Integer p99ResponseTimeMs;
+    
+    private String lastError;
+    private LocalDateTime lastErrorAt;
+    private LocalDateTime lastSuccessAt;
+    private boolean healthy;
+}
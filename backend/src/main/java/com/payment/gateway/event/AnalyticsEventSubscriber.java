@@ -0,0 +1,88 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-merchant counters fed by domain events, so dashboards do not have to count rows.
+ * Counters start from zero on every restart.
+ */
+@Component
+@Slf4j
+public class AnalyticsEventSubscriber implements DomainEventSubscriber {
+
+    private final Map<String, MerchantCounters> merchants = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "analytics";
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        if (event.getMerchantId() == null) {
+            return;
+        }
+        MerchantCounters counters = merchants.computeIfAbsent(event.getMerchantId(), id -> new MerchantCounters());
+
+        if (event instanceof PaymentCreated) {
+            counters.paymentsCreated.increment();
+        } else if (event instanceof PaymentStatusChanged changed) {
+            if (changed.getNewStatus() == Payment.PaymentStatus.COMPLETED) {
+                counters.paymentsCompleted.increment();
+                counters.addVolume(counters.completedVolume, changed.getCurrency(), changed.getAmount());
+            } else if (changed.getNewStatus() == Payment.PaymentStatus.FAILED) {
+                counters.paymentsFailed.increment();
+            }
+        } else if (event instanceof RefundCompleted refund) {
+            counters.refundsCompleted.increment();
+            counters.addVolume(counters.refundedVolume, refund.getCurrency(), refund.getAmount());
+        } else if (event instanceof DisputeOpened) {
+            counters.disputesOpened.increment();
+        }
+    }
+
+    public Map<String, Object> getMerchantMetrics(String merchantId) {
+        MerchantCounters counters = merchants.get(merchantId);
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("merchantId", merchantId);
+        if (counters == null) {
+            return metrics;
+        }
+
+        long completed = counters.paymentsCompleted.sum();
+        long failed = counters.paymentsFailed.sum();
+        metrics.put("paymentsCreated", counters.paymentsCreated.sum());
+        metrics.put("paymentsCompleted", completed);
+        metrics.put("paymentsFailed", failed);
+        metrics.put("successRate", completed + failed > 0 ? completed / (double) (completed + failed) : null);
+        metrics.put("completedVolume", new LinkedHashMap<>(counters.completedVolume));
+        metrics.put("refundsCompleted", counters.refundsCompleted.sum());
+        metrics.put("refundedVolume", new LinkedHashMap<>(counters.refundedVolume));
+        metrics.put("disputesOpened", counters.disputesOpened.sum());
+        return metrics;
+    }
+
+    private static final class MerchantCounters {
+        final LongAdder paymentsCreated = new LongAdder();
+        final LongAdder paymentsCompleted = new LongAdder();
+        final LongAdder paymentsFailed = new LongAdder();
+        final LongAdder refundsCompleted = new LongAdder();
+        final LongAdder disputesOpened = new LongAdder();
+        final Map<String, BigDecimal> completedVolume = new ConcurrentHashMap<>();
+        final Map<String, BigDecimal> refundedVolume = new ConcurrentHashMap<>();
+
+        void addVolume(Map<String, BigDecimal> volume, String currency, BigDecimal amount) {
+            if (currency != null && amount != null) {
+                volume.merge(currency, amount, BigDecimal::add);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.payment.gateway.event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the audit record of a state change says beyond the event's own fields: the audit
+ * event type and action of the call site, extra data, compliance tags and a snapshot of the
+ * entity taken at publish time. Read by {@link AuditEventSubscriber}; kept out of the event
+ * log and webhook payloads by the events that carry it.
+ */
+public record AuditDetails(String eventType,
+                           String action,
+                           Object newValues,
+                           Map<String, Object> data,
+                           List<String> complianceTags) {
+
+    public static AuditDetails of(String eventType, String action, String... complianceTags) {
+        return new AuditDetails(eventType, action, null, Collections.emptyMap(), List.of(complianceTags));
+    }
+
+    public AuditDetails with(String key, Object value) {
+        Map<String, Object> copy = new LinkedHashMap<>(data);
+        copy.put(key, value);
+        return new AuditDetails(eventType, action, newValues, Collections.unmodifiableMap(copy), complianceTags);
+    }
+
+    /**
+     * Entity state for the audit record; pass a snapshot (e.g. ObjectMapper#valueToTree), not the live entity.
+     */
+    public AuditDetails withNewValues(Object snapshot) {
+        return new AuditDetails(eventType, action, snapshot, data, complianceTags);
+    }
+}
@@ -0,0 +1,130 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the audit records for committed state changes, off the request thread.
+ *
+ * When the bus queue is full the record is written to the local audit spool on the publishing
+ * thread instead of being dropped; the spool replayer moves it into audit_logs.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEventSubscriber implements DomainEventSubscriber {
+
+    private final AuditService auditService;
+
+    @Override
+    public String getName() {
+        return "audit";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        // Payment initiation and dispute/refund status steps are audited inline with their request context
+        return event instanceof PaymentStatusChanged
+                || event instanceof RefundCreated
+                || event instanceof RefundCompleted
+                || event instanceof DisputeOpened;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        AuditService.AuditEventBuilder builder = toAuditEvent(event);
+        if (builder != null) {
+            builder.log();
+        }
+    }
+
+    @Override
+    public boolean onOverflow(DomainEvent event) {
+        AuditService.AuditEventBuilder builder = toAuditEvent(event);
+        if (builder != null) {
+            builder.spool();
+        }
+        return true;
+    }
+
+    private AuditService.AuditEventBuilder toAuditEvent(DomainEvent event) {
+        if (event instanceof PaymentStatusChanged changed) {
+            AuditDetails audit = changed.getAudit();
+            return apply(auditService.createEvent()
+                .eventType(audit != null ? audit.eventType() : "PAYMENT")
+                .severity(AuditLog.Severity.MEDIUM)
+                .action(audit != null ? audit.action() : "STATUS_UPDATE")
+                .actor(changed.getChangedBy())
+                .resourceType("Payment")
+                .resourceId(changed.getPaymentId())
+                .additionalData("transactionId", changed.getTransactionId())
+                .additionalData("oldStatus", changed.getPreviousStatus() != null ? changed.getPreviousStatus().name() : null)
+                .additionalData("newStatus", changed.getNewStatus().name())
+                .additionalData("amount", changed.getAmount())
+                .additionalData("currency", changed.getCurrency())
+                .additionalData("gatewayResponse", changed.getGatewayResponse())
+                .additionalData("eventId", changed.getEventId()), audit, "PCI_DSS", "KVKK");
+        }
+        if (event instanceof RefundCreated refund) {
+            return apply(auditService.createEvent()
+                .eventType("REFUND_CREATED")
+                .severity(AuditLog.Severity.MEDIUM)
+                .actor("system")
+                .action("CREATE")
+                .resourceType("REFUND")
+                .resourceId(refund.getRefundId())
+                .additionalData("paymentId", refund.getPaymentId())
+                .additionalData("merchantId", refund.getMerchantId())
+                .additionalData("amount", refund.getAmount().toString())
+                .additionalData("status", refund.getStatus().name())
+                .additionalData("eventId", refund.getEventId()), refund.getAudit(), "PCI_DSS");
+        }
+        if (event instanceof RefundCompleted refund) {
+            return apply(auditService.createEvent()
+                .eventType("REFUND_COMPLETED")
+                .severity(AuditLog.Severity.MEDIUM)
+                .actor(refund.getCompletedBy())
+                .action("UPDATE")
+                .resourceType("REFUND")
+                .resourceId(refund.getRefundId())
+                .additionalData("paymentId", refund.getPaymentId())
+                .additionalData("amount", refund.getAmount().toString())
+                .additionalData("gatewayResponse", refund.getGatewayResponse())
+                .additionalData("eventId", refund.getEventId()), refund.getAudit(), "PCI_DSS");
+        }
+        if (event instanceof DisputeOpened dispute) {
+            boolean bankInitiated = dispute.getBankDisputeId() != null;
+            return apply(auditService.createEvent()
+                .eventType(bankInitiated ? "BANK_DISPUTE_INITIATED" : "DISPUTE_CREATED")
+                .severity(bankInitiated ? AuditLog.Severity.HIGH : AuditLog.Severity.MEDIUM)
+                .actor(dispute.getOpenedBy())
+                .action("CREATE")
+                .resourceType("DISPUTE")
+                .resourceId(dispute.getDisputeId())
+                .additionalData("paymentId", dispute.getPaymentId())
+                .additionalData("merchantId", dispute.getMerchantId())
+                .additionalData("bankDisputeId", dispute.getBankDisputeId())
+                .additionalData("bankName", dispute.getBankName())
+                .additionalData("deadline", dispute.getResponseDeadline())
+                .additionalData("eventId", dispute.getEventId()), dispute.getAudit(), "PCI_DSS", "CHARGEBACK");
+        }
+        return null;
+    }
+
+    /**
+     * Adds the call site's data, snapshot and tags; without details the default tags apply.
+     */
+    private AuditService.AuditEventBuilder apply(AuditService.AuditEventBuilder builder, AuditDetails audit,
+                                                 String... defaultTags) {
+        if (audit == null) {
+            for (String tag : defaultTags) {
+                builder.complianceTag(tag);
+            }
+            return builder;
+        }
+        audit.data().forEach(builder::additionalData);
+        audit.complianceTags().forEach(builder::complianceTag);
+        return builder.newValues(audit.newValues());
+    }
+}
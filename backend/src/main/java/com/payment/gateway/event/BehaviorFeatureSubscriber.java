@@ -0,0 +1,37 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.service.BehaviorFeatureStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+/**
+ * Adds every created payment to the customer, card and device behaviour profiles.
+ * Runs after commit, so the payment's own assessment has already read the previous history.
+ */
+@Component
+@RequiredArgsConstructor
+public class BehaviorFeatureSubscriber implements DomainEventSubscriber {
+
+    private final BehaviorFeatureStore behaviorFeatureStore;
+
+    @Override
+    public String getName() {
+        return "behavior-features";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof PaymentCreated;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        PaymentCreated created = (PaymentCreated) event;
+        behaviorFeatureStore.record(created.getCustomerId(), created.getCardFingerprint(),
+                created.getDeviceFingerprint(), created.getMerchantId(),
+                created.getAmount() != null ? created.getAmount().doubleValue() : 0,
+                created.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
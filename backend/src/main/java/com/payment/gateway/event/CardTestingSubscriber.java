@@ -0,0 +1,49 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.Payment;
+import com.payment.gateway.service.CardTestingDetector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+/**
+ * Feeds payment attempts and issuer declines into the card-testing detector.
+ * Declines by the fraud engine are skipped, otherwise a block would keep itself alive.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardTestingSubscriber implements DomainEventSubscriber {
+
+    private static final String FRAUD_SYSTEM = "fraud-system";
+
+    private final CardTestingDetector cardTestingDetector;
+
+    @Override
+    public String getName() {
+        return "card-testing";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        if (event instanceof PaymentCreated) {
+            return true;
+        }
+        return event instanceof PaymentStatusChanged changed
+                && changed.getNewStatus() == Payment.PaymentStatus.FAILED
+                && changed.getPreviousStatus() != Payment.PaymentStatus.FAILED
+                && !FRAUD_SYSTEM.equals(changed.getChangedBy());
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        long occurredAtMs = event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (event instanceof PaymentCreated created) {
+            cardTestingDetector.recordAttempt(created.getCardBin(), created.getMerchantId(),
+                    created.getCardFingerprint(), created.getAmount(), occurredAtMs);
+        } else {
+            PaymentStatusChanged changed = (PaymentStatusChanged) event;
+            cardTestingDetector.recordDecline(changed.getCardBin(), changed.getMerchantId(), occurredAtMs);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.payment.gateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payment.gateway.model.Dispute;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+public class DisputeOpened extends DomainEvent {
+
+    private final String disputeId;
+    private final String paymentId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Dispute.DisputeStatus status;
+    private final Dispute.DisputeReason reason;
+    private final String bankDisputeId;
+    private final String bankName;
+    private final LocalDateTime responseDeadline;
+    private final String openedBy;
+    @JsonIgnore
+    private final AuditDetails audit;
+
+    public DisputeOpened(Dispute dispute, String openedBy) {
+        this(dispute, openedBy, null);
+    }
+
+    public DisputeOpened(Dispute dispute, String openedBy, AuditDetails audit) {
+        super(dispute.getMerchantId());
+        this.disputeId = dispute.getDisputeId();
+        this.paymentId = dispute.getPaymentId();
+        this.amount = dispute.getAmount();
+        this.currency = dispute.getCurrency();
+        this.status = dispute.getStatus();
+        this.reason = dispute.getReason();
+        this.bankDisputeId = dispute.getBankDisputeId();
+        this.bankName = dispute.getBankName();
+        this.responseDeadline = dispute.getMerchantResponseDeadline();
+        this.openedBy = openedBy;
+        this.audit = audit;
+    }
+
+    @Override
+    public String getType() {
+        return "DISPUTE_OPENED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return disputeId;
+    }
+}
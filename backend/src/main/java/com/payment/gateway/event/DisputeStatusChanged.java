@@ -0,0 +1,39 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.Dispute;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class DisputeStatusChanged extends DomainEvent {
+
+    private final String disputeId;
+    private final String paymentId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Dispute.DisputeStatus previousStatus;
+    private final Dispute.DisputeStatus newStatus;
+    private final String changedBy;
+
+    public DisputeStatusChanged(Dispute dispute, Dispute.DisputeStatus previousStatus, String changedBy) {
+        super(dispute.getMerchantId());
+        this.disputeId = dispute.getDisputeId();
+        this.paymentId = dispute.getPaymentId();
+        this.amount = dispute.getAmount();
+        this.currency = dispute.getCurrency();
+        this.previousStatus = previousStatus;
+        this.newStatus = dispute.getStatus();
+        this.changedBy = changedBy;
+    }
+
+    @Override
+    public String getType() {
+        return "DISPUTE_STATUS_CHANGED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return disputeId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.payment.gateway.event;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Base class for in-process domain events published through {@link DomainEventBus}.
+ * Events are immutable snapshots; subscribers must not load or change entities through them.
+ */
+@Getter
+public abstract class DomainEvent {
+
+    private final String eventId = "EVT-" + UUID.randomUUID().toString().toUpperCase();
+    private final LocalDateTime occurredAt = LocalDateTime.now();
+    private final String merchantId;
+
+    protected DomainEvent(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    /**
+     * Event name, e.g. PAYMENT_CREATED.
+     */
+    public abstract String getType();
+
+    /**
+     * ID of the payment, refund or dispute the event belongs to.
+     */
+    public abstract String getEntityId();
+}
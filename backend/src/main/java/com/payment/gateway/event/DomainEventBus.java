@@ -0,0 +1,227 @@
+package com.payment.gateway.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process domain event bus.
+ *
+ * Events published inside a transaction are held until it commits and dropped on rollback;
+ * outside a transaction they are dispatched right away. Every subscriber has a single worker
+ * thread with a bounded queue, and only that thread runs the subscriber, so per-subscriber order
+ * holds. Publishing never waits for a queue: when one is full the event goes to the
+ * subscriber's overflow fallback on the publishing thread, and is dropped and counted only if
+ * the subscriber has none.
+ */
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    @Value("${app.events.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.events.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final List<DomainEventSubscriber> subscribers;
+    private final List<Channel> channels = new ArrayList<>();
+    private final LongAdder discardedOnRollback = new LongAdder();
+
+    public DomainEventBus(List<DomainEventSubscriber> subscribers) {
+        this.subscribers = subscribers;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (DomainEventSubscriber subscriber : subscribers) {
+            channels.add(new Channel(subscriber));
+        }
+        log.info("Domain event bus started with subscribers: {}",
+                subscribers.stream().map(DomainEventSubscriber::getName).toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        channels.forEach(channel -> channel.executor.shutdown());
+        for (Channel channel : channels) {
+            try {
+                if (!channel.executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    log.warn("Subscriber {} did not drain in time, {} events left",
+                            channel.subscriber.getName(), channel.executor.getQueue().size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Publishes an event after the current transaction commits, or immediately if there is none.
+     */
+    public void publish(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(event);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    discardedOnRollback.increment();
+                    log.debug("Discarded {} {} after rollback", event.getType(), event.getEntityId());
+                }
+            }
+        });
+    }
+
+    public List<SubscriberStats> getStats() {
+        List<SubscriberStats> stats = new ArrayList<>();
+        for (Channel channel : channels) {
+            long processed = channel.processed.sum();
+            stats.add(new SubscriberStats(
+                    channel.subscriber.getName(),
+                    channel.published.sum(),
+                    processed,
+                    channel.failed.sum(),
+                    channel.overflowed.sum(),
+                    channel.dropped.sum(),
+                    channel.executor.getQueue().size(),
+                    queueCapacity,
+                    processed > 0 ? channel.totalLagMs.sum() / (double) processed : 0,
+                    channel.maxLagMs.get(),
+                    processed > 0 ? channel.totalHandleMs.sum() / (double) processed : 0));
+        }
+        return stats;
+    }
+
+    public long getDiscardedOnRollback() {
+        return discardedOnRollback.sum();
+    }
+
+    private void dispatch(DomainEvent event) {
+        for (Channel channel : channels) {
+            try {
+                if (channel.subscriber.supports(event)) {
+                    channel.submit(event);
+                }
+            } catch (Exception e) {
+                log.error("Error dispatching {} to {}: {}", event.getType(), channel.subscriber.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private final class Channel {
+        final DomainEventSubscriber subscriber;
+        final ThreadPoolExecutor executor;
+        final LongAdder published = new LongAdder();
+        final LongAdder processed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder overflowed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder totalLagMs = new LongAdder();
+        final LongAdder totalHandleMs = new LongAdder();
+        final AtomicLong maxLagMs = new AtomicLong();
+
+        Channel(DomainEventSubscriber subscriber) {
+            this.subscriber = subscriber;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "events-" + subscriber.getName());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.executor.prestartAllCoreThreads();
+        }
+
+        void submit(DomainEvent event) {
+            published.increment();
+            long publishedAtMs = System.currentTimeMillis();
+            try {
+                executor.execute(() -> handle(event, publishedAtMs));
+            } catch (RejectedExecutionException e) {
+                overflow(event);
+            }
+        }
+
+        /**
+         * Never runs the handler here: it would overtake events still queued for the worker.
+         */
+        private void overflow(DomainEvent event) {
+            if (executor.isShutdown()) {
+                dropped.increment();
+                log.warn("Subscriber {} is shut down, dropping {} {}", subscriber.getName(),
+                        event.getType(), event.getEntityId());
+                return;
+            }
+            try {
+                if (subscriber.onOverflow(event)) {
+                    overflowed.increment();
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("Overflow fallback of subscriber {} failed on {} {}: {}", subscriber.getName(),
+                        event.getType(), event.getEntityId(), e.getMessage(), e);
+            }
+            dropped.increment();
+            log.error("Subscriber {} queue is full, dropping {} {}", subscriber.getName(),
+                    event.getType(), event.getEntityId());
+        }
+
+        private void handle(DomainEvent event, long publishedAtMs) {
+            long startMs = System.currentTimeMillis();
+            long lagMs = startMs - publishedAtMs;
+            totalLagMs.add(lagMs);
+            maxLagMs.accumulateAndGet(lagMs, Math::max);
+
+            try {
+                subscriber.handle(event);
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Subscriber {} failed on {} {}: {}", subscriber.getName(),
+                        event.getType(), event.getEntityId(), e.getMessage(), e);
+            } finally {
+                totalHandleMs.add(System.currentTimeMillis() - startMs);
+                processed.increment();
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SubscriberStats {
+        private String subscriber;
+        private long published;
+        private long processed;
+        private long failed;
+        private long overflowed;
+        private long dropped;
+        private int queueDepth;
+        private int queueCapacity;
+        private double avgLagMs;
+        private long maxLagMs;
+        private double avgHandleMs;
+    }
+}
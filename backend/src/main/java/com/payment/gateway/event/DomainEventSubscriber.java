@@ -0,0 +1,28 @@
+package com.payment.gateway.event;
+
+/**
+ * Consumer of domain events. Every subscriber bean gets its own single-threaded queue in
+ * {@link DomainEventBus}, so events reach it in publish order and a slow subscriber
+ * does not hold up the others.
+ */
+public interface DomainEventSubscriber {
+
+    /**
+     * Short name used for the worker thread and in the bus metrics.
+     */
+    String getName();
+
+    default boolean supports(DomainEvent event) {
+        return true;
+    }
+
+    void handle(DomainEvent event);
+
+    /**
+     * Called on the publishing thread when this subscriber's queue is full. Must not block for
+     * long; returns true if the event was kept some other way, false to let the bus drop it.
+     */
+    default boolean onOverflow(DomainEvent event) {
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.service.PaymentEventLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Appends every committed event to the payment event log. The single subscriber thread
+ * keeps log order equal to publish order.
+ *
+ * A failed append is retried a few times with backoff. An event that still cannot be written,
+ * or that does not fit in the bus queue, is recorded as missed and shows up in the log as a gap
+ * record, so a disk fault neither stalls the worker nor backs up into publishers. After a give-up
+ * each event gets a single attempt until an append succeeds again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventLogSubscriber implements DomainEventSubscriber {
+
+    private final PaymentEventLog paymentEventLog;
+
+    @Value("${app.event-log.append-retry-initial-backoff-ms:100}")
+    private long initialBackoffMs;
+
+    @Value("${app.event-log.append-retry-max-backoff-ms:1000}")
+    private long maxBackoffMs;
+
+    @Value("${app.event-log.append-max-attempts:5}")
+    private int maxAttempts;
+
+    // Only touched by the subscriber thread
+    private boolean degraded;
+
+    @Override
+    public String getName() {
+        return "event-log";
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        int attempts = degraded ? 1 : maxAttempts;
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                paymentEventLog.append(event);
+                if (degraded || attempt > 1) {
+                    log.info("Event log append for {} succeeded after {} attempts", event.getEventId(), attempt);
+                }
+                degraded = false;
+                return;
+            } catch (IOException e) {
+                if (attempt >= attempts) {
+                    degraded = true;
+                    paymentEventLog.recordGap(event);
+                    log.error("Event log append failed for {} after {} attempts, recorded as a gap: {}",
+                            event.getEventId(), attempt, e.getMessage());
+                    return;
+                }
+                log.warn("Event log append failed for {} (attempt {}), retrying in {} ms: {}",
+                        event.getEventId(), attempt, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    paymentEventLog.recordGap(event);
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    @Override
+    public boolean onOverflow(DomainEvent event) {
+        paymentEventLog.recordGap(event);
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.payment.gateway.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merchant notifications (e-mail / panel) for events that need a human response.
+ */
+@Component
+@Slf4j
+public class NotificationEventSubscriber implements DomainEventSubscriber {
+
+    @Override
+    public String getName() {
+        return "notification";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof DisputeOpened;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        if (event instanceof DisputeOpened dispute) {
+            // Simulated: the real channel would e-mail the merchant's dispute contact
+            log.info("📧 Notifying merchant {} about dispute {} for payment {} - response deadline: {}",
+                    dispute.getMerchantId(), dispute.getDisputeId(), dispute.getPaymentId(),
+                    dispute.getResponseDeadline());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.payment.gateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payment.gateway.model.Payment;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class PaymentCreated extends DomainEvent {
+
+    private final String paymentId;
+    private final String transactionId;
+    private final String customerId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Payment.PaymentMethod paymentMethod;
+    private final String cardBin;
+    @JsonIgnore // internal lookup keys, kept out of the event log and webhook payloads
+    private final String cardFingerprint;
+    @JsonIgnore
+    private final String deviceFingerprint;
+
+    public PaymentCreated(Payment payment, String deviceFingerprint) {
+        super(payment.getMerchantId());
+        this.paymentId = payment.getPaymentId();
+        this.transactionId = payment.getTransactionId();
+        this.customerId = payment.getCustomerId();
+        this.amount = payment.getAmount();
+        this.currency = payment.getCurrency();
+        this.paymentMethod = payment.getPaymentMethod();
+        this.cardBin = payment.getCardBin();
+        this.cardFingerprint = payment.getCardFingerprint();
+        this.deviceFingerprint = deviceFingerprint;
+    }
+
+    @Override
+    public String getType() {
+        return "PAYMENT_CREATED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return paymentId;
+    }
+}
@@ -0,0 +1,57 @@
+package com.payment.gateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payment.gateway.model.Payment;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class PaymentStatusChanged extends DomainEvent {
+
+    private final String paymentId;
+    private final String transactionId;
+    private final String customerId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Payment.PaymentStatus previousStatus;
+    private final Payment.PaymentStatus newStatus;
+    private final String gatewayResponse;
+    private final String changedBy;
+    @JsonIgnore // internal lookup key, kept out of the event log and webhook payloads
+    private final String cardFingerprint;
+    @JsonIgnore
+    private final String cardBin;
+    @JsonIgnore
+    private final AuditDetails audit;
+
+    public PaymentStatusChanged(Payment payment, Payment.PaymentStatus previousStatus, String changedBy) {
+        this(payment, previousStatus, changedBy, null);
+    }
+
+    public PaymentStatusChanged(Payment payment, Payment.PaymentStatus previousStatus, String changedBy, AuditDetails audit) {
+        super(payment.getMerchantId());
+        this.paymentId = payment.getPaymentId();
+        this.transactionId = payment.getTransactionId();
+        this.customerId = payment.getCustomerId();
+        this.amount = payment.getAmount();
+        this.currency = payment.getCurrency();
+        this.previousStatus = previousStatus;
+        this.newStatus = payment.getStatus();
+        this.gatewayResponse = payment.getGatewayResponse();
+        this.changedBy = changedBy;
+        this.cardFingerprint = payment.getCardFingerprint();
+        this.cardBin = payment.getCardBin();
+        this.audit = audit;
+    }
+
+    @Override
+    public String getType() {
+        return "PAYMENT_STATUS_CHANGED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return paymentId;
+    }
+}
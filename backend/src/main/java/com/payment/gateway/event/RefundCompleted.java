@@ -0,0 +1,45 @@
+package com.payment.gateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payment.gateway.model.Refund;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class RefundCompleted extends DomainEvent {
+
+    private final String refundId;
+    private final String paymentId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final String gatewayResponse;
+    private final String completedBy;
+    @JsonIgnore
+    private final AuditDetails audit;
+
+    public RefundCompleted(Refund refund, String completedBy) {
+        this(refund, completedBy, null);
+    }
+
+    public RefundCompleted(Refund refund, String completedBy, AuditDetails audit) {
+        super(refund.getMerchantId());
+        this.refundId = refund.getRefundId();
+        this.paymentId = refund.getPaymentId();
+        this.amount = refund.getAmount();
+        this.currency = refund.getCurrency();
+        this.gatewayResponse = refund.getGatewayResponse();
+        this.completedBy = completedBy;
+        this.audit = audit;
+    }
+
+    @Override
+    public String getType() {
+        return "REFUND_COMPLETED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return refundId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.payment.gateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payment.gateway.model.Refund;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class RefundCreated extends DomainEvent {
+
+    private final String refundId;
+    private final String paymentId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Refund.RefundStatus status;
+    private final Refund.RefundReason reason;
+    @JsonIgnore
+    private final AuditDetails audit;
+
+    public RefundCreated(Refund refund) {
+        this(refund, null);
+    }
+
+    public RefundCreated(Refund refund, AuditDetails audit) {
+        super(refund.getMerchantId());
+        this.refundId = refund.getRefundId();
+        this.paymentId = refund.getPaymentId();
+        this.amount = refund.getAmount();
+        this.currency = refund.getCurrency();
+        this.status = refund.getStatus();
+        this.reason = refund.getReason();
+        this.audit = audit;
+    }
+
+    @Override
+    public String getType() {
+        return "REFUND_CREATED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return refundId;
+    }
+}
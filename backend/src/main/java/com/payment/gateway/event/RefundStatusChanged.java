@@ -0,0 +1,42 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.Refund;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Refund status changes other than completion, which has its own {@link RefundCompleted} event.
+ */
+@Getter
+public class RefundStatusChanged extends DomainEvent {
+
+    private final String refundId;
+    private final String paymentId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Refund.RefundStatus previousStatus;
+    private final Refund.RefundStatus newStatus;
+    private final String changedBy;
+
+    public RefundStatusChanged(Refund refund, Refund.RefundStatus previousStatus, String changedBy) {
+        super(refund.getMerchantId());
+        this.refundId = refund.getRefundId();
+        this.paymentId = refund.getPaymentId();
+        this.amount = refund.getAmount();
+        this.currency = refund.getCurrency();
+        this.previousStatus = previousStatus;
+        this.newStatus = refund.getStatus();
+        this.changedBy = changedBy;
+    }
+
+    @Override
+    public String getType() {
+        return "REFUND_STATUS_CHANGED";
+    }
+
+    @Override
+    public String getEntityId() {
+        return refundId;
+    }
+}
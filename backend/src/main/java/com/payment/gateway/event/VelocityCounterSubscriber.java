@@ -0,0 +1,42 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.model.Payment;
+import com.payment.gateway.service.VelocityCounterStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds completed payment amounts to the card amount velocity counters.
+ * Transaction counts are added synchronously by VelocityCheckService when the payment is evaluated.
+ */
+@Component
+@RequiredArgsConstructor
+public class VelocityCounterSubscriber implements DomainEventSubscriber {
+
+    public static final String CARD_AMOUNT_SCOPE = "card-amount";
+
+    private final VelocityCounterStore velocityCounterStore;
+
+    @Override
+    public String getName() {
+        return "velocity-counters";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof PaymentStatusChanged changed
+                && changed.getNewStatus() == Payment.PaymentStatus.COMPLETED
+                && changed.getPreviousStatus() != Payment.PaymentStatus.COMPLETED
+                && changed.getCardFingerprint() != null
+                && changed.getAmount() != null;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        PaymentStatusChanged changed = (PaymentStatusChanged) event;
+        // G-counters hold whole numbers: amounts are counted in minor units
+        long minorUnits = changed.getAmount().movePointRight(2).longValue();
+        velocityCounterStore.add(CARD_AMOUNT_SCOPE, changed.getCardFingerprint(), minorUnits,
+                VelocityCounterStore.Window.HOUR, VelocityCounterStore.Window.DAY);
+    }
+}
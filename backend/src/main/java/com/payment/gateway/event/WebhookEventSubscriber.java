@@ -0,0 +1,68 @@
+package com.payment.gateway.event;
+
+import com.payment.gateway.dto.WebhookDeliveryRequest;
+import com.payment.gateway.model.Webhook;
+import com.payment.gateway.service.WebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns domain events into merchant webhook deliveries.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebhookEventSubscriber implements DomainEventSubscriber {
+
+    private final WebhookService webhookService;
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return toWebhookEventType(event) != null;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        Webhook.EventType eventType = toWebhookEventType(event);
+        if (eventType == null) {
+            return;
+        }
+
+        WebhookDeliveryRequest request = new WebhookDeliveryRequest();
+        request.setMerchantId(event.getMerchantId());
+        request.setEventType(eventType.name());
+        request.setEventData(event);
+        request.setEntityId(event.getEntityId());
+        request.setDescription(event.getType() + " " + event.getEventId());
+        webhookService.triggerWebhookDelivery(request);
+    }
+
+    private Webhook.EventType toWebhookEventType(DomainEvent event) {
+        if (event instanceof PaymentCreated) {
+            return Webhook.EventType.PAYMENT_CREATED;
+        }
+        if (event instanceof PaymentStatusChanged changed) {
+            return switch (changed.getNewStatus()) {
+                case COMPLETED -> Webhook.EventType.PAYMENT_COMPLETED;
+                case FAILED -> Webhook.EventType.PAYMENT_FAILED;
+                case REFUNDED -> Webhook.EventType.PAYMENT_REFUNDED;
+                case CANCELLED -> Webhook.EventType.PAYMENT_CANCELLED;
+                default -> null;
+            };
+        }
+        if (event instanceof RefundCreated) {
+            return Webhook.EventType.REFUND_CREATED;
+        }
+        if (event instanceof RefundCompleted) {
+            return Webhook.EventType.REFUND_COMPLETED;
+        }
+        if (event instanceof DisputeOpened) {
+            return Webhook.EventType.DISPUTE_CREATED;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.payment.gateway.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly audit event counts per (event type, actor, severity), maintained by AuditRollupService.
+ * Counts include events that were sampled out or aggregated by the audit policies.
+ */
+@Entity
+@Table(name = "audit_event_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_audit_rollup_bucket",
+        columnNames = {"bucketStart", "eventType", "actor", "severity"}),
+    indexes = @Index(name = "idx_audit_rollup_bucket", columnList = "bucketStart"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEventRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDateTime bucketStart; // Start of the hour
+    
+    @Column(nullable = false, length = 100)
+    private String eventType;
+    
+    @Column(nullable = false, length = 100)
+    private String actor;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AuditLog.Severity severity;
+    
+    @Column(nullable = false)
+    private Long eventCount;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
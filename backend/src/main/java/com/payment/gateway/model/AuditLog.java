@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -111,14 +113,16 @@ public class AuditLog {
     @Column
     private Long processingTimeMs; // Processing duration
     
-    @Column(columnDefinition = "TEXT")
-    private String complianceTags; // JSON array string: ["PCI_DSS", "GDPR"]
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String complianceTags; // JSON array: ["PCI_DSS", "GDPR"]
     
     @Column
     private LocalDateTime retentionUntil;
     
-    @Column(columnDefinition = "TEXT")
-    private String additionalData; // JSON string for extra context
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String additionalData; // JSON object for extra context
     
     @PrePersist
     protected void onCreate() {
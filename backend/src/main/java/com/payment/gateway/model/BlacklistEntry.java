@@ -10,7 +10,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blacklist_entries")
+@Table(name = "blacklist_entries", indexes = {
+    @Index(name = "idx_blacklist_type_value", columnList = "type, value")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,6 +65,7 @@ public class BlacklistEntry {
     
     public enum BlacklistType {
         CARD_BIN_LAST4,       // BIN + Last4 combination (PCI DSS compliant)
+        CARD_FINGERPRINT,     // HMAC of the full PAN (exact card match)
         CARD_BIN,             // Card BIN only (first 6 digits)
         EMAIL,                // Email address
         IP_ADDRESS,           // IP address
@@ -11,7 +11,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "disputes")
+@Table(name = "disputes", indexes = {
+    @Index(name = "idx_dispute_payment_id", columnList = "paymentId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -65,6 +65,10 @@ public class Payment {
     @Column(length = 4)
     private String cardLastFour;
     
+    // HMAC-SHA256(PAN), see CardFingerprintService
+    @Column(length = 64)
+    private String cardFingerprint;
+    
     @Column(length = 500)
     private String description;
     
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "risk_assessments")
+@Table(name = "risk_assessments", indexes = {
+    @Index(name = "idx_risk_card_fingerprint_assessed", columnList = "cardFingerprint, assessedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +42,13 @@ public class RiskAssessment {
     @Column(nullable = false, precision = 5, scale = 2)
     private BigDecimal riskScore; // 0.00 - 100.00
     
+    // Calibrated fraud probability from the risk model (null when no model is loaded)
+    @Column(precision = 7, scale = 6)
+    private BigDecimal modelProbability;
+    
+    @Column(length = 100)
+    private String modelVersion;
+    
     @Column(nullable = false)
     private String ipAddress;
     
@@ -49,6 +58,9 @@ public class RiskAssessment {
     @Column
     private String deviceFingerprint;
     
+    @Column(length = 64)
+    private String cardFingerprint;
+    
     @Column
     private String geolocation;
     
@@ -70,6 +70,16 @@ public class Webhook {
     @Column(nullable = false)
     private Boolean isActive;
     
+    // Batched delivery: events are buffered and sent as one signed JSON array
+    @Column
+    private Boolean batchEnabled = false;
+    
+    @Column
+    private Integer batchMaxEvents;
+    
+    @Column
+    private Integer batchMaxWaitMs;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,68 @@
+package com.payment.gateway.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "webhook_dead_letters", indexes = {
+    @Index(name = "idx_dead_letter_webhook_status", columnList = "webhookId, status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeadLetter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private String deadLetterId;
+    
+    @Column(nullable = false)
+    private String webhookId;
+    
+    @Column(nullable = false)
+    private String merchantId;
+    
+    @Column(nullable = false)
+    private String deliveryId; // Last delivery attempt that exhausted the retries
+    
+    @Column(nullable = false)
+    private String eventType;
+    
+    @Column(length = 100)
+    private String entityId;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String eventData;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DeadLetterStatus status;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime replayedAt;
+    
+    public enum DeadLetterStatus {
+        PENDING,
+        REPLAYED,
+        REPLAY_FAILED,
+        DISCARDED
+    }
+}
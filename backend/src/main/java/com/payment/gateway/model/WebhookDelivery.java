@@ -9,7 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "webhook_deliveries")
+@Table(name = "webhook_deliveries", indexes = {
+    @Index(name = "idx_webhook_delivery_status_created", columnList = "status, createdAt"),
+    @Index(name = "idx_webhook_delivery_payload_hash", columnList = "payloadHash"),
+    @Index(name = "idx_webhook_delivery_attempts", columnList = "webhookId, entityId, eventType, attemptNumber")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,7 +36,13 @@ public class WebhookDelivery {
     private String eventType;
     
     @Column(nullable = false)
-    private String eventData;
+    private String eventData; // Empty once compacted, the payload then lives in webhook_payloads
+    
+    @Column(length = 64)
+    private String payloadHash; // SHA-256 of eventData, set by retention compaction
+    
+    @Column(length = 100)
+    private String entityId; // paymentId, refundId, ... used for ordered dispatch and replay
     
     @Column(nullable = false)
     private String targetUrl;
@@ -65,6 +75,12 @@ public class WebhookDelivery {
     @Column(columnDefinition = "TEXT")
     private String headers;
     
+    @Column(length = 50)
+    private String batchId; // Set when the event was delivered as part of a batch
+    
+    @Column
+    private LocalDateTime compactedAt;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,52 @@
+package com.payment.gateway.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry for one archived day of webhook deliveries (gzip NDJSON file plus its index).
+ */
+@Entity
+@Table(name = "webhook_delivery_archives", indexes = {
+    @Index(name = "idx_webhook_archive_day", columnList = "archiveDay")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeliveryArchive {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate archiveDay;
+    
+    @Column(nullable = false, length = 500)
+    private String filePath;
+    
+    @Column(nullable = false, length = 500)
+    private String indexPath;
+    
+    @Column(nullable = false)
+    private Long rowCount;
+    
+    @Column(nullable = false)
+    private Long firstRowId;
+    
+    @Column(nullable = false)
+    private Long lastRowId;
+    
+    @Column(nullable = false, length = 64)
+    private String sha256;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime archivedAt;
+}
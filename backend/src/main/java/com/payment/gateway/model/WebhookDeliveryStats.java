@@ -0,0 +1,75 @@
+package com.payment.gateway.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of the in-memory delivery statistics of a webhook.
+ * Live values are kept by WebhookStatsService; this row is what survives a restart.
+ */
+@Entity
+@Table(name = "webhook_delivery_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeliveryStats {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private String webhookId;
+    
+    @Column(nullable = false)
+    private String merchantId;
+    
+    @Column(nullable = false)
+    private Long successCount;
+    
+    @Column(nullable = false)
+    private Long failureCount;
+    
+    @Column
+    private Long deliveredItemCount;
+    
+    @Column
+    private Long failedItemCount;
+    
+    @Column(nullable = false)
+    private Long windowSuccessCount;
+    
+    @Column(nullable = false)
+    private Long windowFailureCount;
+    
+    @Column
+    private Double avgResponseTimeMs;
+    
+    @Column
+    private Integer p50ResponseTimeMs;
+    
+    @Column
+    private Integer p95ResponseTimeMs;
+    
+    @Column
+    private Integer p99ResponseTimeMs;
+    
+    @Column(length = 500)
+    private String latencyBuckets; // Window histogram counts, comma separated
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column
+    private LocalDateTime lastErrorAt;
+    
+    @Column
+    private LocalDateTime lastSuccessAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime snapshotAt;
+}
@@ -0,0 +1,35 @@
+package com.payment.gateway.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deduplicated event payload of compacted webhook deliveries.
+ * Retries of the same event share one row.
+ */
+@Entity
+@Table(name = "webhook_payloads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookPayload {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 64)
+    private String payloadHash;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
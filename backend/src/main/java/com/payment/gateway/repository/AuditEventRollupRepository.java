@@ -0,0 +1,47 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.model.AuditEventRollup;
+import com.payment.gateway.model.AuditLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AuditEventRollupRepository extends JpaRepository<AuditEventRollup, Long> {
+    
+    @Query("SELECT r.eventType, SUM(r.eventCount) FROM AuditEventRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.eventType ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> sumByEventType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT r.actor, SUM(r.eventCount) FROM AuditEventRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.actor ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> sumByActor(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT r.severity, SUM(r.eventCount) FROM AuditEventRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.severity ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> sumBySeverity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Security summary: counts of the given severities per event type
+    @Query("SELECT r.eventType, SUM(r.eventCount) FROM AuditEventRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to AND r.severity IN :severities " +
+           "GROUP BY r.eventType ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> sumByEventTypeForSeverities(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("severities") Collection<AuditLog.Severity> severities);
+    
+    @Query("SELECT r.bucketStart, SUM(r.eventCount) FROM AuditEventRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:eventType IS NULL OR r.eventType = :eventType) " +
+           "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<Object[]> hourlyTotals(@Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("eventType") String eventType);
+}
@@ -4,13 +4,19 @@ import com.payment.gateway.model.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * audit_logs may be partitioned by month on timestamp; keep time-range queries bounded on
+ * timestamp so PostgreSQL only scans the matching partitions.
+ */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
@@ -59,6 +65,13 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     @Query("SELECT a FROM AuditLog a WHERE a.retentionUntil < :now")
     List<AuditLog> findExpiredRecords(@Param("now") LocalDateTime now);
     
+    // Chunked delete of expired records (used when audit_logs is not partitioned)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM audit_logs WHERE id IN " +
+                   "(SELECT id FROM audit_logs WHERE retention_until < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
     // Count events by type in time range
     @Query("SELECT a.eventType, COUNT(a) FROM AuditLog a WHERE " +
            "a.timestamp BETWEEN :startTime AND :endTime " +
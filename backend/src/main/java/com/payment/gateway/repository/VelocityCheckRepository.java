@@ -21,13 +21,15 @@ public interface VelocityCheckRepository extends JpaRepository<VelocityCheck, Lo
     
     List<VelocityCheck> findByLimitExceededTrue();
     
-    @Query("SELECT COUNT(p) FROM Payment p WHERE p.cardNumber LIKE CONCAT(:cardPrefix, '%') AND p.createdAt >= :since AND p.createdAt <= :until AND p.status != 'FAILED'")
-    long countCardTransactions(@Param("cardPrefix") String cardPrefix, 
+    // Card day-window floor for the in-memory counters (VelocityCheckService); index-only on
+    // idx_payment_card_fingerprint_created (card_fingerprint, created_at) INCLUDE (status, amount)
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.cardFingerprint = :cardFingerprint AND p.createdAt >= :since AND p.createdAt <= :until AND p.status != 'FAILED'")
+    long countCardTransactions(@Param("cardFingerprint") String cardFingerprint, 
                               @Param("since") LocalDateTime since, 
                               @Param("until") LocalDateTime until);
     
-    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.cardNumber LIKE CONCAT(:cardPrefix, '%') AND p.createdAt >= :since AND p.createdAt <= :until AND p.status = 'COMPLETED'")
-    BigDecimal sumCardTransactionAmount(@Param("cardPrefix") String cardPrefix, 
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.cardFingerprint = :cardFingerprint AND p.createdAt >= :since AND p.createdAt <= :until AND p.status = 'COMPLETED'")
+    BigDecimal sumCardTransactionAmount(@Param("cardFingerprint") String cardFingerprint, 
                                        @Param("since") LocalDateTime since, 
                                        @Param("until") LocalDateTime until);
     
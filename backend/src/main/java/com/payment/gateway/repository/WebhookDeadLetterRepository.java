@@ -0,0 +1,27 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.model.WebhookDeadLetter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, Long> {
+    
+    List<WebhookDeadLetter> findByWebhookIdAndStatus(String webhookId, WebhookDeadLetter.DeadLetterStatus status);
+    
+    // Keyset page for streaming replay, oldest first
+    @Query("SELECT d FROM WebhookDeadLetter d WHERE d.webhookId = :webhookId AND d.status = 'PENDING' " +
+           "AND d.id > :afterId ORDER BY d.id ASC")
+    List<WebhookDeadLetter> findPendingPage(@Param("webhookId") String webhookId,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    long countByWebhookIdAndStatus(String webhookId, WebhookDeadLetter.DeadLetterStatus status);
+    
+    boolean existsByDeliveryId(String deliveryId);
+}
@@ -0,0 +1,13 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.model.WebhookDeliveryArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WebhookDeliveryArchiveRepository extends JpaRepository<WebhookDeliveryArchive, Long> {
+    
+    List<WebhookDeliveryArchive> findAllByOrderByArchiveDayDesc();
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +18,17 @@ public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery
     
     List<WebhookDelivery> findByWebhookId(String webhookId);
     
+    List<WebhookDelivery> findByDeliveryIdIn(Collection<String> deliveryIds);
+    
+    List<WebhookDelivery> findByWebhookIdAndStatus(String webhookId, WebhookDelivery.DeliveryStatus status);
+    
     List<WebhookDelivery> findByMerchantId(String merchantId);
     
     List<WebhookDelivery> findByEventType(String eventType);
     
     List<WebhookDelivery> findByStatus(WebhookDelivery.DeliveryStatus status);
+
+    List<WebhookDelivery> findTop500ByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(WebhookDelivery.DeliveryStatus status, LocalDateTime cutoff);
     
     List<WebhookDelivery> findByMerchantIdAndEventType(String merchantId, String eventType);
     
@@ -0,0 +1,19 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.model.WebhookDeliveryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookDeliveryStatsRepository extends JpaRepository<WebhookDeliveryStats, Long> {
+    
+    Optional<WebhookDeliveryStats> findByWebhookId(String webhookId);
+    
+    List<WebhookDeliveryStats> findByWebhookIdIn(Collection<String> webhookIds);
+    
+    List<WebhookDeliveryStats> findByMerchantId(String merchantId);
+}
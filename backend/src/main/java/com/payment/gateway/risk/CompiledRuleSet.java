@@ -0,0 +1,246 @@
+package com.payment.gateway.risk;
+
+import com.payment.gateway.model.RiskAssessment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A rule set compiled into parallel primitive arrays.
+ *
+ * Evaluation is a single pass over the arrays with double comparisons; set membership uses a sorted
+ * double[] and binary search. Instances are immutable apart from the hit counters and safe to share
+ * between threads.
+ */
+public final class CompiledRuleSet {
+
+    private static final byte GT = 0, GTE = 1, LT = 2, LTE = 3, EQ = 4, BETWEEN = 5, OUTSIDE = 6, IN = 7, NOT_IN = 8, ALWAYS = 9;
+    private static final List<String> OPS = List.of("GT", "GTE", "LT", "LTE", "EQ", "BETWEEN", "OUTSIDE", "IN", "NOT_IN", "ALWAYS");
+
+    private final String version;
+    private final double maxScore;
+    private final RuleSetDefinition.Thresholds thresholds;
+
+    private final String[] ruleIds;
+    private final int[] features;
+    private final byte[] ops;
+    private final double[] lower;
+    private final double[] upper;
+    private final double[][] sets;
+    private final double[] scores;
+    private final int[] groups;
+    private final String[] groupNames;
+    private final String[] factors;
+    private final RiskAssessment.AssessmentAction[] forcedActions;
+    private final LongAdder[] hits;
+    private final LongAdder evaluations = new LongAdder();
+
+    private CompiledRuleSet(String version, double maxScore, RuleSetDefinition.Thresholds thresholds, int size,
+                            String[] groupNames) {
+        this.version = version;
+        this.maxScore = maxScore;
+        this.thresholds = thresholds;
+        this.ruleIds = new String[size];
+        this.features = new int[size];
+        this.ops = new byte[size];
+        this.lower = new double[size];
+        this.upper = new double[size];
+        this.sets = new double[size][];
+        this.scores = new double[size];
+        this.groups = new int[size];
+        this.groupNames = groupNames;
+        this.factors = new String[size];
+        this.forcedActions = new RiskAssessment.AssessmentAction[size];
+        this.hits = new LongAdder[size];
+    }
+
+    /**
+     * Validates and compiles a definition; throws IllegalArgumentException naming the bad rule
+     */
+    public static CompiledRuleSet compile(RuleSetDefinition definition) {
+        if (definition == null || definition.getRules() == null) {
+            throw new IllegalArgumentException("Rule set has no rules");
+        }
+        List<RuleSetDefinition.RuleDefinition> enabled = definition.getRules().stream()
+                .filter(RuleSetDefinition.RuleDefinition::isEnabled)
+                .toList();
+
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        for (RuleSetDefinition.RuleDefinition rule : enabled) {
+            if (rule.getGroup() != null) {
+                groupIndex.putIfAbsent(rule.getGroup(), groupIndex.size());
+            }
+        }
+        CompiledRuleSet compiled = new CompiledRuleSet(
+                definition.getVersion() != null ? definition.getVersion() : "unversioned",
+                definition.getMaxScore(),
+                definition.getThresholds() != null ? definition.getThresholds() : new RuleSetDefinition.Thresholds(),
+                enabled.size(),
+                groupIndex.keySet().toArray(new String[0]));
+
+        for (int i = 0; i < enabled.size(); i++) {
+            RuleSetDefinition.RuleDefinition rule = enabled.get(i);
+            String id = rule.getId() != null ? rule.getId() : "rule-" + i;
+            try {
+                compiled.ruleIds[i] = id;
+                compiled.ops[i] = (byte) OPS.indexOf(rule.getOp());
+                if (compiled.ops[i] < 0) {
+                    throw new IllegalArgumentException("unknown op " + rule.getOp());
+                }
+                compiled.features[i] = compiled.ops[i] == ALWAYS ? 0 : RiskFeature.valueOf(rule.getFeature()).ordinal();
+                switch (compiled.ops[i]) {
+                    case BETWEEN, OUTSIDE -> {
+                        compiled.lower[i] = required(rule.getMin(), "min");
+                        compiled.upper[i] = required(rule.getMax(), "max");
+                    }
+                    case IN, NOT_IN -> {
+                        if (rule.getValues() == null || rule.getValues().isEmpty()) {
+                            throw new IllegalArgumentException("values is required");
+                        }
+                        double[] set = rule.getValues().stream().mapToDouble(Double::doubleValue).toArray();
+                        Arrays.sort(set);
+                        compiled.sets[i] = set;
+                    }
+                    case ALWAYS -> {
+                    }
+                    default -> compiled.lower[i] = required(rule.getValue(), "value");
+                }
+                compiled.scores[i] = rule.getScore();
+                compiled.groups[i] = rule.getGroup() != null ? groupIndex.get(rule.getGroup()) : -1;
+                compiled.factors[i] = rule.getFactor();
+                compiled.forcedActions[i] = rule.getAction() != null
+                        ? RiskAssessment.AssessmentAction.valueOf(rule.getAction()) : null;
+                compiled.hits[i] = new LongAdder();
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid rule " + id + ": " + e.getMessage(), e);
+            }
+        }
+        return compiled;
+    }
+
+    public RiskEvaluation evaluate(double[] vector) {
+        evaluations.increment();
+        double score = 0;
+        double[] groupScores = new double[groupNames.length];
+        boolean[] groupMatched = new boolean[groupNames.length];
+        RiskAssessment.AssessmentAction forced = null;
+        List<String> riskFactors = new ArrayList<>(4);
+        List<String> matched = new ArrayList<>(8);
+
+        for (int i = 0; i < ops.length; i++) {
+            int group = groups[i];
+            if (group >= 0 && groupMatched[group]) {
+                continue;
+            }
+            if (!matches(i, vector[features[i]])) {
+                continue;
+            }
+            hits[i].increment();
+            matched.add(ruleIds[i]);
+            score += scores[i];
+            if (group >= 0) {
+                groupMatched[group] = true;
+                groupScores[group] += scores[i];
+            }
+            if (factors[i] != null && !riskFactors.contains(factors[i])) {
+                riskFactors.add(factors[i]);
+            }
+            if (forcedActions[i] != null && (forced == null || severity(forcedActions[i]) > severity(forced))) {
+                forced = forcedActions[i];
+            }
+        }
+
+        score = Math.min(score, maxScore);
+        RiskAssessment.AssessmentAction action = actionFor(score);
+        if (forced != null && severity(forced) > severity(action)) {
+            action = forced;
+        }
+        Map<String, Double> groupScoreMap = new HashMap<>(groupNames.length * 2);
+        for (int g = 0; g < groupNames.length; g++) {
+            groupScoreMap.put(groupNames[g], groupScores[g]);
+        }
+        return new RiskEvaluation(version, score, levelFor(score), action, riskFactors, matched, groupScoreMap);
+    }
+
+    private boolean matches(int i, double x) {
+        return switch (ops[i]) {
+            case GT -> x > lower[i];
+            case GTE -> x >= lower[i];
+            case LT -> x < lower[i];
+            case LTE -> x <= lower[i];
+            case EQ -> x == lower[i];
+            case BETWEEN -> x >= lower[i] && x <= upper[i];
+            case OUTSIDE -> x < lower[i] || x > upper[i];
+            case IN -> Arrays.binarySearch(sets[i], x) >= 0;
+            case NOT_IN -> Arrays.binarySearch(sets[i], x) < 0;
+            default -> true;
+        };
+    }
+
+    private RiskAssessment.AssessmentAction actionFor(double score) {
+        if (score >= thresholds.getDecline()) {
+            return RiskAssessment.AssessmentAction.DECLINE;
+        } else if (score >= thresholds.getReview()) {
+            return RiskAssessment.AssessmentAction.REVIEW;
+        } else if (score >= thresholds.getChallenge()) {
+            return RiskAssessment.AssessmentAction.CHALLENGE;
+        }
+        return RiskAssessment.AssessmentAction.APPROVE;
+    }
+
+    private RiskAssessment.RiskLevel levelFor(double score) {
+        if (score >= thresholds.getCritical()) {
+            return RiskAssessment.RiskLevel.CRITICAL;
+        } else if (score >= thresholds.getHigh()) {
+            return RiskAssessment.RiskLevel.HIGH;
+        } else if (score >= thresholds.getMedium()) {
+            return RiskAssessment.RiskLevel.MEDIUM;
+        }
+        return RiskAssessment.RiskLevel.LOW;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return ops.length;
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Rule id -> hit count since this rule set was loaded
+     */
+    public Map<String, Long> getHitCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < ruleIds.length; i++) {
+            counts.put(ruleIds[i], hits[i].sum());
+        }
+        return counts;
+    }
+
+    // Enum order is APPROVE, REVIEW, CHALLENGE, DECLINE; by score REVIEW is stricter than CHALLENGE
+    static int severity(RiskAssessment.AssessmentAction action) {
+        return switch (action) {
+            case APPROVE -> 0;
+            case CHALLENGE -> 1;
+            case REVIEW -> 2;
+            case DECLINE -> 3;
+        };
+    }
+
+    private static double required(Double value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.payment.gateway.risk;
+
+import java.util.List;
+
+/**
+ * Gradient boosted tree ensemble flattened into parallel node arrays.
+ *
+ * All trees share one set of arrays; roots holds the first node of each tree and child indices are
+ * absolute. A leaf has feature -1. Children always point forward, so every walk terminates.
+ */
+public final class GradientBoostedTreesModel implements RiskModel {
+
+    static final String TYPE = "GRADIENT_BOOSTED_TREES";
+
+    private final String version;
+    private final ModelDefinition.Calibration calibration;
+    private final double baseScore;
+    private final int[] roots;
+    private final int[] features;
+    private final double[] thresholds;
+    private final int[] left;
+    private final int[] right;
+    private final double[] values;
+
+    private GradientBoostedTreesModel(String version, ModelDefinition.Calibration calibration, double baseScore,
+                                      int trees, int nodes) {
+        this.version = version;
+        this.calibration = calibration;
+        this.baseScore = baseScore;
+        this.roots = new int[trees];
+        this.features = new int[nodes];
+        this.thresholds = new double[nodes];
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.values = new double[nodes];
+    }
+
+    static GradientBoostedTreesModel compile(ModelDefinition definition) {
+        List<ModelDefinition.Tree> trees = definition.getTrees();
+        if (trees == null || trees.isEmpty()) {
+            throw new IllegalArgumentException("trees must not be empty");
+        }
+        int nodeCount = 0;
+        for (ModelDefinition.Tree tree : trees) {
+            if (tree.getNodes() == null || tree.getNodes().isEmpty()) {
+                throw new IllegalArgumentException("tree without nodes");
+            }
+            nodeCount += tree.getNodes().size();
+        }
+
+        GradientBoostedTreesModel model = new GradientBoostedTreesModel(LogisticRegressionModel.version(definition),
+                definition.getCalibration(), definition.getBaseScore(), trees.size(), nodeCount);
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            List<ModelDefinition.Node> nodes = trees.get(t).getNodes();
+            model.roots[t] = offset;
+            for (int i = 0; i < nodes.size(); i++) {
+                ModelDefinition.Node node = nodes.get(i);
+                int index = offset + i;
+                try {
+                    if (node.getFeature() == null) {
+                        model.features[index] = -1;
+                        model.values[index] = node.getValue();
+                        continue;
+                    }
+                    model.features[index] = RiskFeature.valueOf(node.getFeature()).ordinal();
+                    if (node.getThreshold() == null || node.getLeft() == null || node.getRight() == null) {
+                        throw new IllegalArgumentException("split needs threshold, left and right");
+                    }
+                    if (node.getLeft() <= i || node.getRight() <= i
+                            || node.getLeft() >= nodes.size() || node.getRight() >= nodes.size()) {
+                        throw new IllegalArgumentException("children must point forward within the tree");
+                    }
+                    model.thresholds[index] = node.getThreshold();
+                    model.left[index] = offset + node.getLeft();
+                    model.right[index] = offset + node.getRight();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid node " + i + " in tree " + t + ": " + e.getMessage(), e);
+                }
+            }
+            offset += nodes.size();
+        }
+        return model;
+    }
+
+    @Override
+    public double predict(double[] vector) {
+        double margin = baseScore;
+        for (int root : roots) {
+            int node = root;
+            while (features[node] >= 0) {
+                node = vector[features[node]] < thresholds[node] ? left[node] : right[node];
+            }
+            margin += values[node];
+        }
+        return RiskModel.sigmoid(calibration, margin);
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    public int getTreeCount() {
+        return roots.length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.payment.gateway.risk;
+
+import java.util.List;
+
+/**
+ * Logistic regression over selected RiskFeature positions, with optional standardization folded
+ * into the weights at load time.
+ */
+public final class LogisticRegressionModel implements RiskModel {
+
+    static final String TYPE = "LOGISTIC_REGRESSION";
+
+    private final String version;
+    private final ModelDefinition.Calibration calibration;
+    private final int[] features;
+    private final double[] weights;
+    private final double intercept;
+
+    private LogisticRegressionModel(String version, ModelDefinition.Calibration calibration, int[] features,
+                                    double[] weights, double intercept) {
+        this.version = version;
+        this.calibration = calibration;
+        this.features = features;
+        this.weights = weights;
+        this.intercept = intercept;
+    }
+
+    static LogisticRegressionModel compile(ModelDefinition definition) {
+        List<String> names = definition.getFeatures();
+        List<Double> weightList = definition.getWeights();
+        if (names == null || names.isEmpty() || weightList == null || weightList.size() != names.size()) {
+            throw new IllegalArgumentException("features and weights must be non-empty and the same length");
+        }
+        checkLength(definition.getMeans(), names.size(), "means");
+        checkLength(definition.getScales(), names.size(), "scales");
+
+        int n = names.size();
+        int[] features = new int[n];
+        double[] weights = new double[n];
+        double intercept = definition.getIntercept();
+        for (int i = 0; i < n; i++) {
+            features[i] = RiskFeature.valueOf(names.get(i)).ordinal();
+            // w * (x - mean) / scale == (w / scale) * x - w * mean / scale
+            double scale = definition.getScales() != null ? definition.getScales().get(i) : 1;
+            if (scale == 0) {
+                throw new IllegalArgumentException("scale for " + names.get(i) + " is zero");
+            }
+            double mean = definition.getMeans() != null ? definition.getMeans().get(i) : 0;
+            weights[i] = weightList.get(i) / scale;
+            intercept -= weights[i] * mean;
+        }
+        return new LogisticRegressionModel(version(definition), definition.getCalibration(), features, weights, intercept);
+    }
+
+    @Override
+    public double predict(double[] vector) {
+        double margin = intercept;
+        for (int i = 0; i < features.length; i++) {
+            margin += weights[i] * vector[features[i]];
+        }
+        return RiskModel.sigmoid(calibration, margin);
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    static String version(ModelDefinition definition) {
+        return definition.getVersion() != null ? definition.getVersion() : "unversioned";
+    }
+
+    private static void checkLength(List<Double> values, int expected, String name) {
+        if (values != null && values.size() != expected) {
+            throw new IllegalArgumentException(name + " must have " + expected + " entries");
+        }
+    }
+}
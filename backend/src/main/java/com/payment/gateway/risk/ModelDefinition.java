@@ -0,0 +1,60 @@
+package com.payment.gateway.risk;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON form of a trained risk model, loaded by {@link RiskModelEngine}.
+ *
+ * LOGISTIC_REGRESSION uses features, weights, intercept and optional means/scales (standardization
+ * applied before the weights). GRADIENT_BOOSTED_TREES uses baseScore and trees; a node with a feature
+ * is a split (x &lt; threshold goes left), a node without one is a leaf carrying value. Child indices
+ * are relative to the tree and must point forward. Both produce a margin that goes through the
+ * calibration (Platt scaling) and a sigmoid.
+ */
+@Data
+@NoArgsConstructor
+public class ModelDefinition {
+    
+    private String version;
+    /** LOGISTIC_REGRESSION, GRADIENT_BOOSTED_TREES */
+    private String type;
+    private Calibration calibration = new Calibration();
+    
+    // Logistic regression
+    private List<String> features = new ArrayList<>();
+    private List<Double> weights = new ArrayList<>();
+    private List<Double> means;
+    private List<Double> scales;
+    private double intercept;
+    
+    // Gradient boosted trees
+    private double baseScore;
+    private List<Tree> trees = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    public static class Calibration {
+        private double slope = 1;
+        private double intercept = 0;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    public static class Tree {
+        private List<Node> nodes = new ArrayList<>();
+    }
+    
+    @Data
+    @NoArgsConstructor
+    public static class Node {
+        private String feature;
+        private Double threshold;
+        private Integer left;
+        private Integer right;
+        private double value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.payment.gateway.risk;
+
+import com.payment.gateway.model.RiskAssessment;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of evaluating one feature vector against a compiled rule set.
+ *
+ * @param groupScores score contributed by each rule group (e.g. amount, bin)
+ */
+public record RiskEvaluation(String ruleSetVersion,
+                             double score,
+                             RiskAssessment.RiskLevel riskLevel,
+                             RiskAssessment.AssessmentAction action,
+                             List<String> riskFactors,
+                             List<String> matchedRules,
+                             Map<String, Double> groupScores) {
+
+    public double groupScore(String group) {
+        return groupScores.getOrDefault(group, 0.0);
+    }
+}
@@ -0,0 +1,37 @@
+package com.payment.gateway.risk;
+
+/**
+ * Positions in the flat feature vector rules are evaluated over.
+ * Flags are 0/1; unknown numeric values are -1.
+ */
+public enum RiskFeature {
+    AMOUNT,              // payment amount in major units
+    VELOCITY_EXCEEDED,   // 1 when any velocity limit was hit
+    BLACKLISTED,         // 1 when a blacklist entry matched
+    CARD_BIN,            // first 6 PAN digits as a number, -1 when unknown
+    HOUR_OF_DAY,         // 0-23, server time
+    IP_MISSING,          // 1 when the request had no client IP
+    IP_PRIVATE,          // 1 for loopback/private ranges
+    
+    // Behaviour history before this payment, filled by BehaviorFeatureStore
+    CUSTOMER_PAYMENTS,       // payments seen for the customer
+    CUSTOMER_AVG_AMOUNT,     // average ticket, -1 for a new customer
+    AMOUNT_TO_CUSTOMER_AVG,  // amount / average ticket, -1 for a new customer
+    CUSTOMER_MERCHANTS_24H,  // distinct merchants in the last 24 h
+    CUSTOMER_AGE_HOURS,      // hours since the customer was first seen, 0 when new
+    NEW_DEVICE,              // 1 when the customer has not used this device, -1 without a device
+    CARD_PAYMENTS,           // payments seen for the card fingerprint
+    CARD_MERCHANTS_24H,      // distinct merchants for the card in the last 24 h
+    CARD_CUSTOMERS,          // distinct customers that used the card
+    CARD_AGE_HOURS,          // hours since the card was first seen, 0 when new
+    DEVICE_PAYMENTS,         // payments seen from the device, -1 without a device
+    DEVICE_CARDS_24H,        // distinct cards used from the device in the last 24 h, -1 without a device
+    
+    CARD_TESTING;            // 1 while CardTestingDetector blocks the BIN, or the merchant for small amounts
+
+    public static final int COUNT = values().length;
+
+    public static double[] newVector() {
+        return new double[COUNT];
+    }
+}
@@ -0,0 +1,37 @@
+package com.payment.gateway.risk;
+
+/**
+ * A trained model scoring the same feature vector as the rule set.
+ *
+ * Implementations are immutable after loading and must not allocate in {@link #predict}, so one
+ * instance is shared by all payment threads.
+ */
+public interface RiskModel {
+
+    String getVersion();
+
+    String getType();
+
+    /**
+     * Calibrated probability (0-1) that the payment is fraudulent
+     */
+    double predict(double[] features);
+
+    static RiskModel compile(ModelDefinition definition) {
+        if (definition == null || definition.getType() == null) {
+            throw new IllegalArgumentException("Model type is required");
+        }
+        if (definition.getCalibration() == null) {
+            definition.setCalibration(new ModelDefinition.Calibration());
+        }
+        return switch (definition.getType()) {
+            case LogisticRegressionModel.TYPE -> LogisticRegressionModel.compile(definition);
+            case GradientBoostedTreesModel.TYPE -> GradientBoostedTreesModel.compile(definition);
+            default -> throw new IllegalArgumentException("Unknown model type " + definition.getType());
+        };
+    }
+
+    static double sigmoid(ModelDefinition.Calibration calibration, double margin) {
+        return 1.0 / (1.0 + Math.exp(-(calibration.getSlope() * margin + calibration.getIntercept())));
+    }
+}
@@ -0,0 +1,115 @@
+package com.payment.gateway.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the live risk model, next to the rule set in {@link RiskRuleEngine}.
+ *
+ * The model is optional: with app.risk.model.location empty no probability is produced. A model is
+ * compiled before it is swapped in, so a broken file leaves the current model serving. Callers take
+ * {@link #getActive()} once per assessment and read both the probability and the version from it.
+ */
+@Service
+@Slf4j
+public class RiskModelEngine {
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String location;
+    private final AtomicReference<Loaded> active = new AtomicReference<>();
+
+    private record Loaded(RiskModel model, LocalDateTime loadedAt, LongAdder predictions) {
+    }
+
+    public RiskModelEngine(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                           @Value("${app.risk.model.location:}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (location.isBlank()) {
+            log.info("No risk model configured, assessments use the rule score only");
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // The rule set still decides; a missing model only drops the probability
+            log.error("Risk model could not be loaded from {}: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * Current model or null; probability and version must come from the same instance
+     */
+    public RiskModel getActive() {
+        Loaded loaded = active.get();
+        if (loaded == null) {
+            return null;
+        }
+        loaded.predictions().increment();
+        return loaded.model();
+    }
+
+    public RiskModel reload() throws IOException {
+        if (location.isBlank()) {
+            throw new IllegalArgumentException("app.risk.model.location is not set");
+        }
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return reload(objectMapper.readValue(in, ModelDefinition.class));
+        }
+    }
+
+    public RiskModel reload(ModelDefinition definition) {
+        RiskModel next = RiskModel.compile(definition);
+        Loaded previous = active.getAndSet(new Loaded(next, LocalDateTime.now(), new LongAdder()));
+        log.info("Risk model swapped - {} -> {} ({})",
+                previous != null ? previous.model().getVersion() : null, next.getVersion(), next.getType());
+        return next;
+    }
+
+    /**
+     * Stops producing probabilities; the rule set keeps deciding
+     */
+    public void disable() {
+        Loaded previous = active.getAndSet(null);
+        if (previous != null) {
+            log.info("Risk model {} disabled", previous.model().getVersion());
+        }
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        Loaded loaded = active.get();
+        info.put("enabled", loaded != null);
+        info.put("location", location);
+        if (loaded != null) {
+            info.put("version", loaded.model().getVersion());
+            info.put("type", loaded.model().getType());
+            info.put("loadedAt", loaded.loadedAt());
+            info.put("predictions", loaded.predictions().sum());
+            if (loaded.model() instanceof GradientBoostedTreesModel trees) {
+                info.put("trees", trees.getTreeCount());
+            }
+        }
+        return info;
+    }
+}
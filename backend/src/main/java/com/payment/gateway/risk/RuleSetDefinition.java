@@ -0,0 +1,55 @@
+package com.payment.gateway.risk;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON form of a rule set (see resources/risk/rules.json).
+ *
+ * Rules are checked in order. Rules sharing a group are exclusive: the first match in a group wins,
+ * which is how tiered checks (amount bands, BIN lists) are written. A matching rule adds its score,
+ * may add a risk factor and may force an action regardless of the score.
+ */
+@Data
+@NoArgsConstructor
+public class RuleSetDefinition {
+    
+    private String version;
+    private double maxScore = 100;
+    private Thresholds thresholds = new Thresholds();
+    private List<RuleDefinition> rules = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    public static class Thresholds {
+        // Actions
+        private double decline = 90;
+        private double review = 70;
+        private double challenge = 40;
+        // Risk levels
+        private double critical = 90;
+        private double high = 70;
+        private double medium = 30;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    public static class RuleDefinition {
+        private String id;
+        private String group;
+        private String feature;
+        /** GT, GTE, LT, LTE, EQ, BETWEEN, OUTSIDE, IN, NOT_IN, ALWAYS */
+        private String op;
+        private Double value;
+        private Double min;
+        private Double max;
+        private List<Double> values;
+        private double score;
+        private String factor;
+        private String action;
+        private boolean enabled = true;
+    }
+}
@@ -0,0 +1,172 @@
+package com.payment.gateway.risk;
+
+import com.payment.gateway.model.RiskAssessment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live vs shadow comparison results, per shadow rule set version.
+ *
+ * Keeps counters, an action confusion matrix, latency histograms and the most recent disagreements.
+ * In memory only: the report covers traffic since start-up or since the shadow set was (re)loaded.
+ */
+@Component
+public class ShadowComparisonStore {
+
+    private static final int RECENT_LIMIT = 100;
+    // Upper bounds in microseconds; the last bucket is open-ended
+    private static final long[] LATENCY_BOUNDS_US = {10, 25, 50, 100, 250, 500, 1_000, 5_000, 10_000, 50_000};
+    private static final RiskAssessment.AssessmentAction[] ACTIONS = RiskAssessment.AssessmentAction.values();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public record Comparison(String paymentId, LocalDateTime at, double liveScore, double shadowScore,
+                             RiskAssessment.AssessmentAction liveAction, RiskAssessment.AssessmentAction shadowAction,
+                             List<String> shadowRules) {
+    }
+
+    public void record(String paymentId, RiskEvaluation live, RiskEvaluation shadow, long evalNanos, long queueNanos) {
+        Stats s = stats.computeIfAbsent(shadow.ruleSetVersion(), v -> new Stats());
+        s.evaluations.increment();
+        s.scoreDelta.add(shadow.score() - live.score());
+        s.absScoreDelta.add(Math.abs(shadow.score() - live.score()));
+        s.actionMatrix.incrementAndGet(live.action().ordinal() * ACTIONS.length + shadow.action().ordinal());
+        s.evalLatency.incrementAndGet(bucketIndex(evalNanos / 1_000));
+        s.queueDelay.incrementAndGet(bucketIndex(queueNanos / 1_000));
+
+        if (shadow.riskLevel() != live.riskLevel()) {
+            s.levelDiffs.increment();
+        }
+        if (shadow.action() != live.action()) {
+            s.actionDiffs.increment();
+            if (CompiledRuleSet.severity(shadow.action()) > CompiledRuleSet.severity(live.action())) {
+                s.shadowStricter.increment();
+            } else {
+                s.shadowLooser.increment();
+            }
+            s.recent.addFirst(new Comparison(paymentId, LocalDateTime.now(), live.score(), shadow.score(),
+                    live.action(), shadow.action(), shadow.matchedRules()));
+            if (s.recentSize.incrementAndGet() > RECENT_LIMIT && s.recent.pollLast() != null) {
+                s.recentSize.decrementAndGet();
+            }
+        }
+    }
+
+    public void recordDropped(String version) {
+        stats.computeIfAbsent(version, v -> new Stats()).dropped.increment();
+    }
+
+    public void reset(String version) {
+        stats.remove(version);
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        stats.forEach((version, s) -> report.put(version, describe(s)));
+        return report;
+    }
+
+    private Map<String, Object> describe(Stats s) {
+        long evaluations = s.evaluations.sum();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("evaluations", evaluations);
+        row.put("dropped", s.dropped.sum());
+        row.put("actionDisagreements", s.actionDiffs.sum());
+        row.put("actionDisagreementRate", evaluations > 0 ? s.actionDiffs.sum() / (double) evaluations : null);
+        row.put("levelDisagreements", s.levelDiffs.sum());
+        row.put("shadowStricter", s.shadowStricter.sum());
+        row.put("shadowLooser", s.shadowLooser.sum());
+        row.put("meanScoreDelta", evaluations > 0 ? s.scoreDelta.sum() / evaluations : null);
+        row.put("meanAbsScoreDelta", evaluations > 0 ? s.absScoreDelta.sum() / evaluations : null);
+
+        // live action -> shadow action -> count
+        Map<String, Map<String, Long>> matrix = new LinkedHashMap<>();
+        for (RiskAssessment.AssessmentAction liveAction : ACTIONS) {
+            Map<String, Long> shadowCounts = new LinkedHashMap<>();
+            for (RiskAssessment.AssessmentAction shadowAction : ACTIONS) {
+                shadowCounts.put(shadowAction.name(),
+                        s.actionMatrix.get(liveAction.ordinal() * ACTIONS.length + shadowAction.ordinal()));
+            }
+            matrix.put(liveAction.name(), shadowCounts);
+        }
+        row.put("actionMatrix", matrix);
+        row.put("evaluationLatencyUs", latency(s.evalLatency));
+        row.put("queueDelayUs", latency(s.queueDelay));
+        row.put("recentDisagreements", new ArrayList<>(s.recent));
+        return row;
+    }
+
+    private Map<String, Object> latency(AtomicLongArray histogram) {
+        long[] counts = new long[histogram.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("p50", percentile(counts, total, 0.50));
+        result.put("p95", percentile(counts, total, 0.95));
+        result.put("p99", percentile(counts, total, 0.99));
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            buckets.put(i < LATENCY_BOUNDS_US.length ? "<=" + LATENCY_BOUNDS_US[i] : ">" + LATENCY_BOUNDS_US[i - 1], counts[i]);
+        }
+        result.put("buckets", buckets);
+        return result;
+    }
+
+    /**
+     * Bucket upper bound containing the quantile (the last bound for the open bucket)
+     */
+    private static Long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return null;
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return LATENCY_BOUNDS_US[Math.min(i, LATENCY_BOUNDS_US.length - 1)];
+            }
+        }
+        return LATENCY_BOUNDS_US[LATENCY_BOUNDS_US.length - 1];
+    }
+
+    private static int bucketIndex(long micros) {
+        for (int i = 0; i < LATENCY_BOUNDS_US.length; i++) {
+            if (micros <= LATENCY_BOUNDS_US[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BOUNDS_US.length;
+    }
+
+    private static final class Stats {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder actionDiffs = new LongAdder();
+        private final LongAdder levelDiffs = new LongAdder();
+        private final LongAdder shadowStricter = new LongAdder();
+        private final LongAdder shadowLooser = new LongAdder();
+        private final DoubleAdder scoreDelta = new DoubleAdder();
+        private final DoubleAdder absScoreDelta = new DoubleAdder();
+        private final AtomicLongArray actionMatrix = new AtomicLongArray(ACTIONS.length * ACTIONS.length);
+        private final AtomicLongArray evalLatency = new AtomicLongArray(LATENCY_BOUNDS_US.length + 1);
+        private final AtomicLongArray queueDelay = new AtomicLongArray(LATENCY_BOUNDS_US.length + 1);
+        private final Deque<Comparison> recent = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger recentSize = new AtomicInteger();
+    }
+}
@@ -0,0 +1,136 @@
+package com.payment.gateway.risk;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs candidate rule sets next to the live one without affecting decisions.
+ *
+ * {@link #submit} hands the live result and the same feature vector to riskShadowExecutor and
+ * returns immediately; shadow results only go to {@link ShadowComparisonStore}. When the executor
+ * queue is full the shadow evaluation is dropped and counted, never run on the payment thread.
+ */
+@Service
+@Slf4j
+public class ShadowScoringService {
+
+    private final RiskRuleEngine riskRuleEngine;
+    private final ShadowComparisonStore comparisonStore;
+    private final Executor executor;
+    private final List<String> locations;
+    private final AtomicReference<List<CompiledRuleSet>> shadows = new AtomicReference<>(List.of());
+
+    public ShadowScoringService(RiskRuleEngine riskRuleEngine,
+                                ShadowComparisonStore comparisonStore,
+                                @Qualifier("riskShadowExecutor") Executor executor,
+                                @Value("${app.risk.shadow.locations:}") String locations) {
+        this.riskRuleEngine = riskRuleEngine;
+        this.comparisonStore = comparisonStore;
+        this.executor = executor;
+        this.locations = Arrays.stream(locations.split(","))
+                .map(String::trim)
+                .filter(l -> !l.isEmpty())
+                .toList();
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Shadow scoring is optional; a bad candidate must not stop the gateway
+            log.error("Shadow rule sets could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    public void submit(String paymentId, double[] features, RiskEvaluation live) {
+        List<CompiledRuleSet> current = shadows.get();
+        if (current.isEmpty()) {
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        for (CompiledRuleSet shadow : current) {
+            try {
+                executor.execute(() -> {
+                    long start = System.nanoTime();
+                    RiskEvaluation result = shadow.evaluate(features);
+                    long end = System.nanoTime();
+                    comparisonStore.record(paymentId, live, result, end - start, start - queuedAt);
+                });
+            } catch (TaskRejectedException e) {
+                comparisonStore.recordDropped(shadow.getVersion());
+            }
+        }
+    }
+
+    /**
+     * Reloads all shadow rule sets from app.risk.shadow.locations
+     */
+    public List<Map<String, Object>> reload() throws IOException {
+        List<CompiledRuleSet> loaded = new ArrayList<>();
+        for (String location : locations) {
+            loaded.add(riskRuleEngine.load(location));
+        }
+        replaceAll(loaded);
+        return describe();
+    }
+
+    /**
+     * Adds a shadow rule set, replacing one with the same version
+     */
+    public List<Map<String, Object>> addOrReplace(RuleSetDefinition definition) {
+        CompiledRuleSet compiled = CompiledRuleSet.compile(definition);
+        List<CompiledRuleSet> next = new ArrayList<>(shadows.get());
+        next.removeIf(s -> s.getVersion().equals(compiled.getVersion()));
+        next.add(compiled);
+        comparisonStore.reset(compiled.getVersion());
+        shadows.set(List.copyOf(next));
+        log.info("Shadow rule set activated - version: {}, rules: {}", compiled.getVersion(), compiled.size());
+        return describe();
+    }
+
+    public boolean remove(String version) {
+        List<CompiledRuleSet> next = new ArrayList<>(shadows.get());
+        boolean removed = next.removeIf(s -> s.getVersion().equals(version));
+        if (removed) {
+            shadows.set(List.copyOf(next));
+            log.info("Shadow rule set removed - version: {}", version);
+        }
+        return removed;
+    }
+
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("liveVersion", riskRuleEngine.getActive().getVersion());
+        report.put("shadowRuleSets", describe());
+        report.put("comparisons", comparisonStore.report());
+        return report;
+    }
+
+    private void replaceAll(List<CompiledRuleSet> loaded) {
+        for (CompiledRuleSet shadow : loaded) {
+            comparisonStore.reset(shadow.getVersion());
+        }
+        shadows.set(List.copyOf(loaded));
+        if (!loaded.isEmpty()) {
+            log.info("Shadow rule sets loaded: {}", loaded.stream().map(CompiledRuleSet::getVersion).toList());
+        }
+    }
+
+    private List<Map<String, Object>> describe() {
+        return shadows.get().stream().map(riskRuleEngine::describe).toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.service.AuditAggregator;
+import com.payment.gateway.service.AuditService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditAggregationScheduler {
+    
+    private final AuditAggregator auditAggregator;
+    private final AuditService auditService;
+    
+    @Scheduled(fixedDelayString = "${app.audit.aggregation.flush-interval-ms:15000}")
+    public void flushCompletedMinutes() {
+        try {
+            List<AuditLog> rows = auditAggregator.drainBefore(System.currentTimeMillis() / 60_000);
+            if (!rows.isEmpty()) {
+                auditService.logAggregates(rows);
+                log.debug("Flushed {} aggregated audit rows", rows.size());
+            }
+        } catch (Exception e) {
+            log.error("Error in scheduled audit aggregation flush: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        List<AuditLog> rows = auditAggregator.drainAll();
+        if (!rows.isEmpty()) {
+            auditService.logAggregates(rows);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.AuditPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRetentionScheduler {
+    
+    private final AuditPartitionService auditPartitionService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareOnStartup() {
+        try {
+            if (auditPartitionService.isPartitioned()) {
+                auditPartitionService.ensurePartitions();
+            }
+        } catch (Exception e) {
+            log.error("Error preparing audit log partitions: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "#{${app.audit.cleanup.interval.hours:24} * 3600000}",
+               initialDelayString = "#{${app.audit.cleanup.interval.hours:24} * 3600000}")
+    public void applyRetention() {
+        try {
+            if (auditPartitionService.isPartitioned()) {
+                int created = auditPartitionService.ensurePartitions();
+                int removed = auditPartitionService.removeExpiredPartitions();
+                log.info("Audit log partition maintenance completed - created: {}, removed: {}", created, removed);
+            } else {
+                long deleted = auditPartitionService.deleteExpiredRows();
+                log.info("Audit log retention completed - expired rows deleted: {}", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error in scheduled audit log retention: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.AuditRollupService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRollupScheduler {
+    
+    private final AuditRollupService auditRollupService;
+    
+    @Scheduled(fixedDelayString = "${app.audit.rollup.flush-interval-ms:30000}")
+    public void flushRollups() {
+        try {
+            int rows = auditRollupService.flush();
+            if (rows > 0) {
+                log.debug("Flushed {} audit rollup counters", rows);
+            }
+        } catch (Exception e) {
+            log.error("Error in scheduled audit rollup flush: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            auditRollupService.flush();
+        } catch (Exception e) {
+            log.error("Error flushing audit rollups on shutdown: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.BehaviorFeatureStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BehaviorFeatureScheduler {
+    
+    private final BehaviorFeatureStore behaviorFeatureStore;
+    
+    @Scheduled(fixedDelayString = "${app.risk.features.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        try {
+            int removed = behaviorFeatureStore.evictExpired();
+            if (removed > 0) {
+                log.debug("Evicted {} expired behaviour profiles", removed);
+            }
+            behaviorFeatureStore.snapshot();
+        } catch (Exception e) {
+            log.error("Error writing behaviour feature snapshot: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.CardTestingDetector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardTestingScheduler {
+    
+    private final CardTestingDetector cardTestingDetector;
+    
+    @Scheduled(fixedDelayString = "${app.fraud.card-testing.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        try {
+            int removed = cardTestingDetector.evictIdle();
+            if (removed > 0) {
+                log.debug("Evicted {} idle card-testing keys", removed);
+            }
+        } catch (Exception e) {
+            log.error("Error evicting card-testing statistics: {}", e.getMessage(), e);
+        }
+    }
+}
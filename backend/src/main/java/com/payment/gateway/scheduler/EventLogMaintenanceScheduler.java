@@ -0,0 +1,33 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.PaymentEventLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventLogMaintenanceScheduler {
+    
+    private final PaymentEventLog paymentEventLog;
+    
+    @Scheduled(fixedDelayString = "${app.event-log.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            paymentEventLog.flush();
+        } catch (Exception e) {
+            log.error("Error flushing payment event log: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.event-log.retention.interval-ms:600000}")
+    public void applyRetention() {
+        try {
+            paymentEventLog.applyRetention();
+        } catch (Exception e) {
+            log.error("Error applying payment event log retention: {}", e.getMessage(), e);
+        }
+    }
+}
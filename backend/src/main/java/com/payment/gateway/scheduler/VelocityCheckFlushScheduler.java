@@ -0,0 +1,27 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.VelocityCheckWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityCheckFlushScheduler {
+    
+    private final VelocityCheckWriter velocityCheckWriter;
+    
+    @Scheduled(fixedDelayString = "${app.fraud.velocity.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            int written = velocityCheckWriter.flush();
+            if (written > 0) {
+                log.debug("Persisted {} velocity checks", written);
+            }
+        } catch (Exception e) {
+            log.error("Error flushing velocity checks: {}", e.getMessage(), e);
+        }
+    }
+}
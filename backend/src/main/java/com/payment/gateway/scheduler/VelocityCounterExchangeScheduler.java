@@ -0,0 +1,36 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.VelocityCounterStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityCounterExchangeScheduler {
+    
+    private final VelocityCounterStore velocityCounterStore;
+    
+    @Scheduled(fixedDelayString = "${app.fraud.velocity.cluster.exchange-interval-ms:1000}")
+    public void exchange() {
+        try {
+            velocityCounterStore.exchange();
+        } catch (Exception e) {
+            log.error("Error exchanging velocity counter state: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.fraud.velocity.cluster.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        try {
+            int removed = velocityCounterStore.evictExpired();
+            if (removed > 0) {
+                log.debug("Evicted {} expired velocity counter buckets", removed);
+            }
+        } catch (Exception e) {
+            log.error("Error evicting velocity counter buckets: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.WebhookBatchBuffer;
+import com.payment.gateway.service.WebhookService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookBatchFlushScheduler {
+    
+    private final WebhookBatchBuffer webhookBatchBuffer;
+    private final WebhookService webhookService;
+    
+    @Scheduled(fixedDelayString = "${app.webhook.batch.flush-interval-ms:200}")
+    public void flushExpiredBatches() {
+        try {
+            List<WebhookBatchBuffer.PendingBatch> expired = webhookBatchBuffer.drainExpired(System.currentTimeMillis());
+            for (WebhookBatchBuffer.PendingBatch batch : expired) {
+                webhookService.submitBatch(batch);
+            }
+        } catch (Exception e) {
+            log.error("Error in scheduled webhook batch flush: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        List<WebhookBatchBuffer.PendingBatch> remaining = webhookBatchBuffer.drainAll();
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} open webhook batches before shutdown", remaining.size());
+        }
+        for (WebhookBatchBuffer.PendingBatch batch : remaining) {
+            try {
+                webhookService.deliverBatch(batch);
+            } catch (Exception e) {
+                log.error("Error flushing webhook batch for {} on shutdown: {}", batch.getWebhookId(), e.getMessage());
+            }
+        }
+    }
+}
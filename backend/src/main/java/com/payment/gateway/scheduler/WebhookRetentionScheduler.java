@@ -0,0 +1,36 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.WebhookRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookRetentionScheduler {
+    
+    private final WebhookRetentionService webhookRetentionService;
+    
+    @Value("${app.webhook.retention.enabled:true}")
+    private boolean enabled;
+    
+    @Scheduled(cron = "${app.webhook.retention.cron:0 30 3 * * *}") // Default: every night at 03:30
+    public void runRetention() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            log.info("Starting webhook delivery retention");
+            long compacted = webhookRetentionService.compactFinishedRows();
+            long archived = webhookRetentionService.archiveOldRows();
+            int purged = webhookRetentionService.purgeOrphanPayloads();
+            log.info("Webhook delivery retention completed - compacted: {}, archived: {}, orphan payloads removed: {}",
+                    compacted, archived, purged);
+        } catch (Exception e) {
+            log.error("Error in scheduled webhook delivery retention: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.payment.gateway.scheduler;
+
+import com.payment.gateway.service.WebhookStatsService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookStatsSnapshotScheduler {
+    
+    private final WebhookStatsService webhookStatsService;
+    
+    @Scheduled(fixedDelayString = "${app.webhook.stats.snapshot-interval-ms:60000}")
+    public void snapshotStats() {
+        try {
+            int saved = webhookStatsService.snapshot();
+            if (saved > 0) {
+                log.debug("Snapshotted delivery stats for {} webhooks", saved);
+            }
+        } catch (Exception e) {
+            log.error("Error in scheduled webhook stats snapshot: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        try {
+            webhookStatsService.snapshot();
+        } catch (Exception e) {
+            log.error("Error snapshotting webhook stats on shutdown: {}", e.getMessage());
+        }
+    }
+}
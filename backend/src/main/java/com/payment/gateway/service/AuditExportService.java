@@ -0,0 +1,381 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.AuditExportRequest;
+import com.payment.gateway.dto.AuditExportResponse;
+import com.payment.gateway.dto.AuditSearchRequest;
+import com.payment.gateway.model.AuditLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Asynchronous audit_logs exports for regulators (KVKK, GDPR, PCI).
+ *
+ * Rows are streamed through a server-side cursor inside a read-only transaction on the
+ * single-threaded auditExportExecutor, so memory use does not depend on the export size and
+ * the live write path only sees one extra reader. Output is a directory per export with
+ * gzip NDJSON or CSV chunk files and a manifest.json listing row counts and SHA-256 checksums.
+ */
+@Service
+@Slf4j
+public class AuditExportService {
+
+    private static final String MANIFEST_FILE = "manifest.json";
+
+    private final AuditSearchService auditSearchService;
+    private final AuditService auditService;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Executor exportExecutor;
+
+    private final Map<String, ExportProgress> exports = new ConcurrentHashMap<>();
+
+    @Value("${app.audit.export.dir:./exports/audit}")
+    private String exportDir;
+
+    @Value("${app.audit.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public AuditExportService(AuditSearchService auditSearchService,
+                              AuditService auditService,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Qualifier("auditExportExecutor") Executor exportExecutor) {
+        this.auditSearchService = auditSearchService;
+        this.auditService = auditService;
+        this.dataSource = dataSource;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.exportExecutor = exportExecutor;
+    }
+
+    public AuditExportResponse startExport(AuditExportRequest request) {
+        AuditSearchRequest filter = request.getFilter();
+        if (filter.getFrom() == null || filter.getTo() == null) {
+            return createErrorResponse("Export requires both 'from' and 'to'");
+        }
+        if (filter.getFrom().isAfter(filter.getTo())) {
+            return createErrorResponse("'from' must be before 'to'");
+        }
+
+        String format = request.getFormat() != null ? request.getFormat() : "NDJSON";
+        int rowsPerChunk = request.getRowsPerChunk() != null ? request.getRowsPerChunk() : 500000;
+        ExportProgress progress = new ExportProgress(generateExportId(), format);
+        exports.put(progress.exportId, progress);
+
+        try {
+            exportExecutor.execute(() -> runExport(progress, filter, rowsPerChunk));
+        } catch (RejectedExecutionException e) {
+            exports.remove(progress.exportId);
+            return createErrorResponse("Too many exports queued, try again later");
+        }
+
+        auditService.createEvent()
+            .eventType("DATA_EXPORT")
+            .severity(AuditLog.Severity.HIGH)
+            .actor(request.getRequestedBy() != null ? request.getRequestedBy() : "api-user")
+            .action("EXPORT")
+            .resourceType("AUDIT_LOG")
+            .resourceId(progress.exportId)
+            .additionalData("format", format)
+            .additionalData("from", filter.getFrom().toString())
+            .additionalData("to", filter.getTo().toString())
+            .additionalData("reason", request.getReason())
+            .complianceTag("KVKK")
+            .complianceTag("GDPR")
+            .complianceTag("PCI_DSS")
+            .log();
+
+        log.info("Queued audit export {} ({}) for {} - {}", progress.exportId, format, filter.getFrom(), filter.getTo());
+        return createExportResponse(progress, "Export queued");
+    }
+
+    public AuditExportResponse getExportStatus(String exportId) {
+        ExportProgress progress = exports.get(exportId);
+        if (progress != null) {
+            return createExportResponse(progress, "Export " + progress.status.toLowerCase());
+        }
+
+        // Finished before the last restart: answer from the manifest on disk
+        Path manifest = Paths.get(exportDir, exportId, MANIFEST_FILE);
+        if (exportId.matches("EXP-[A-Z0-9]{8}") && Files.exists(manifest)) {
+            try {
+                AuditExportResponse response = objectMapper.readValue(manifest.toFile(), AuditExportResponse.class);
+                response.setSuccess(true);
+                response.setMessage("Export completed");
+                return response;
+            } catch (IOException e) {
+                log.error("Error reading export manifest {}: {}", manifest, e.getMessage());
+            }
+        }
+        return createErrorResponse("Export not found: " + exportId);
+    }
+
+    private void runExport(ExportProgress progress, AuditSearchRequest filter, int rowsPerChunk) {
+        progress.status = "RUNNING";
+        Path dir = Paths.get(exportDir, progress.exportId);
+
+        try {
+            Files.createDirectories(dir);
+            progress.manifestPath = dir.resolve(MANIFEST_FILE).toAbsolutePath().toString();
+
+            StringBuilder sql = new StringBuilder("SELECT ").append(AuditSearchService.COLUMNS)
+                    .append(" FROM audit_logs WHERE timestamp >= :from AND timestamp < :to");
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("from", Timestamp.valueOf(filter.getFrom()))
+                    .addValue("to", Timestamp.valueOf(filter.getTo()));
+            auditSearchService.appendFilters(sql, params, filter);
+            sql.append(" ORDER BY timestamp, id");
+
+            // Own JdbcTemplate so the fetch size does not leak into the shared one
+            JdbcTemplate streaming = new JdbcTemplate(dataSource);
+            streaming.setFetchSize(fetchSize);
+            NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(streaming);
+
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ); // One consistent snapshot
+
+            ChunkWriter writer = new ChunkWriter(dir, progress, rowsPerChunk);
+            try {
+                readOnly.executeWithoutResult(status ->
+                        named.query(sql.toString(), params, rs -> {
+                            try {
+                                writer.write(rs);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }));
+            } finally {
+                writer.close();
+            }
+
+            progress.finish("COMPLETED", null);
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(dir.resolve(MANIFEST_FILE).toFile(), createExportResponse(progress, null));
+            log.info("Audit export {} completed: {} rows in {} chunks", progress.exportId,
+                    progress.rows.get(), progress.chunks.size());
+
+        } catch (Exception e) {
+            progress.finish("FAILED", e.getMessage());
+            log.error("Audit export {} failed: {}", progress.exportId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes rows into numbered gzip chunk files, rolling over every rowsPerChunk rows.
+     */
+    private class ChunkWriter {
+        private final Path dir;
+        private final ExportProgress progress;
+        private final int rowsPerChunk;
+
+        private BufferedWriter out;
+        private CountingOutputStream counter;
+        private MessageDigest digest;
+        private Path file;
+        private long chunkRows;
+        private String[] columns;
+
+        ChunkWriter(Path dir, ExportProgress progress, int rowsPerChunk) {
+            this.dir = dir;
+            this.progress = progress;
+            this.rowsPerChunk = rowsPerChunk;
+        }
+
+        void write(ResultSet rs) throws SQLException, IOException {
+            if (columns == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                columns = new String[meta.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = meta.getColumnLabel(i + 1);
+                }
+            }
+            if (out == null || chunkRows >= rowsPerChunk) {
+                close();
+                open();
+            }
+
+            if ("CSV".equals(progress.format)) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write(csvValue(value(rs, i + 1)));
+                }
+            } else {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 0; i < columns.length; i++) {
+                    row.put(columns[i], value(rs, i + 1));
+                }
+                out.write(objectMapper.writeValueAsString(row));
+            }
+            out.newLine();
+            chunkRows++;
+            progress.rows.incrementAndGet();
+        }
+
+        void close() throws IOException {
+            if (out == null) {
+                return;
+            }
+            out.close();
+            progress.chunks.add(new AuditExportResponse.Chunk(file.getFileName().toString(), chunkRows,
+                    counter.count, HexFormat.of().formatHex(digest.digest())));
+            out = null;
+        }
+
+        private void open() throws IOException {
+            String extension = "CSV".equals(progress.format) ? ".csv.gz" : ".ndjson.gz";
+            file = dir.resolve(String.format("part-%05d%s", progress.chunks.size() + 1, extension));
+            digest = newSha256();
+            counter = new CountingOutputStream(new DigestOutputStream(Files.newOutputStream(file), digest));
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(counter), StandardCharsets.UTF_8));
+            chunkRows = 0;
+
+            if ("CSV".equals(progress.format)) {
+                out.write(String.join(",", columns));
+                out.newLine();
+            }
+        }
+
+        private Object value(ResultSet rs, int index) throws SQLException {
+            Object value = rs.getObject(index);
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime().toString();
+            }
+            return value;
+        }
+
+        private String csvValue(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+            return text;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String generateExportId() {
+        return "EXP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    private AuditExportResponse createExportResponse(ExportProgress progress, String message) {
+        AuditExportResponse response = new AuditExportResponse();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setExportId(progress.exportId);
+        response.setStatus(progress.status);
+        response.setFormat(progress.format);
+        response.setRowsExported(progress.rows.get());
+        response.setChunks(new ArrayList<>(progress.chunks));
+        response.setManifestPath(progress.manifestPath);
+        response.setStartedAt(progress.startedAt);
+        response.setCompletedAt(progress.completedAt);
+        response.setError(progress.error);
+        return response;
+    }
+
+    private AuditExportResponse createErrorResponse(String message) {
+        AuditExportResponse response = new AuditExportResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+
+    private static class ExportProgress {
+        final String exportId;
+        final String format;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong rows = new AtomicLong();
+        final List<AuditExportResponse.Chunk> chunks = new CopyOnWriteArrayList<>();
+        volatile String status = "QUEUED";
+        volatile String manifestPath;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+
+        ExportProgress(String exportId, String format) {
+            this.exportId = exportId;
+            this.format = format;
+        }
+
+        void finish(String finalStatus, String errorMessage) {
+            this.status = finalStatus;
+            this.error = errorMessage;
+            this.completedAt = LocalDateTime.now();
+        }
+    }
+}
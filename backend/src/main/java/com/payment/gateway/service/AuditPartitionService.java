@@ -0,0 +1,141 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.repository.AuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of audit_logs (see audit_logs_partitioning_migration.sql).
+ *
+ * Upcoming months are created ahead of time; months that are completely past the retention
+ * period are detached and, by default, dropped. Queries constrained on "timestamp"
+ * (findByTimeRange, findByFilters, ...) only scan the matching partitions.
+ * If audit_logs is not partitioned, expired rows are deleted in chunks instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditPartitionService {
+    
+    private static final String PARENT_TABLE = "audit_logs";
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_logs_y(\\d{4})m(\\d{2})");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditLogRepository auditLogRepository;
+    
+    @Value("${app.audit.retention.years:7}")
+    private int retentionYears;
+    
+    @Value("${app.audit.partition.months-ahead:3}")
+    private int monthsAhead;
+    
+    @Value("${app.audit.partition.drop-expired:true}")
+    private boolean dropExpired; // false: detach only, the table stays for offline archiving
+    
+    @Value("${app.audit.cleanup.batch-size:5000}")
+    private int cleanupBatchSize;
+    
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+                Integer.class, PARENT_TABLE);
+        return count != null && count > 0;
+    }
+    
+    /**
+     * Creates the partitions for the current month and the configured months ahead.
+     */
+    public int ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (partitionExists(name)) {
+                continue;
+            }
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, PARENT_TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+            log.info("Created audit log partition {}", name);
+            created++;
+        }
+        return created;
+    }
+    
+    /**
+     * Detaches (and drops) partitions whose whole month is past the retention period.
+     * A partition that still holds rows with a later retentionUntil is left in place.
+     */
+    public int removeExpiredPartitions() {
+        LocalDate cutoff = LocalDate.now().minusYears(retentionYears);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? ORDER BY c.relname",
+                String.class, PARENT_TABLE);
+        
+        int removed = 0;
+        for (String name : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue; // default partition or a manually attached table
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            
+            Boolean held = jdbcTemplate.queryForObject(String.format(
+                    "SELECT EXISTS (SELECT 1 FROM %s WHERE retention_until > now())", name), Boolean.class);
+            if (Boolean.TRUE.equals(held)) {
+                log.warn("Audit partition {} is past retention but has rows with a later retentionUntil, keeping it", name);
+                continue;
+            }
+            
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT_TABLE, name));
+            if (dropExpired) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                log.info("Dropped expired audit log partition {}", name);
+            } else {
+                log.info("Detached expired audit log partition {}", name);
+            }
+            removed++;
+        }
+        return removed;
+    }
+    
+    /**
+     * Fallback for a non-partitioned audit_logs: deletes expired rows in chunks.
+     */
+    public long deleteExpiredRows() {
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+        int removed;
+        do {
+            removed = auditLogRepository.deleteExpiredBatch(now, cleanupBatchSize);
+            deleted += removed;
+        } while (removed == cleanupBatchSize);
+        return deleted;
+    }
+    
+    private boolean partitionExists(String name) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        return Boolean.TRUE.equals(exists);
+    }
+    
+    private static String partitionName(YearMonth month) {
+        return String.format("audit_logs_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
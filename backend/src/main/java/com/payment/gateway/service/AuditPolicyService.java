@@ -0,0 +1,99 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.AuditLog;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per event type write policies for audit events.
+ *
+ * Configured as app.audit.policies=EVENT_TYPE=MODE,... where MODE is ALWAYS, SAMPLE:N
+ * (every N-th event is written) or AGGREGATE (per-minute count rows).
+ * Unlisted event types, and every HIGH or CRITICAL event, are always written.
+ */
+@Service
+@Slf4j
+public class AuditPolicyService {
+    
+    @Value("${app.audit.policies:}")
+    private String policyConfig;
+    
+    private final Map<String, Policy> policies = new HashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> sampleCounters = new ConcurrentHashMap<>();
+    
+    public enum Mode {
+        ALWAYS, SAMPLE, AGGREGATE
+    }
+    
+    public enum Decision {
+        WRITE, WRITE_SAMPLED, DROP, AGGREGATE
+    }
+    
+    public record Policy(Mode mode, int sampleRate) {
+    }
+    
+    @PostConstruct
+    public void loadPolicies() {
+        if (policyConfig == null || policyConfig.isBlank()) {
+            return;
+        }
+        for (String entry : policyConfig.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                log.warn("Ignoring invalid audit policy: {}", entry);
+                continue;
+            }
+            try {
+                policies.put(parts[0].trim(), parsePolicy(parts[1].trim()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid audit policy {}: {}", entry, e.getMessage());
+            }
+        }
+        log.info("Loaded audit policies: {}", policies);
+    }
+    
+    public Decision decide(String eventType, AuditLog.Severity severity) {
+        if (severity == AuditLog.Severity.HIGH || severity == AuditLog.Severity.CRITICAL) {
+            return Decision.WRITE;
+        }
+        Policy policy = eventType != null ? policies.get(eventType) : null;
+        if (policy == null || policy.mode() == Mode.ALWAYS) {
+            return Decision.WRITE;
+        }
+        if (policy.mode() == Mode.AGGREGATE) {
+            return Decision.AGGREGATE;
+        }
+        long seen = sampleCounters.computeIfAbsent(eventType, type -> new AtomicLong()).getAndIncrement();
+        return seen % policy.sampleRate() == 0 ? Decision.WRITE_SAMPLED : Decision.DROP;
+    }
+    
+    public int getSampleRate(String eventType) {
+        Policy policy = policies.get(eventType);
+        return policy != null && policy.mode() == Mode.SAMPLE ? policy.sampleRate() : 1;
+    }
+    
+    private static Policy parsePolicy(String value) {
+        String upper = value.toUpperCase();
+        if (upper.equals("ALWAYS")) {
+            return new Policy(Mode.ALWAYS, 1);
+        }
+        if (upper.equals("AGGREGATE")) {
+            return new Policy(Mode.AGGREGATE, 1);
+        }
+        if (upper.startsWith("SAMPLE:")) {
+            int rate = Integer.parseInt(upper.substring("SAMPLE:".length()).trim());
+            if (rate < 1) {
+                throw new IllegalArgumentException("sample rate must be at least 1");
+            }
+            return new Policy(Mode.SAMPLE, rate);
+        }
+        throw new IllegalArgumentException("unknown mode " + value);
+    }
+}
@@ -0,0 +1,139 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.AuditSummaryResponse;
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.repository.AuditEventRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hourly audit event counters.
+ *
+ * Every audit event is counted in memory when it is logged, including events that are sampled
+ * out or aggregated by AuditPolicyService, and the deltas are upserted into audit_event_rollups
+ * on a schedule. Dashboard summaries read the rollups; audit_logs is only scanned for drill-downs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRollupService {
+    
+    private static final String UNKNOWN = "unknown";
+    
+    private final AuditEventRollupRepository auditEventRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final ConcurrentHashMap<Key, LongAdder> pending = new ConcurrentHashMap<>();
+    
+    private record Key(LocalDateTime bucketStart, String eventType, String actor, AuditLog.Severity severity) {
+    }
+    
+    public void record(String eventType, String actor, AuditLog.Severity severity) {
+        Key key = new Key(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS),
+                eventType != null ? eventType : UNKNOWN,
+                actor != null ? actor : UNKNOWN,
+                severity != null ? severity : AuditLog.Severity.LOW);
+        pending.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Upserts the counted deltas. On failure the deltas are put back for the next run.
+     */
+    public int flush() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<Key> keys = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        for (Map.Entry<Key, LongAdder> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            long delta = entry.getValue().sumThenReset();
+            if (key.bucketStart().isBefore(currentHour)) {
+                // Past hours get no more increments once drained
+                pending.remove(key, entry.getValue());
+            }
+            if (delta == 0) {
+                continue;
+            }
+            keys.add(key);
+            rows.add(new Object[]{Timestamp.valueOf(key.bucketStart()), key.eventType(), key.actor(),
+                    key.severity().name(), delta, now});
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO audit_event_rollups (bucket_start, event_type, actor, severity, event_count, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket_start, event_type, actor, severity) DO UPDATE SET " +
+                    "event_count = audit_event_rollups.event_count + EXCLUDED.event_count, " +
+                    "updated_at = EXCLUDED.updated_at",
+                    rows);
+        } catch (Exception e) {
+            for (int i = 0; i < keys.size(); i++) {
+                pending.computeIfAbsent(keys.get(i), k -> new LongAdder()).add((Long) rows.get(i)[4]);
+            }
+            throw e;
+        }
+        return rows.size();
+    }
+    
+    public AuditSummaryResponse summarizeByEventType(LocalDateTime from, LocalDateTime to) {
+        return summarize("EVENT_TYPE", from, to, auditEventRollupRepository.sumByEventType(from, to));
+    }
+    
+    public AuditSummaryResponse summarizeByActor(LocalDateTime from, LocalDateTime to) {
+        return summarize("ACTOR", from, to, auditEventRollupRepository.sumByActor(from, to));
+    }
+    
+    public AuditSummaryResponse summarizeBySeverity(LocalDateTime from, LocalDateTime to) {
+        return summarize("SEVERITY", from, to, auditEventRollupRepository.sumBySeverity(from, to));
+    }
+    
+    /**
+     * HIGH and CRITICAL event counts per event type; use the search API for the events themselves.
+     */
+    public AuditSummaryResponse summarizeSecurityEvents(LocalDateTime from, LocalDateTime to) {
+        return summarize("SECURITY_EVENT_TYPE", from, to, auditEventRollupRepository.sumByEventTypeForSeverities(
+                from, to, EnumSet.of(AuditLog.Severity.HIGH, AuditLog.Severity.CRITICAL)));
+    }
+    
+    public AuditSummaryResponse hourlyTimeline(LocalDateTime from, LocalDateTime to, String eventType) {
+        return summarize("HOUR", from, to, auditEventRollupRepository.hourlyTotals(from, to, eventType));
+    }
+    
+    private AuditSummaryResponse summarize(String dimension, LocalDateTime from, LocalDateTime to, List<Object[]> rows) {
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            long total = 0;
+            for (Object[] row : rows) {
+                long count = ((Number) row[1]).longValue();
+                counts.put(String.valueOf(row[0]), count);
+                total += count;
+            }
+            return new AuditSummaryResponse(true, "Audit summary retrieved successfully",
+                    dimension, from, to, total, counts);
+        } catch (Exception e) {
+            log.error("Error building audit summary: {}", e.getMessage(), e);
+            AuditSummaryResponse response = new AuditSummaryResponse();
+            response.setSuccess(false);
+            response.setMessage("Internal error occurred");
+            return response;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.AuditSearchRequest;
+import com.payment.gateway.dto.AuditSearchResponse;
+import com.payment.gateway.model.AuditLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Audit search over audit_logs.
+ *
+ * Only the given filters end up in the WHERE clause, so the planner can use the matching
+ * index; additionalData and complianceTags are matched with jsonb containment (GIN indexes).
+ * Results are ordered by (timestamp, id) descending and paged with a keyset cursor.
+ * A time range is always applied so partitioned tables only scan the relevant months.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditSearchService {
+    
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 500;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    
+    static final String COLUMNS =
+            "id, timestamp, event_type, severity, actor, resource_type, resource_id, action, " +
+            "old_values, new_values, ip_address, user_agent, session_id, request_method, request_uri, " +
+            "http_status, country_code, region_name, device_fingerprint, browser_name, browser_version, " +
+            "operating_system, api_key, correlation_id, request_headers, request_size_bytes, " +
+            "response_size_bytes, processing_time_ms, compliance_tags::text AS compliance_tags, " +
+            "retention_until, additional_data::text AS additional_data";
+    
+    private static final BeanPropertyRowMapper<AuditLog> ROW_MAPPER = new BeanPropertyRowMapper<>(AuditLog.class);
+    
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public AuditSearchResponse search(AuditSearchRequest request) {
+        try {
+            LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+            LocalDateTime from = request.getFrom() != null ? request.getFrom() : to.minusDays(DEFAULT_RANGE_DAYS);
+            if (from.isAfter(to)) {
+                return createErrorResponse("'from' must be before 'to'");
+            }
+            int limit = request.getLimit() != null ? Math.max(1, Math.min(request.getLimit(), MAX_LIMIT)) : DEFAULT_LIMIT;
+            
+            StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                    .append(" FROM audit_logs WHERE timestamp >= :from AND timestamp < :to");
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("from", Timestamp.valueOf(from))
+                    .addValue("to", Timestamp.valueOf(to))
+                    .addValue("limit", limit + 1);
+            
+            appendFilters(sql, params, request);
+            
+            if (request.getCursor() != null && !request.getCursor().isBlank()) {
+                Cursor cursor = decodeCursor(request.getCursor());
+                if (cursor == null) {
+                    return createErrorResponse("Invalid cursor");
+                }
+                sql.append(" AND (timestamp, id) < (:cursorTimestamp, :cursorId)");
+                params.addValue("cursorTimestamp", Timestamp.valueOf(cursor.timestamp()));
+                params.addValue("cursorId", cursor.id());
+            }
+            
+            sql.append(" ORDER BY timestamp DESC, id DESC LIMIT :limit");
+            
+            List<AuditLog> events = namedParameterJdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+            String nextCursor = null;
+            if (events.size() > limit) {
+                events = events.subList(0, limit);
+                AuditLog last = events.get(limit - 1);
+                nextCursor = encodeCursor(last.getTimestamp(), last.getId());
+            }
+            
+            return new AuditSearchResponse(true, "Audit events retrieved successfully", events, events.size(), nextCursor);
+            
+        } catch (JsonProcessingException e) {
+            return createErrorResponse("Invalid search filter: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error searching audit logs: {}", e.getMessage(), e);
+            return createErrorResponse("Internal error occurred");
+        }
+    }
+    
+    /**
+     * Appends the optional filters of the request (everything except time range and cursor).
+     */
+    void appendFilters(StringBuilder sql, MapSqlParameterSource params, AuditSearchRequest request)
+            throws JsonProcessingException {
+        appendEquals(sql, params, "event_type", "eventType", request.getEventType());
+        appendEquals(sql, params, "actor", "actor", request.getActor());
+        appendEquals(sql, params, "severity", "severity",
+                request.getSeverity() != null ? request.getSeverity().name() : null);
+        appendEquals(sql, params, "resource_type", "resourceType", request.getResourceType());
+        appendEquals(sql, params, "resource_id", "resourceId", request.getResourceId());
+        if (request.getComplianceTag() != null && !request.getComplianceTag().isBlank()) {
+            sql.append(" AND compliance_tags @> CAST(:complianceTags AS jsonb)");
+            params.addValue("complianceTags", objectMapper.writeValueAsString(List.of(request.getComplianceTag())));
+        }
+        if (request.getData() != null && !request.getData().isEmpty()) {
+            sql.append(" AND additional_data @> CAST(:additionalData AS jsonb)");
+            params.addValue("additionalData", objectMapper.writeValueAsString(request.getData()));
+        }
+    }
+    
+    private static void appendEquals(StringBuilder sql, MapSqlParameterSource params,
+                                     String column, String param, String value) {
+        if (value != null && !value.isBlank()) {
+            sql.append(" AND ").append(column).append(" = :").append(param);
+            params.addValue(param, value);
+        }
+    }
+    
+    private static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    private record Cursor(LocalDateTime timestamp, long id) {
+    }
+    
+    private AuditSearchResponse createErrorResponse(String message) {
+        AuditSearchResponse response = new AuditSearchResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+}
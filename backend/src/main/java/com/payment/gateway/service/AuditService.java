@@ -1,17 +1,27 @@
 package com.payment.gateway.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.payment.gateway.model.AuditLog;
 import com.payment.gateway.repository.AuditLogRepository;
+import com.payment.gateway.util.PooledJsonWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,17 +31,48 @@ public class AuditService {
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper;
     private final RequestContextService requestContextService;
+    private final AuditSpool auditSpool;
+    private final AuditPolicyService auditPolicyService;
+    private final AuditAggregator auditAggregator;
+    private final AuditRollupService auditRollupService;
+    
+    @Value("${app.audit.spool.slow-threshold-ms:2000}")
+    private long spoolSlowThresholdMs;
+    
+    @Value("${app.audit.spool.bypass-ms:30000}")
+    private long spoolBypassMs;
+    
+    private volatile long spoolUntilMs;
     
     /**
-     * Asynchronously log an audit event
+     * Asynchronously log an audit event.
+     * If the database write fails or is slow, events go to the local spool for a while
+     * and are replayed into audit_logs by AuditSpoolReplayScheduler.
+     * Not @Transactional: with the database down the interceptor would fail to get a
+     * connection before the body runs and the spool fallback would never be reached.
      */
-    @Async
-    @Transactional
+    @Async("auditTaskExecutor")
     public void logEvent(AuditEventBuilder builder) {
+        AuditLog auditLog = prepare(builder);
+        if (auditLog == null) {
+            return;
+        }
+        
+        if (System.currentTimeMillis() < spoolUntilMs) {
+            spool(auditLog);
+            return;
+        }
+        
         try {
-            AuditLog auditLog = builder.build();
+            long startMs = System.currentTimeMillis();
             auditLogRepository.save(auditLog);
             
+            long elapsedMs = System.currentTimeMillis() - startMs;
+            if (elapsedMs > spoolSlowThresholdMs) {
+                log.warn("Audit log write took {} ms, spooling audit events for {} ms", elapsedMs, spoolBypassMs);
+                spoolUntilMs = System.currentTimeMillis() + spoolBypassMs;
+            }
+            
             // Also log to application log for immediate visibility
             log.info("AUDIT: {} - {} - {} - {} - {}", 
                 auditLog.getEventType(),
@@ -41,10 +82,79 @@ public class AuditService {
                 auditLog.getResourceId());
                 
         } catch (Exception e) {
-            log.error("Failed to save audit log: {}", e.getMessage(), e);
-            // Fallback to application log
+            log.error("Failed to save audit log, spooling locally: {}", e.getMessage());
+            spoolUntilMs = System.currentTimeMillis() + spoolBypassMs;
+            auditLog.setId(null);
+            spool(auditLog);
+        }
+    }
+    
+    /**
+     * Writes the event to the local spool on the calling thread instead of the async executor.
+     * For callers that cannot hand the event off without risking its loss; the spool replayer
+     * moves it into audit_logs.
+     */
+    public void spoolEvent(AuditEventBuilder builder) {
+        AuditLog auditLog = prepare(builder);
+        if (auditLog != null) {
+            spool(auditLog);
+        }
+    }
+    
+    /**
+     * Applies rollups and the event type's policy and builds the row, or returns null when
+     * the policy drops or aggregates the event or the row cannot be built.
+     */
+    private AuditLog prepare(AuditEventBuilder builder) {
+        auditRollupService.record(builder.eventType, builder.actor, builder.severity);
+        
+        AuditPolicyService.Decision decision = auditPolicyService.decide(builder.eventType, builder.severity);
+        if (decision == AuditPolicyService.Decision.DROP) {
+            return null;
+        }
+        if (decision == AuditPolicyService.Decision.AGGREGATE && auditAggregator.record(
+                builder.eventType, builder.actor, builder.action, builder.resourceType, builder.resourceId)) {
+            return null;
+        }
+        if (decision == AuditPolicyService.Decision.WRITE_SAMPLED) {
+            builder.additionalData("sampleRate", auditPolicyService.getSampleRate(builder.eventType));
+        }
+        
+        try {
+            AuditLog auditLog = builder.build();
+            auditLog.setTimestamp(LocalDateTime.now());
+            return auditLog;
+        } catch (Exception e) {
+            log.error("Failed to build audit log: {}", e.getMessage(), e);
             log.warn("AUDIT_FALLBACK: {} - {} - {}", 
                 builder.eventType, builder.actor, builder.action);
+            return null;
+        }
+    }
+    
+    /**
+     * Writes the per-minute count rows produced by AuditAggregator.
+     */
+    public void logAggregates(List<AuditLog> rows) {
+        try {
+            auditLogRepository.saveAll(rows);
+        } catch (Exception e) {
+            log.error("Failed to save aggregated audit logs, spooling locally: {}", e.getMessage());
+            rows.forEach(row -> {
+                row.setId(null);
+                spool(row);
+            });
+        }
+    }
+    
+    private void spool(AuditLog auditLog) {
+        try {
+            auditSpool.append(auditLog);
+        } catch (Exception e) {
+            log.error("Failed to spool audit log: {}", e.getMessage(), e);
+            // Fallback to application log
+            log.warn("AUDIT_FALLBACK: {} - {} - {}", 
+                auditLog.getEventType(), auditLog.getActor(), auditLog.getAction());
         }
     }
     
@@ -189,20 +299,45 @@ public class AuditService {
         };
     }
     
-    private String toJson(Object object) {
-        if (object == null) return null;
+    /**
+     * Serializes through the thread's pooled buffer with a streaming generator.
+     */
+    String writeJson(JsonWriteAction action) {
+        PooledJsonWriter writer = PooledJsonWriter.acquire();
+        try (JsonGenerator generator = objectMapper.createGenerator(writer)) {
+            action.write(generator);
+        } catch (IOException e) {
+            log.warn("Failed to serialize audit data to JSON: {}", e.getMessage());
+            return null;
+        }
+        return writer.toString();
+    }
+    
+    JsonNode toTree(Object value) {
         try {
-            return objectMapper.writeValueAsString(object);
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to serialize object to JSON: {}", e.getMessage());
-            return object.toString();
+            return objectMapper.valueToTree(value);
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to convert audit value to JSON: {}", e.getMessage());
+            return TextNode.valueOf(String.valueOf(value));
         }
     }
     
+    @FunctionalInterface
+    interface JsonWriteAction {
+        void write(JsonGenerator generator) throws IOException;
+    }
+    
     /**
      * Builder pattern for audit events
      */
     public static class AuditEventBuilder {
+        private static final int INITIAL_DATA_CAPACITY = 8;
+        private static final byte KIND_STRING = 0;
+        private static final byte KIND_LONG = 1;
+        private static final byte KIND_DOUBLE = 2;
+        private static final byte KIND_BOOLEAN = 3;
+        private static final byte KIND_OBJECT = 4;
+        
         private final AuditService auditService;
         private String eventType;
         private AuditLog.Severity severity = AuditLog.Severity.LOW;
@@ -233,8 +368,14 @@ public class AuditService {
         private Long responseSizeBytes;
         private Long processingTimeMs;
         
-        private StringBuilder complianceTags = new StringBuilder();
-        private StringBuilder additionalData = new StringBuilder("{");
+        private final List<String> complianceTags = new ArrayList<>(2);
+        
+        // additionalData as typed key/value pairs, serialized once in build()
+        private String[] dataKeys = new String[INITIAL_DATA_CAPACITY];
+        private byte[] dataKinds = new byte[INITIAL_DATA_CAPACITY];
+        private long[] dataNumbers = new long[INITIAL_DATA_CAPACITY]; // long value or double bits
+        private Object[] dataRefs = new Object[INITIAL_DATA_CAPACITY];
+        private int dataSize;
         
         public AuditEventBuilder(AuditService auditService) {
             this.auditService = auditService;
@@ -372,26 +513,73 @@ public class AuditService {
         }
         
         public AuditEventBuilder complianceTag(String tag) {
-            if (complianceTags.length() > 0) {
-                complianceTags.append(",");
+            if (tag != null && !complianceTags.contains(tag)) {
+                complianceTags.add(tag);
             }
-            complianceTags.append("\"").append(tag).append("\"");
+            return this;
+        }
+        
+        public AuditEventBuilder additionalData(String key, String value) {
+            putData(key, KIND_STRING, 0, value);
+            return this;
+        }
+        
+        public AuditEventBuilder additionalData(String key, long value) {
+            putData(key, KIND_LONG, value, null);
+            return this;
+        }
+        
+        public AuditEventBuilder additionalData(String key, double value) {
+            putData(key, KIND_DOUBLE, Double.doubleToRawLongBits(value), null);
+            return this;
+        }
+        
+        public AuditEventBuilder additionalData(String key, boolean value) {
+            putData(key, KIND_BOOLEAN, value ? 1 : 0, null);
             return this;
         }
         
         public AuditEventBuilder additionalData(String key, Object value) {
-            if (!additionalData.toString().equals("{")) {
-                additionalData.append(",");
+            if (value instanceof String string) {
+                return additionalData(key, string);
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return additionalData(key, ((Number) value).longValue());
             }
-            additionalData.append("\"").append(key).append("\":");
-            if (value instanceof String) {
-                additionalData.append("\"").append(value).append("\"");
-            } else {
-                additionalData.append(value);
+            if (value instanceof Double || value instanceof Float) {
+                return additionalData(key, ((Number) value).doubleValue());
             }
+            if (value instanceof Boolean bool) {
+                return additionalData(key, bool.booleanValue());
+            }
+            putData(key, KIND_OBJECT, 0, value);
             return this;
         }
         
+        /**
+         * Stores a pair; a repeated key overwrites the earlier value.
+         */
+        private void putData(String key, byte kind, long number, Object ref) {
+            int index = 0;
+            while (index < dataSize && !dataKeys[index].equals(key)) {
+                index++;
+            }
+            if (index == dataSize) {
+                if (dataSize == dataKeys.length) {
+                    int capacity = dataSize * 2;
+                    dataKeys = Arrays.copyOf(dataKeys, capacity);
+                    dataKinds = Arrays.copyOf(dataKinds, capacity);
+                    dataNumbers = Arrays.copyOf(dataNumbers, capacity);
+                    dataRefs = Arrays.copyOf(dataRefs, capacity);
+                }
+                dataKeys[index] = key;
+                dataSize++;
+            }
+            dataKinds[index] = kind;
+            dataNumbers[index] = number;
+            dataRefs[index] = ref;
+        }
+        
         public AuditEventBuilder request(HttpServletRequest request) {
             if (request != null) {
                 this.ipAddress = getClientIpAddress(request);
@@ -420,8 +608,12 @@ public class AuditService {
             auditService.logEvent(this);
         }
         
+        public void spool() {
+            auditService.spoolEvent(this);
+        }
+        
         AuditLog build() {
-            additionalData.append("}");
+            String[] values = diffValues();
             
             return AuditLog.builder()
                 .eventType(eventType)
@@ -430,8 +622,8 @@ public class AuditService {
                 .resourceType(resourceType)
                 .resourceId(resourceId)
                 .action(action)
-                .oldValues(auditService.toJson(oldValues))
-                .newValues(auditService.toJson(newValues))
+                .oldValues(values[0])
+                .newValues(values[1])
                 .ipAddress(ipAddress)
                 .userAgent(userAgent)
                 .sessionId(sessionId)
@@ -450,9 +642,85 @@ public class AuditService {
                 .requestSizeBytes(requestSizeBytes)
                 .responseSizeBytes(responseSizeBytes)
                 .processingTimeMs(processingTimeMs)
-                .complianceTags("[" + complianceTags.toString() + "]")
-                .additionalData(additionalData.toString())
+                .complianceTags(auditService.writeJson(this::writeComplianceTags))
+                .additionalData(auditService.writeJson(this::writeAdditionalData))
                 .build();
         }
+        
+        private void writeComplianceTags(JsonGenerator generator) throws IOException {
+            generator.writeStartArray();
+            for (String tag : complianceTags) {
+                generator.writeString(tag);
+            }
+            generator.writeEndArray();
+        }
+        
+        private void writeAdditionalData(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < dataSize; i++) {
+                generator.writeFieldName(dataKeys[i]);
+                switch (dataKinds[i]) {
+                    case KIND_STRING -> {
+                        if (dataRefs[i] == null) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeString((String) dataRefs[i]);
+                        }
+                    }
+                    case KIND_LONG -> generator.writeNumber(dataNumbers[i]);
+                    case KIND_DOUBLE -> generator.writeNumber(Double.longBitsToDouble(dataNumbers[i]));
+                    case KIND_BOOLEAN -> generator.writeBoolean(dataNumbers[i] != 0);
+                    default -> generator.writeObject(dataRefs[i]);
+                }
+            }
+            generator.writeEndObject();
+        }
+        
+        /**
+         * Old/new values as JSON. When both sides are objects only the top-level fields
+         * that differ are kept; a single side is stored as a full snapshot.
+         * The trees are only computed here, when the event is actually written.
+         */
+        private String[] diffValues() {
+            JsonNode oldTree = oldValues != null ? auditService.toTree(oldValues) : null;
+            JsonNode newTree = newValues != null ? auditService.toTree(newValues) : null;
+            
+            if (oldTree instanceof ObjectNode oldObject && newTree instanceof ObjectNode newObject) {
+                Set<String> changed = new LinkedHashSet<>();
+                oldObject.fieldNames().forEachRemaining(field -> {
+                    if (!oldObject.get(field).equals(newObject.get(field))) {
+                        changed.add(field);
+                    }
+                });
+                newObject.fieldNames().forEachRemaining(field -> {
+                    if (!oldObject.has(field)) {
+                        changed.add(field);
+                    }
+                });
+                return new String[]{
+                    auditService.writeJson(generator -> writeFields(generator, oldObject, changed)),
+                    auditService.writeJson(generator -> writeFields(generator, newObject, changed))
+                };
+            }
+            
+            return new String[]{
+                oldTree != null ? auditService.writeJson(generator -> generator.writeTree(oldTree)) : null,
+                newTree != null ? auditService.writeJson(generator -> generator.writeTree(newTree)) : null
+            };
+        }
+        
+        private static void writeFields(JsonGenerator generator, ObjectNode node, Set<String> fields) throws IOException {
+            generator.writeStartObject();
+            for (String field : fields) {
+                generator.writeFieldName(field);
+                JsonNode value = node.get(field);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeTree(value);
+                }
+            }
+            generator.writeEndObject();
+        }
     }
 }
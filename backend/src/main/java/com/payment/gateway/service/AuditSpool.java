@@ -0,0 +1,118 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.util.SegmentedLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local fallback store for audit events that could not be written to audit_logs.
+ *
+ * Events are appended as JSON to a memory-mapped segmented log. The replayer reads from the
+ * checkpoint offset, writes the events to the database and then advances the checkpoint,
+ * so after a restart it resumes where it stopped (at-least-once).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditSpool {
+    
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.audit.spool.dir:./spool/audit}")
+    private String spoolDir;
+    
+    @Value("${app.audit.spool.segment-bytes:16777216}")
+    private int segmentBytes;
+    
+    @Value("${app.audit.spool.force-on-append:true}")
+    private boolean forceOnAppend;
+    
+    private SegmentedLog segmentedLog;
+    private Path checkpointFile;
+    private volatile long checkpoint;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Paths.get(spoolDir);
+        segmentedLog = new SegmentedLog(dir, segmentBytes, forceOnAppend);
+        checkpointFile = dir.resolve(CHECKPOINT_FILE);
+        checkpoint = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim())
+                : segmentedLog.getStartOffset();
+        
+        if (hasPending()) {
+            log.warn("Audit spool has {} bytes of events waiting for replay", getPendingBytes());
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        segmentedLog.close();
+    }
+    
+    public void append(AuditLog auditLog) throws IOException {
+        segmentedLog.append(objectMapper.writeValueAsBytes(auditLog));
+    }
+    
+    public boolean hasPending() {
+        return checkpoint < segmentedLog.getEndOffset();
+    }
+    
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+    
+    public long getPendingBytes() {
+        return Math.max(0, segmentedLog.getEndOffset() - checkpoint);
+    }
+    
+    /**
+     * Reads the next events after the checkpoint. Records that cannot be parsed are skipped.
+     */
+    public Batch readBatch(int maxEvents) throws IOException {
+        List<SegmentedLog.LogRecord> records = segmentedLog.read(checkpoint, maxEvents);
+        List<AuditLog> events = new ArrayList<>(records.size());
+        for (SegmentedLog.LogRecord record : records) {
+            try {
+                AuditLog auditLog = objectMapper.readValue(record.payload(), AuditLog.class);
+                auditLog.setId(null);
+                events.add(auditLog);
+            } catch (IOException e) {
+                log.error("Skipping unreadable audit spool record at offset {}: {}", record.offset(), e.getMessage());
+            }
+        }
+        long nextOffset = records.isEmpty() ? checkpoint : records.get(records.size() - 1).nextOffset();
+        return new Batch(events, nextOffset);
+    }
+    
+    /**
+     * Marks everything before nextOffset as written and removes fully consumed segments.
+     */
+    public void commit(long nextOffset) throws IOException {
+        Path tmp = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(nextOffset), StandardCharsets.UTF_8);
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = nextOffset;
+        segmentedLog.deleteSegmentsBefore(nextOffset);
+    }
+    
+    public record Batch(List<AuditLog> events, long nextOffset) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.risk.RiskFeature;
+import com.payment.gateway.util.CountMinSketch;
+import com.payment.gateway.util.RecentKeyRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-customer, per-card and per-device payment history kept as small primitive profiles.
+ *
+ * Profiles are updated incrementally from PaymentCreated (BehaviorFeatureSubscriber) and read once
+ * per assessment by {@link #fill}, which writes every behaviour feature straight into the risk
+ * feature vector. Since events are delivered after commit, an assessment sees the history before
+ * its own payment. Profiles not seen for ttl-days are evicted; the whole store is written to a
+ * binary snapshot periodically and on shutdown, and read back on start-up.
+ */
+@Service
+@Slf4j
+public class BehaviorFeatureStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x42465331; // "BFS1"
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    private final Map<String, Profile> customers = new ConcurrentHashMap<>();
+    private final Map<String, Profile> cards = new ConcurrentHashMap<>();
+    private final Map<String, Profile> devices = new ConcurrentHashMap<>();
+
+    private final Path snapshotFile;
+    private final long ttlMs;
+    private final int ringCapacity;
+
+    public BehaviorFeatureStore(@Value("${app.risk.features.snapshot.path:./data/risk-features.snapshot}") String snapshotPath,
+                                @Value("${app.risk.features.ttl-days:90}") int ttlDays,
+                                @Value("${app.risk.features.ring-capacity:16}") int ringCapacity) {
+        this.snapshotFile = Paths.get(snapshotPath);
+        this.ttlMs = ttlDays * DAY_MS;
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * One profile per entity. The two rings depend on the kind:
+     * customer = merchants / devices, card = merchants / customers, device = merchants / cards.
+     */
+    private static final class Profile {
+        private long firstSeenMs;
+        private long lastSeenMs;
+        private int payments;
+        private double amountSum;
+        private final RecentKeyRing merchants;
+        private final RecentKeyRing linked;
+
+        Profile(int ringCapacity) {
+            this.merchants = new RecentKeyRing(ringCapacity);
+            this.linked = new RecentKeyRing(ringCapacity);
+        }
+
+        void record(long nowMs, double amount, long merchantKey, Long linkedKey) {
+            if (payments == 0) {
+                firstSeenMs = nowMs;
+            }
+            lastSeenMs = Math.max(lastSeenMs, nowMs);
+            payments++;
+            amountSum += amount;
+            merchants.add(merchantKey, nowMs);
+            if (linkedKey != null) {
+                linked.add(linkedKey, nowMs);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            readSnapshot(now);
+            log.info("Behaviour feature snapshot loaded - customers: {}, cards: {}, devices: {}",
+                    customers.size(), cards.size(), devices.size());
+        } catch (Exception e) {
+            // A corrupt snapshot only costs history; start empty rather than fail
+            customers.clear();
+            cards.clear();
+            devices.clear();
+            log.error("Behaviour feature snapshot {} could not be read: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.error("Error writing behaviour feature snapshot on shutdown: {}", e.getMessage(), e);
+        }
+    }
+
+    public void record(String customerId, String cardFingerprint, String deviceFingerprint,
+                       String merchantId, double amount, long nowMs) {
+        long merchantKey = CountMinSketch.hash64(merchantId != null ? merchantId : "");
+        Long customerKey = customerId != null ? CountMinSketch.hash64(customerId) : null;
+        Long cardKey = cardFingerprint != null ? CountMinSketch.hash64(cardFingerprint) : null;
+        Long deviceKey = deviceFingerprint != null ? CountMinSketch.hash64(deviceFingerprint) : null;
+
+        if (customerId != null) {
+            update(customers, customerId, nowMs, amount, merchantKey, deviceKey);
+        }
+        if (cardFingerprint != null) {
+            update(cards, cardFingerprint, nowMs, amount, merchantKey, customerKey);
+        }
+        if (deviceFingerprint != null) {
+            update(devices, deviceFingerprint, nowMs, amount, merchantKey, cardKey);
+        }
+    }
+
+    /**
+     * Writes all behaviour features for one payment into the feature vector
+     */
+    public void fill(double[] features, String customerId, String cardFingerprint, String deviceFingerprint,
+                     double amount, long nowMs) {
+        long dayAgo = nowMs - DAY_MS;
+
+        Profile customer = customerId != null ? customers.get(customerId) : null;
+        if (customer != null) {
+            synchronized (customer) {
+                double average = customer.payments > 0 ? customer.amountSum / customer.payments : -1;
+                features[RiskFeature.CUSTOMER_PAYMENTS.ordinal()] = customer.payments;
+                features[RiskFeature.CUSTOMER_AVG_AMOUNT.ordinal()] = average;
+                features[RiskFeature.AMOUNT_TO_CUSTOMER_AVG.ordinal()] = average > 0 ? amount / average : -1;
+                features[RiskFeature.CUSTOMER_MERCHANTS_24H.ordinal()] = customer.merchants.countSince(dayAgo);
+                features[RiskFeature.CUSTOMER_AGE_HOURS.ordinal()] = (nowMs - customer.firstSeenMs) / (double) HOUR_MS;
+                features[RiskFeature.NEW_DEVICE.ordinal()] = deviceFingerprint == null ? -1
+                        : customer.linked.contains(CountMinSketch.hash64(deviceFingerprint)) ? 0 : 1;
+            }
+        } else {
+            features[RiskFeature.CUSTOMER_PAYMENTS.ordinal()] = 0;
+            features[RiskFeature.CUSTOMER_AVG_AMOUNT.ordinal()] = -1;
+            features[RiskFeature.AMOUNT_TO_CUSTOMER_AVG.ordinal()] = -1;
+            features[RiskFeature.CUSTOMER_MERCHANTS_24H.ordinal()] = 0;
+            features[RiskFeature.CUSTOMER_AGE_HOURS.ordinal()] = 0;
+            features[RiskFeature.NEW_DEVICE.ordinal()] = deviceFingerprint == null ? -1 : 1;
+        }
+
+        Profile card = cardFingerprint != null ? cards.get(cardFingerprint) : null;
+        if (card != null) {
+            synchronized (card) {
+                features[RiskFeature.CARD_PAYMENTS.ordinal()] = card.payments;
+                features[RiskFeature.CARD_MERCHANTS_24H.ordinal()] = card.merchants.countSince(dayAgo);
+                features[RiskFeature.CARD_CUSTOMERS.ordinal()] = card.linked.size();
+                features[RiskFeature.CARD_AGE_HOURS.ordinal()] = (nowMs - card.firstSeenMs) / (double) HOUR_MS;
+            }
+        } else {
+            features[RiskFeature.CARD_PAYMENTS.ordinal()] = 0;
+            features[RiskFeature.CARD_MERCHANTS_24H.ordinal()] = 0;
+            features[RiskFeature.CARD_CUSTOMERS.ordinal()] = 0;
+            features[RiskFeature.CARD_AGE_HOURS.ordinal()] = 0;
+        }
+
+        Profile device = deviceFingerprint != null ? devices.get(deviceFingerprint) : null;
+        if (device != null) {
+            synchronized (device) {
+                features[RiskFeature.DEVICE_PAYMENTS.ordinal()] = device.payments;
+                features[RiskFeature.DEVICE_CARDS_24H.ordinal()] = device.linked.countSince(dayAgo);
+            }
+        } else {
+            features[RiskFeature.DEVICE_PAYMENTS.ordinal()] = deviceFingerprint == null ? -1 : 0;
+            features[RiskFeature.DEVICE_CARDS_24H.ordinal()] = deviceFingerprint == null ? -1 : 0;
+        }
+    }
+
+    public int evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        int before = customers.size() + cards.size() + devices.size();
+        customers.values().removeIf(p -> p.lastSeenMs < cutoff);
+        cards.values().removeIf(p -> p.lastSeenMs < cutoff);
+        devices.values().removeIf(p -> p.lastSeenMs < cutoff);
+        return before - (customers.size() + cards.size() + devices.size());
+    }
+
+    /**
+     * Writes all profiles to a temp file and atomically replaces the snapshot
+     */
+    public synchronized void snapshot() throws IOException {
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(System.currentTimeMillis());
+            writeProfiles(out, customers);
+            writeProfiles(out, cards);
+            writeProfiles(out, devices);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("customers", customers.size());
+        stats.put("cards", cards.size());
+        stats.put("devices", devices.size());
+        stats.put("ttlDays", ttlMs / DAY_MS);
+        stats.put("snapshotPath", snapshotFile.toAbsolutePath().toString());
+        try {
+            stats.put("snapshotBytes", Files.exists(snapshotFile) ? Files.size(snapshotFile) : 0);
+        } catch (IOException e) {
+            stats.put("snapshotBytes", null);
+        }
+        return stats;
+    }
+
+    private void update(Map<String, Profile> profiles, String key, long nowMs, double amount,
+                        long merchantKey, Long linkedKey) {
+        Profile profile = profiles.computeIfAbsent(key, k -> new Profile(ringCapacity));
+        synchronized (profile) {
+            profile.record(nowMs, amount, merchantKey, linkedKey);
+        }
+    }
+
+    private void writeProfiles(DataOutputStream out, Map<String, Profile> profiles) throws IOException {
+        // Entry count is not known up front with concurrent writers: each entry is prefixed with a marker
+        for (Map.Entry<String, Profile> entry : profiles.entrySet()) {
+            Profile profile = entry.getValue();
+            out.writeBoolean(true);
+            out.writeUTF(entry.getKey());
+            synchronized (profile) {
+                out.writeLong(profile.firstSeenMs);
+                out.writeLong(profile.lastSeenMs);
+                out.writeInt(profile.payments);
+                out.writeDouble(profile.amountSum);
+                profile.merchants.write(out);
+                profile.linked.write(out);
+            }
+        }
+        out.writeBoolean(false);
+    }
+
+    private void readSnapshot(long nowMs) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a behaviour feature snapshot");
+            }
+            in.readLong(); // written at
+            readProfiles(in, customers, nowMs);
+            readProfiles(in, cards, nowMs);
+            readProfiles(in, devices, nowMs);
+        }
+    }
+
+    private void readProfiles(DataInputStream in, Map<String, Profile> profiles, long nowMs) throws IOException {
+        while (in.readBoolean()) {
+            String key = in.readUTF();
+            Profile profile = new Profile(ringCapacity);
+            profile.firstSeenMs = in.readLong();
+            profile.lastSeenMs = in.readLong();
+            profile.payments = in.readInt();
+            profile.amountSum = in.readDouble();
+            profile.merchants.read(in);
+            profile.linked.read(in);
+            if (profile.lastSeenMs >= nowMs - ttlMs) {
+                profiles.put(key, profile);
+            }
+        }
+    }
+}
@@ -19,12 +19,29 @@ public class BlacklistService {
     
     private final BlacklistRepository blacklistRepository;
     private final AuditService auditService;
+    private final CardFingerprintService cardFingerprintService;
     
     public boolean isBlacklisted(PaymentRequest request) {
+        return isBlacklisted(request, cardFingerprintService.fingerprint(request.getCardNumber()));
+    }
+    
+    /**
+     * @param cardFingerprint fingerprint already computed for this request, avoids hashing the PAN twice
+     */
+    public boolean isBlacklisted(PaymentRequest request, String cardFingerprint) {
         log.debug("Checking blacklist for payment request");
         
         LocalDateTime now = LocalDateTime.now();
         
+        // Exact card match via fingerprint (indexed type+value lookup)
+        if (cardFingerprint != null && blacklistRepository.findActiveEntry(
+                BlacklistEntry.BlacklistType.CARD_FINGERPRINT, cardFingerprint, now).isPresent()) {
+            log.warn("Payment blocked - card fingerprint is blacklisted: {} ending in {}", 
+                    getCardBin(request.getCardNumber()), getLastFourDigits(request.getCardNumber()));
+            return true;
+        }
+        
+        // BIN+Last4 entries created before fingerprints existed
         // Check card BIN + Last4 combination (PCI DSS compliant)
         if (isCardBinLast4Blacklisted(request.getCardNumber(), now)) {
             log.warn("Payment blocked - card BIN+Last4 is blacklisted: {} ending in {}", 
@@ -190,6 +207,7 @@ public class BlacklistService {
     }
     
     // Convenience methods for common blacklist operations
+    @Transactional
     public BlacklistEntry addCardToBlacklist(String cardNumber, BlacklistEntry.BlacklistReason reason, 
                                            String description, String addedBy) {
         
@@ -209,6 +227,12 @@ public class BlacklistService {
         
         BlacklistEntry savedEntry = blacklistRepository.save(entry);
         
+        String cardFingerprint = cardFingerprintService.fingerprint(cardNumber);
+        if (cardFingerprint != null) {
+            addToBlacklist(BlacklistEntry.BlacklistType.CARD_FINGERPRINT, cardFingerprint, reason,
+                    description, addedBy, null, null);
+        }
+        
         log.info("Successfully added card to blacklist - BIN: {}, Last4: {}, Reason: {}", 
                 cardBin, lastFour, reason);
         
@@ -233,6 +257,15 @@ public class BlacklistService {
                             description, addedBy, null, null);
     }
     
+    /**
+     * Temporary BIN block, e.g. from CardTestingDetector; the entry stops matching after expiresAt
+     */
+    public BlacklistEntry addCardBinToBlacklist(String cardBin, BlacklistEntry.BlacklistReason reason, 
+                                              String description, String addedBy, LocalDateTime expiresAt) {
+        return addToBlacklist(BlacklistEntry.BlacklistType.CARD_BIN, cardBin, reason, 
+                            description, addedBy, null, expiresAt);
+    }
+    
     private String getCardBin(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 6) {
             return "UNKNOWN";
@@ -255,6 +288,8 @@ public class BlacklistService {
                 return "BIN+Last4"; // No sensitive data to mask
             case CARD_BIN:
                 return value; // BIN is not sensitive
+            case CARD_FINGERPRINT:
+                return value.substring(0, Math.min(12, value.length())) + "...";
             case EMAIL:
                 if (value.contains("@")) {
                     String[] parts = value.split("@");
@@ -0,0 +1,63 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.util.CardUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Keyed card fingerprint: HMAC-SHA256(PAN). Same card -> same fingerprint, but the PAN
+ * cannot be recovered or brute-forced from the stored value without the key.
+ * Used for exact, indexed velocity/blacklist/history lookups instead of masked-number LIKE scans.
+ */
+@Service
+@Slf4j
+public class CardFingerprintService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final SecretKeySpec keySpec;
+    private final ThreadLocal<Mac> macs;
+
+    public CardFingerprintService(@Value("${app.security.card-fingerprint.key:}") String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("app.security.card-fingerprint.key must be configured (CARD_FINGERPRINT_KEY)");
+        }
+        if (key.getBytes(StandardCharsets.UTF_8).length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("app.security.card-fingerprint.key must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        this.keySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac(); // fail fast on startup if the JCE provider is missing
+    }
+
+    /**
+     * Returns the 64-char hex fingerprint of the PAN, or null when there is no card number.
+     */
+    public String fingerprint(String cardNumber) {
+        String pan = CardUtils.cleanCardNumber(cardNumber);
+        if (pan == null || pan.isEmpty()) {
+            return null;
+        }
+        Mac mac = macs.get();
+        byte[] digest = mac.doFinal(pan.getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Card fingerprint MAC could not be initialised", e);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.BlacklistEntry;
+import com.payment.gateway.util.CountMinSketch;
+import com.payment.gateway.util.HyperLogLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects card-testing bursts per BIN and per merchant from the payment attempt stream.
+ *
+ * Each key keeps a ring of time buckets with attempt, small-amount and issuer-decline counts and a
+ * HyperLogLog of card fingerprints. A key is flagged when its window has enough attempts, mostly
+ * small amounts or declines, and more distinct cards than its own baseline: an EWMA of the distinct
+ * count per window plus sigma standard deviations, never below min-distinct. The baseline is not
+ * updated while a key is blocked, so an attack does not become the new normal.
+ *
+ * A flagged BIN is added to the blacklist with an expiry; a flagged merchant only blocks small
+ * amounts there. {@link #isBlocked} is read by RiskAssessmentService as the CARD_TESTING feature.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardTestingDetector {
+
+    private static final String DETECTOR = "card-testing-detector";
+
+    private final BlacklistService blacklistService;
+
+    private final Map<String, KeyStats> bins = new ConcurrentHashMap<>();
+    private final Map<String, KeyStats> merchants = new ConcurrentHashMap<>();
+
+    @Value("${app.fraud.card-testing.bucket-seconds:60}")
+    private int bucketSeconds;
+
+    @Value("${app.fraud.card-testing.buckets:10}")
+    private int buckets;
+
+    @Value("${app.fraud.card-testing.hll-precision:8}")
+    private int hllPrecision;
+
+    @Value("${app.fraud.card-testing.small-amount:5.00}")
+    private BigDecimal smallAmount;
+
+    @Value("${app.fraud.card-testing.min-attempts:20}")
+    private int minAttempts;
+
+    @Value("${app.fraud.card-testing.min-distinct:15}")
+    private int minDistinct;
+
+    @Value("${app.fraud.card-testing.small-ratio:0.6}")
+    private double smallRatioThreshold;
+
+    @Value("${app.fraud.card-testing.decline-ratio:0.5}")
+    private double declineRatioThreshold;
+
+    @Value("${app.fraud.card-testing.ewma-alpha:0.1}")
+    private double ewmaAlpha;
+
+    @Value("${app.fraud.card-testing.sigma:4}")
+    private double sigma;
+
+    @Value("${app.fraud.card-testing.block-minutes:30}")
+    private int blockMinutes;
+
+    private enum Scope { BIN, MERCHANT }
+
+    /**
+     * Rolling statistics for one BIN or merchant; guarded by its own monitor
+     */
+    private final class KeyStats {
+        private final int[] attempts = new int[buckets];
+        private final int[] small = new int[buckets];
+        private final int[] declines = new int[buckets];
+        private final HyperLogLog[] cards = new HyperLogLog[buckets];
+        private long currentEpoch = -1;
+        private double baselineMean;
+        private double baselineVariance;
+        private long baselineSamples;
+        private volatile long blockedUntilMs; // read without the lock by isBlocked
+        private long lastSeenMs;
+        private long lastDistinct;
+
+        KeyStats() {
+            for (int i = 0; i < buckets; i++) {
+                cards[i] = new HyperLogLog(hllPrecision);
+            }
+        }
+
+        /**
+         * Moves the ring to the bucket for nowMs, clearing skipped buckets and feeding the baseline
+         */
+        int advance(long nowMs) {
+            long epoch = nowMs / (bucketSeconds * 1000L);
+            lastSeenMs = nowMs;
+            if (currentEpoch < 0) {
+                currentEpoch = epoch;
+                return slot(epoch);
+            }
+            if (epoch > currentEpoch) {
+                if (nowMs >= blockedUntilMs) {
+                    // Window that just closed
+                    updateBaseline(HyperLogLog.estimateUnion(cards));
+                }
+                for (long e = currentEpoch + 1; e <= Math.min(epoch, currentEpoch + buckets); e++) {
+                    int s = slot(e);
+                    attempts[s] = 0;
+                    small[s] = 0;
+                    declines[s] = 0;
+                    cards[s].clear();
+                }
+                currentEpoch = epoch;
+            }
+            return slot(Math.max(epoch, currentEpoch));
+        }
+
+        boolean evaluate(long nowMs) {
+            int windowAttempts = 0, windowSmall = 0, windowDeclines = 0;
+            for (int i = 0; i < buckets; i++) {
+                windowAttempts += attempts[i];
+                windowSmall += small[i];
+                windowDeclines += declines[i];
+            }
+            if (windowAttempts < minAttempts || nowMs < blockedUntilMs) {
+                return false;
+            }
+            lastDistinct = HyperLogLog.estimateUnion(cards);
+            boolean smallBurst = windowSmall >= smallRatioThreshold * windowAttempts;
+            boolean declineBurst = windowDeclines >= declineRatioThreshold * windowAttempts;
+            if (lastDistinct >= threshold() && (smallBurst || declineBurst)) {
+                blockedUntilMs = nowMs + blockMinutes * 60_000L;
+                return true;
+            }
+            return false;
+        }
+
+        double threshold() {
+            return Math.max(minDistinct, baselineMean + sigma * Math.sqrt(baselineVariance));
+        }
+
+        private void updateBaseline(double distinct) {
+            if (baselineSamples++ == 0) {
+                baselineMean = distinct;
+                return;
+            }
+            double diff = distinct - baselineMean;
+            baselineMean += ewmaAlpha * diff;
+            baselineVariance = (1 - ewmaAlpha) * (baselineVariance + ewmaAlpha * diff * diff);
+        }
+
+        private int slot(long epoch) {
+            return (int) (epoch % buckets);
+        }
+    }
+
+    public void recordAttempt(String cardBin, String merchantId, String cardFingerprint, BigDecimal amount, long nowMs) {
+        boolean isSmall = amount != null && amount.compareTo(smallAmount) <= 0;
+        long cardKey = cardFingerprint != null ? CountMinSketch.hash64(cardFingerprint) : 0;
+        if (isKnownBin(cardBin)) {
+            recordAttempt(Scope.BIN, bins, cardBin, isSmall, cardFingerprint != null, cardKey, nowMs);
+        }
+        if (merchantId != null) {
+            recordAttempt(Scope.MERCHANT, merchants, merchantId, isSmall, cardFingerprint != null, cardKey, nowMs);
+        }
+    }
+
+    /**
+     * Issuer/bank declines; declines made by the fraud engine itself are not counted
+     */
+    public void recordDecline(String cardBin, String merchantId, long nowMs) {
+        if (isKnownBin(cardBin)) {
+            recordDecline(Scope.BIN, bins, cardBin, nowMs);
+        }
+        if (merchantId != null) {
+            recordDecline(Scope.MERCHANT, merchants, merchantId, nowMs);
+        }
+    }
+
+    /**
+     * True while the BIN is flagged, or the merchant is flagged and the amount is small
+     */
+    public boolean isBlocked(String cardBin, String merchantId, BigDecimal amount) {
+        long now = System.currentTimeMillis();
+        KeyStats bin = cardBin != null ? bins.get(cardBin) : null;
+        if (bin != null && now < bin.blockedUntilMs) {
+            return true;
+        }
+        KeyStats merchant = merchantId != null ? merchants.get(merchantId) : null;
+        return merchant != null && now < merchant.blockedUntilMs
+                && amount != null && amount.compareTo(smallAmount) <= 0;
+    }
+
+    /**
+     * Drops keys with no activity for a whole window and no active block
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - (long) bucketSeconds * buckets * 1000L;
+        int before = bins.size() + merchants.size();
+        bins.values().removeIf(s -> s.lastSeenMs < cutoff && s.blockedUntilMs < cutoff);
+        merchants.values().removeIf(s -> s.lastSeenMs < cutoff && s.blockedUntilMs < cutoff);
+        return before - (bins.size() + merchants.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedBins", bins.size());
+        stats.put("trackedMerchants", merchants.size());
+        stats.put("windowSeconds", bucketSeconds * buckets);
+        stats.put("blockedBins", blocked(bins));
+        stats.put("blockedMerchants", blocked(merchants));
+        return stats;
+    }
+
+    private void recordAttempt(Scope scope, Map<String, KeyStats> stats, String key, boolean isSmall,
+                               boolean hasCard, long cardKey, long nowMs) {
+        KeyStats keyStats = stats.computeIfAbsent(key, k -> new KeyStats());
+        boolean flagged;
+        synchronized (keyStats) {
+            int slot = keyStats.advance(nowMs);
+            keyStats.attempts[slot]++;
+            if (isSmall) {
+                keyStats.small[slot]++;
+            }
+            if (hasCard) {
+                keyStats.cards[slot].add(cardKey);
+            }
+            flagged = keyStats.evaluate(nowMs);
+        }
+        if (flagged) {
+            onFlagged(scope, key, keyStats);
+        }
+    }
+
+    private void recordDecline(Scope scope, Map<String, KeyStats> stats, String key, long nowMs) {
+        KeyStats keyStats = stats.get(key);
+        if (keyStats == null) {
+            return;
+        }
+        boolean flagged;
+        synchronized (keyStats) {
+            keyStats.declines[keyStats.advance(nowMs)]++;
+            flagged = keyStats.evaluate(nowMs);
+        }
+        if (flagged) {
+            onFlagged(scope, key, keyStats);
+        }
+    }
+
+    private void onFlagged(Scope scope, String key, KeyStats keyStats) {
+        LocalDateTime until = LocalDateTime.ofInstant(Instant.ofEpochMilli(keyStats.blockedUntilMs), ZoneId.systemDefault());
+        log.warn("Card testing detected - {}: {}, distinct cards: {}, threshold: {}, blocked until {}",
+                scope, key, keyStats.lastDistinct, Math.round(keyStats.threshold()), until);
+
+        if (scope == Scope.BIN) {
+            try {
+                blacklistService.addCardBinToBlacklist(key, BlacklistEntry.BlacklistReason.SUSPICIOUS_PATTERN,
+                        "Card testing: " + keyStats.lastDistinct + " distinct cards in " + (bucketSeconds * buckets) + "s",
+                        DETECTOR, until);
+            } catch (Exception e) {
+                // The in-memory block still applies through isBlocked
+                log.error("Error blacklisting BIN {} for card testing: {}", key, e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> blocked(Map<String, KeyStats> stats) {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>();
+        stats.forEach((key, keyStats) -> {
+            synchronized (keyStats) {
+                if (now < keyStats.blockedUntilMs) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("key", key);
+                    row.put("distinctCards", keyStats.lastDistinct);
+                    row.put("baselineMean", keyStats.baselineMean);
+                    row.put("threshold", keyStats.threshold());
+                    row.put("blockedUntil", LocalDateTime.ofInstant(Instant.ofEpochMilli(keyStats.blockedUntilMs),
+                            ZoneId.systemDefault()));
+                    result.add(row);
+                }
+            }
+        });
+        return result;
+    }
+
+    private boolean isKnownBin(String cardBin) {
+        return cardBin != null && cardBin.length() == 6;
+    }
+}
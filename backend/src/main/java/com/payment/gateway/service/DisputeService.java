@@ -6,7 +6,12 @@ import com.payment.gateway.dto.BankDisputeNotification;
 import com.payment.gateway.dto.MerchantDisputeResponse;
 import com.payment.gateway.dto.AdminEvaluationRequest;
 import com.payment.gateway.dto.WebhookDeliveryRequest;
+import com.payment.gateway.event.AuditDetails;
+import com.payment.gateway.event.DisputeOpened;
+import com.payment.gateway.event.DisputeStatusChanged;
+import com.payment.gateway.event.DomainEventBus;
 import com.payment.gateway.model.Dispute;
+import com.payment.gateway.model.Webhook;
 import com.payment.gateway.repository.DisputeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +23,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,6 +41,8 @@ public class DisputeService {
     
     private final DisputeRepository disputeRepository;
     private final AuditService auditService;
+    private final DomainEventBus domainEventBus;
+    private final MerchantNotificationService merchantNotificationService;
     private final ObjectMapper objectMapper;
 
     public DisputeResponse createDispute(DisputeRequest request) {
@@ -64,19 +72,10 @@ public class DisputeService {
             // Save dispute
             Dispute savedDispute = disputeRepository.save(dispute);
             
-            // Audit logging
-            auditService.createEvent()
-                .eventType("DISPUTE_CREATED")
-                .severity(AuditLog.Severity.MEDIUM)
-                .actor("system")
-                .action("CREATE")
-                .resourceType("DISPUTE")
-                .resourceId(disputeId)
-                .newValues(savedDispute)
-                .additionalData("paymentId", request.getPaymentId())
-                .additionalData("merchantId", request.getMerchantId())
-                .complianceTag("PCI_DSS")
-                .log();
+            // Audit, merchant webhook and notification run in the event subscribers after commit
+            domainEventBus.publish(new DisputeOpened(savedDispute, "system",
+                AuditDetails.of("DISPUTE_CREATED", "CREATE", "PCI_DSS")
+                    .withNewValues(objectMapper.valueToTree(savedDispute))));
             
             log.info("Dispute created successfully with ID: {}", disputeId);
             
@@ -223,6 +222,7 @@ public class DisputeService {
         Optional<Dispute> disputeOpt = disputeRepository.findById(id);
         if (disputeOpt.isPresent()) {
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             dispute.setStatus(newStatus);
             
             // Set resolution date if dispute is resolved
@@ -234,6 +234,7 @@ public class DisputeService {
             
             dispute.setGatewayResponse("Status updated to: " + newStatus);
             Dispute updatedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(updatedDispute, previousStatus, "api-user"));
             
             log.info("Dispute status updated to {} for ID: {}", newStatus, id);
             return createDisputeResponse(updatedDispute, "Dispute status updated successfully", true);
@@ -246,6 +247,7 @@ public class DisputeService {
         Optional<Dispute> disputeOpt = disputeRepository.findById(id);
         if (disputeOpt.isPresent()) {
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             if (dispute.getStatus() == Dispute.DisputeStatus.OPENED || 
                 dispute.getStatus() == Dispute.DisputeStatus.UNDER_REVIEW) {
@@ -254,6 +256,7 @@ public class DisputeService {
                 dispute.setResolutionDate(LocalDateTime.now());
                 dispute.setGatewayResponse("Dispute closed");
                 Dispute updatedDispute = disputeRepository.save(dispute);
+                domainEventBus.publish(new DisputeStatusChanged(updatedDispute, previousStatus, "api-user"));
                 
                 log.info("Dispute closed successfully with ID: {}", id);
                 return createDisputeResponse(updatedDispute, "Dispute closed successfully", true);
@@ -341,6 +344,7 @@ public class DisputeService {
         Optional<Dispute> disputeOpt = disputeRepository.findById(id);
         if (disputeOpt.isPresent()) {
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Mevcut kanıtı güncelle
             String currentEvidence = dispute.getEvidence();
@@ -362,6 +366,7 @@ public class DisputeService {
             dispute.setUpdatedAt(LocalDateTime.now());
             
             Dispute updatedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(updatedDispute, previousStatus, "merchant"));
             
             // Audit logging
             auditService.createEvent()
@@ -390,6 +395,7 @@ public class DisputeService {
         Optional<Dispute> disputeOpt = disputeRepository.findById(id);
         if (disputeOpt.isPresent()) {
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Decision'a göre status güncelle
             switch (decision.toUpperCase()) {
@@ -421,6 +427,7 @@ public class DisputeService {
             dispute.setUpdatedAt(LocalDateTime.now());
             
             Dispute updatedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(updatedDispute, previousStatus, "admin"));
             
             // Audit logging
             auditService.createEvent()
@@ -457,13 +464,23 @@ public class DisputeService {
                 return createErrorResponse("Dispute not yet resolved");
             }
             
-            // Merchant'a webhook gönder (simulated)
             String notificationMessage = generateMerchantNotification(dispute);
             dispute.setGatewayResponse(dispute.getGatewayResponse() + "\n\nMerchant notified: " + notificationMessage);
             dispute.setUpdatedAt(LocalDateTime.now());
             
             Dispute updatedDispute = disputeRepository.save(dispute);
             
+            // Merchant'a webhook commit sonrası asenkron gider
+            Map<String, Object> eventData = new HashMap<>();
+            eventData.put("disputeId", dispute.getDisputeId());
+            eventData.put("paymentId", dispute.getPaymentId());
+            eventData.put("status", dispute.getStatus().name());
+            eventData.put("amount", dispute.getAmount());
+            eventData.put("currency", dispute.getCurrency());
+            eventData.put("message", notificationMessage);
+            merchantNotificationService.notifyMerchant(dispute.getMerchantId(), Webhook.EventType.DISPUTE_RESOLVED.name(),
+                    dispute.getDisputeId(), eventData, notificationMessage);
+            
             // Audit logging
             auditService.createEvent()
                 .eventType("MERCHANT_NOTIFIED_DISPUTE_RESULT")
@@ -544,24 +561,10 @@ public class DisputeService {
             savedDispute.setUpdatedAt(LocalDateTime.now());
             savedDispute = disputeRepository.save(savedDispute);
             
-            // TODO: Send webhook to merchant
-            // webhookService.sendMerchantDisputeNotification(savedDispute);
-            
-            // Audit logging
-            auditService.createEvent()
-                .eventType("BANK_DISPUTE_INITIATED")
-                .severity(AuditLog.Severity.HIGH)
-                .actor("bank-system")
-                .action("CREATE")
-                .resourceType("DISPUTE")
-                .resourceId(disputeId)
-                .newValues(savedDispute)
-                .additionalData("bankDisputeId", notification.getBankDisputeId())
-                .additionalData("bankName", notification.getBankName())
-                .additionalData("deadline", notification.getResponseDeadline())
-                .complianceTag("PCI_DSS")
-                .complianceTag("CHARGEBACK")
-                .log();
+            // Audit, merchant webhook and notification run in the event subscribers after commit
+            domainEventBus.publish(new DisputeOpened(savedDispute, "bank-system",
+                AuditDetails.of("BANK_DISPUTE_INITIATED", "CREATE", "PCI_DSS", "CHARGEBACK")
+                    .withNewValues(objectMapper.valueToTree(savedDispute))));
             
             log.info("✅ Bank-initiated dispute created successfully - ID: {}, Deadline: {}", 
                     disputeId, notification.getResponseDeadline());
@@ -588,6 +591,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Check if response is still allowed
             if (dispute.getMerchantResponseDeadline() != null && 
@@ -624,6 +628,7 @@ public class DisputeService {
             
             dispute.setUpdatedAt(LocalDateTime.now());
             Dispute savedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(savedDispute, previousStatus, "merchant"));
             
             // Audit logging
             auditService.createEvent()
@@ -665,6 +670,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Check current status
             if (dispute.getStatus() != Dispute.DisputeStatus.ADMIN_EVALUATING) {
@@ -684,6 +690,7 @@ public class DisputeService {
             dispute.setUpdatedAt(LocalDateTime.now());
             
             Dispute savedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(savedDispute, previousStatus, "admin"));
             
             // TODO: Send decision to bank
             // bankCommunicationService.sendDisputeDecision(savedDispute, request);
@@ -728,6 +735,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Update dispute with bank final decision
             dispute.setBankFinalDecision(bankDecision);
@@ -747,6 +755,7 @@ public class DisputeService {
             
             dispute.setUpdatedAt(LocalDateTime.now());
             Dispute savedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(savedDispute, previousStatus, "bank-system"));
             
             // TODO: Notify merchant of final result
             // webhookService.sendMerchantDisputeResult(savedDispute);
@@ -803,6 +812,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Status kontrolü
             if (dispute.getStatus() != Dispute.DisputeStatus.PENDING_ADMIN_EVALUATION &&
@@ -839,6 +849,7 @@ public class DisputeService {
             dispute.setResolutionDate(LocalDateTime.now());
             
             Dispute savedDispute = disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(savedDispute, previousStatus, "admin"));
             
             // Audit log
             auditService.createEvent()
@@ -875,6 +886,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Durumu kontrol et
             if (dispute.getStatus() != Dispute.DisputeStatus.PENDING_MERCHANT_RESPONSE &&
@@ -891,6 +903,7 @@ public class DisputeService {
             dispute.setMerchantResponse("No response provided within deadline");
             
             disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(dispute, previousStatus, "system"));
             
             // Audit log
             auditService.createEvent()
@@ -919,8 +932,8 @@ public class DisputeService {
                 ));
                 webhookRequest.setDescription("Dispute auto-accepted due to merchant response timeout");
                 
-                // Webhook endpoint için basit bir delivery attempt yapalım
-                log.info("Webhook delivery attempted for dispute auto-accept: {}", dispute.getDisputeId());
+                merchantNotificationService.notifyMerchant(webhookRequest.getMerchantId(), webhookRequest.getEventType(),
+                        webhookRequest.getEntityId(), webhookRequest.getEventData(), webhookRequest.getDescription());
             } catch (Exception e) {
                 log.error("Failed to send auto-accept webhook for dispute {}: {}", 
                         disputeId, e.getMessage());
@@ -947,6 +960,7 @@ public class DisputeService {
             }
             
             Dispute dispute = disputeOpt.get();
+            Dispute.DisputeStatus previousStatus = dispute.getStatus();
             
             // Durumu kontrol et
             if (dispute.getStatus() != Dispute.DisputeStatus.PENDING_ADMIN_EVALUATION) {
@@ -962,6 +976,7 @@ public class DisputeService {
             dispute.setAdminNotes("No admin evaluation provided within deadline");
             
             disputeRepository.save(dispute);
+            domainEventBus.publish(new DisputeStatusChanged(dispute, previousStatus, "system"));
             
             // Audit log
             auditService.createEvent()
@@ -991,7 +1006,8 @@ public class DisputeService {
                 ));
                 webhookRequest.setDescription("Dispute auto-accepted due to admin evaluation timeout");
                 
-                log.info("Webhook delivery attempted for admin timeout auto-accept: {}", dispute.getDisputeId());
+                merchantNotificationService.notifyMerchant(webhookRequest.getMerchantId(), webhookRequest.getEventType(),
+                        webhookRequest.getEntityId(), webhookRequest.getEventData(), webhookRequest.getDescription());
                 
                 // Bankaya nihai kararı bildir
                 notifyBankOfFinalDecision(dispute.getBankDisputeId(), "ACCEPTED", 
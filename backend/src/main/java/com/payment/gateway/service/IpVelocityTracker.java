@@ -0,0 +1,160 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.util.SlidingWindowSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IP bazlı velocity sayacı.
+ * Tüm IP'ler zaman bucket'lı count-min sketch'lerle sabit bellekte sayılır; sketch tahmini
+ * eşiğe yaklaşan IP'ler sınırlı bir heavy-hitters listesine alınıp tam (exact) olarak izlenir.
+ * Karar, IP bir pencere boyunca exact izlendiyse exact sayıdan, aksi halde sketch tahmininden verilir
+ * (sketch asla eksik saymaz, yani limit aşımı kaçmaz).
+ */
+@Service
+@Slf4j
+public class IpVelocityTracker {
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 3_600_000L;
+
+    private final int perMinuteLimit;
+    private final int perHourLimit;
+    private final int heavyHitterCapacity;
+    private final double promoteRatio;
+
+    private final SlidingWindowSketch minuteSketch;
+    private final SlidingWindowSketch hourSketch;
+    private final Map<String, HeavyHitter> heavyHitters = new ConcurrentHashMap<>();
+
+    public IpVelocityTracker(@Value("${app.fraud.velocity.ip.transactions.per.minute:10}") int perMinuteLimit,
+                             @Value("${app.fraud.velocity.ip.transactions.per.hour:50}") int perHourLimit,
+                             @Value("${app.fraud.velocity.ip.sketch.width:16384}") int width,
+                             @Value("${app.fraud.velocity.ip.sketch.depth:4}") int depth,
+                             @Value("${app.fraud.velocity.ip.heavy-hitters.capacity:1000}") int heavyHitterCapacity,
+                             @Value("${app.fraud.velocity.ip.heavy-hitters.promote-ratio:0.5}") double promoteRatio) {
+        this.perMinuteLimit = perMinuteLimit;
+        this.perHourLimit = perHourLimit;
+        this.heavyHitterCapacity = heavyHitterCapacity;
+        this.promoteRatio = promoteRatio;
+        // 6 x 10s ve 12 x 5dk bucket
+        this.minuteSketch = new SlidingWindowSketch(10_000L, 6, width, depth);
+        this.hourSketch = new SlidingWindowSketch(300_000L, 12, width, depth);
+    }
+
+    /**
+     * IP'den gelen bir işlemi sayar ve güncel dakikalık/saatlik sayıları döner
+     */
+    public IpVelocity record(String ipAddress) {
+        long now = System.currentTimeMillis();
+        long minuteEstimate = minuteSketch.addAndEstimate(ipAddress, now);
+        long hourEstimate = hourSketch.addAndEstimate(ipAddress, now);
+
+        HeavyHitter tracked = heavyHitters.get(ipAddress);
+        if (tracked == null && shouldPromote(minuteEstimate, hourEstimate)) {
+            tracked = promote(ipAddress, now);
+        }
+        if (tracked == null) {
+            return new IpVelocity(minuteEstimate, hourEstimate, false);
+        }
+
+        tracked.record(now);
+        // Exact sayı, ancak IP ilgili pencerenin tamamı boyunca izlendiyse sketch'in yerine geçer
+        long minuteCount = now - tracked.trackedSince >= MINUTE_MS ? tracked.countSince(now - MINUTE_MS) : minuteEstimate;
+        long hourCount = now - tracked.trackedSince >= HOUR_MS ? tracked.countSince(now - HOUR_MS) : hourEstimate;
+        return new IpVelocity(minuteCount, hourCount, now - tracked.trackedSince >= MINUTE_MS);
+    }
+
+    public boolean isMinuteLimitExceeded(IpVelocity velocity) {
+        return velocity.minuteCount() >= perMinuteLimit;
+    }
+
+    public boolean isHourLimitExceeded(IpVelocity velocity) {
+        return velocity.hourCount() >= perHourLimit;
+    }
+
+    /**
+     * Son bir saatte en çok işlem yapan izlenen IP'ler
+     */
+    public List<Map<String, Object>> getTopOffenders(int limit) {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, HeavyHitter> entry : heavyHitters.entrySet()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ipAddress", entry.getKey());
+            row.put("lastMinuteCount", entry.getValue().countSince(now - MINUTE_MS));
+            row.put("lastHourCount", entry.getValue().countSince(now - HOUR_MS));
+            row.put("trackedSince", entry.getValue().trackedSince);
+            result.add(row);
+        }
+        result.sort(Comparator.comparingLong((Map<String, Object> row) -> (Long) row.get("lastHourCount")).reversed());
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    public int getTrackedCount() {
+        return heavyHitters.size();
+    }
+
+    private boolean shouldPromote(long minuteEstimate, long hourEstimate) {
+        return minuteEstimate >= perMinuteLimit * promoteRatio || hourEstimate >= perHourLimit * promoteRatio;
+    }
+
+    private synchronized HeavyHitter promote(String ipAddress, long now) {
+        HeavyHitter existing = heavyHitters.get(ipAddress);
+        if (existing != null) {
+            return existing;
+        }
+        if (heavyHitters.size() >= heavyHitterCapacity) {
+            // Son bir saatte en az aktif olanı çıkar; promosyonlar nadir olduğu için O(n) tarama yeterli
+            heavyHitters.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().countSince(now - HOUR_MS)))
+                    .ifPresent(e -> heavyHitters.remove(e.getKey()));
+        }
+        HeavyHitter hitter = new HeavyHitter(Math.max(perMinuteLimit, perHourLimit) + 1, now);
+        heavyHitters.put(ipAddress, hitter);
+        log.info("IP promoted to exact velocity tracking: {} (tracked: {})", ipAddress, heavyHitters.size());
+        return hitter;
+    }
+
+    public record IpVelocity(long minuteCount, long hourCount, boolean exact) {
+    }
+
+    /**
+     * Son N işlemin zaman damgalarını tutan halka; limit+1 kayıt, limit aşımını kesin tespit etmeye yeter.
+     */
+    private static final class HeavyHitter {
+        private final long[] timestamps;
+        private final long trackedSince;
+        private int next;
+        private int size;
+
+        private HeavyHitter(int capacity, long trackedSince) {
+            this.timestamps = new long[capacity];
+            this.trackedSince = trackedSince;
+        }
+
+        private synchronized void record(long now) {
+            timestamps[next] = now;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+        }
+
+        private synchronized long countSince(long since) {
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= since) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.WebhookDeliveryRequest;
+import com.payment.gateway.model.WebhookDelivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single asynchronous path for merchant-facing notifications (disputes, payouts, ...).
+ *
+ * The notification is saved as PENDING webhook deliveries first, inside the caller's
+ * transaction, so it commits or rolls back with the state change it reports and survives a
+ * restart. After commit the deliveries are handed to the webhook dispatcher; one the dispatcher
+ * cannot take stays PENDING and is queued by the stale PENDING recovery. The per-merchant
+ * concurrency limit is enforced where the HTTP call is made, in WebhookService's dispatch path,
+ * so callers only write rows and return.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantNotificationService {
+    
+    private final WebhookService webhookService;
+    
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    
+    /**
+     * Records a notification for the merchant's webhooks subscribed to eventType.
+     * Returns once the deliveries are saved; sending and retries happen on the dispatcher.
+     */
+    public void notifyMerchant(String merchantId, String eventType, String entityId, Object eventData, String description) {
+        WebhookDeliveryRequest request = new WebhookDeliveryRequest(merchantId, eventType, eventData, entityId, description);
+        
+        List<WebhookDelivery> deliveries;
+        try {
+            deliveries = webhookService.createPendingDeliveries(request);
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Error recording notification {} for merchant {} about {}: {}", eventType, merchantId,
+                    entityId, e.getMessage(), e);
+            return;
+        }
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        submitted.add(deliveries.size());
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(deliveries, request);
+                }
+            });
+        } else {
+            dispatch(deliveries, request);
+        }
+    }
+    
+    public NotificationStats getStats() {
+        return new NotificationStats(submitted.sum(), dispatched.sum(), deferred.sum(), failed.sum(),
+                webhookService.getSendsInFlight(), webhookService.getMerchantsInFlight());
+    }
+    
+    private void dispatch(List<WebhookDelivery> deliveries, WebhookDeliveryRequest request) {
+        try {
+            int notQueued = webhookService.dispatchPendingDeliveries(deliveries, request);
+            dispatched.add(deliveries.size() - notQueued);
+            if (notQueued > 0) {
+                deferred.add(notQueued);
+                log.warn("{} notification deliveries for merchant {} left PENDING for recovery",
+                        notQueued, request.getMerchantId());
+            }
+        } catch (Exception e) {
+            // The rows are committed, recovery picks them up
+            deferred.add(deliveries.size());
+            log.error("Error dispatching notification for merchant {} about {}: {}", request.getMerchantId(),
+                    request.getEntityId(), e.getMessage(), e);
+        }
+    }
+    
+    @Data
+    @AllArgsConstructor
+    public static class NotificationStats {
+        private long submitted;
+        private long dispatched;
+        private long deferred;
+        private long failed;
+        private int inFlight;
+        private int activeMerchants;
+    }
+}
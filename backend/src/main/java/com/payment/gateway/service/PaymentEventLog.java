@@ -0,0 +1,205 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.payment.gateway.dto.EventLogResponse;
+import com.payment.gateway.event.DomainEvent;
+import com.payment.gateway.util.SegmentedLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of payment, refund and dispute state changes for downstream consumers
+ * (analytics, reconciliation), so they can tail events instead of range-querying OLTP tables.
+ *
+ * Every committed domain event is appended as one JSON record to a memory-mapped segmented
+ * log. Offsets are byte positions and only grow; consumers keep the nextOffset of the last
+ * batch and read from there. Old segments are removed by size or age, so a consumer that
+ * falls further behind than the retention restarts at startOffset.
+ *
+ * An event that could not be appended is recorded as missed, and the next successful append
+ * first writes an EventLogGap record naming the missed events, so consumers see the gap and
+ * can fill it from the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentEventLog {
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.event-log.dir:./event-log}")
+    private String logDir;
+    
+    @Value("${app.event-log.segment-bytes:67108864}")
+    private int segmentBytes;
+    
+    @Value("${app.event-log.force-on-append:false}")
+    private boolean forceOnAppend;
+    
+    @Value("${app.event-log.retention.max-bytes:4294967296}")
+    private long retentionMaxBytes;
+    
+    @Value("${app.event-log.retention.max-age-hours:168}")
+    private long retentionMaxAgeHours;
+    
+    @Value("${app.event-log.max-batch:1000}")
+    private int maxBatch;
+    
+    @Value("${app.event-log.gap.max-event-ids:1000}")
+    private int maxGapEventIds;
+    
+    private SegmentedLog segmentedLog;
+    
+    // Guarded by this; missed events not yet covered by a gap record
+    private final List<String> missedEventIds = new ArrayList<>();
+    private long missedEvents;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        segmentedLog = new SegmentedLog(Paths.get(logDir), segmentBytes, forceOnAppend);
+        log.info("Payment event log opened at {} - offsets {} to {}", logDir,
+                segmentedLog.getStartOffset(), segmentedLog.getEndOffset());
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        segmentedLog.close();
+    }
+    
+    /**
+     * Appends the event and returns its offset. Pending missed events are written as a gap
+     * record first.
+     */
+    public long append(DomainEvent event) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(event);
+        appendGapRecord();
+        return segmentedLog.append(payload);
+    }
+    
+    /**
+     * Records that the event will not be in the log. Does no IO, so it is safe on request threads.
+     */
+    public synchronized void recordGap(DomainEvent event) {
+        missedEvents++;
+        if (missedEventIds.size() < maxGapEventIds) {
+            missedEventIds.add(event.getEventId());
+        }
+    }
+    
+    public synchronized long getMissedEvents() {
+        return missedEvents;
+    }
+    
+    /**
+     * Only the append path calls this, so the snapshot cannot be written twice. The lock is not
+     * held during IO, recordGap must never wait on the disk.
+     */
+    private void appendGapRecord() throws IOException {
+        long missed;
+        List<String> eventIds;
+        synchronized (this) {
+            if (missedEvents == 0) {
+                return;
+            }
+            missed = missedEvents;
+            eventIds = new ArrayList<>(missedEventIds);
+        }
+        ObjectNode gap = objectMapper.createObjectNode()
+                .put("type", "EventLogGap")
+                .put("missed", missed)
+                .put("recordedAt", System.currentTimeMillis());
+        eventIds.forEach(gap.putArray("eventIds")::add);
+        segmentedLog.append(objectMapper.writeValueAsBytes(gap));
+        log.warn("Wrote event log gap record for {} missed events", missed);
+        synchronized (this) {
+            missedEvents -= missed;
+            missedEventIds.subList(0, eventIds.size()).clear();
+        }
+    }
+    
+    public EventLogResponse read(long fromOffset, int maxEvents) {
+        try {
+            long startOffset = segmentedLog.getStartOffset();
+            List<SegmentedLog.LogRecord> records = segmentedLog.read(fromOffset, Math.min(Math.max(1, maxEvents), maxBatch));
+            
+            List<EventLogResponse.Entry> events = new ArrayList<>(records.size());
+            for (SegmentedLog.LogRecord record : records) {
+                try {
+                    JsonNode event = objectMapper.readTree(record.payload());
+                    events.add(new EventLogResponse.Entry(record.offset(), record.nextOffset(),
+                            event.path("type").asText(null), event));
+                } catch (IOException e) {
+                    log.error("Skipping unreadable event log record at offset {}: {}", record.offset(), e.getMessage());
+                    ObjectNode placeholder = objectMapper.createObjectNode().put("error", "unreadable record");
+                    events.add(new EventLogResponse.Entry(record.offset(), record.nextOffset(), null, placeholder));
+                }
+            }
+            
+            long nextOffset = records.isEmpty()
+                    ? Math.max(fromOffset, startOffset)
+                    : records.get(records.size() - 1).nextOffset();
+            
+            EventLogResponse response = new EventLogResponse();
+            response.setSuccess(true);
+            response.setFromOffset(fromOffset);
+            response.setNextOffset(nextOffset);
+            response.setStartOffset(startOffset);
+            response.setEndOffset(segmentedLog.getEndOffset());
+            response.setTruncated(fromOffset < startOffset);
+            response.setMissedEvents(getMissedEvents());
+            response.setEvents(events);
+            response.setCount(events.size());
+            return response;
+            
+        } catch (Exception e) {
+            log.error("Error reading payment event log from offset {}: {}", fromOffset, e.getMessage(), e);
+            EventLogResponse response = new EventLogResponse();
+            response.setSuccess(false);
+            response.setMessage("Failed to read event log: " + e.getMessage());
+            return response;
+        }
+    }
+    
+    /**
+     * Deletes the oldest segments while the log is over its size limit or a segment is
+     * older than the age limit. The active segment is always kept.
+     */
+    public int applyRetention() throws IOException {
+        List<SegmentedLog.Segment> segments = segmentedLog.getSegments();
+        long totalBytes = (long) segments.size() * segmentedLog.getSegmentBytes();
+        long cutoffMs = System.currentTimeMillis() - retentionMaxAgeHours * 3_600_000L;
+        
+        long deleteBefore = -1;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            SegmentedLog.Segment segment = segments.get(i);
+            if (totalBytes <= retentionMaxBytes && segment.lastModifiedMs() >= cutoffMs) {
+                break;
+            }
+            totalBytes -= segmentedLog.getSegmentBytes();
+            deleteBefore = segments.get(i + 1).baseOffset();
+        }
+        
+        if (deleteBefore < 0) {
+            return 0;
+        }
+        int deleted = segmentedLog.deleteSegmentsBefore(deleteBefore);
+        log.info("Payment event log retention removed {} segments, log now starts at offset {}",
+                deleted, segmentedLog.getStartOffset());
+        return deleted;
+    }
+    
+    public void flush() {
+        segmentedLog.flush();
+    }
+}
@@ -2,10 +2,13 @@ package com.payment.gateway.service;
 
 import com.payment.gateway.dto.PaymentRequest;
 import com.payment.gateway.dto.PaymentResponse;
+import com.payment.gateway.event.AuditDetails;
+import com.payment.gateway.event.DomainEventBus;
+import com.payment.gateway.event.PaymentCreated;
+import com.payment.gateway.event.PaymentStatusChanged;
 import com.payment.gateway.model.Payment;
 import com.payment.gateway.model.RiskAssessment;
 import com.payment.gateway.repository.PaymentRepository;
-import com.payment.gateway.model.AuditLog;
 import com.payment.gateway.util.CardUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +31,9 @@ public class PaymentService {
     private final RealBankIntegrationService realBankIntegrationService;
     private final RiskAssessmentService riskAssessmentService;
     private final AuditService auditService;
+    private final DomainEventBus domainEventBus;
+    private final CardFingerprintService cardFingerprintService;
+    private final RequestContextService requestContextService;
     
 
     @Transactional(noRollbackFor = DataIntegrityViolationException.class)
@@ -44,6 +50,7 @@ public class PaymentService {
                 .additionalData("amount", request.getAmount())
                 .additionalData("currency", request.getCurrency())
                 .additionalData("paymentMethod", request.getPaymentMethod())
+                .additionalData("cardBin", CardUtils.extractCardBin(request.getCardNumber()))
                 .additionalData("cardLastFour", CardUtils.extractCardLastFour(request.getCardNumber()))
                 .complianceTag("PCI_DSS")
                 .complianceTag("KVKK")
@@ -70,6 +77,7 @@ public class PaymentService {
             payment.setCardBrand(CardUtils.detectCardBrand(request.getCardNumber()));
             payment.setCardBin(CardUtils.extractCardBin(request.getCardNumber()));
             payment.setCardLastFour(CardUtils.extractCardLastFour(request.getCardNumber()));
+            payment.setCardFingerprint(cardFingerprintService.fingerprint(request.getCardNumber()));
             payment.setExpiryDate(request.getExpiryDate());
             payment.setDescription(request.getDescription());
             payment.setCreatedAt(LocalDateTime.now());
@@ -77,6 +85,7 @@ public class PaymentService {
             // Save initial payment record
             payment = paymentRepository.save(payment);
             log.info("Payment created with ID: {}", paymentId);
+            domainEventBus.publish(new PaymentCreated(payment, requestContextService.getDeviceFingerprint()));
             
             // FRAUD DETECTION - Risk Assessment
             log.info("Starting fraud detection for payment: {}", paymentId);
@@ -104,6 +113,7 @@ public class PaymentService {
                 payment.setStatus(Payment.PaymentStatus.FAILED);
                 payment.setGatewayResponse("Payment declined due to high fraud risk: " + riskAssessment.getRiskLevel());
                 payment = paymentRepository.save(payment);
+                domainEventBus.publish(new PaymentStatusChanged(payment, Payment.PaymentStatus.PENDING, "fraud-system"));
                 
                 log.warn("Payment {} declined due to fraud risk - Risk Level: {}, Score: {}", 
                         paymentId, riskAssessment.getRiskLevel(), riskAssessment.getRiskScore());
@@ -130,6 +140,7 @@ public class PaymentService {
                 payment.setStatus(Payment.PaymentStatus.CANCELLED); // Hold for manual review
                 payment.setGatewayResponse("Payment held for manual review due to elevated fraud risk");
                 payment = paymentRepository.save(payment);
+                domainEventBus.publish(new PaymentStatusChanged(payment, Payment.PaymentStatus.PENDING, "fraud-system"));
                 
                 log.warn("Payment {} held for manual review - Risk Level: {}, Score: {}", 
                         paymentId, riskAssessment.getRiskLevel(), riskAssessment.getRiskScore());
@@ -164,23 +175,11 @@ public class PaymentService {
             // Save final payment status
             payment = paymentRepository.save(payment);
             
-            // Audit log - Payment completion status
-            auditService.logEvent(
-                auditService.createEvent()
-                    .eventType("PAYMENT")
-                    .action(finalStatus == Payment.PaymentStatus.COMPLETED ? "COMPLETE" : "FAIL")
-                    .actor("system")
-                    .resourceType("Payment")
-                    .resourceId(payment.getPaymentId())
-                    .additionalData("transactionId", payment.getTransactionId())
-                    .additionalData("status", finalStatus.name())
-                    .additionalData("amount", payment.getAmount())
-                    .additionalData("currency", payment.getCurrency())
-                    .additionalData("gatewayResponse", payment.getGatewayResponse())
-                    .complianceTag("PCI_DSS")
-                    .complianceTag("KVKK")
-                    .complianceTag("GDPR")
-            );
+            // Audit record and merchant webhook are handled by the event subscribers after commit
+            domainEventBus.publish(new PaymentStatusChanged(payment, Payment.PaymentStatus.PROCESSING, "system",
+                AuditDetails.of("PAYMENT", finalStatus == Payment.PaymentStatus.COMPLETED ? "COMPLETE" : "FAIL",
+                        "PCI_DSS", "KVKK", "GDPR")
+                    .with("status", finalStatus.name())));
             
             return createPaymentResponse(payment, "Payment processed successfully", true);
             
@@ -336,21 +335,8 @@ public class PaymentService {
             
             payment.setGatewayResponse("Status updated to: " + newStatus);
             Payment updatedPayment = paymentRepository.save(payment);
-            
-            // Audit log - Payment status update
-            auditService.logEvent(
-                auditService.createEvent()
-                    .eventType("PAYMENT")
-                    .action("STATUS_UPDATE")
-                    .actor("api-user")
-                    .resourceType("Payment")
-                    .resourceId(payment.getPaymentId())
-                    .additionalData("transactionId", payment.getTransactionId())
-                    .additionalData("oldStatus", oldStatus.name())
-                    .additionalData("newStatus", newStatus.name())
-                    .additionalData("amount", payment.getAmount())
-                    .complianceTag("PCI_DSS")
-            );
+            domainEventBus.publish(new PaymentStatusChanged(updatedPayment, oldStatus, "api-user",
+                AuditDetails.of("PAYMENT", "STATUS_UPDATE", "PCI_DSS")));
             
             log.info("Payment status updated to {} for ID: {}", newStatus, id);
             return createPaymentResponse(updatedPayment, "Payment status updated successfully", true);
@@ -388,22 +374,9 @@ public class PaymentService {
                 payment.setStatus(Payment.PaymentStatus.REFUNDED);
                 payment.setGatewayResponse("Payment refunded");
                 Payment updatedPayment = paymentRepository.save(payment);
-
-                // Audit log - Payment refund
-                auditService.logEvent(
-                    auditService.createEvent()
-                        .eventType("PAYMENT")
-                        .action("REFUND")
-                        .actor("api-user")
-                        .resourceType("Payment")
-                        .resourceId(payment.getPaymentId())
-                        .additionalData("transactionId", payment.getTransactionId())
-                        .additionalData("amount", payment.getAmount())
-                        .additionalData("currency", payment.getCurrency())
-                        .additionalData("refundReason", "Manual refund request")
-                        .complianceTag("PCI_DSS")
-                        .complianceTag("GDPR")
-                );
+                domainEventBus.publish(new PaymentStatusChanged(updatedPayment, Payment.PaymentStatus.COMPLETED, "api-user",
+                    AuditDetails.of("PAYMENT", "REFUND", "PCI_DSS", "GDPR")
+                        .with("refundReason", "Manual refund request")));
 
                 log.info("Payment refunded successfully with ID: {}", id);
                 return createPaymentResponse(updatedPayment, "Payment refunded successfully", true);
@@ -483,6 +456,7 @@ public class PaymentService {
             }
             
             payment = paymentRepository.save(payment);
+            domainEventBus.publish(new PaymentStatusChanged(payment, Payment.PaymentStatus.PENDING, "bank-system"));
             
             return createPaymentResponse(payment, 
                 success ? "3D Secure payment completed successfully" : "3D Secure payment failed", 
@@ -713,6 +687,7 @@ public class PaymentService {
             // Transaction ID ile payment'i bul
             Payment payment = paymentRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new RuntimeException("Payment not found for transaction: " + transactionId));
+            Payment.PaymentStatus oldStatus = payment.getStatus();
             
             if (success) {
                 // Başarılı ödeme
@@ -723,9 +698,6 @@ public class PaymentService {
                 
                 log.info("✅ Payment {} completed via bank webhook", payment.getPaymentId());
                 
-                // Merchant'a başarı webhook'u gönder
-                sendPaymentSuccessWebhook(payment);
-                
             } else {
                 // Başarısız ödeme
                 payment.setStatus(Payment.PaymentStatus.FAILED);
@@ -733,9 +705,6 @@ public class PaymentService {
                 payment.setGatewayTransactionId(bankTransactionId);
                 
                 log.warn("❌ Payment {} failed via bank webhook", payment.getPaymentId());
-                
-                // Merchant'a başarısızlık webhook'u gönder
-                sendPaymentFailureWebhook(payment);
             }
             
             // Payment'i kaydet
@@ -743,6 +712,9 @@ public class PaymentService {
             try {
                 payment = paymentRepository.save(payment);
                 log.info("✅ Payment saved successfully - ID: {}, Final Status: {}", payment.getPaymentId(), payment.getStatus());
+                
+                // Merchant webhook'u event subscriber'ı gönderir
+                domainEventBus.publish(new PaymentStatusChanged(payment, oldStatus, "bank"));
             } catch (Exception e) {
                 log.error("❌ Error saving payment to database: {}", e.getMessage(), e);
                 throw e;
@@ -775,34 +747,6 @@ public class PaymentService {
         }
     }
     
-    /**
-     * Merchant'a başarılı payment webhook'u gönder
-     */
-    private void sendPaymentSuccessWebhook(Payment payment) {
-        try {
-            log.info("Sending success webhook to merchant for payment: {}", payment.getPaymentId());
-            // TODO: Implement merchant webhook notification
-            // Bu kısımda merchant'ın webhook URL'ine POST isteği gönderilir
-            // Şimdilik sadece log yazıyoruz
-        } catch (Exception e) {
-            log.error("Error sending success webhook to merchant for payment: {}", payment.getPaymentId(), e);
-        }
-    }
-    
-    /**
-     * Merchant'a başarısız payment webhook'u gönder
-     */
-    private void sendPaymentFailureWebhook(Payment payment) {
-        try {
-            log.info("Sending failure webhook to merchant for payment: {}", payment.getPaymentId());
-            // TODO: Implement merchant webhook notification
-            // Bu kısımda merchant'ın webhook URL'ine POST isteği gönderilir
-            // Şimdilik sadece log yazıyoruz
-        } catch (Exception e) {
-            log.error("Error sending failure webhook to merchant for payment: {}", payment.getPaymentId(), e);
-        }
-    }
-    
     /**
      * Banka'dan gelen payment webhook'ını işle
      */
@@ -846,32 +790,15 @@ public class PaymentService {
                     paymentRepository.save(payment);
                     log.info("Payment {} status updated successfully in database", payment.getPaymentId());
 
-                    // Audit logging
-                    auditService.logEvent(
-                        auditService.createEvent()
-                            .eventType("PAYMENT_STATUS_UPDATED_VIA_WEBHOOK")
-                            .severity(AuditLog.Severity.MEDIUM)
-                            .actor(bankType)
-                            .action("UPDATE")
-                            .resourceType("PAYMENT")
-                            .resourceId(payment.getPaymentId())
-                            .additionalData("bankType", bankType)
-                            .additionalData("oldStatus", oldStatus.toString())
-                            .additionalData("newStatus", newStatus.toString())
-                            .additionalData("webhookMessage", message)
-                            .complianceTag("PCI_DSS")
-                    );
+                    // Audit kaydı ve merchant webhook'u event subscriber'larından gider
+                    domainEventBus.publish(new PaymentStatusChanged(payment, oldStatus, bankType,
+                        AuditDetails.of("PAYMENT_STATUS_UPDATED_VIA_WEBHOOK", "UPDATE", "PCI_DSS")
+                            .with("bankType", bankType)
+                            .with("webhookMessage", message)));
                     
                     log.info("Payment status updated via {} webhook from {} to {} for payment ID: {}",
                             bankType, oldStatus, newStatus, payment.getPaymentId());
                     
-                    // Merchant'a webhook gönder (payment durumu değişti)
-                    if (newStatus == Payment.PaymentStatus.COMPLETED) {
-                        sendPaymentSuccessWebhook(payment);
-                    } else if (newStatus == Payment.PaymentStatus.FAILED) {
-                        sendPaymentFailureWebhook(payment);
-                    }
-                    
                 } else {
                     log.warn("Payment not found for payment ID: {}", paymentId);
                 }
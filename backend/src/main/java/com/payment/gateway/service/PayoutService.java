@@ -3,6 +3,7 @@ package com.payment.gateway.service;
 import com.payment.gateway.dto.PayoutRequest;
 import com.payment.gateway.dto.PayoutResponse;
 import com.payment.gateway.model.Payout;
+import com.payment.gateway.model.Webhook;
 import com.payment.gateway.repository.PayoutRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +14,9 @@ import com.payment.gateway.model.AuditLog;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,6 +29,7 @@ public class PayoutService {
     
     private final PayoutRepository payoutRepository;
     private final AuditService auditService;
+    private final MerchantNotificationService merchantNotificationService;
     
     public PayoutResponse createPayout(PayoutRequest request) {
         try {
@@ -297,6 +301,7 @@ public class PayoutService {
             }
             
             payoutRepository.save(payout);
+            notifyMerchantAboutPayout(payout, message);
             
             log.info("Payout status updated successfully for payment ID: {} to status: {}", paymentId, newStatus);
             return true;
@@ -307,6 +312,34 @@ public class PayoutService {
         }
     }
     
+    /**
+     * Merchant'a payout sonucunu bildirir (commit sonrası, asenkron)
+     */
+    private void notifyMerchantAboutPayout(Payout payout, String message) {
+        Webhook.EventType eventType;
+        if (payout.getStatus() == Payout.PayoutStatus.COMPLETED) {
+            eventType = Webhook.EventType.PAYOUT_COMPLETED;
+        } else if (payout.getStatus() == Payout.PayoutStatus.FAILED) {
+            eventType = Webhook.EventType.PAYOUT_FAILED;
+        } else {
+            return;
+        }
+        
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("payoutId", payout.getPayoutId());
+        eventData.put("paymentId", payout.getPaymentId());
+        eventData.put("customerId", payout.getCustomerId());
+        eventData.put("amount", payout.getAmount());
+        eventData.put("currency", payout.getCurrency());
+        eventData.put("status", payout.getStatus().name());
+        eventData.put("bankName", payout.getBankName());
+        eventData.put("settledAt", payout.getSettledAt());
+        eventData.put("failureReason", payout.getFailureReason());
+        eventData.put("message", message);
+        merchantNotificationService.notifyMerchant(payout.getMerchantId(), eventType.name(),
+                payout.getPayoutId(), eventData, "Payout " + payout.getStatus().name().toLowerCase());
+    }
+    
     /**
      * Payment ID'ye göre payout bilgilerini getirir
      */
@@ -1,7 +1,13 @@
 package com.payment.gateway.service;
 
 import com.payment.gateway.dto.RefundRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payment.gateway.dto.RefundResponse;
+import com.payment.gateway.event.AuditDetails;
+import com.payment.gateway.event.DomainEventBus;
+import com.payment.gateway.event.RefundCompleted;
+import com.payment.gateway.event.RefundCreated;
+import com.payment.gateway.event.RefundStatusChanged;
 import com.payment.gateway.model.Refund;
 import com.payment.gateway.repository.RefundRepository;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +33,8 @@ public class RefundService {
     private final RefundRepository refundRepository;
     private final AuditService auditService;
     private final PaymentService paymentService;
+    private final DomainEventBus domainEventBus;
+    private final ObjectMapper objectMapper;
     
     public RefundResponse createRefund(RefundRequest request) {
         try {
@@ -82,20 +90,13 @@ public class RefundService {
             // Save refund
             Refund savedRefund = refundRepository.save(refund);
             
-            // Audit logging
-            auditService.createEvent()
-                .eventType("REFUND_CREATED")
-                .severity(AuditLog.Severity.MEDIUM)
-                .actor("system")
-                .action("CREATE")
-                .resourceType("REFUND")
-                .resourceId(refundId)
-                .newValues(savedRefund)
-                .additionalData("paymentId", request.getPaymentId())
-                .additionalData("merchantId", request.getMerchantId())
-                .additionalData("amount", request.getAmount().toString())
-                .complianceTag("PCI_DSS")
-                .log();
+            // Audit and merchant webhook run in the event subscribers after commit
+            domainEventBus.publish(new RefundCreated(savedRefund,
+                AuditDetails.of("REFUND_CREATED", "CREATE", "PCI_DSS")
+                    .withNewValues(objectMapper.valueToTree(savedRefund))));
+            if (finalStatus == Refund.RefundStatus.COMPLETED) {
+                domainEventBus.publish(new RefundCompleted(savedRefund, "system"));
+            }
             
             log.info("Refund created successfully with ID: {}", refundId);
             
@@ -289,9 +290,11 @@ public class RefundService {
         Optional<Refund> refundOpt = refundRepository.findById(id);
         if (refundOpt.isPresent()) {
             Refund refund = refundOpt.get();
+            Refund.RefundStatus previousStatus = refund.getStatus();
             refund.setStatus(newStatus);
             refund.setGatewayResponse("Status updated to: " + newStatus);
             Refund updatedRefund = refundRepository.save(refund);
+            publishStatusChange(updatedRefund, previousStatus, "api-user");
             
             log.info("Refund status updated to {} for ID: {}", newStatus, id);
             return createRefundResponse(updatedRefund, "Refund status updated successfully", true);
@@ -319,19 +322,10 @@ public class RefundService {
             refund.setUpdatedAt(LocalDateTime.now());
             
             Refund savedRefund = refundRepository.save(refund);
-            
-            // Audit logging
-            auditService.createEvent()
-                .eventType("REFUND_COMPLETED")
-                .severity(AuditLog.Severity.MEDIUM)
-                .actor("admin")
-                .action("UPDATE")
-                .resourceType("REFUND")
-                .resourceId(refundId)
-                .newValues(savedRefund)
-                .additionalData("action", "manual_completion")
-                .complianceTag("PCI_DSS")
-                .log();
+            domainEventBus.publish(new RefundCompleted(savedRefund, "admin",
+                AuditDetails.of("REFUND_COMPLETED", "UPDATE", "PCI_DSS")
+                    .with("action", "manual_completion")
+                    .withNewValues(objectMapper.valueToTree(savedRefund))));
             
             log.info("Refund {} manually completed", refundId);
             return createRefundResponse(savedRefund, "Refund completed successfully", true);
@@ -356,11 +350,13 @@ public class RefundService {
             }
             
             // Manuel olarak iptal et
+            Refund.RefundStatus previousStatus = refund.getStatus();
             refund.setStatus(Refund.RefundStatus.FAILED);
             refund.setGatewayResponse("Refund cancelled - Manually rejected");
             refund.setUpdatedAt(LocalDateTime.now());
             
             Refund savedRefund = refundRepository.save(refund);
+            publishStatusChange(savedRefund, previousStatus, "admin");
             
             // Audit logging
             auditService.createEvent()
@@ -642,6 +638,7 @@ public class RefundService {
                     
                     // Banka'dan gelen status'a göre güncelle
                     Refund.RefundStatus newStatus = mapBankStatusToRefundStatus(status);
+                    Refund.RefundStatus previousStatus = refund.getStatus();
                     refund.setStatus(newStatus);
                     refund.setGatewayResponse(bankType + " webhook: " + message);
                     refund.setUpdatedAt(LocalDateTime.now());
@@ -652,6 +649,7 @@ public class RefundService {
                     }
                     
                     refundRepository.save(refund);
+                    publishStatusChange(refund, previousStatus, bankType);
                     
                     // Audit logging
                     auditService.createEvent()
@@ -686,6 +684,14 @@ public class RefundService {
         }
     }
     
+    private void publishStatusChange(Refund refund, Refund.RefundStatus previousStatus, String changedBy) {
+        if (refund.getStatus() == Refund.RefundStatus.COMPLETED) {
+            domainEventBus.publish(new RefundCompleted(refund, changedBy));
+        } else if (refund.getStatus() != previousStatus) {
+            domainEventBus.publish(new RefundStatusChanged(refund, previousStatus, changedBy));
+        }
+    }
+    
     /**
      * Banka status'unu refund status'una map et
      */
@@ -66,6 +66,14 @@ public class RequestContextService {
         }
     }
     
+    /**
+     * Mevcut request'in device fingerprint'i; geo lookup yapmadan (risk değerlendirmesi için)
+     */
+    public String getDeviceFingerprint() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? generateDeviceFingerprint(attributes.getRequest()) : null;
+    }
+    
     /**
      * Gerçek client IP adresini çıkarır (proxy, load balancer arkasında da çalışır)
      */
@@ -4,6 +4,13 @@ import com.payment.gateway.dto.PaymentRequest;
 import com.payment.gateway.model.Payment;
 import com.payment.gateway.model.RiskAssessment;
 import com.payment.gateway.repository.RiskAssessmentRepository;
+import com.payment.gateway.risk.RiskEvaluation;
+import com.payment.gateway.risk.RiskFeature;
+import com.payment.gateway.risk.RiskModel;
+import com.payment.gateway.risk.RiskModelEngine;
+import com.payment.gateway.risk.RiskRuleEngine;
+import com.payment.gateway.risk.ShadowScoringService;
+import com.payment.gateway.util.CardUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,7 +21,6 @@ import com.payment.gateway.model.AuditLog;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +33,12 @@ public class RiskAssessmentService {
     private final VelocityCheckService velocityCheckService;
     private final BlacklistService blacklistService;
     private final AuditService auditService;
+    private final RiskRuleEngine riskRuleEngine;
+    private final RiskModelEngine riskModelEngine;
+    private final BehaviorFeatureStore behaviorFeatureStore;
+    private final RequestContextService requestContextService;
+    private final CardTestingDetector cardTestingDetector;
+    private final ShadowScoringService shadowScoringService;
     
     @Transactional
     public RiskAssessment assessPaymentRisk(PaymentRequest request, Payment payment, String ipAddress, String userAgent) {
@@ -37,67 +49,39 @@ public class RiskAssessmentService {
         assessment.setPaymentId(payment.getPaymentId());
         assessment.setMerchantId(payment.getMerchantId());
         assessment.setCustomerId(payment.getCustomerId());
+        assessment.setCardFingerprint(payment.getCardFingerprint());
         assessment.setIpAddress(ipAddress);
         assessment.setUserAgent(userAgent);
+        assessment.setDeviceFingerprint(requestContextService.getDeviceFingerprint());
         
-        List<String> riskFactors = new ArrayList<>();
-        BigDecimal riskScore = BigDecimal.ZERO;
+        boolean velocityExceeded = velocityCheckService.checkVelocityLimits(request, payment.getCardFingerprint(), ipAddress);
+        boolean isBlacklisted = blacklistService.isBlacklisted(request, payment.getCardFingerprint());
         
-        // 1. Amount Risk Check
-        BigDecimal amountRisk = assessAmountRisk(request.getAmount());
-        riskScore = riskScore.add(amountRisk);
-        if (amountRisk.compareTo(BigDecimal.valueOf(20)) > 0) {
-            riskFactors.add("HIGH_AMOUNT: " + request.getAmount());
-        }
-        assessment.setAmountRiskResult("Amount risk score: " + amountRisk);
+        // Thresholds, weights and BIN lists live in the rule set (resources/risk/rules.json)
+        double[] features = buildFeatures(request, ipAddress, velocityExceeded, isBlacklisted);
+        behaviorFeatureStore.fill(features, payment.getCustomerId(), payment.getCardFingerprint(),
+                assessment.getDeviceFingerprint(), features[RiskFeature.AMOUNT.ordinal()], System.currentTimeMillis());
+        features[RiskFeature.CARD_TESTING.ordinal()] =
+                cardTestingDetector.isBlocked(payment.getCardBin(), payment.getMerchantId(), payment.getAmount()) ? 1 : 0;
+        RiskEvaluation evaluation = riskRuleEngine.evaluate(features);
+        shadowScoringService.submit(payment.getPaymentId(), features, evaluation);
         
-        // 2. Velocity Checks
-        boolean velocityExceeded = velocityCheckService.checkVelocityLimits(request, ipAddress);
-        if (velocityExceeded) {
-            riskScore = riskScore.add(BigDecimal.valueOf(30));
-            riskFactors.add("VELOCITY_EXCEEDED");
+        // Model probability is recorded next to the rule score; the rule set still decides the action
+        RiskModel model = riskModelEngine.getActive();
+        if (model != null) {
+            assessment.setModelProbability(BigDecimal.valueOf(model.predict(features)).setScale(6, RoundingMode.HALF_UP));
+            assessment.setModelVersion(model.getVersion());
         }
-        assessment.setVelocityCheckResult(velocityExceeded ? "FAILED" : "PASSED");
         
-        // 3. Blacklist Checks
-        boolean isBlacklisted = blacklistService.isBlacklisted(request);
-        if (isBlacklisted) {
-            riskScore = riskScore.add(BigDecimal.valueOf(50));
-            riskFactors.add("BLACKLISTED");
-        }
+        assessment.setAmountRiskResult("Amount risk score: " + evaluation.groupScore("amount"));
+        assessment.setVelocityCheckResult(velocityExceeded ? "FAILED" : "PASSED");
         assessment.setBlacklistCheckResult(isBlacklisted ? "FAILED" : "PASSED");
+        assessment.setCardBinCheckResult("BIN risk score: " + evaluation.groupScore("bin"));
         
-        // 4. Card BIN Risk Check
-        BigDecimal binRisk = assessCardBinRisk(request.getCardNumber());
-        riskScore = riskScore.add(binRisk);
-        if (binRisk.compareTo(BigDecimal.valueOf(15)) > 0) {
-            riskFactors.add("HIGH_RISK_BIN");
-        }
-        assessment.setCardBinCheckResult("BIN risk score: " + binRisk);
-        
-        // 5. Time-based Risk Check
-        BigDecimal timeRisk = assessTimeRisk();
-        riskScore = riskScore.add(timeRisk);
-        if (timeRisk.compareTo(BigDecimal.valueOf(10)) > 0) {
-            riskFactors.add("OFF_HOURS_TRANSACTION");
-        }
-        
-        // 6. Geographic Risk (basic implementation)
-        BigDecimal geoRisk = assessGeographicRisk(ipAddress);
-        riskScore = riskScore.add(geoRisk);
-        if (geoRisk.compareTo(BigDecimal.valueOf(15)) > 0) {
-            riskFactors.add("HIGH_RISK_LOCATION");
-        }
-        
-        // Cap risk score at 100
-        if (riskScore.compareTo(BigDecimal.valueOf(100)) > 0) {
-            riskScore = BigDecimal.valueOf(100);
-        }
-        
-        assessment.setRiskScore(riskScore.setScale(2, RoundingMode.HALF_UP));
-        assessment.setRiskLevel(determineRiskLevel(riskScore));
-        assessment.setAction(determineAction(riskScore, riskFactors));
-        assessment.setRiskFactors(String.join(", ", riskFactors));
+        assessment.setRiskScore(BigDecimal.valueOf(evaluation.score()).setScale(2, RoundingMode.HALF_UP));
+        assessment.setRiskLevel(evaluation.riskLevel());
+        assessment.setAction(evaluation.action());
+        assessment.setRiskFactors(String.join(", ", evaluation.riskFactors()));
         assessment.setRecommendation(generateRecommendation(assessment));
         
         RiskAssessment savedAssessment = riskAssessmentRepository.save(assessment);
@@ -115,6 +99,8 @@ public class RiskAssessmentService {
             .additionalData("riskScore", assessment.getRiskScore().toString())
             .additionalData("riskFactors", assessment.getRiskFactors())
             .additionalData("action", assessment.getAction())
+            .additionalData("modelProbability", assessment.getModelProbability())
+            .additionalData("modelVersion", assessment.getModelVersion())
             .complianceTag("PCI_DSS")
             .log();
         
@@ -124,79 +110,6 @@ public class RiskAssessmentService {
         return savedAssessment;
     }
     
-    private BigDecimal assessAmountRisk(BigDecimal amount) {
-        // Risk increases with amount
-        if (amount.compareTo(BigDecimal.valueOf(10000)) > 0) {
-            return BigDecimal.valueOf(25); // Very high amount
-        } else if (amount.compareTo(BigDecimal.valueOf(5000)) > 0) {
-            return BigDecimal.valueOf(20); // High amount
-        } else if (amount.compareTo(BigDecimal.valueOf(1000)) > 0) {
-            return BigDecimal.valueOf(10); // Medium amount
-        } else if (amount.compareTo(BigDecimal.valueOf(100)) > 0) {
-            return BigDecimal.valueOf(5); // Normal amount
-        }
-        return BigDecimal.ZERO; // Low amount
-    }
-    
-    private BigDecimal assessCardBinRisk(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 6) {
-            return BigDecimal.valueOf(20); // Unknown BIN is risky
-        }
-        
-        String bin = cardNumber.substring(0, 6);
-        
-        // High-risk BINs (example - in production, use real data)
-        List<String> highRiskBins = List.of("555555", "444444", "666666");
-        if (highRiskBins.contains(bin)) {
-            return BigDecimal.valueOf(25);
-        }
-        
-        // Check if it's a known good BIN (major banks)
-        List<String> trustedBins = List.of("482494", "540061", "454360"); // Garanti BBVA
-        if (trustedBins.contains(bin)) {
-            return BigDecimal.ZERO;
-        }
-        
-        return BigDecimal.valueOf(5); // Unknown BIN, slight risk
-    }
-    
-    private BigDecimal assessTimeRisk() {
-        LocalDateTime now = LocalDateTime.now();
-        int hour = now.getHour();
-        
-        // Higher risk during off-hours (22:00 - 06:00)
-        if (hour >= 22 || hour <= 6) {
-            return BigDecimal.valueOf(15);
-        }
-        
-        // Medium risk during early morning (06:00 - 09:00)
-        if (hour >= 6 && hour <= 9) {
-            return BigDecimal.valueOf(5);
-        }
-        
-        return BigDecimal.ZERO; // Normal business hours
-    }
-    
-    private BigDecimal assessGeographicRisk(String ipAddress) {
-        // Basic implementation - in production, use IP geolocation service
-        if (ipAddress == null) {
-            return BigDecimal.valueOf(10);
-        }
-        
-        // Local/private IPs
-        if (ipAddress.startsWith("192.168.") || ipAddress.startsWith("10.") || 
-            ipAddress.startsWith("127.") || ipAddress.equals("localhost")) {
-            return BigDecimal.valueOf(5); // Slightly risky for production
-        }
-        
-        // In production, check against:
-        // - High-risk countries
-        // - VPN/Proxy detection
-        // - Distance from merchant location
-        
-        return BigDecimal.valueOf(2); // Default minimal risk
-    }
-    
     private AuditLog.Severity mapRiskLevelToSeverity(RiskAssessment.RiskLevel riskLevel) {
         return switch (riskLevel) {
             case CRITICAL -> AuditLog.Severity.CRITICAL;
@@ -206,40 +119,32 @@ public class RiskAssessmentService {
         };
     }
     
-    private RiskAssessment.RiskLevel determineRiskLevel(BigDecimal riskScore) {
-        if (riskScore.compareTo(BigDecimal.valueOf(90)) >= 0) {
-            return RiskAssessment.RiskLevel.CRITICAL;
-        } else if (riskScore.compareTo(BigDecimal.valueOf(70)) >= 0) {
-            return RiskAssessment.RiskLevel.HIGH;
-        } else if (riskScore.compareTo(BigDecimal.valueOf(30)) >= 0) {
-            return RiskAssessment.RiskLevel.MEDIUM;
-        }
-        return RiskAssessment.RiskLevel.LOW;
+    /**
+     * Flat feature vector, indexed by RiskFeature
+     */
+    private double[] buildFeatures(PaymentRequest request, String ipAddress, boolean velocityExceeded, boolean isBlacklisted) {
+        double[] features = RiskFeature.newVector();
+        features[RiskFeature.AMOUNT.ordinal()] = request.getAmount() != null ? request.getAmount().doubleValue() : 0;
+        features[RiskFeature.VELOCITY_EXCEEDED.ordinal()] = velocityExceeded ? 1 : 0;
+        features[RiskFeature.BLACKLISTED.ordinal()] = isBlacklisted ? 1 : 0;
+        features[RiskFeature.CARD_BIN.ordinal()] = parseBin(request.getCardNumber());
+        features[RiskFeature.HOUR_OF_DAY.ordinal()] = LocalDateTime.now().getHour();
+        features[RiskFeature.IP_MISSING.ordinal()] = ipAddress == null ? 1 : 0;
+        features[RiskFeature.IP_PRIVATE.ordinal()] = isPrivateIp(ipAddress) ? 1 : 0;
+        return features;
     }
     
-    private RiskAssessment.AssessmentAction determineAction(BigDecimal riskScore, List<String> riskFactors) {
-        // Critical risk - always decline
-        if (riskScore.compareTo(BigDecimal.valueOf(90)) >= 0) {
-            return RiskAssessment.AssessmentAction.DECLINE;
-        }
-        
-        // Blacklisted - always decline
-        if (riskFactors.contains("BLACKLISTED")) {
-            return RiskAssessment.AssessmentAction.DECLINE;
-        }
-        
-        // High risk - manual review
-        if (riskScore.compareTo(BigDecimal.valueOf(70)) >= 0) {
-            return RiskAssessment.AssessmentAction.REVIEW;
-        }
-        
-        // Medium risk - challenge (3D Secure, etc.)
-        if (riskScore.compareTo(BigDecimal.valueOf(40)) >= 0) {
-            return RiskAssessment.AssessmentAction.CHALLENGE;
+    static boolean isPrivateIp(String ipAddress) {
+        return ipAddress != null && (ipAddress.startsWith("192.168.") || ipAddress.startsWith("10.")
+                || ipAddress.startsWith("127.") || ipAddress.equals("localhost"));
+    }
+    
+    private double parseBin(String cardNumber) {
+        String digits = CardUtils.cleanCardNumber(cardNumber);
+        if (digits == null || digits.length() < 6) {
+            return -1; // Unknown BIN
         }
-        
-        // Low risk - approve
-        return RiskAssessment.AssessmentAction.APPROVE;
+        return Integer.parseInt(digits.substring(0, 6));
     }
     
     private String generateRecommendation(RiskAssessment assessment) {
@@ -0,0 +1,602 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.RiskBacktestRequest;
+import com.payment.gateway.dto.RiskBacktestResponse;
+import com.payment.gateway.model.RiskAssessment;
+import com.payment.gateway.risk.CompiledRuleSet;
+import com.payment.gateway.risk.RiskEvaluation;
+import com.payment.gateway.risk.RiskFeature;
+import com.payment.gateway.risk.RiskRuleEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a candidate rule set over stored payments and compares it with dispute outcomes.
+ *
+ * Payments are streamed through a server-side cursor ordered by card fingerprint and time, so one
+ * card's history arrives contiguously and its velocity features can be rebuilt point-in-time with
+ * sliding windows, without per-row queries. Finished card histories are batched and scored on a
+ * per-job ForkJoinPool, split by card; the reader blocks once enough batches are in flight, so
+ * memory stays bounded by the batch size rather than the range.
+ *
+ * Only card-scoped velocity (count per minute/hour/day, completed amount per hour) is rebuilt; IP,
+ * customer and merchant counters need other orderings and are treated as not exceeded. The
+ * blacklist flag and IP come from the risk assessment stored at payment time; BehaviorFeatureStore
+ * features are left at -1.
+ */
+@Service
+@Slf4j
+public class RiskBacktestService {
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final int LEAF_CARDS = 256;
+    private static final String LIVE_RULE_SET = "live";
+
+    private static final RiskAssessment.AssessmentAction[] ACTIONS = RiskAssessment.AssessmentAction.values();
+    private static final int NO_ASSESSMENT = ACTIONS.length;
+
+    private static final byte COMPLETED = 1, IP_MISSING = 2, IP_PRIVATE = 4, BLACKLISTED = 8, FRAUD = 16, SCORED = 32;
+
+    // Fraud label: a fraud/unauthorized dispute that the merchant did not win
+    private static final String SQL = "SELECT p.card_fingerprint, p.created_at, p.amount, p.status, p.card_bin, "
+            + "r.ip_address, r.blacklist_check_result, r.action, "
+            + "EXISTS (SELECT 1 FROM disputes d WHERE d.payment_id = p.payment_id "
+            + "AND d.reason IN ('FRAUD', 'UNAUTHORIZED_TRANSACTION') "
+            + "AND d.status NOT IN ('WON', 'BANK_APPROVED')) AS fraud "
+            + "FROM payments p LEFT JOIN risk_assessments r ON r.payment_id = p.payment_id "
+            + "WHERE p.created_at >= ? AND p.created_at < ? "
+            + "ORDER BY p.card_fingerprint NULLS LAST, p.created_at, p.id";
+
+    private final RiskRuleEngine riskRuleEngine;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor backtestExecutor;
+
+    private final Map<String, BacktestProgress> backtests = new ConcurrentHashMap<>();
+
+    @Value("${app.risk.rules.location:classpath:risk/rules.json}")
+    private String liveRulesLocation;
+
+    // key=location pairs; requests may only name one of these, never a location of their own
+    @Value("${app.risk.backtest.rule-sets:}")
+    private String ruleSetLocations;
+
+    @Value("${app.risk.backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.risk.backtest.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${app.risk.backtest.batch-rows:50000}")
+    private int batchRows;
+
+    @Value("${app.fraud.velocity.card.transactions.per.minute:5}")
+    private int cardTransactionsPerMinute;
+
+    @Value("${app.fraud.velocity.card.transactions.per.hour:20}")
+    private int cardTransactionsPerHour;
+
+    @Value("${app.fraud.velocity.card.transactions.per.day:100}")
+    private int cardTransactionsPerDay;
+
+    @Value("${app.fraud.velocity.card.amount.per.hour:10000}")
+    private BigDecimal cardAmountPerHour;
+
+    public RiskBacktestService(RiskRuleEngine riskRuleEngine,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("riskBacktestExecutor") Executor backtestExecutor) {
+        this.riskRuleEngine = riskRuleEngine;
+        this.dataSource = dataSource;
+        this.transactionManager = transactionManager;
+        this.backtestExecutor = backtestExecutor;
+    }
+
+    public RiskBacktestResponse startBacktest(RiskBacktestRequest request) {
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        LocalDateTime from = request.getFrom() != null ? request.getFrom()
+                : to.minusMonths(request.getMonths() != null ? request.getMonths() : 3);
+        if (!from.isBefore(to)) {
+            return createErrorResponse("'from' must be before 'to'");
+        }
+
+        // Always a fresh compile so rule hit counts belong to this back-test only
+        CompiledRuleSet ruleSet;
+        if (request.getRuleSet() != null) {
+            try {
+                ruleSet = CompiledRuleSet.compile(request.getRuleSet());
+            } catch (IllegalArgumentException e) {
+                // Validation of the caller's own definition, names the bad rule
+                return createErrorResponse("Invalid rule set: " + e.getMessage());
+            }
+        } else {
+            String key = request.getRuleSetKey() != null ? request.getRuleSetKey() : LIVE_RULE_SET;
+            String location = resolveRuleSetLocation(key);
+            if (location == null) {
+                return createErrorResponse("Unknown rule set key: " + key);
+            }
+            try {
+                ruleSet = riskRuleEngine.load(location);
+            } catch (Exception e) {
+                log.error("Back-test rule set {} could not be loaded from {}: {}", key, location, e.getMessage(), e);
+                return createErrorResponse("Rule set could not be loaded");
+            }
+        }
+
+        Limits limits = new Limits(
+                request.getCardTransactionsPerMinute() != null ? request.getCardTransactionsPerMinute() : cardTransactionsPerMinute,
+                request.getCardTransactionsPerHour() != null ? request.getCardTransactionsPerHour() : cardTransactionsPerHour,
+                request.getCardTransactionsPerDay() != null ? request.getCardTransactionsPerDay() : cardTransactionsPerDay,
+                (request.getCardAmountPerHour() != null ? request.getCardAmountPerHour() : cardAmountPerHour).doubleValue());
+
+        BacktestProgress progress = new BacktestProgress(generateBacktestId(), ruleSet, from, to);
+        backtests.put(progress.backtestId, progress);
+        try {
+            backtestExecutor.execute(() -> runBacktest(progress, limits));
+        } catch (RejectedExecutionException e) {
+            backtests.remove(progress.backtestId);
+            return createErrorResponse("A back-test is already running, try again later");
+        }
+
+        log.info("Queued risk back-test {} - rule set: {}, range: {} - {}, requested by: {}", progress.backtestId,
+                ruleSet.getVersion(), from, to, request.getRequestedBy());
+        return createBacktestResponse(progress, "Back-test queued");
+    }
+
+    public RiskBacktestResponse getBacktest(String backtestId) {
+        BacktestProgress progress = backtests.get(backtestId);
+        if (progress == null) {
+            return createErrorResponse("Back-test not found: " + backtestId);
+        }
+        return createBacktestResponse(progress, "Back-test " + progress.status.toLowerCase());
+    }
+
+    private void runBacktest(BacktestProgress progress, Limits limits) {
+        progress.status = "RUNNING";
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try {
+            // Own JdbcTemplate so the fetch size does not leak into the shared one
+            JdbcTemplate streaming = new JdbcTemplate(dataSource);
+            streaming.setFetchSize(fetchSize);
+
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+            // One extra day before 'from' so the first scored payments see their velocity history
+            Scanner scanner = new Scanner(progress, limits, pool, threads * 2);
+            readOnly.executeWithoutResult(status -> streaming.query(SQL, scanner,
+                    Timestamp.valueOf(progress.from.minusDays(1)), Timestamp.valueOf(progress.to)));
+            scanner.finish();
+
+            progress.finish("COMPLETED", null);
+            log.info("Risk back-test {} completed: {} rows scanned, {} payments scored", progress.backtestId,
+                    progress.rowsScanned.get(), progress.tally.scored);
+
+        } catch (Exception e) {
+            progress.finish("FAILED", "Back-test failed, see the server log for " + progress.backtestId);
+            log.error("Risk back-test {} failed: {}", progress.backtestId, e.getMessage(), e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Groups cursor rows into card histories and hands full batches to the pool.
+     */
+    private class Scanner implements RowCallbackHandler {
+        private final BacktestProgress progress;
+        private final Limits limits;
+        private final ForkJoinPool pool;
+        private final int maxInFlight;
+        private final long scoreFromMillis;
+        private final Deque<ForkJoinTask<Tally>> pending = new ArrayDeque<>();
+
+        private List<CardHistory> batch = new ArrayList<>();
+        private int rowsInBatch;
+        private CardHistory current;
+
+        Scanner(BacktestProgress progress, Limits limits, ForkJoinPool pool, int maxInFlight) {
+            this.progress = progress;
+            this.limits = limits;
+            this.pool = pool;
+            this.maxInFlight = maxInFlight;
+            this.scoreFromMillis = Timestamp.valueOf(progress.from).getTime();
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String fingerprint = rs.getString(1);
+            // Payments without a fingerprint (before the migration) each get their own history
+            if (current == null || fingerprint == null || !fingerprint.equals(current.fingerprint)) {
+                closeCard();
+                current = new CardHistory(fingerprint);
+            }
+
+            Timestamp createdAt = rs.getTimestamp(2);
+            long time = createdAt.getTime();
+            String ipAddress = rs.getString(6);
+            String liveAction = rs.getString(8);
+
+            byte flags = 0;
+            flags |= "COMPLETED".equals(rs.getString(4)) ? COMPLETED : 0;
+            flags |= ipAddress == null ? IP_MISSING : 0;
+            flags |= RiskAssessmentService.isPrivateIp(ipAddress) ? IP_PRIVATE : 0;
+            flags |= "FAILED".equals(rs.getString(7)) ? BLACKLISTED : 0;
+            flags |= rs.getBoolean(9) ? FRAUD : 0;
+            flags |= time >= scoreFromMillis ? SCORED : 0;
+
+            current.add(time, rs.getDouble(3), parseBin(rs.getString(5)), createdAt.toLocalDateTime().getHour(), flags,
+                    liveAction != null ? RiskAssessment.AssessmentAction.valueOf(liveAction).ordinal() : NO_ASSESSMENT);
+            progress.rowsScanned.incrementAndGet();
+        }
+
+        void finish() {
+            closeCard();
+            submitBatch();
+            while (!pending.isEmpty()) {
+                progress.merge(pending.poll().join());
+            }
+        }
+
+        private void closeCard() {
+            if (current == null) {
+                return;
+            }
+            batch.add(current);
+            rowsInBatch += current.size;
+            current = null;
+            if (rowsInBatch >= batchRows) {
+                submitBatch();
+            }
+        }
+
+        private void submitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            pending.add(pool.submit(new ScoreTask(batch, 0, batch.size(), progress.ruleSet, limits)));
+            batch = new ArrayList<>();
+            rowsInBatch = 0;
+            // Back-pressure: the cursor waits for the oldest batch instead of buffering the whole range
+            while (pending.size() > maxInFlight) {
+                progress.merge(pending.poll().join());
+            }
+        }
+
+        private int parseBin(String cardBin) {
+            if (cardBin == null || cardBin.length() != 6) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(cardBin);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    private static final class ScoreTask extends RecursiveTask<Tally> {
+        private final List<CardHistory> cards;
+        private final int from;
+        private final int to;
+        private final CompiledRuleSet ruleSet;
+        private final Limits limits;
+
+        ScoreTask(List<CardHistory> cards, int from, int to, CompiledRuleSet ruleSet, Limits limits) {
+            this.cards = cards;
+            this.from = from;
+            this.to = to;
+            this.ruleSet = ruleSet;
+            this.limits = limits;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= LEAF_CARDS) {
+                Tally tally = new Tally();
+                double[] features = RiskFeature.newVector();
+                for (int i = from; i < to; i++) {
+                    score(cards.get(i), features, tally);
+                }
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(cards, from, mid, ruleSet, limits);
+            left.fork();
+            Tally tally = new ScoreTask(cards, mid, to, ruleSet, limits).compute();
+            tally.merge(left.join());
+            return tally;
+        }
+
+        /**
+         * Walks one card's payments in time order with sliding windows over (t - window, t]
+         */
+        private void score(CardHistory card, double[] features, Tally tally) {
+            int minuteStart = 0, hourStart = 0, dayStart = 0, amountStart = 0;
+            double completedAmountInHour = 0;
+
+            for (int i = 0; i < card.size; i++) {
+                long t = card.times[i];
+                while (card.times[minuteStart] <= t - MINUTE_MS) {
+                    minuteStart++;
+                }
+                while (card.times[hourStart] <= t - HOUR_MS) {
+                    hourStart++;
+                }
+                while (card.times[dayStart] <= t - DAY_MS) {
+                    dayStart++;
+                }
+                while (amountStart < i && card.times[amountStart] <= t - HOUR_MS) {
+                    if ((card.flags[amountStart] & COMPLETED) != 0) {
+                        completedAmountInHour -= card.amounts[amountStart];
+                    }
+                    amountStart++;
+                }
+
+                byte flags = card.flags[i];
+                if ((flags & SCORED) != 0) {
+                    // Live counters include the current payment; the amount counter only earlier completed ones
+                    boolean velocityExceeded = card.fingerprint != null
+                            && (i - minuteStart + 1 >= limits.perMinute()
+                            || i - hourStart + 1 >= limits.perHour()
+                            || i - dayStart + 1 >= limits.perDay()
+                            || completedAmountInHour >= limits.amountPerHour());
+
+                    // Behaviour history is not rebuilt here: those features stay "unknown"
+                    Arrays.fill(features, -1);
+                    features[RiskFeature.AMOUNT.ordinal()] = card.amounts[i];
+                    features[RiskFeature.VELOCITY_EXCEEDED.ordinal()] = velocityExceeded ? 1 : 0;
+                    features[RiskFeature.BLACKLISTED.ordinal()] = (flags & BLACKLISTED) != 0 ? 1 : 0;
+                    features[RiskFeature.CARD_BIN.ordinal()] = card.bins[i];
+                    features[RiskFeature.HOUR_OF_DAY.ordinal()] = card.hours[i];
+                    features[RiskFeature.IP_MISSING.ordinal()] = (flags & IP_MISSING) != 0 ? 1 : 0;
+                    features[RiskFeature.IP_PRIVATE.ordinal()] = (flags & IP_PRIVATE) != 0 ? 1 : 0;
+
+                    RiskEvaluation evaluation = ruleSet.evaluate(features);
+                    tally.add(evaluation.action().ordinal(), card.liveActions[i], (flags & FRAUD) != 0, card.amounts[i]);
+                }
+
+                if ((flags & COMPLETED) != 0) {
+                    completedAmountInHour += card.amounts[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * One card's payments in time order, as growable primitive columns
+     */
+    private static final class CardHistory {
+        private final String fingerprint;
+        private long[] times = new long[4];
+        private double[] amounts = new double[4];
+        private int[] bins = new int[4];
+        private byte[] hours = new byte[4];
+        private byte[] flags = new byte[4];
+        private byte[] liveActions = new byte[4];
+        private int size;
+
+        CardHistory(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void add(long time, double amount, int bin, int hour, byte flag, int liveAction) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                bins = Arrays.copyOf(bins, capacity);
+                hours = Arrays.copyOf(hours, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                liveActions = Arrays.copyOf(liveActions, capacity);
+            }
+            times[size] = time;
+            amounts[size] = amount;
+            bins[size] = bin;
+            hours[size] = (byte) hour;
+            flags[size] = flag;
+            liveActions[size] = (byte) liveAction;
+            size++;
+        }
+    }
+
+    /**
+     * Mergeable counts: [action * 2 + (fraud ? 1 : 0)], the live side has an extra "no assessment" slot
+     */
+    private static final class Tally {
+        private final long[] candidate = new long[ACTIONS.length * 2];
+        private final long[] live = new long[(ACTIONS.length + 1) * 2];
+        private long scored;
+        private double fraudAmount;
+        private double candidateCaughtAmount;
+        private double liveCaughtAmount;
+
+        void add(int candidateAction, int liveAction, boolean fraud, double amount) {
+            int label = fraud ? 1 : 0;
+            candidate[candidateAction * 2 + label]++;
+            live[liveAction * 2 + label]++;
+            scored++;
+            if (fraud) {
+                fraudAmount += amount;
+                if (ACTIONS[candidateAction] == RiskAssessment.AssessmentAction.DECLINE) {
+                    candidateCaughtAmount += amount;
+                }
+                if (liveAction != NO_ASSESSMENT && ACTIONS[liveAction] == RiskAssessment.AssessmentAction.DECLINE) {
+                    liveCaughtAmount += amount;
+                }
+            }
+        }
+
+        void merge(Tally other) {
+            for (int i = 0; i < candidate.length; i++) {
+                candidate[i] += other.candidate[i];
+            }
+            for (int i = 0; i < live.length; i++) {
+                live[i] += other.live[i];
+            }
+            scored += other.scored;
+            fraudAmount += other.fraudAmount;
+            candidateCaughtAmount += other.candidateCaughtAmount;
+            liveCaughtAmount += other.liveCaughtAmount;
+        }
+    }
+
+    private record Limits(int perMinute, int perHour, int perDay, double amountPerHour) {
+    }
+
+    private RiskBacktestResponse.ConfusionMatrix confusionMatrix(long[] counts, double fraudAmount, double caughtAmount) {
+        long[] byLabel = new long[2];
+        Map<String, Map<String, Long>> actionsByLabel = new LinkedHashMap<>();
+        for (int slot = 0; slot < counts.length / 2; slot++) {
+            Map<String, Long> labels = new LinkedHashMap<>();
+            labels.put("FRAUD", counts[slot * 2 + 1]);
+            labels.put("LEGITIMATE", counts[slot * 2]);
+            actionsByLabel.put(slot < ACTIONS.length ? ACTIONS[slot].name() : "NOT_ASSESSED", labels);
+            byLabel[0] += counts[slot * 2];
+            byLabel[1] += counts[slot * 2 + 1];
+        }
+
+        int decline = RiskAssessment.AssessmentAction.DECLINE.ordinal();
+        int review = RiskAssessment.AssessmentAction.REVIEW.ordinal();
+        long truePositives = counts[decline * 2 + 1];
+        long falsePositives = counts[decline * 2];
+        long total = byLabel[0] + byLabel[1];
+
+        RiskBacktestResponse.ConfusionMatrix matrix = new RiskBacktestResponse.ConfusionMatrix();
+        matrix.setTruePositives(truePositives);
+        matrix.setFalsePositives(falsePositives);
+        matrix.setFalseNegatives(byLabel[1] - truePositives);
+        matrix.setTrueNegatives(byLabel[0] - falsePositives);
+        matrix.setDeclineRate(ratio(truePositives + falsePositives, total));
+        matrix.setFraudCatchRate(ratio(truePositives, byLabel[1]));
+        matrix.setFraudCatchRateWithReview(ratio(truePositives + counts[review * 2 + 1], byLabel[1]));
+        matrix.setPrecision(ratio(truePositives, truePositives + falsePositives));
+        matrix.setFraudAmount(BigDecimal.valueOf(fraudAmount).setScale(2, RoundingMode.HALF_UP));
+        matrix.setFraudAmountCaught(BigDecimal.valueOf(caughtAmount).setScale(2, RoundingMode.HALF_UP));
+        matrix.setActionsByLabel(actionsByLabel);
+        return matrix;
+    }
+
+    private static Double ratio(long numerator, long denominator) {
+        return denominator > 0 ? numerator / (double) denominator : null;
+    }
+
+    /**
+     * Location configured for the key, or null; "live" is always the active app.risk.rules.location
+     */
+    private String resolveRuleSetLocation(String key) {
+        if (LIVE_RULE_SET.equals(key)) {
+            return liveRulesLocation;
+        }
+        for (String pair : ruleSetLocations.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).trim().equals(key)) {
+                return pair.substring(separator + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    private String generateBacktestId() {
+        return "BT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    private RiskBacktestResponse createBacktestResponse(BacktestProgress progress, String message) {
+        RiskBacktestResponse response = new RiskBacktestResponse();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setBacktestId(progress.backtestId);
+        response.setStatus(progress.status);
+        response.setRuleSetVersion(progress.ruleSet.getVersion());
+        response.setFrom(progress.from);
+        response.setTo(progress.to);
+        response.setRowsScanned(progress.rowsScanned.get());
+        response.setStartedAt(progress.startedAt);
+        response.setCompletedAt(progress.completedAt);
+        response.setError(progress.error);
+
+        // Partial results while running, since batches are merged as they complete
+        synchronized (progress.tally) {
+            Tally tally = progress.tally;
+            response.setPaymentsScored(tally.scored);
+            response.setCandidate(confusionMatrix(tally.candidate, tally.fraudAmount, tally.candidateCaughtAmount));
+            response.setLive(confusionMatrix(tally.live, tally.fraudAmount, tally.liveCaughtAmount));
+        }
+        response.setRuleHits(progress.ruleSet.getHitCounts());
+        return response;
+    }
+
+    private RiskBacktestResponse createErrorResponse(String message) {
+        RiskBacktestResponse response = new RiskBacktestResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+
+    private static class BacktestProgress {
+        final String backtestId;
+        final CompiledRuleSet ruleSet;
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong rowsScanned = new AtomicLong();
+        final Tally tally = new Tally();
+        volatile String status = "QUEUED";
+        volatile String error;
+        volatile LocalDateTime completedAt;
+
+        BacktestProgress(String backtestId, CompiledRuleSet ruleSet, LocalDateTime from, LocalDateTime to) {
+            this.backtestId = backtestId;
+            this.ruleSet = ruleSet;
+            this.from = from;
+            this.to = to;
+        }
+
+        void merge(Tally batch) {
+            synchronized (tally) {
+                tally.merge(batch);
+            }
+        }
+
+        void finish(String finalStatus, String errorMessage) {
+            this.status = finalStatus;
+            this.error = errorMessage;
+            this.completedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.payment.gateway.service;
 
 import com.payment.gateway.dto.PaymentRequest;
+import com.payment.gateway.event.VelocityCounterSubscriber;
 import com.payment.gateway.model.VelocityCheck;
 import com.payment.gateway.repository.VelocityCheckRepository;
 import com.payment.gateway.service.AuditService;
@@ -10,7 +11,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,8 +22,16 @@ import java.util.UUID;
 @Slf4j
 public class VelocityCheckService {
     
+    private static final String CARD_SCOPE = "card";
+    private static final String CUSTOMER_SCOPE = "customer";
+    private static final String MERCHANT_SCOPE = "merchant";
+    
     private final VelocityCheckRepository velocityCheckRepository;
     private final AuditService auditService;
+    private final CardFingerprintService cardFingerprintService;
+    private final IpVelocityTracker ipVelocityTracker;
+    private final VelocityCheckWriter velocityCheckWriter;
+    private final VelocityCounterStore velocityCounterStore;
     
     // Configurable limits
     @Value("${app.fraud.velocity.card.transactions.per.minute:5}")
@@ -53,15 +61,27 @@ public class VelocityCheckService {
     @Value("${app.fraud.velocity.merchant.transactions.per.minute:100}")
     private int merchantTransactionsPerMinute;
     
-    @Transactional
-    public boolean checkVelocityLimits(PaymentRequest request, String ipAddress) {
+    @Value("${app.fraud.velocity.card.day-window.db-floor:false}")
+    private boolean dayWindowDbFloor;
+    
+    /**
+     * Counts come from the cluster-wide CRDT counters (VelocityCounterStore), not from payment queries.
+     * The counters live in memory, so a restart of every node empties them. The card day window can
+     * optionally take the payments table as a floor (day-window.db-floor); that costs a query per payment,
+     * so it is off by default and the window refills from traffic and peer full-state syncs.
+     * 
+     * @param cardFingerprint fingerprint already computed for this request (Payment.cardFingerprint)
+     */
+    public boolean checkVelocityLimits(PaymentRequest request, String cardFingerprint, String ipAddress) {
         log.debug("Checking velocity limits for card: {}, IP: {}", 
                 CardUtils.maskCardNumber(request.getCardNumber()), ipAddress);
         
         boolean limitExceeded = false;
         
         // Check card-based velocity limits
-        limitExceeded |= checkCardVelocity(request);
+        if (cardFingerprint != null) {
+            limitExceeded |= checkCardVelocity(cardFingerprint);
+        }
         
         // Check IP-based velocity limits
         if (ipAddress != null) {
@@ -80,10 +100,11 @@ public class VelocityCheckService {
             .severity(limitExceeded ? AuditLog.Severity.HIGH : AuditLog.Severity.LOW)
             .actor("fraud-engine")
             .action("CHECK")
-            .resourceType("PAYMENT")
-            .resourceId("VEL-" + UUID.randomUUID().toString().substring(0, 8))
+            .resourceType("MERCHANT")
+            .resourceId(request.getMerchantId())
             .additionalData("limitExceeded", limitExceeded)
             .additionalData("cardNumber", CardUtils.maskCardNumber(request.getCardNumber()))
+            .additionalData("cardBin", CardUtils.extractCardBin(request.getCardNumber()))
             .additionalData("ipAddress", ipAddress)
             .additionalData("customerId", request.getCustomerId())
             .additionalData("merchantId", request.getMerchantId())
@@ -96,19 +117,20 @@ public class VelocityCheckService {
         return limitExceeded;
     }
     
-    private boolean checkCardVelocity(PaymentRequest request) {
-        String cardPrefix = CardUtils.getCardPrefix(request.getCardNumber());
+    private boolean checkCardVelocity(String cardFingerprint) {
         boolean limitExceeded = false;
+        velocityCounterStore.add(CARD_SCOPE, cardFingerprint, 1, VelocityCounterStore.Window.MINUTE,
+                VelocityCounterStore.Window.HOUR, VelocityCounterStore.Window.DAY);
         
         // Check transactions per minute
         LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
-        long transactionsInMinute = velocityCheckRepository.countCardTransactions(
-                cardPrefix, oneMinuteAgo, LocalDateTime.now());
+        long transactionsInMinute = velocityCounterStore.sum(CARD_SCOPE, cardFingerprint, VelocityCounterStore.Window.MINUTE);
         
-        if (transactionsInMinute >= cardTransactionsPerMinute) {
-            saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_MINUTE, 
-                            cardPrefix, null, (int) transactionsInMinute, BigDecimal.ZERO, 
-                            oneMinuteAgo, LocalDateTime.now(), true, cardTransactionsPerMinute, null);
+        boolean minuteExceeded = transactionsInMinute >= cardTransactionsPerMinute;
+        saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_MINUTE, 
+                        cardFingerprint, null, (int) transactionsInMinute, BigDecimal.ZERO, 
+                        oneMinuteAgo, LocalDateTime.now(), minuteExceeded, cardTransactionsPerMinute, null);
+        if (minuteExceeded) {
             limitExceeded = true;
             log.warn("Card velocity limit exceeded - transactions per minute: {} >= {}", 
                     transactionsInMinute, cardTransactionsPerMinute);
@@ -116,26 +138,27 @@ public class VelocityCheckService {
         
         // Check transactions per hour
         LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long transactionsInHour = velocityCheckRepository.countCardTransactions(
-                cardPrefix, oneHourAgo, LocalDateTime.now());
+        long transactionsInHour = velocityCounterStore.sum(CARD_SCOPE, cardFingerprint, VelocityCounterStore.Window.HOUR);
         
-        if (transactionsInHour >= cardTransactionsPerHour) {
-            saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_HOUR, 
-                            cardPrefix, null, (int) transactionsInHour, BigDecimal.ZERO, 
-                            oneHourAgo, LocalDateTime.now(), true, cardTransactionsPerHour, null);
+        boolean hourExceeded = transactionsInHour >= cardTransactionsPerHour;
+        saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_HOUR, 
+                        cardFingerprint, null, (int) transactionsInHour, BigDecimal.ZERO, 
+                        oneHourAgo, LocalDateTime.now(), hourExceeded, cardTransactionsPerHour, null);
+        if (hourExceeded) {
             limitExceeded = true;
             log.warn("Card velocity limit exceeded - transactions per hour: {} >= {}", 
                     transactionsInHour, cardTransactionsPerHour);
         }
         
-        // Check amount per hour
-        BigDecimal amountInHour = velocityCheckRepository.sumCardTransactionAmount(
-                cardPrefix, oneHourAgo, LocalDateTime.now());
+        // Check amount per hour (completed payments, added by VelocityCounterSubscriber in minor units)
+        BigDecimal amountInHour = BigDecimal.valueOf(velocityCounterStore.sum(
+                VelocityCounterSubscriber.CARD_AMOUNT_SCOPE, cardFingerprint, VelocityCounterStore.Window.HOUR), 2);
         
-        if (amountInHour != null && amountInHour.compareTo(cardAmountPerHour) >= 0) {
-            saveVelocityCheck(VelocityCheck.VelocityType.CARD_AMOUNT_PER_HOUR, 
-                            cardPrefix, null, 0, amountInHour, 
-                            oneHourAgo, LocalDateTime.now(), true, null, cardAmountPerHour);
+        boolean amountExceeded = amountInHour != null && amountInHour.compareTo(cardAmountPerHour) >= 0;
+        saveVelocityCheck(VelocityCheck.VelocityType.CARD_AMOUNT_PER_HOUR, 
+                        cardFingerprint, null, 0, amountInHour, 
+                        oneHourAgo, LocalDateTime.now(), amountExceeded, null, cardAmountPerHour);
+        if (amountExceeded) {
             limitExceeded = true;
             log.warn("Card velocity limit exceeded - amount per hour: {} >= {}", 
                     amountInHour, cardAmountPerHour);
@@ -143,13 +166,17 @@ public class VelocityCheckService {
         
         // Check transactions per day
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        long transactionsInDay = velocityCheckRepository.countCardTransactions(
-                cardPrefix, oneDayAgo, LocalDateTime.now());
+        long transactionsInDay = velocityCounterStore.sum(CARD_SCOPE, cardFingerprint, VelocityCounterStore.Window.DAY);
+        if (dayWindowDbFloor) {
+            transactionsInDay = Math.max(transactionsInDay,
+                    velocityCheckRepository.countCardTransactions(cardFingerprint, oneDayAgo, LocalDateTime.now()));
+        }
         
-        if (transactionsInDay >= cardTransactionsPerDay) {
-            saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_DAY, 
-                            cardPrefix, null, (int) transactionsInDay, BigDecimal.ZERO, 
-                            oneDayAgo, LocalDateTime.now(), true, cardTransactionsPerDay, null);
+        boolean dayExceeded = transactionsInDay >= cardTransactionsPerDay;
+        saveVelocityCheck(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_DAY, 
+                        cardFingerprint, null, (int) transactionsInDay, BigDecimal.ZERO, 
+                        oneDayAgo, LocalDateTime.now(), dayExceeded, cardTransactionsPerDay, null);
+        if (dayExceeded) {
             limitExceeded = true;
             log.warn("Card velocity limit exceeded - transactions per day: {} >= {}", 
                     transactionsInDay, cardTransactionsPerDay);
@@ -161,14 +188,29 @@ public class VelocityCheckService {
     private boolean checkIpVelocity(String ipAddress) {
         boolean limitExceeded = false;
         
-        // Check IP transactions per minute
-        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
-        // Note: This would require storing IP in payments table or separate tracking
-        // For now, we'll create a placeholder check
+        // Sketch-based counters, no DB round trip
+        IpVelocityTracker.IpVelocity velocity = ipVelocityTracker.record(ipAddress);
+        LocalDateTime now = LocalDateTime.now();
         
+        boolean minuteExceeded = ipVelocityTracker.isMinuteLimitExceeded(velocity);
         saveVelocityCheck(VelocityCheck.VelocityType.IP_TRANSACTIONS_PER_MINUTE, 
-                        ipAddress, null, 0, BigDecimal.ZERO, 
-                        oneMinuteAgo, LocalDateTime.now(), false, ipTransactionsPerMinute, null);
+                        ipAddress, null, (int) velocity.minuteCount(), BigDecimal.ZERO, 
+                        now.minusMinutes(1), now, minuteExceeded, ipTransactionsPerMinute, null);
+        if (minuteExceeded) {
+            limitExceeded = true;
+            log.warn("IP velocity limit exceeded - transactions per minute: {} >= {} (exact: {})", 
+                    velocity.minuteCount(), ipTransactionsPerMinute, velocity.exact());
+        }
+        
+        boolean hourExceeded = ipVelocityTracker.isHourLimitExceeded(velocity);
+        saveVelocityCheck(VelocityCheck.VelocityType.IP_TRANSACTIONS_PER_HOUR, 
+                        ipAddress, null, (int) velocity.hourCount(), BigDecimal.ZERO, 
+                        now.minusHours(1), now, hourExceeded, ipTransactionsPerHour, null);
+        if (hourExceeded) {
+            limitExceeded = true;
+            log.warn("IP velocity limit exceeded - transactions per hour: {} >= {} (exact: {})", 
+                    velocity.hourCount(), ipTransactionsPerHour, velocity.exact());
+        }
         
         return limitExceeded;
     }
@@ -177,14 +219,15 @@ public class VelocityCheckService {
         boolean limitExceeded = false;
         
         // Check customer transactions per hour
+        velocityCounterStore.add(CUSTOMER_SCOPE, customerId, 1, VelocityCounterStore.Window.HOUR);
         LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long transactionsInHour = velocityCheckRepository.countCustomerTransactions(
-                customerId, oneHourAgo, LocalDateTime.now());
+        long transactionsInHour = velocityCounterStore.sum(CUSTOMER_SCOPE, customerId, VelocityCounterStore.Window.HOUR);
         
-        if (transactionsInHour >= customerTransactionsPerHour) {
-            saveVelocityCheck(VelocityCheck.VelocityType.CUSTOMER_TRANSACTIONS_PER_HOUR, 
-                            customerId, null, (int) transactionsInHour, BigDecimal.ZERO, 
-                            oneHourAgo, LocalDateTime.now(), true, customerTransactionsPerHour, null);
+        boolean hourExceeded = transactionsInHour >= customerTransactionsPerHour;
+        saveVelocityCheck(VelocityCheck.VelocityType.CUSTOMER_TRANSACTIONS_PER_HOUR, 
+                        customerId, null, (int) transactionsInHour, BigDecimal.ZERO, 
+                        oneHourAgo, LocalDateTime.now(), hourExceeded, customerTransactionsPerHour, null);
+        if (hourExceeded) {
             limitExceeded = true;
             log.warn("Customer velocity limit exceeded - transactions per hour: {} >= {}", 
                     transactionsInHour, customerTransactionsPerHour);
@@ -197,14 +240,15 @@ public class VelocityCheckService {
         boolean limitExceeded = false;
         
         // Check merchant transactions per minute
+        velocityCounterStore.add(MERCHANT_SCOPE, merchantId, 1, VelocityCounterStore.Window.MINUTE);
         LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
-        long transactionsInMinute = velocityCheckRepository.countMerchantTransactions(
-                merchantId, oneMinuteAgo, LocalDateTime.now());
+        long transactionsInMinute = velocityCounterStore.sum(MERCHANT_SCOPE, merchantId, VelocityCounterStore.Window.MINUTE);
         
-        if (transactionsInMinute >= merchantTransactionsPerMinute) {
-            saveVelocityCheck(VelocityCheck.VelocityType.MERCHANT_TRANSACTIONS_PER_MINUTE, 
-                            merchantId, merchantId, (int) transactionsInMinute, BigDecimal.ZERO, 
-                            oneMinuteAgo, LocalDateTime.now(), true, merchantTransactionsPerMinute, null);
+        boolean minuteExceeded = transactionsInMinute >= merchantTransactionsPerMinute;
+        saveVelocityCheck(VelocityCheck.VelocityType.MERCHANT_TRANSACTIONS_PER_MINUTE, 
+                        merchantId, merchantId, (int) transactionsInMinute, BigDecimal.ZERO, 
+                        oneMinuteAgo, LocalDateTime.now(), minuteExceeded, merchantTransactionsPerMinute, null);
+        if (minuteExceeded) {
             limitExceeded = true;
             log.warn("Merchant velocity limit exceeded - transactions per minute: {} >= {}", 
                     transactionsInMinute, merchantTransactionsPerMinute);
@@ -218,6 +262,10 @@ public class VelocityCheckService {
                                   LocalDateTime windowStart, LocalDateTime windowEnd,
                                   boolean limitExceeded, Integer allowedCount, BigDecimal allowedAmount) {
         
+        if (!velocityCheckWriter.shouldPersist(limitExceeded)) {
+            return;
+        }
+        
         VelocityCheck check = new VelocityCheck();
         check.setCheckId(generateCheckId());
         check.setType(type);
@@ -230,13 +278,15 @@ public class VelocityCheckService {
         check.setLimitExceeded(limitExceeded);
         check.setAllowedCount(allowedCount);
         check.setAllowedAmount(allowedAmount);
+        check.setCheckedAt(windowEnd);
         
         if (limitExceeded) {
             check.setDetails(String.format("Limit exceeded: %d/%d transactions or %s/%s amount", 
                     transactionCount, allowedCount, totalAmount, allowedAmount));
         }
         
-        velocityCheckRepository.save(check);
+        // Persisted in batches off the payment transaction, see VelocityCheckWriter
+        velocityCheckWriter.submit(check);
     }
     
     private String generateCheckId() {
@@ -244,10 +294,10 @@ public class VelocityCheckService {
     }
     
     public VelocityCheck getLatestCheckForCard(String cardNumber, VelocityCheck.VelocityType type) {
-        String cardPrefix = CardUtils.getCardPrefix(cardNumber);
+        String cardFingerprint = cardFingerprintService.fingerprint(cardNumber);
         LocalDateTime since = LocalDateTime.now().minusHours(24); // Look back 24 hours
         
-        List<VelocityCheck> checks = velocityCheckRepository.findRecentChecks(cardPrefix, type, since);
+        List<VelocityCheck> checks = velocityCheckRepository.findRecentChecks(cardFingerprint, type, since);
         return checks.isEmpty() ? null : checks.get(0);
     }
 }
\ No newline at end of file
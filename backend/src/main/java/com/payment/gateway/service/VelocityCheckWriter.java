@@ -0,0 +1,215 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.VelocityCheck;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for velocity check records.
+ *
+ * Checks are queued in memory during the fraud evaluation and inserted in JDBC batches by
+ * VelocityCheckFlushScheduler, so the payment transaction never waits on a velocity_checks insert.
+ * The records are diagnostic: when the buffer is full they are dropped and counted rather than
+ * blocking payments.
+ */
+@Service
+@Slf4j
+public class VelocityCheckWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO velocity_checks (check_id, type, identifier, merchant_id, transaction_count, total_amount, " +
+            "window_start, window_end, limit_exceeded, allowed_count, allowed_amount, details, checked_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum PersistPolicy {
+        ALL,            // every evaluated window, passed or exceeded
+        EXCEEDED_ONLY,  // only checks that hit a limit
+        NONE            // velocity checks are not persisted
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PersistPolicy policy;
+    private final int batchSize;
+    private final BlockingQueue<VelocityCheck> buffer;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public VelocityCheckWriter(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.fraud.velocity.persist:EXCEEDED_ONLY}") PersistPolicy policy,
+                               @Value("${app.fraud.velocity.write-behind.capacity:10000}") int capacity,
+                               @Value("${app.fraud.velocity.write-behind.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.policy = policy;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Cheap pre-check so callers can skip building records the policy would discard
+     */
+    public boolean shouldPersist(boolean limitExceeded) {
+        return switch (policy) {
+            case ALL -> true;
+            case EXCEEDED_ONLY -> limitExceeded;
+            case NONE -> false;
+        };
+    }
+
+    public void submit(VelocityCheck check) {
+        if (!shouldPersist(Boolean.TRUE.equals(check.getLimitExceeded()))) {
+            return;
+        }
+        if (buffer.offer(check)) {
+            enqueued.incrementAndGet();
+        } else if (dropped.incrementAndGet() % 1000 == 1) {
+            log.warn("Velocity check buffer full, dropping records (dropped so far: {})", dropped.get());
+        }
+    }
+
+    /**
+     * Drains the buffer in batches. Each batch is inserted in one transaction, so a failed batch
+     * leaves no rows behind. It is then retried row by row, so one bad record cannot hold back
+     * the others: a row the database rejects is dropped and counted as rejected, while a
+     * row that fails for any other reason (database unavailable) is put back with the rest of the
+     * batch and retried on the next run. During a long outage the bounded buffer fills up and new
+     * records are dropped.
+     */
+    public int flush() {
+        int written = 0;
+        List<VelocityCheck> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                List<Object[]> rows = toRows(batch);
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+                persisted.addAndGet(batch.size());
+                written += batch.size();
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                log.warn("Velocity check batch insert failed ({} records), retrying row by row: {}",
+                        batch.size(), e.getMessage());
+                RowByRowResult result = insertRowByRow(batch);
+                written += result.inserted();
+                if (result.processed() < batch.size()) {
+                    requeue(batch.subList(result.processed(), batch.size()));
+                    return written;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int written = flush();
+        if (written > 0) {
+            log.info("Flushed {} buffered velocity checks on shutdown", written);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("policy", policy.name());
+        stats.put("pending", buffer.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("persisted", persisted.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    /**
+     * Inserts the rows one at a time until one fails for a reason other than the row itself.
+     */
+    private RowByRowResult insertRowByRow(List<VelocityCheck> batch) {
+        int inserted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            VelocityCheck check = batch.get(i);
+            Object[] row;
+            try {
+                row = toRow(check);
+            } catch (RuntimeException e) {
+                reject(check, e);
+                continue;
+            }
+            try {
+                jdbcTemplate.update(INSERT_SQL, row);
+                persisted.incrementAndGet();
+                inserted++;
+            } catch (DataIntegrityViolationException e) {
+                reject(check, e);
+            } catch (Exception e) {
+                log.error("Velocity check insert failed, keeping {} records for the next run: {}",
+                        batch.size() - i, e.getMessage());
+                return new RowByRowResult(inserted, i);
+            }
+        }
+        return new RowByRowResult(inserted, batch.size());
+    }
+
+    private void reject(VelocityCheck check, Exception e) {
+        rejected.incrementAndGet();
+        log.error("Dropping velocity check {} rejected by the database: {}", check.getCheckId(), e.getMessage());
+    }
+
+    private void requeue(List<VelocityCheck> checks) {
+        for (VelocityCheck check : checks) {
+            if (!buffer.offer(check)) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private List<Object[]> toRows(List<VelocityCheck> checks) {
+        List<Object[]> rows = new ArrayList<>(checks.size());
+        for (VelocityCheck check : checks) {
+            rows.add(toRow(check));
+        }
+        return rows;
+    }
+
+    private Object[] toRow(VelocityCheck check) {
+        return new Object[]{
+                check.getCheckId(),
+                check.getType().name(),
+                check.getIdentifier(),
+                check.getMerchantId(),
+                check.getTransactionCount(),
+                check.getTotalAmount(),
+                Timestamp.valueOf(check.getWindowStart()),
+                Timestamp.valueOf(check.getWindowEnd()),
+                check.getLimitExceeded(),
+                check.getAllowedCount(),
+                check.getAllowedAmount(),
+                check.getDetails(),
+                Timestamp.valueOf(check.getCheckedAt())
+        };
+    }
+
+    private record RowByRowResult(int inserted, int processed) {
+    }
+}
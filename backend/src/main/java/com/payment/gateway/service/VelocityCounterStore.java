@@ -0,0 +1,223 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.adapter.VelocityStateTransport;
+import com.payment.gateway.dto.VelocityCounterDelta;
+import com.payment.gateway.util.GCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide velocity counters kept as CRDT state.
+ *
+ * Every (scope, identifier, window bucket) is a {@link GCounter}: a node increments only its own
+ * entry and merges peers' entries by max, so exchanging state in any order converges to the same
+ * totals on every node. Reads and increments are local; {@link #exchange()} periodically publishes
+ * the buckets this node changed, plus a periodic full state so new or lagging nodes catch up.
+ * Counters are grow-only: attempts are counted when they happen and never subtracted.
+ */
+@Service
+@Slf4j
+public class VelocityCounterStore {
+
+    public enum Window {
+        MINUTE(10_000L, 6),      // 6 x 10s
+        HOUR(300_000L, 12),      // 12 x 5min
+        DAY(3_600_000L, 24);     // 24 x 1h
+
+        private final long bucketMillis;
+        private final int bucketCount;
+
+        Window(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.bucketCount = bucketCount;
+        }
+
+        long epoch(long nowMillis) {
+            return nowMillis / bucketMillis;
+        }
+
+        boolean isLive(long epoch, long nowMillis) {
+            return epoch > epoch(nowMillis) - bucketCount;
+        }
+    }
+
+    private record BucketKey(String scope, String identifier, Window window, long epoch) {
+    }
+
+    private final VelocityStateTransport transport;
+    private final String nodeId;
+    private final long fullSyncIntervalMs;
+
+    private final Map<BucketKey, GCounter> counters = new ConcurrentHashMap<>();
+    private final Set<BucketKey> dirty = ConcurrentHashMap.newKeySet();
+    private volatile long lastFullSync;
+
+    private final AtomicLong deltasSent = new AtomicLong();
+    private final AtomicLong deltasReceived = new AtomicLong();
+    private final AtomicLong entriesMerged = new AtomicLong();
+
+    public VelocityCounterStore(VelocityStateTransport transport,
+                                @Value("${app.fraud.velocity.cluster.node-id:}") String nodeId,
+                                @Value("${app.fraud.velocity.cluster.full-sync-interval-ms:60000}") long fullSyncIntervalMs) {
+        this.transport = transport;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.fullSyncIntervalMs = fullSyncIntervalMs;
+        transport.subscribe(this::apply);
+        log.info("Velocity counter store started - node: {}, transport: {}", this.nodeId, transport.getName());
+    }
+
+    /**
+     * Adds delta to the current bucket of each window
+     */
+    public void add(String scope, String identifier, long delta, Window... windows) {
+        long now = System.currentTimeMillis();
+        for (Window window : windows) {
+            BucketKey key = new BucketKey(scope, identifier, window, window.epoch(now));
+            counters.computeIfAbsent(key, k -> new GCounter()).increment(nodeId, delta);
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * Cluster-wide total over the live buckets of the window, as known locally
+     */
+    public long sum(String scope, String identifier, Window window) {
+        long now = System.currentTimeMillis();
+        long current = window.epoch(now);
+        long total = 0;
+        for (long epoch = current - window.bucketCount + 1; epoch <= current; epoch++) {
+            GCounter counter = counters.get(new BucketKey(scope, identifier, window, epoch));
+            if (counter != null) {
+                total += counter.value();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Publishes changed buckets (own counts only), or the full state when the sync interval has passed
+     */
+    public int exchange() {
+        long now = System.currentTimeMillis();
+        boolean fullState = now - lastFullSync >= fullSyncIntervalMs;
+        List<VelocityCounterDelta.Entry> entries = new ArrayList<>();
+
+        if (fullState) {
+            dirty.clear();
+            counters.forEach((key, counter) -> {
+                if (key.window().isLive(key.epoch(), now)) {
+                    entries.add(toEntry(key, counter.snapshot()));
+                }
+            });
+            lastFullSync = now;
+        } else {
+            Iterator<BucketKey> it = dirty.iterator();
+            while (it.hasNext()) {
+                BucketKey key = it.next();
+                it.remove();
+                GCounter counter = counters.get(key);
+                if (counter != null) {
+                    entries.add(toEntry(key, Map.of(nodeId, counter.get(nodeId))));
+                }
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        transport.publish(new VelocityCounterDelta(nodeId, fullState, entries));
+        deltasSent.incrementAndGet();
+        return entries.size();
+    }
+
+    /**
+     * Merges state received from another node
+     */
+    public void apply(VelocityCounterDelta delta) {
+        if (delta == null || nodeId.equals(delta.getNodeId()) || delta.getEntries() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        deltasReceived.incrementAndGet();
+        for (VelocityCounterDelta.Entry entry : delta.getEntries()) {
+            Window window;
+            try {
+                window = Window.valueOf(entry.getWindow());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                continue;
+            }
+            if (!window.isLive(entry.getEpoch(), now) || entry.getCounts() == null) {
+                continue;
+            }
+            BucketKey key = new BucketKey(entry.getScope(), entry.getIdentifier(), window, entry.getEpoch());
+            GCounter counter = counters.computeIfAbsent(key, k -> new GCounter());
+            // Includes our own entry: after a restart with a fixed node-id, peers hand back our earlier counts
+            entry.getCounts().forEach((node, count) -> {
+                if (count != null) {
+                    counter.merge(node, count);
+                }
+            });
+            entriesMerged.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops buckets that have left their window
+     */
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<BucketKey> it = counters.keySet().iterator();
+        while (it.hasNext()) {
+            BucketKey key = it.next();
+            if (!key.window().isLive(key.epoch(), now)) {
+                it.remove();
+                dirty.remove(key);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("transport", transport.getName());
+        stats.put("buckets", counters.size());
+        stats.put("dirtyBuckets", dirty.size());
+        stats.put("deltasSent", deltasSent.get());
+        stats.put("deltasReceived", deltasReceived.get());
+        stats.put("entriesMerged", entriesMerged.get());
+        return stats;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private VelocityCounterDelta.Entry toEntry(BucketKey key, Map<String, Long> counts) {
+        return new VelocityCounterDelta.Entry(key.scope(), key.identifier(), key.window().name(), key.epoch(), counts);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,115 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.Webhook;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-webhook buffer for batched delivery mode.
+ * A batch is released when it reaches batchMaxEvents or is older than batchMaxWaitMs.
+ */
+@Component
+public class WebhookBatchBuffer {
+
+    private static final int DEFAULT_MAX_EVENTS = 50;
+    private static final int DEFAULT_MAX_WAIT_MS = 1000;
+
+    private final ConcurrentHashMap<String, PendingBatch> batches = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an event to the webhook's open batch.
+     * Returns the full batch if this event filled it, otherwise null.
+     */
+    public PendingBatch add(Webhook webhook, BatchedEvent event) {
+        PendingBatch[] released = new PendingBatch[1];
+
+        batches.compute(webhook.getWebhookId(), (webhookId, batch) -> {
+            if (batch == null) {
+                batch = new PendingBatch(webhookId, System.currentTimeMillis(),
+                        resolveMaxWaitMs(webhook), new ArrayList<>());
+            }
+            batch.getEvents().add(event);
+
+            if (batch.getEvents().size() >= resolveMaxEvents(webhook)) {
+                released[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        return released[0];
+    }
+
+    /**
+     * Removes and returns all batches whose wait time has elapsed.
+     */
+    public List<PendingBatch> drainExpired(long nowMs) {
+        List<PendingBatch> expired = new ArrayList<>();
+
+        for (String webhookId : batches.keySet()) {
+            batches.computeIfPresent(webhookId, (id, batch) -> {
+                if (nowMs - batch.getOpenedAtMs() >= batch.getMaxWaitMs()) {
+                    expired.add(batch);
+                    return null;
+                }
+                return batch;
+            });
+        }
+
+        return expired;
+    }
+
+    /**
+     * Removes and returns every open batch (used on shutdown).
+     */
+    public List<PendingBatch> drainAll() {
+        return drainExpired(Long.MAX_VALUE);
+    }
+
+    public boolean isBuffered(String webhookId, String deliveryId) {
+        boolean[] found = new boolean[1];
+
+        // Read under the bin lock, add() mutates the event list inside compute
+        batches.computeIfPresent(webhookId, (id, batch) -> {
+            found[0] = batch.getEvents().stream().anyMatch(event -> event.getDeliveryId().equals(deliveryId));
+            return batch;
+        });
+
+        return found[0];
+    }
+
+    public int getBufferedEventCount() {
+        return batches.values().stream().mapToInt(batch -> batch.getEvents().size()).sum();
+    }
+
+    private int resolveMaxEvents(Webhook webhook) {
+        return webhook.getBatchMaxEvents() != null ? webhook.getBatchMaxEvents() : DEFAULT_MAX_EVENTS;
+    }
+
+    private int resolveMaxWaitMs(Webhook webhook) {
+        return webhook.getBatchMaxWaitMs() != null ? webhook.getBatchMaxWaitMs() : DEFAULT_MAX_WAIT_MS;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PendingBatch {
+        private String webhookId;
+        private long openedAtMs;
+        private int maxWaitMs;
+        private List<BatchedEvent> events;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BatchedEvent {
+        private String deliveryId;
+        private String eventType;
+        private String entityId;
+        private Object eventData;
+    }
+}
@@ -0,0 +1,305 @@
+package com.payment.gateway.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Partitioned webhook dispatcher.
+ *
+ * Events are routed to a partition by entity ID (paymentId, refundId, ...). Inside a partition
+ * every (webhook, entity) stream has its own FIFO queue and at most one in-flight event, so
+ * events for one entity are delivered strictly in order while other entities keep flowing.
+ * A failing head is retried in place with capped exponential backoff and never skipped: the
+ * stream stays parked until the head is delivered or reports a terminal state. Every
+ * headMaxAttempts failures the head is reported through {@link DispatchTask#stalled()} so the
+ * webhook's retry budget still moves and an exhausted endpoint can be dead-lettered.
+ * A head that could not be attempted yet (its merchant is at its concurrency limit) is parked
+ * for throttleBackoffMs without counting as a failure.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+
+    @Value("${app.webhook.dispatch.partitions:8}")
+    private int partitionCount;
+
+    @Value("${app.webhook.dispatch.workers-per-partition:2}")
+    private int workersPerPartition;
+
+    @Value("${app.webhook.dispatch.partition-capacity:10000}")
+    private int partitionCapacity;
+
+    @Value("${app.webhook.dispatch.max-events-per-entity:500}")
+    private int maxEventsPerEntity;
+
+    @Value("${app.webhook.dispatch.head-max-attempts:3}")
+    private int headMaxAttempts;
+
+    @Value("${app.webhook.dispatch.head-retry-backoff-ms:1000}")
+    private long headRetryBackoffMs;
+
+    @Value("${app.webhook.dispatch.head-retry-max-backoff-ms:300000}")
+    private long headRetryMaxBackoffMs;
+
+    @Value("${app.webhook.dispatch.throttle-backoff-ms:100}")
+    private long throttleBackoffMs;
+
+    private Partition[] partitions;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public enum AttemptResult {
+        DONE,      // Delivered or terminally failed
+        FAILED,    // Retry the head with backoff
+        THROTTLED  // Not attempted, retry shortly without counting a failure
+    }
+
+    /**
+     * One delivery attempt for a queued event.
+     */
+    public interface DispatchTask {
+        AttemptResult attempt();
+
+        /**
+         * Called every headMaxAttempts consecutive failures; the event stays at the head of its stream.
+         */
+        void stalled();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new Partition(p);
+            for (int w = 0; w < workersPerPartition; w++) {
+                Thread worker = new Thread(partitions[p]::runWorker, "webhook-p" + p + "-w" + w);
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+        }
+        log.info("Webhook dispatcher started with {} partitions x {} workers", partitionCount, workersPerPartition);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.wakeAll();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queues an event for ordered delivery.
+     *
+     * @return false if the partition or the entity stream is full; the caller must fall back
+     */
+    public boolean submit(String entityId, String webhookId, DispatchTask task) {
+        String key = entityId != null ? entityId : "";
+        Partition partition = partitions[Math.floorMod(key.hashCode(), partitionCount)];
+        return partition.offer(webhookId + "/" + key, task);
+    }
+
+    public int getQueuedCount() {
+        int total = 0;
+        for (Partition partition : partitions) {
+            total += partition.size();
+        }
+        return total;
+    }
+
+    public int[] getQueuedCountPerPartition() {
+        int[] counts = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            counts[i] = partitions[i].size();
+        }
+        return counts;
+    }
+
+    private static final class Stream {
+        final String key;
+        final ArrayDeque<DispatchTask> tasks = new ArrayDeque<>();
+        int headAttempts;
+        long retryAtMs;
+        boolean scheduled; // in ready or parked, or currently being worked on
+
+        Stream(String key) {
+            this.key = key;
+        }
+    }
+
+    private final class Partition {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final Map<String, Stream> streams = new HashMap<>();
+        private final ArrayDeque<Stream> ready = new ArrayDeque<>();
+        private final PriorityQueue<Stream> parked = new PriorityQueue<>(Comparator.comparingLong(s -> s.retryAtMs));
+        private int size;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        boolean offer(String streamKey, DispatchTask task) {
+            lock.lock();
+            try {
+                if (size >= partitionCapacity) {
+                    log.warn("Webhook partition {} is full ({} events)", index, size);
+                    return false;
+                }
+                Stream stream = streams.computeIfAbsent(streamKey, Stream::new);
+                if (stream.tasks.size() >= maxEventsPerEntity) {
+                    log.warn("Webhook stream {} reached its queue limit of {}", streamKey, maxEventsPerEntity);
+                    return false;
+                }
+                stream.tasks.addLast(task);
+                size++;
+                if (!stream.scheduled) {
+                    stream.scheduled = true;
+                    ready.addLast(stream);
+                    available.signal();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void wakeAll() {
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void runWorker() {
+            while (running) {
+                Stream stream;
+                DispatchTask task;
+
+                lock.lock();
+                try {
+                    stream = takeReady();
+                    if (stream == null) {
+                        continue;
+                    }
+                    task = stream.tasks.peekFirst();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                AttemptResult result;
+                try {
+                    result = task.attempt();
+                } catch (Exception e) {
+                    log.error("Webhook dispatch attempt failed for stream {}: {}", stream.key, e.getMessage(), e);
+                    result = AttemptResult.FAILED;
+                }
+
+                // The stream is not in ready or parked yet, so no other worker can pick up this head
+                if (result == AttemptResult.FAILED && (stream.headAttempts + 1) % headMaxAttempts == 0) {
+                    try {
+                        task.stalled();
+                    } catch (Exception e) {
+                        log.error("Error recording stalled webhook event for stream {}: {}", stream.key, e.getMessage(), e);
+                    }
+                }
+
+                complete(stream, result);
+            }
+        }
+
+        /**
+         * Waits for a stream whose head can be attempted now. Must hold the lock.
+         */
+        private Stream takeReady() throws InterruptedException {
+            long now = System.currentTimeMillis();
+            while (!parked.isEmpty() && parked.peek().retryAtMs <= now) {
+                ready.addLast(parked.poll());
+            }
+
+            Stream stream = ready.pollFirst();
+            if (stream != null) {
+                return stream;
+            }
+
+            long waitMs = parked.isEmpty() ? 1000 : Math.max(1, parked.peek().retryAtMs - now);
+            available.await(waitMs, TimeUnit.MILLISECONDS);
+            return null;
+        }
+
+        /**
+         * Records the outcome of a head attempt and reschedules the stream.
+         */
+        private void complete(Stream stream, AttemptResult result) {
+            lock.lock();
+            try {
+                if (result == AttemptResult.DONE) {
+                    stream.tasks.pollFirst();
+                    stream.headAttempts = 0;
+                    size--;
+                } else if (result == AttemptResult.THROTTLED) {
+                    stream.retryAtMs = System.currentTimeMillis() + throttleBackoffMs;
+                    parked.add(stream);
+                    available.signal();
+                    return;
+                } else {
+                    stream.headAttempts++;
+                    long backoffMs = headRetryBackoffMs << Math.min(stream.headAttempts - 1, 20);
+                    stream.retryAtMs = System.currentTimeMillis() + Math.min(backoffMs, headRetryMaxBackoffMs);
+                    parked.add(stream);
+                    available.signal();
+                    return;
+                }
+
+                if (stream.tasks.isEmpty()) {
+                    stream.scheduled = false;
+                    streams.remove(stream.key);
+                } else {
+                    // Back of the line so other streams in this partition get a turn
+                    ready.addLast(stream);
+                    available.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
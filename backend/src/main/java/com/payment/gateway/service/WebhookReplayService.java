@@ -0,0 +1,271 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.WebhookReplayRequest;
+import com.payment.gateway.dto.WebhookReplayResponse;
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.model.Webhook;
+import com.payment.gateway.model.WebhookDeadLetter;
+import com.payment.gateway.repository.WebhookDeadLetterRepository;
+import com.payment.gateway.repository.WebhookRepository;
+import com.payment.gateway.util.TokenBucketRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams dead-lettered webhook events back into the dispatcher.
+ * Replay is paced by a token bucket and pauses while the dispatcher queue is above
+ * app.webhook.replay.max-dispatcher-queue, so a large backlog cannot flood either side.
+ */
+@Service
+@Slf4j
+public class WebhookReplayService {
+    
+    private static final int PAGE_SIZE = 100;
+    
+    private final WebhookRepository webhookRepository;
+    private final WebhookDeadLetterRepository webhookDeadLetterRepository;
+    private final WebhookService webhookService;
+    private final WebhookDispatcher webhookDispatcher;
+    private final AuditService auditService;
+    private final Executor replayExecutor;
+    
+    private final Map<String, ReplayProgress> replays = new ConcurrentHashMap<>();
+    
+    @Value("${app.webhook.replay.default-rate-per-second:5}")
+    private double defaultRatePerSecond;
+    
+    @Value("${app.webhook.replay.max-dispatcher-queue:1000}")
+    private int maxDispatcherQueue;
+    
+    public WebhookReplayService(WebhookRepository webhookRepository,
+                                WebhookDeadLetterRepository webhookDeadLetterRepository,
+                                WebhookService webhookService,
+                                WebhookDispatcher webhookDispatcher,
+                                AuditService auditService,
+                                @Qualifier("webhookReplayExecutor") Executor replayExecutor) {
+        this.webhookRepository = webhookRepository;
+        this.webhookDeadLetterRepository = webhookDeadLetterRepository;
+        this.webhookService = webhookService;
+        this.webhookDispatcher = webhookDispatcher;
+        this.auditService = auditService;
+        this.replayExecutor = replayExecutor;
+    }
+    
+    public WebhookReplayResponse startReplay(Long id, WebhookReplayRequest request) {
+        Optional<Webhook> webhookOpt = webhookRepository.findById(id);
+        if (webhookOpt.isEmpty()) {
+            return createErrorResponse("Webhook not found with ID: " + id);
+        }
+        
+        Webhook webhook = webhookOpt.get();
+        if (webhook.getStatus() == Webhook.WebhookStatus.DELETED) {
+            return createErrorResponse("Cannot replay events for a deleted webhook");
+        }
+        
+        long pending = webhookDeadLetterRepository.countByWebhookIdAndStatus(
+                webhook.getWebhookId(), WebhookDeadLetter.DeadLetterStatus.PENDING);
+        if (pending == 0) {
+            return createErrorResponse("No dead-lettered events to replay for webhook: " + webhook.getWebhookId());
+        }
+        
+        double rate = request != null && request.getRatePerSecond() != null
+                ? request.getRatePerSecond() : defaultRatePerSecond;
+        long limit = request != null && request.getMaxEvents() != null
+                ? Math.min(request.getMaxEvents(), pending) : pending;
+        
+        ReplayProgress progress = new ReplayProgress(generateReplayId(), webhook.getWebhookId(), limit, rate);
+        ReplayProgress registered = replays.compute(webhook.getWebhookId(),
+                (key, existing) -> existing != null && existing.isRunning() ? existing : progress);
+        if (registered != progress) {
+            return createErrorResponse("A replay is already running for webhook: " + webhook.getWebhookId());
+        }
+        
+        Webhook.WebhookStatus previousStatus = webhook.getStatus();
+        Boolean previousActive = webhook.getIsActive();
+        Integer previousRetries = webhook.getCurrentRetries();
+        LocalDateTime previousNextAttemptAt = webhook.getNextAttemptAt();
+        
+        // Give the endpoint a fresh retry budget before sending the backlog again
+        webhook.setStatus(Webhook.WebhookStatus.ACTIVE);
+        webhook.setIsActive(true);
+        webhook.setCurrentRetries(0);
+        webhook.setNextAttemptAt(null);
+        webhookRepository.save(webhook);
+        
+        try {
+            replayExecutor.execute(() -> runReplay(webhook.getWebhookId(), progress));
+        } catch (RejectedExecutionException e) {
+            webhook.setStatus(previousStatus);
+            webhook.setIsActive(previousActive);
+            webhook.setCurrentRetries(previousRetries);
+            webhook.setNextAttemptAt(previousNextAttemptAt);
+            webhookRepository.save(webhook);
+            progress.finish("FAILED");
+            log.warn("Webhook replay {} rejected, replay executor is busy", progress.replayId);
+            return createErrorResponse("Too many replays running, try again later");
+        }
+        
+        auditService.createEvent()
+            .eventType("WEBHOOK_REPLAY_STARTED")
+            .severity(AuditLog.Severity.MEDIUM)
+            .actor("api-user")
+            .action("REPLAY")
+            .resourceType("WEBHOOK")
+            .resourceId(webhook.getWebhookId())
+            .additionalData("replayId", progress.replayId)
+            .additionalData("events", limit)
+            .additionalData("ratePerSecond", rate)
+            .complianceTag("PCI_DSS")
+            .log();
+        
+        log.info("Started webhook replay {} for {}: {} events at {}/s",
+                progress.replayId, webhook.getWebhookId(), limit, rate);
+        return createReplayResponse(progress, "Replay started");
+    }
+    
+    public WebhookReplayResponse getReplayStatus(Long id) {
+        Optional<Webhook> webhookOpt = webhookRepository.findById(id);
+        if (webhookOpt.isEmpty()) {
+            return createErrorResponse("Webhook not found with ID: " + id);
+        }
+        ReplayProgress progress = replays.get(webhookOpt.get().getWebhookId());
+        if (progress == null) {
+            return createErrorResponse("No replay found for webhook: " + webhookOpt.get().getWebhookId());
+        }
+        return createReplayResponse(progress, "Replay " + progress.status.toLowerCase());
+    }
+    
+    private void runReplay(String webhookId, ReplayProgress progress) {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(progress.ratePerSecond, progress.ratePerSecond);
+        long afterId = 0L;
+        
+        try {
+            while (progress.processed() < progress.limit) {
+                List<WebhookDeadLetter> page = webhookDeadLetterRepository.findPendingPage(
+                        webhookId, afterId, PageRequest.of(0, PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                
+                for (WebhookDeadLetter deadLetter : page) {
+                    if (progress.processed() >= progress.limit) {
+                        break;
+                    }
+                    
+                    Optional<Webhook> webhook = webhookRepository.findByWebhookId(webhookId);
+                    if (webhook.isEmpty() || !Boolean.TRUE.equals(webhook.get().getIsActive())) {
+                        progress.finish("STOPPED");
+                        log.warn("Webhook replay {} stopped: webhook {} is no longer active", progress.replayId, webhookId);
+                        return;
+                    }
+                    
+                    rateLimiter.acquire();
+                    
+                    // Backpressure: wait for the dispatcher to drain instead of piling on
+                    WebhookService.ReplayResult result;
+                    while ((result = webhookDispatcher.getQueuedCount() >= maxDispatcherQueue
+                            ? WebhookService.ReplayResult.DISPATCHER_FULL
+                            : webhookService.replayDeadLetter(webhook.get(), deadLetter)) == WebhookService.ReplayResult.DISPATCHER_FULL) {
+                        TimeUnit.MILLISECONDS.sleep(500);
+                    }
+                    
+                    if (result == WebhookService.ReplayResult.QUEUED) {
+                        deadLetter.setStatus(WebhookDeadLetter.DeadLetterStatus.REPLAYED);
+                        deadLetter.setReplayedAt(LocalDateTime.now());
+                        progress.replayed.incrementAndGet();
+                    } else {
+                        // Left out of later pages so one bad event cannot hold up the replay
+                        deadLetter.setStatus(WebhookDeadLetter.DeadLetterStatus.REPLAY_FAILED);
+                        progress.failed.incrementAndGet();
+                    }
+                    webhookDeadLetterRepository.save(deadLetter);
+                    afterId = deadLetter.getId();
+                }
+            }
+            
+            progress.finish("COMPLETED");
+            log.info("Webhook replay {} completed: {} events re-queued, {} failed",
+                    progress.replayId, progress.replayed.get(), progress.failed.get());
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.finish("STOPPED");
+        } catch (Exception e) {
+            progress.finish("FAILED");
+            log.error("Webhook replay {} failed: {}", progress.replayId, e.getMessage(), e);
+        }
+    }
+    
+    private String generateReplayId() {
+        return "RPL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
+    private WebhookReplayResponse createReplayResponse(ReplayProgress progress, String message) {
+        WebhookReplayResponse response = new WebhookReplayResponse();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setReplayId(progress.replayId);
+        response.setWebhookId(progress.webhookId);
+        response.setStatus(progress.status);
+        response.setPendingEvents(progress.limit - progress.processed());
+        response.setReplayedEvents(progress.replayed.get());
+        response.setFailedEvents(progress.failed.get());
+        response.setRatePerSecond(progress.ratePerSecond);
+        response.setStartedAt(progress.startedAt);
+        response.setCompletedAt(progress.completedAt);
+        return response;
+    }
+    
+    private WebhookReplayResponse createErrorResponse(String message) {
+        WebhookReplayResponse response = new WebhookReplayResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+    
+    private static class ReplayProgress {
+        final String replayId;
+        final String webhookId;
+        final long limit;
+        final double ratePerSecond;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong replayed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile String status = "RUNNING";
+        volatile LocalDateTime completedAt;
+        
+        ReplayProgress(String replayId, String webhookId, long limit, double ratePerSecond) {
+            this.replayId = replayId;
+            this.webhookId = webhookId;
+            this.limit = limit;
+            this.ratePerSecond = ratePerSecond;
+        }
+        
+        long processed() {
+            return replayed.get() + failed.get();
+        }
+        
+        boolean isRunning() {
+            return "RUNNING".equals(status);
+        }
+        
+        void finish(String finalStatus) {
+            this.status = finalStatus;
+            this.completedAt = LocalDateTime.now();
+        }
+    }
+}
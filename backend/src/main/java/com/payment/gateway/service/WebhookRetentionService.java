@@ -0,0 +1,355 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.model.WebhookDeliveryArchive;
+import com.payment.gateway.repository.WebhookDeliveryArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retention for webhook_deliveries.
+ *
+ * Compaction: finished rows (DELIVERED, and FAILED attempts superseded by a later attempt for the
+ * same webhook, event type and entity) older than compact-after-days get their headers dropped, the
+ * response body truncated and eventData moved to webhook_payloads keyed by SHA-256, so retries of
+ * the same event share one payload row. The last FAILED attempt of an event, e.g. one that was
+ * dead-lettered, keeps everything replay and support need until it is archived.
+ *
+ * Archiving: finished rows (DELIVERED/FAILED) older than archive-after-days are written one day
+ * at a time to a gzip NDJSON file with a deliveryId index next to it, recorded in
+ * webhook_delivery_archives and then deleted.
+ *
+ * Everything runs in small keyset chunks, each in its own short transaction, so only the rows
+ * of the current chunk are locked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookRetentionService {
+    
+    private static final String ARCHIVABLE_STATUSES = "('DELIVERED', 'FAILED')";
+    
+    private static final String COMPACTABLE = "(d.status = 'DELIVERED' OR (d.status = 'FAILED' AND EXISTS (" +
+            "SELECT 1 FROM webhook_deliveries later WHERE later.webhook_id = d.webhook_id " +
+            "AND later.event_type = d.event_type AND later.entity_id = d.entity_id " +
+            "AND later.attempt_number > d.attempt_number AND later.id > d.id)))";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final WebhookDeliveryArchiveRepository webhookDeliveryArchiveRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.webhook.retention.compact-after-days:7}")
+    private int compactAfterDays;
+    
+    @Value("${app.webhook.retention.archive-after-days:90}")
+    private int archiveAfterDays;
+    
+    @Value("${app.webhook.retention.response-body-max-chars:256}")
+    private int responseBodyMaxChars;
+    
+    @Value("${app.webhook.retention.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${app.webhook.retention.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+    
+    @Value("${app.webhook.retention.archive-dir:./archive/webhook-deliveries}")
+    private String archiveDir;
+    
+    /**
+     * Compacts finished rows past the compaction age.
+     *
+     * @return number of compacted rows
+     */
+    public long compactFinishedRows() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(compactAfterDays));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long lastId = 0;
+        long compacted = 0;
+        
+        while (true) {
+            List<Map<String, Object>> chunk = jdbcTemplate.queryForList(
+                    "SELECT d.id, d.event_data FROM webhook_deliveries d " +
+                    "WHERE " + COMPACTABLE + " AND d.compacted_at IS NULL AND d.created_at < ? AND d.id > ? " +
+                    "ORDER BY d.id LIMIT ?",
+                    cutoff, lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            
+            Map<String, String> payloads = new LinkedHashMap<>();
+            List<Object[]> updates = new ArrayList<>(chunk.size());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map<String, Object> row : chunk) {
+                String eventData = (String) row.get("event_data");
+                String hash = sha256(eventData);
+                payloads.putIfAbsent(hash, eventData);
+                updates.add(new Object[]{hash, responseBodyMaxChars, now, row.get("id")});
+            }
+            
+            List<Object[]> inserts = new ArrayList<>(payloads.size());
+            payloads.forEach((hash, payload) -> inserts.add(new Object[]{hash, payload, now}));
+            
+            tx.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO webhook_payloads (payload_hash, payload, created_at) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (payload_hash) DO NOTHING",
+                        inserts);
+                jdbcTemplate.batchUpdate(
+                        "UPDATE webhook_deliveries SET event_data = '', payload_hash = ?, headers = NULL, " +
+                        "response_body = LEFT(response_body, ?), compacted_at = ? WHERE id = ?",
+                        updates);
+            });
+            
+            compacted += chunk.size();
+            lastId = ((Number) chunk.get(chunk.size() - 1).get("id")).longValue();
+            pause();
+        }
+        
+        if (compacted > 0) {
+            log.info("Compacted {} webhook deliveries older than {} days", compacted, compactAfterDays);
+        }
+        return compacted;
+    }
+    
+    /**
+     * Archives and deletes finished rows past the archive age, oldest day first.
+     *
+     * @return number of archived rows
+     */
+    public long archiveOldRows() {
+        LocalDate cutoffDay = LocalDate.now().minusDays(archiveAfterDays);
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM webhook_deliveries WHERE status IN " + ARCHIVABLE_STATUSES,
+                Timestamp.class);
+        if (oldest == null) {
+            return 0;
+        }
+        
+        long archived = 0;
+        for (LocalDate day = oldest.toLocalDateTime().toLocalDate(); day.isBefore(cutoffDay); day = day.plusDays(1)) {
+            try {
+                archived += archiveDay(day);
+            } catch (Exception e) {
+                // Rows of this day stay in the table and are picked up again on the next run
+                log.error("Error archiving webhook deliveries for {}: {}", day, e.getMessage(), e);
+                break;
+            }
+        }
+        return archived;
+    }
+    
+    /**
+     * Removes payloads that no delivery references any more.
+     */
+    public int purgeOrphanPayloads() {
+        int removed = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM webhook_payloads WHERE id IN (" +
+                    "SELECT p.id FROM webhook_payloads p WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM webhook_deliveries d WHERE d.payload_hash = p.payload_hash) LIMIT ?)",
+                    chunkSize);
+            removed += deleted;
+            pause();
+        } while (deleted == chunkSize);
+        return removed;
+    }
+    
+    /**
+     * Looks a delivery up in the archive files through their indexes.
+     */
+    public Optional<Map<String, Object>> findArchivedDelivery(String deliveryId) {
+        for (WebhookDeliveryArchive archive : webhookDeliveryArchiveRepository.findAllByOrderByArchiveDayDesc()) {
+            try {
+                long line = findIndexedLine(Paths.get(archive.getIndexPath()), deliveryId);
+                if (line >= 0) {
+                    return Optional.of(readArchiveLine(Paths.get(archive.getFilePath()), line));
+                }
+            } catch (IOException e) {
+                log.error("Error reading webhook archive {}: {}", archive.getFilePath(), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+    
+    private long archiveDay(LocalDate day) throws IOException {
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        String baseName = "webhook-deliveries-" + day + "-" + System.currentTimeMillis();
+        Path dataFile = dir.resolve(baseName + ".ndjson.gz");
+        Path indexFile = dir.resolve(baseName + ".idx");
+        Path dataTmp = dir.resolve(baseName + ".ndjson.gz.tmp");
+        Path indexTmp = dir.resolve(baseName + ".idx.tmp");
+        
+        MessageDigest digest = newSha256();
+        long[] stats = {0, Long.MAX_VALUE, Long.MIN_VALUE}; // rows, first id, last id
+        
+        try (BufferedWriter data = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                     new DigestOutputStream(Files.newOutputStream(dataTmp), digest)), StandardCharsets.UTF_8));
+             BufferedWriter index = Files.newBufferedWriter(indexTmp, StandardCharsets.UTF_8)) {
+            
+            // Streamed through a cursor inside a read-only transaction so the day is never held in memory
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(chunkSize);
+            readOnly.executeWithoutResult(status ->
+                    streaming.query(
+                            "SELECT d.*, COALESCE(p.payload, d.event_data) AS archived_event_data " +
+                            "FROM webhook_deliveries d LEFT JOIN webhook_payloads p ON p.payload_hash = d.payload_hash " +
+                            "WHERE d.created_at >= ? AND d.created_at < ? AND d.status IN " + ARCHIVABLE_STATUSES +
+                            " ORDER BY d.id",
+                            rs -> {
+                                ResultSetMetaData meta = rs.getMetaData();
+                                Map<String, Object> record = new LinkedHashMap<>();
+                                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                                    String column = meta.getColumnLabel(i);
+                                    Object value = rs.getObject(i);
+                                    if (value instanceof Timestamp timestamp) {
+                                        value = timestamp.toLocalDateTime().toString();
+                                    }
+                                    record.put(column, value);
+                                }
+                                record.put("event_data", record.remove("archived_event_data"));
+                                
+                                long id = rs.getLong("id");
+                                try {
+                                    data.write(objectMapper.writeValueAsString(record));
+                                    data.newLine();
+                                    index.write(rs.getString("delivery_id") + "\t" + stats[0]);
+                                    index.newLine();
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                                stats[0]++;
+                                stats[1] = Math.min(stats[1], id);
+                                stats[2] = Math.max(stats[2], id);
+                            },
+                            from, to));
+        }
+        
+        if (stats[0] == 0) {
+            Files.deleteIfExists(dataTmp);
+            Files.deleteIfExists(indexTmp);
+            return 0;
+        }
+        
+        Files.move(dataTmp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        
+        WebhookDeliveryArchive archive = new WebhookDeliveryArchive();
+        archive.setArchiveDay(day);
+        archive.setFilePath(dataFile.toAbsolutePath().toString());
+        archive.setIndexPath(indexFile.toAbsolutePath().toString());
+        archive.setRowCount(stats[0]);
+        archive.setFirstRowId(stats[1]);
+        archive.setLastRowId(stats[2]);
+        archive.setSha256(HexFormat.of().formatHex(digest.digest()));
+        webhookDeliveryArchiveRepository.save(archive);
+        
+        // Only rows that made it into the file (id <= lastRowId) are deleted
+        long deleted = 0;
+        int removed;
+        do {
+            removed = jdbcTemplate.update(
+                    "DELETE FROM webhook_deliveries WHERE id IN (" +
+                    "SELECT id FROM webhook_deliveries WHERE created_at >= ? AND created_at < ? " +
+                    "AND status IN " + ARCHIVABLE_STATUSES + " AND id <= ? LIMIT ?)",
+                    from, to, stats[2], chunkSize);
+            deleted += removed;
+            pause();
+        } while (removed == chunkSize);
+        
+        log.info("Archived {} webhook deliveries for {} to {} ({} deleted)", stats[0], day, dataFile, deleted);
+        return stats[0];
+    }
+    
+    private long findIndexedLine(Path indexFile, String deliveryId) throws IOException {
+        String prefix = deliveryId + "\t";
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    return Long.parseLong(line.substring(prefix.length()));
+                }
+            }
+        }
+        return -1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readArchiveLine(Path dataFile, long lineNumber) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(dataFile)), StandardCharsets.UTF_8))) {
+            String line = null;
+            for (long i = 0; i <= lineNumber; i++) {
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Archive index points past end of " + dataFile);
+                }
+            }
+            return objectMapper.readValue(line, Map.class);
+        }
+    }
+    
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(newSha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.payment.gateway.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payment.gateway.dto.WebhookDeliveryRequest;
 import com.payment.gateway.dto.WebhookDeliveryResponse;
 import com.payment.gateway.dto.WebhookRequest;
 import com.payment.gateway.dto.WebhookResponse;
 import com.payment.gateway.model.Webhook;
+import com.payment.gateway.model.WebhookDeadLetter;
 import com.payment.gateway.model.WebhookDelivery;
+import com.payment.gateway.repository.WebhookDeadLetterRepository;
 import com.payment.gateway.repository.WebhookDeliveryRepository;
 import com.payment.gateway.repository.WebhookRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
@@ -25,9 +31,19 @@ import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,11 +52,30 @@ import java.util.stream.Collectors;
 @Transactional
 public class WebhookService {
     
+    // Dispatcher stream of a webhook's batches: one batch in flight per webhook, in release order
+    private static final String BATCH_STREAM_PREFIX = "batch:";
+    
     private final WebhookRepository webhookRepository;
     private final WebhookDeliveryRepository webhookDeliveryRepository;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final AuditService auditService;
+    private final WebhookBatchBuffer webhookBatchBuffer;
+    private final WebhookDispatcher webhookDispatcher;
+    private final WebhookDeadLetterRepository webhookDeadLetterRepository;
+    private final WebhookStatsService webhookStatsService;
+    
+    @Value("${app.webhook.recovery.stale-after-seconds:300}")
+    private long recoveryStaleAfterSeconds;
+    
+    @Value("${app.webhook.dispatch.max-concurrent-per-merchant:4}")
+    private int maxConcurrentPerMerchant;
+    
+    // Deliveries currently held by the dispatcher; the retry scan leaves these alone
+    private final Set<String> queuedDeliveryIds = ConcurrentHashMap.newKeySet();
+    
+    // HTTP sends in flight per merchant, so one slow merchant cannot hold every dispatcher worker
+    private final Map<String, Semaphore> merchantPermits = new ConcurrentHashMap<>();
     
     public WebhookResponse createWebhook(WebhookRequest request) {
         try {
@@ -68,6 +103,9 @@ public class WebhookService {
             webhook.setTimeoutSeconds(request.getTimeoutSeconds());
             webhook.setDescription(request.getDescription());
             webhook.setIsActive(request.getIsActive());
+            webhook.setBatchEnabled(Boolean.TRUE.equals(request.getBatchEnabled()));
+            webhook.setBatchMaxEvents(request.getBatchMaxEvents());
+            webhook.setBatchMaxWaitMs(request.getBatchMaxWaitMs());
             
             // Save to database
             Webhook savedWebhook = webhookRepository.save(webhook);
@@ -216,6 +254,11 @@ public class WebhookService {
         }
     }
     
+    /**
+     * Runs outside any caller transaction so delivery records are committed
+     * before dispatcher threads pick them up.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void triggerWebhookDelivery(WebhookDeliveryRequest request) {
         try {
             log.info("Triggering webhook delivery for merchant: {}, event: {}", 
@@ -233,7 +276,11 @@ public class WebhookService {
             
             // Deliver to each webhook
             for (Webhook webhook : webhooks) {
-                deliverWebhook(webhook, request);
+                if (Boolean.TRUE.equals(webhook.getBatchEnabled())) {
+                    enqueueBatchedDelivery(webhook, request);
+                } else {
+                    deliverWebhook(webhook, request);
+                }
             }
             
         } catch (Exception e) {
@@ -241,33 +288,434 @@ public class WebhookService {
         }
     }
     
+    /**
+     * Saves a PENDING delivery for every active webhook of the merchant subscribed to the
+     * event, in the caller's transaction. Pass the result to {@link #dispatchPendingDeliveries}
+     * after commit; rows that never get there are queued by the stale PENDING recovery.
+     */
+    public List<WebhookDelivery> createPendingDeliveries(WebhookDeliveryRequest request) throws JsonProcessingException {
+        String eventData = objectMapper.writeValueAsString(request.getEventData());
+        List<WebhookDelivery> deliveries = new ArrayList<>();
+        for (Webhook webhook : webhookRepository.findActiveWebhooksByMerchantAndEvent(
+                request.getMerchantId(), request.getEventType())) {
+            deliveries.add(webhookDeliveryRepository.save(newPendingDelivery(webhook, request, eventData)));
+        }
+        return deliveries;
+    }
+    
+    /**
+     * Hands committed PENDING deliveries to the batch buffer or the dispatcher.
+     *
+     * @return how many could not be queued; they stay PENDING for the recovery run
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int dispatchPendingDeliveries(List<WebhookDelivery> deliveries, WebhookDeliveryRequest request) {
+        int deferred = 0;
+        for (WebhookDelivery delivery : deliveries) {
+            Optional<Webhook> webhook = webhookRepository.findByWebhookId(delivery.getWebhookId());
+            if (webhook.isEmpty()) {
+                deferred++;
+                continue;
+            }
+            if (Boolean.TRUE.equals(webhook.get().getBatchEnabled())) {
+                bufferBatchedDelivery(webhook.get(), delivery, request);
+            } else if (!submitToDispatcher(webhook.get(), delivery, request)) {
+                deferred++;
+            }
+        }
+        return deferred;
+    }
+    
+    public int getMerchantsInFlight() {
+        return (int) merchantPermits.values().stream()
+                .filter(permits -> permits.availablePermits() < maxConcurrentPerMerchant)
+                .count();
+    }
+    
+    public int getSendsInFlight() {
+        return merchantPermits.values().stream()
+                .mapToInt(permits -> maxConcurrentPerMerchant - permits.availablePermits())
+                .sum();
+    }
+    
+    private WebhookDelivery newPendingDelivery(Webhook webhook, WebhookDeliveryRequest request, String eventData) {
+        WebhookDelivery delivery = new WebhookDelivery();
+        delivery.setDeliveryId(generateDeliveryId());
+        delivery.setWebhookId(webhook.getWebhookId());
+        delivery.setMerchantId(request.getMerchantId());
+        delivery.setEventType(request.getEventType());
+        delivery.setEventData(eventData);
+        delivery.setEntityId(request.getEntityId());
+        delivery.setTargetUrl(webhook.getUrl());
+        delivery.setStatus(WebhookDelivery.DeliveryStatus.PENDING);
+        delivery.setAttemptNumber(1);
+        return delivery;
+    }
+    
     private void deliverWebhook(Webhook webhook, WebhookDeliveryRequest request) {
         try {
-            String deliveryId = generateDeliveryId();
+            // Create and save delivery record
+            WebhookDelivery delivery = newPendingDelivery(webhook, request,
+                    objectMapper.writeValueAsString(request.getEventData()));
+            webhookDeliveryRepository.save(delivery);
+            
+            // Queue on the entity's ordered stream
+            if (!submitToDispatcher(webhook, delivery, request)) {
+                handleDeliveryFailure(webhook, delivery, "Dispatch queue full");
+            }
             
-            // Create delivery record
+        } catch (Exception e) {
+            log.error("Error delivering webhook: {}", e.getMessage(), e);
+        }
+    }
+    
+    public enum ReplayResult {
+        QUEUED,
+        DISPATCHER_FULL, // No side effects, the caller may try again later
+        FAILED
+    }
+    
+    /**
+     * Re-queues a dead-lettered event as a fresh delivery.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReplayResult replayDeadLetter(Webhook webhook, WebhookDeadLetter deadLetter) {
+        try {
             WebhookDelivery delivery = new WebhookDelivery();
-            delivery.setDeliveryId(deliveryId);
+            delivery.setDeliveryId(generateDeliveryId());
             delivery.setWebhookId(webhook.getWebhookId());
-            delivery.setMerchantId(request.getMerchantId());
-            delivery.setEventType(request.getEventType());
-            delivery.setEventData(objectMapper.writeValueAsString(request.getEventData()));
+            delivery.setMerchantId(deadLetter.getMerchantId());
+            delivery.setEventType(deadLetter.getEventType());
+            delivery.setEventData(deadLetter.getEventData());
+            delivery.setEntityId(deadLetter.getEntityId());
             delivery.setTargetUrl(webhook.getUrl());
             delivery.setStatus(WebhookDelivery.DeliveryStatus.PENDING);
             delivery.setAttemptNumber(1);
             
-            // Save delivery record
+            WebhookDeliveryRequest request = new WebhookDeliveryRequest();
+            request.setMerchantId(deadLetter.getMerchantId());
+            request.setEventType(deadLetter.getEventType());
+            request.setEventData(objectMapper.readValue(deadLetter.getEventData(), Object.class));
+            request.setEntityId(deadLetter.getEntityId() != null ? deadLetter.getEntityId() : deadLetter.getDeadLetterId());
+            
             webhookDeliveryRepository.save(delivery);
             
-            // Send webhook
-            sendWebhook(webhook, delivery, request);
+            if (!submitToDispatcher(webhook, delivery, request)) {
+                webhookDeliveryRepository.delete(delivery);
+                return ReplayResult.DISPATCHER_FULL;
+            }
+            return ReplayResult.QUEUED;
             
         } catch (Exception e) {
-            log.error("Error delivering webhook: {}", e.getMessage(), e);
+            log.error("Error replaying dead letter {}: {}", deadLetter.getDeadLetterId(), e.getMessage(), e);
+            return ReplayResult.FAILED;
+        }
+    }
+    
+    private boolean submitToDispatcher(Webhook webhook, WebhookDelivery delivery, WebhookDeliveryRequest request) {
+        queuedDeliveryIds.add(delivery.getDeliveryId());
+        boolean queued = webhookDispatcher.submit(request.getEntityId(), webhook.getWebhookId(),
+                new WebhookDispatcher.DispatchTask() {
+                    @Override
+                    public WebhookDispatcher.AttemptResult attempt() {
+                        WebhookDispatcher.AttemptResult result = attemptWithPermit(delivery.getMerchantId(),
+                                () -> attemptQueuedDelivery(delivery, request));
+                        if (result == WebhookDispatcher.AttemptResult.DONE) {
+                            queuedDeliveryIds.remove(delivery.getDeliveryId());
+                        }
+                        return result;
+                    }
+                    
+                    @Override
+                    public void stalled() {
+                        failQueuedDelivery(delivery);
+                    }
+                });
+        if (!queued) {
+            queuedDeliveryIds.remove(delivery.getDeliveryId());
         }
+        return queued;
     }
     
-    private void sendWebhook(Webhook webhook, WebhookDelivery delivery, WebhookDeliveryRequest request) {
+    /**
+     * Runs one send under the merchant's concurrency limit; THROTTLED when the merchant is at it.
+     */
+    private WebhookDispatcher.AttemptResult attemptWithPermit(String merchantId, BooleanSupplier send) {
+        Semaphore permits = merchantPermits.computeIfAbsent(String.valueOf(merchantId),
+                key -> new Semaphore(maxConcurrentPerMerchant));
+        if (!permits.tryAcquire()) {
+            return WebhookDispatcher.AttemptResult.THROTTLED;
+        }
+        try {
+            return send.getAsBoolean() ? WebhookDispatcher.AttemptResult.DONE : WebhookDispatcher.AttemptResult.FAILED;
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private boolean attemptQueuedDelivery(WebhookDelivery delivery, WebhookDeliveryRequest request) {
+        Optional<Webhook> webhook = webhookRepository.findByWebhookId(delivery.getWebhookId());
+        if (webhook.isPresent() && webhook.get().getStatus() == Webhook.WebhookStatus.FAILED) {
+            // Retries exhausted: keep the event for replay, in order behind the ones already dead-lettered
+            deadLetterUndelivered(webhook.get(), List.of(delivery));
+            return true;
+        }
+        if (webhook.isEmpty() || !Boolean.TRUE.equals(webhook.get().getIsActive())) {
+            delivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
+            delivery.setErrorMessage("Webhook inactive at dispatch time");
+            webhookDeliveryRepository.save(delivery);
+            return true; // Nothing left to deliver for this event
+        }
+        
+        if (delivery.getSentAt() != null) {
+            delivery.setAttemptNumber(delivery.getAttemptNumber() + 1);
+        }
+        return sendWebhook(webhook.get(), delivery, request);
+    }
+    
+    /**
+     * Counts a stalled head against the webhook's retry budget. The event itself stays
+     * queued; once the budget is exhausted the next attempt dead-letters it.
+     */
+    private void failQueuedDelivery(WebhookDelivery delivery) {
+        webhookRepository.findByWebhookId(delivery.getWebhookId())
+                .ifPresent(webhook -> handleDeliveryFailure(webhook, delivery, delivery.getErrorMessage()));
+    }
+    
+    private void enqueueBatchedDelivery(Webhook webhook, WebhookDeliveryRequest request) {
+        try {
+            // Every event keeps its own delivery record, the batch only shares the HTTP call
+            WebhookDelivery delivery = newPendingDelivery(webhook, request,
+                    objectMapper.writeValueAsString(request.getEventData()));
+            webhookDeliveryRepository.save(delivery);
+            
+            bufferBatchedDelivery(webhook, delivery, request);
+            
+        } catch (Exception e) {
+            log.error("Error buffering batched webhook delivery: {}", e.getMessage(), e);
+        }
+    }
+    
+    private void bufferBatchedDelivery(Webhook webhook, WebhookDelivery delivery, WebhookDeliveryRequest request) {
+        WebhookBatchBuffer.PendingBatch fullBatch = webhookBatchBuffer.add(webhook,
+                new WebhookBatchBuffer.BatchedEvent(delivery.getDeliveryId(), request.getEventType(),
+                        request.getEntityId(), request.getEventData()));
+        
+        if (fullBatch != null) {
+            submitBatch(fullBatch);
+        }
+    }
+    
+    /**
+     * Queues a released batch on the dispatcher, behind the webhook's earlier batches and under
+     * the merchant's concurrency limit. If the dispatcher is full the events stay PENDING and the
+     * stale PENDING recovery buffers them again.
+     */
+    public void submitBatch(WebhookBatchBuffer.PendingBatch batch) {
+        Optional<Webhook> webhook = webhookRepository.findByWebhookId(batch.getWebhookId());
+        String merchantId = webhook.map(Webhook::getMerchantId).orElse(null);
+        List<String> deliveryIds = batch.getEvents().stream().map(WebhookBatchBuffer.BatchedEvent::getDeliveryId).toList();
+        queuedDeliveryIds.addAll(deliveryIds);
+        boolean queued = webhookDispatcher.submit(BATCH_STREAM_PREFIX + batch.getWebhookId(), batch.getWebhookId(),
+                new WebhookDispatcher.DispatchTask() {
+                    @Override
+                    public WebhookDispatcher.AttemptResult attempt() {
+                        // Failed events are retried one by one by the retry scheduler, the batch is done either way
+                        WebhookDispatcher.AttemptResult result = attemptWithPermit(merchantId, () -> {
+                            deliverBatch(batch);
+                            return true;
+                        });
+                        if (result == WebhookDispatcher.AttemptResult.DONE) {
+                            deliveryIds.forEach(queuedDeliveryIds::remove);
+                        }
+                        return result;
+                    }
+                    
+                    @Override
+                    public void stalled() {
+                        // attempt() never reports FAILED
+                    }
+                });
+        if (!queued) {
+            deliveryIds.forEach(queuedDeliveryIds::remove);
+            log.warn("Dispatcher full, {} batched events for webhook {} left PENDING for recovery",
+                    batch.getEvents().size(), batch.getWebhookId());
+        }
+    }
+    
+    /**
+     * Sends a released batch on the calling thread.
+     */
+    public void deliverBatch(WebhookBatchBuffer.PendingBatch batch) {
+        Optional<Webhook> webhookOpt = webhookRepository.findByWebhookId(batch.getWebhookId());
+        List<WebhookDelivery> deliveries = findBatchDeliveries(batch);
+        
+        if (webhookOpt.isEmpty() || !Boolean.TRUE.equals(webhookOpt.get().getIsActive())) {
+            log.warn("Dropping batch for inactive webhook: {}", batch.getWebhookId());
+            for (WebhookDelivery delivery : deliveries) {
+                delivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
+                delivery.setErrorMessage("Webhook inactive at batch flush time");
+            }
+            webhookDeliveryRepository.saveAll(deliveries);
+            return;
+        }
+        
+        sendBatch(webhookOpt.get(), batch);
+    }
+    
+    /**
+     * Sends a batch as one signed JSON array.
+     * A non-2xx response or transport error fails every event in the batch.
+     * On 2xx the endpoint may reject individual events by returning {"failed": ["DEL-..."]};
+     * only those events fail. Either way the webhook retry counter moves once per batch,
+     * and failed events are retried individually by the retry scheduler.
+     */
+    private void sendBatch(Webhook webhook, WebhookBatchBuffer.PendingBatch batch) {
+        List<WebhookDelivery> deliveries = findBatchDeliveries(batch);
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        
+        String batchId = generateBatchId();
+        deliveries.forEach(delivery -> delivery.setBatchId(batchId));
+        
+        try {
+            LocalDateTime startTime = LocalDateTime.now();
+            
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (WebhookBatchBuffer.BatchedEvent event : batch.getEvents()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("deliveryId", event.getDeliveryId());
+                item.put("eventType", event.getEventType());
+                item.put("entityId", event.getEntityId());
+                item.put("data", event.getEventData());
+                items.add(item);
+            }
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("User-Agent", "PaymentGateway-Webhook/1.0");
+            headers.set("X-Webhook-ID", webhook.getWebhookId());
+            headers.set("X-Event-Type", webhook.getEventType());
+            headers.set("X-Batch-ID", batchId);
+            headers.set("X-Batch-Size", String.valueOf(items.size()));
+            
+            String payload = objectMapper.writeValueAsString(items);
+            headers.set("X-Signature", generateSignature(payload, webhook.getSecretKey()));
+            
+            ResponseEntity<String> response = restTemplate.exchange(
+                    webhook.getUrl(),
+                    HttpMethod.POST,
+                    new HttpEntity<>(payload, headers),
+                    String.class
+            );
+            
+            LocalDateTime receivedAt = LocalDateTime.now();
+            int responseTimeMs = (int) java.time.Duration.between(startTime, receivedAt).toMillis();
+            String headersJson = objectMapper.writeValueAsString(headers);
+            Set<String> rejected = parseRejectedDeliveryIds(response.getBody());
+            
+            List<WebhookDelivery> failed = new ArrayList<>();
+            for (WebhookDelivery delivery : deliveries) {
+                delivery.setResponseCode(response.getStatusCode().value());
+                delivery.setResponseBody(response.getBody());
+                delivery.setSentAt(startTime);
+                delivery.setReceivedAt(receivedAt);
+                delivery.setResponseTimeMs(responseTimeMs);
+                delivery.setHeaders(headersJson);
+                
+                if (rejected.contains(delivery.getDeliveryId())) {
+                    failed.add(delivery);
+                } else {
+                    delivery.setStatus(WebhookDelivery.DeliveryStatus.DELIVERED);
+                }
+            }
+            webhookDeliveryRepository.saveAll(deliveries);
+            
+            // One HTTP attempt, whatever the batch size
+            webhookStatsService.recordSuccess(webhook, responseTimeMs, deliveries.size() - failed.size(), failed.size());
+            
+            if (!failed.isEmpty()) {
+                handleBatchFailure(webhook, failed, "Rejected by endpoint in batch " + batchId);
+            }
+            
+            log.info("Webhook batch {} delivered: {} events, {} rejected", batchId, deliveries.size(), failed.size());
+            
+        } catch (ResourceAccessException e) {
+            webhookStatsService.recordFailure(webhook, "Connection timeout: " + e.getMessage(), deliveries.size());
+            handleBatchFailure(webhook, deliveries, "Connection timeout: " + e.getMessage());
+        } catch (Exception e) {
+            webhookStatsService.recordFailure(webhook, "Batch delivery failed: " + e.getMessage(), deliveries.size());
+            handleBatchFailure(webhook, deliveries, "Batch delivery failed: " + e.getMessage());
+        }
+    }
+    
+    private void handleBatchFailure(Webhook webhook, List<WebhookDelivery> deliveries, String errorMessage) {
+        try {
+            webhook.setCurrentRetries(webhook.getCurrentRetries() + 1);
+            webhook.setLastError(errorMessage);
+            webhook.setLastAttemptAt(LocalDateTime.now());
+            
+            boolean exhausted = webhook.getCurrentRetries() >= webhook.getMaxRetries();
+            if (exhausted) {
+                webhook.setStatus(Webhook.WebhookStatus.FAILED);
+                webhook.setIsActive(false);
+            } else {
+                webhook.setNextAttemptAt(LocalDateTime.now().plusMinutes(5 * webhook.getCurrentRetries()));
+            }
+            
+            for (WebhookDelivery delivery : deliveries) {
+                delivery.setErrorMessage(errorMessage);
+                if (delivery.getSentAt() == null) {
+                    delivery.setSentAt(LocalDateTime.now());
+                }
+                delivery.setStatus(exhausted ? WebhookDelivery.DeliveryStatus.FAILED
+                        : WebhookDelivery.DeliveryStatus.RETRY_SCHEDULED);
+            }
+            
+            webhookRepository.save(webhook);
+            webhookDeliveryRepository.saveAll(deliveries);
+            
+            if (exhausted) {
+                deadLetterUndelivered(webhook, deliveries);
+            }
+            
+            log.warn("Webhook batch delivery failed for {} events on webhook {} - {}",
+                    deliveries.size(), webhook.getWebhookId(), errorMessage);
+            
+        } catch (Exception e) {
+            log.error("Error handling batch delivery failure: {}", e.getMessage(), e);
+        }
+    }
+    
+    private List<WebhookDelivery> findBatchDeliveries(WebhookBatchBuffer.PendingBatch batch) {
+        List<String> deliveryIds = batch.getEvents().stream()
+                .map(WebhookBatchBuffer.BatchedEvent::getDeliveryId)
+                .collect(Collectors.toList());
+        return webhookDeliveryRepository.findByDeliveryIdIn(deliveryIds);
+    }
+    
+    private Set<String> parseRejectedDeliveryIds(String responseBody) {
+        Set<String> rejected = new HashSet<>();
+        if (responseBody == null || responseBody.isBlank()) {
+            return rejected;
+        }
+        try {
+            JsonNode failed = objectMapper.readTree(responseBody).path("failed");
+            if (failed.isArray()) {
+                failed.forEach(node -> rejected.add(node.asText()));
+            }
+        } catch (Exception e) {
+            log.debug("Batch response body is not JSON, treating all events as delivered");
+        }
+        return rejected;
+    }
+    
+    /**
+     * Performs one HTTP attempt. On failure the error is recorded on the delivery
+     * and the caller decides whether to retry or fail it.
+     */
+    private boolean sendWebhook(Webhook webhook, WebhookDelivery delivery, WebhookDeliveryRequest request) {
         try {
             LocalDateTime startTime = LocalDateTime.now();
             
@@ -305,16 +753,32 @@ public class WebhookService {
             delivery.setHeaders(objectMapper.writeValueAsString(headers));
             
             webhookDeliveryRepository.save(delivery);
+            webhookStatsService.recordSuccess(webhook, delivery.getResponseTimeMs());
             
             log.info("Webhook delivered successfully: {}", delivery.getDeliveryId());
+            return true;
             
         } catch (ResourceAccessException e) {
-            handleDeliveryFailure(webhook, delivery, "Connection timeout: " + e.getMessage());
+            recordAttemptError(webhook, delivery, "Connection timeout: " + e.getMessage());
+            return false;
         } catch (Exception e) {
-            handleDeliveryFailure(webhook, delivery, "Delivery failed: " + e.getMessage());
+            recordAttemptError(webhook, delivery, "Delivery failed: " + e.getMessage());
+            return false;
         }
     }
     
+    private void recordAttemptError(Webhook webhook, WebhookDelivery delivery, String errorMessage) {
+        webhookStatsService.recordFailure(webhook, errorMessage);
+        try {
+            delivery.setErrorMessage(errorMessage);
+            delivery.setSentAt(LocalDateTime.now());
+            webhookDeliveryRepository.save(delivery);
+        } catch (Exception e) {
+            log.error("Error recording webhook attempt failure: {}", e.getMessage(), e);
+        }
+        log.debug("Webhook attempt failed: {} - {}", delivery.getDeliveryId(), errorMessage);
+    }
+    
     private void handleDeliveryFailure(Webhook webhook, WebhookDelivery delivery, String errorMessage) {
         try {
             delivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
@@ -328,7 +792,8 @@ public class WebhookService {
             webhook.setLastError(errorMessage);
             webhook.setLastAttemptAt(LocalDateTime.now());
             
-            if (webhook.getCurrentRetries() >= webhook.getMaxRetries()) {
+            boolean exhausted = webhook.getCurrentRetries() >= webhook.getMaxRetries();
+            if (exhausted) {
                 webhook.setStatus(Webhook.WebhookStatus.FAILED);
                 webhook.setIsActive(false);
             } else {
@@ -340,6 +805,10 @@ public class WebhookService {
             webhookRepository.save(webhook);
             webhookDeliveryRepository.save(delivery);
             
+            if (exhausted) {
+                deadLetterUndelivered(webhook, List.of(delivery));
+            }
+            
             log.warn("Webhook delivery failed: {} - {}", delivery.getDeliveryId(), errorMessage);
             
         } catch (Exception e) {
@@ -347,6 +816,49 @@ public class WebhookService {
         }
     }
     
+    /**
+     * Moves the failed deliveries and every delivery still waiting for a retry on this
+     * webhook into the dead-letter store, so they can be replayed once the endpoint recovers.
+     */
+    private void deadLetterUndelivered(Webhook webhook, List<WebhookDelivery> failedDeliveries) {
+        try {
+            List<WebhookDelivery> undelivered = new ArrayList<>(failedDeliveries);
+            undelivered.addAll(webhookDeliveryRepository.findByWebhookIdAndStatus(
+                    webhook.getWebhookId(), WebhookDelivery.DeliveryStatus.RETRY_SCHEDULED));
+            
+            List<WebhookDeadLetter> deadLetters = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (WebhookDelivery delivery : undelivered) {
+                if (!seen.add(delivery.getDeliveryId()) || webhookDeadLetterRepository.existsByDeliveryId(delivery.getDeliveryId())) {
+                    continue;
+                }
+                delivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
+                
+                WebhookDeadLetter deadLetter = new WebhookDeadLetter();
+                deadLetter.setDeadLetterId(generateDeadLetterId());
+                deadLetter.setWebhookId(webhook.getWebhookId());
+                deadLetter.setMerchantId(delivery.getMerchantId());
+                deadLetter.setDeliveryId(delivery.getDeliveryId());
+                deadLetter.setEventType(delivery.getEventType());
+                deadLetter.setEntityId(delivery.getEntityId());
+                deadLetter.setEventData(delivery.getEventData());
+                deadLetter.setLastError(delivery.getErrorMessage());
+                deadLetter.setAttempts(delivery.getAttemptNumber());
+                deadLetter.setStatus(WebhookDeadLetter.DeadLetterStatus.PENDING);
+                deadLetters.add(deadLetter);
+            }
+            
+            webhookDeliveryRepository.saveAll(undelivered);
+            webhookDeadLetterRepository.saveAll(deadLetters);
+            
+            log.warn("Webhook {} exhausted its retries, {} events moved to dead-letter store",
+                    webhook.getWebhookId(), deadLetters.size());
+            
+        } catch (Exception e) {
+            log.error("Error dead-lettering deliveries for webhook {}: {}", webhook.getWebhookId(), e.getMessage(), e);
+        }
+    }
+    
     private String generateSignature(String payload, String secretKey) throws NoSuchAlgorithmException, InvalidKeyException {
         Mac mac = Mac.getInstance("HmacSHA256");
         SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
@@ -379,53 +891,155 @@ public class WebhookService {
         }
     }
     
+    /**
+     * Re-queues deliveries that are waiting for a retry but are not held by the dispatcher
+     * (queue was full, batch failure, or lost on restart). Retries go through the dispatcher
+     * on the entity key, oldest first, so they keep their place in the entity's stream.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processRetries() {
+        recoverStalePendingDeliveries();
+        
         try {
             List<Webhook> pendingRetries = webhookRepository.findPendingRetries(LocalDateTime.now());
             
             for (Webhook webhook : pendingRetries) {
-                log.info("Processing retry for webhook: {}", webhook.getWebhookId());
+                List<WebhookDelivery> scheduledDeliveries = findUnqueuedRetries(webhook.getWebhookId());
+                if (scheduledDeliveries.isEmpty()) {
+                    continue;
+                }
                 
-                // Find the last failed delivery
-                List<WebhookDelivery> failedDeliveries = webhookDeliveryRepository.findByWebhookId(webhook.getWebhookId());
-                WebhookDelivery lastDelivery = failedDeliveries.stream()
-                        .filter(d -> d.getStatus() == WebhookDelivery.DeliveryStatus.FAILED)
-                        .max((d1, d2) -> d1.getCreatedAt().compareTo(d2.getCreatedAt()))
-                        .orElse(null);
+                log.info("Processing {} retries for webhook: {}", scheduledDeliveries.size(), webhook.getWebhookId());
+                for (WebhookDelivery lastDelivery : scheduledDeliveries) {
+                    if (!requeueRetry(webhook, lastDelivery)) {
+                        break; // Dispatcher full, the rest waits for the next run to keep the order
+                    }
+                }
+            }
+            
+        } catch (Exception e) {
+            log.error("Error processing webhook retries: {}", e.getMessage(), e);
+        }
+    }
+    
+    private boolean requeueRetry(Webhook webhook, WebhookDelivery lastDelivery) {
+        try {
+            // Create new delivery attempt
+            WebhookDelivery newDelivery = new WebhookDelivery();
+            newDelivery.setDeliveryId(generateDeliveryId());
+            newDelivery.setWebhookId(webhook.getWebhookId());
+            newDelivery.setMerchantId(lastDelivery.getMerchantId());
+            newDelivery.setEventType(lastDelivery.getEventType());
+            newDelivery.setEventData(lastDelivery.getEventData());
+            newDelivery.setEntityId(lastDelivery.getEntityId());
+            newDelivery.setTargetUrl(lastDelivery.getTargetUrl());
+            newDelivery.setStatus(WebhookDelivery.DeliveryStatus.PENDING);
+            newDelivery.setAttemptNumber(lastDelivery.getAttemptNumber() + 1);
+            
+            WebhookDeliveryRequest retryRequest = toDeliveryRequest(lastDelivery);
+            
+            webhookDeliveryRepository.save(newDelivery);
+            
+            if (!submitToDispatcher(webhook, newDelivery, retryRequest)) {
+                webhookDeliveryRepository.delete(newDelivery);
+                return false;
+            }
+            
+            // Superseded by the new attempt
+            lastDelivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
+            webhookDeliveryRepository.save(lastDelivery);
+            return true;
+            
+        } catch (Exception e) {
+            log.error("Error processing retry for webhook {}: {}", webhook.getWebhookId(), e.getMessage());
+            return false;
+        }
+    }
+    
+    private List<WebhookDelivery> findUnqueuedRetries(String webhookId) {
+        return webhookDeliveryRepository.findByWebhookIdAndStatus(webhookId, WebhookDelivery.DeliveryStatus.RETRY_SCHEDULED)
+                .stream()
+                .filter(delivery -> !queuedDeliveryIds.contains(delivery.getDeliveryId()))
+                .sorted(Comparator.comparing(WebhookDelivery::getCreatedAt))
+                .collect(Collectors.toList());
+    }
+    
+    private WebhookDeliveryRequest toDeliveryRequest(WebhookDelivery delivery) throws Exception {
+        WebhookDeliveryRequest request = new WebhookDeliveryRequest();
+        request.setMerchantId(delivery.getMerchantId());
+        request.setEventType(delivery.getEventType());
+        request.setEventData(objectMapper.readValue(delivery.getEventData(), Object.class));
+        request.setEntityId(delivery.getEntityId() != null ? delivery.getEntityId() : "retry-" + delivery.getDeliveryId());
+        return request;
+    }
+    
+    /**
+     * Deliveries are saved as PENDING before they enter the in-memory batch buffer or the
+     * dispatcher. Rows still PENDING long after any batch wait time and not held by the
+     * dispatcher were lost (crash or kill before flush) and are queued again. A row whose
+     * entity still has an older retry waiting is left for a later run, behind that retry.
+     */
+    private void recoverStalePendingDeliveries() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(recoveryStaleAfterSeconds);
+            List<WebhookDelivery> stale = webhookDeliveryRepository.findTop500ByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(
+                    WebhookDelivery.DeliveryStatus.PENDING, cutoff);
+            
+            Map<String, Optional<Webhook>> webhooks = new HashMap<>();
+            Map<String, Set<String>> retryingEntities = new HashMap<>();
+            int recovered = 0;
+            for (WebhookDelivery delivery : stale) {
+                if (queuedDeliveryIds.contains(delivery.getDeliveryId())) {
+                    continue;
+                }
                 
-                if (lastDelivery != null) {
-                    // Create new delivery attempt
-                    WebhookDelivery newDelivery = new WebhookDelivery();
-                    newDelivery.setDeliveryId(generateDeliveryId());
-                    newDelivery.setWebhookId(webhook.getWebhookId());
-                    newDelivery.setMerchantId(lastDelivery.getMerchantId());
-                    newDelivery.setEventType(lastDelivery.getEventType());
-                    newDelivery.setEventData(lastDelivery.getEventData());
-                    newDelivery.setTargetUrl(lastDelivery.getTargetUrl());
-                    newDelivery.setStatus(WebhookDelivery.DeliveryStatus.PENDING);
-                    newDelivery.setAttemptNumber(lastDelivery.getAttemptNumber() + 1);
-                    
-                    webhookDeliveryRepository.save(newDelivery);
+                Optional<Webhook> webhook = webhooks.computeIfAbsent(delivery.getWebhookId(), webhookRepository::findByWebhookId);
+                if (webhook.isPresent() && webhook.get().getStatus() == Webhook.WebhookStatus.FAILED) {
+                    deadLetterUndelivered(webhook.get(), List.of(delivery));
+                    continue;
+                }
+                if (webhook.isEmpty() || !Boolean.TRUE.equals(webhook.get().getIsActive())) {
+                    delivery.setStatus(WebhookDelivery.DeliveryStatus.FAILED);
+                    delivery.setErrorMessage("Webhook inactive at recovery time");
+                    webhookDeliveryRepository.save(delivery);
+                    continue;
+                }
+                
+                if (Boolean.TRUE.equals(webhook.get().getBatchEnabled())) {
+                    if (delivery.getBatchId() != null
+                            || webhookBatchBuffer.isBuffered(delivery.getWebhookId(), delivery.getDeliveryId())) {
+                        continue;
+                    }
+                    WebhookBatchBuffer.PendingBatch fullBatch = webhookBatchBuffer.add(webhook.get(),
+                            new WebhookBatchBuffer.BatchedEvent(delivery.getDeliveryId(), delivery.getEventType(),
+                                    delivery.getEntityId(), objectMapper.readValue(delivery.getEventData(), Object.class)));
+                    recovered++;
                     
-                    // Retry delivery
-                    try {
-                        // Recreate delivery request
-                        WebhookDeliveryRequest retryRequest = new WebhookDeliveryRequest();
-                        retryRequest.setMerchantId(lastDelivery.getMerchantId());
-                        retryRequest.setEventType(lastDelivery.getEventType());
-                        retryRequest.setEventData(objectMapper.readValue(lastDelivery.getEventData(), Object.class));
-                        retryRequest.setEntityId("retry-" + lastDelivery.getDeliveryId());
-                        
-                        sendWebhook(webhook, newDelivery, retryRequest);
-                        
-                    } catch (Exception e) {
-                        log.error("Error processing retry for webhook {}: {}", webhook.getWebhookId(), e.getMessage());
+                    if (fullBatch != null) {
+                        submitBatch(fullBatch);
                     }
+                    continue;
+                }
+                
+                Set<String> retrying = retryingEntities.computeIfAbsent(delivery.getWebhookId(),
+                        webhookId -> findUnqueuedRetries(webhookId).stream()
+                                .map(WebhookDelivery::getEntityId)
+                                .collect(Collectors.toSet()));
+                if (retrying.contains(delivery.getEntityId())) {
+                    continue;
+                }
+                if (!submitToDispatcher(webhook.get(), delivery, toDeliveryRequest(delivery))) {
+                    break;
                 }
+                recovered++;
+            }
+            
+            if (recovered > 0) {
+                log.warn("Recovered {} pending webhook deliveries", recovered);
             }
             
         } catch (Exception e) {
-            log.error("Error processing webhook retries: {}", e.getMessage(), e);
+            log.error("Error recovering pending webhook deliveries: {}", e.getMessage(), e);
         }
     }
     
@@ -438,6 +1052,14 @@ public class WebhookService {
         return "DEL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
+    private String generateDeadLetterId() {
+        return "DLQ-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
+    private String generateBatchId() {
+        return "BAT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
     private WebhookResponse createWebhookResponse(Webhook webhook, boolean success, String message) {
         WebhookResponse response = new WebhookResponse();
         response.setSuccess(success);
@@ -457,6 +1079,9 @@ public class WebhookService {
         response.setLastResponseCode(webhook.getLastResponseCode());
         response.setDescription(webhook.getDescription());
         response.setIsActive(webhook.getIsActive());
+        response.setBatchEnabled(webhook.getBatchEnabled());
+        response.setBatchMaxEvents(webhook.getBatchMaxEvents());
+        response.setBatchMaxWaitMs(webhook.getBatchMaxWaitMs());
         response.setCreatedAt(webhook.getCreatedAt());
         response.setUpdatedAt(webhook.getUpdatedAt());
         return response;
@@ -487,6 +1112,9 @@ public class WebhookService {
         response.setReceivedAt(delivery.getReceivedAt());
         response.setResponseTimeMs(delivery.getResponseTimeMs());
         response.setHeaders(delivery.getHeaders());
+        response.setBatchId(delivery.getBatchId());
+        response.setCompacted(delivery.getCompactedAt() != null);
+        response.setCompactedAt(delivery.getCompactedAt());
         response.setCreatedAt(delivery.getCreatedAt());
         return response;
     }
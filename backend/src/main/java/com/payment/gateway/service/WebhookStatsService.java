@@ -0,0 +1,408 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.WebhookStatsResponse;
+import com.payment.gateway.model.Webhook;
+import com.payment.gateway.model.WebhookDeliveryStats;
+import com.payment.gateway.repository.WebhookDeliveryStatsRepository;
+import com.payment.gateway.repository.WebhookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-webhook delivery statistics, updated on every delivery attempt.
+ *
+ * Success/failure counts and latency are per HTTP attempt, so a batched call is one sample;
+ * the events it carried are counted separately as delivered/failed items.
+ * Totals are plain counters; latency and the success/failure ratio are kept over a rolling
+ * window of one-minute slots with a fixed bucket histogram, so p50/p95/p99 are read without
+ * touching webhook_deliveries. Values are snapshotted to webhook_delivery_stats periodically
+ * and reloaded on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookStatsService {
+    
+    // Upper bounds of the latency buckets; the last bucket holds everything slower
+    private static final int[] LATENCY_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+    private static final int BUCKET_COUNT = LATENCY_BOUNDS_MS.length + 1;
+    
+    // Slot layout: success, failure, latency sum, then the histogram buckets
+    private static final int SUCCESS = 0;
+    private static final int FAILURE = 1;
+    private static final int LATENCY_SUM = 2;
+    private static final int FIRST_BUCKET = 3;
+    private static final int SLOT_SIZE = FIRST_BUCKET + BUCKET_COUNT;
+    
+    private final WebhookDeliveryStatsRepository webhookDeliveryStatsRepository;
+    private final WebhookRepository webhookRepository;
+    
+    @Value("${app.webhook.stats.window-minutes:60}")
+    private int windowMinutes;
+    
+    @Value("${app.webhook.stats.unhealthy-failure-rate:0.5}")
+    private double unhealthyFailureRate;
+    
+    @Value("${app.webhook.stats.min-samples:10}")
+    private int minSamples;
+    
+    private final ConcurrentHashMap<String, RollingStats> stats = new ConcurrentHashMap<>();
+    
+    public void recordSuccess(Webhook webhook, int responseTimeMs) {
+        recordSuccess(webhook, responseTimeMs, 1, 0);
+    }
+    
+    /**
+     * One successful HTTP attempt that carried deliveredItems events, of which rejectedItems
+     * were refused by the endpoint in the response body.
+     */
+    public void recordSuccess(Webhook webhook, int responseTimeMs, int deliveredItems, int rejectedItems) {
+        RollingStats rolling = statsFor(webhook);
+        rolling.recordSuccess(responseTimeMs, currentMinute());
+        rolling.deliveredItemTotal.add(deliveredItems);
+        rolling.failedItemTotal.add(rejectedItems);
+    }
+    
+    public void recordFailure(Webhook webhook, String errorMessage) {
+        recordFailure(webhook, errorMessage, 1);
+    }
+    
+    /**
+     * One failed HTTP attempt that carried failedItems events.
+     */
+    public void recordFailure(Webhook webhook, String errorMessage, int failedItems) {
+        RollingStats rolling = statsFor(webhook);
+        rolling.recordFailure(errorMessage, currentMinute());
+        rolling.failedItemTotal.add(failedItems);
+    }
+    
+    public WebhookStatsResponse getStats(String webhookId) {
+        RollingStats rolling = stats.get(webhookId);
+        if (rolling != null) {
+            return toResponse(rolling);
+        }
+        
+        Optional<Webhook> webhook = webhookRepository.findByWebhookId(webhookId);
+        if (webhook.isEmpty()) {
+            return createErrorResponse("Webhook not found");
+        }
+        return toResponse(new RollingStats(webhookId, webhook.get().getMerchantId(), windowMinutes));
+    }
+    
+    public List<WebhookStatsResponse> getStatsByMerchantId(String merchantId) {
+        return webhookRepository.findByMerchantId(merchantId).stream()
+                .map(webhook -> {
+                    RollingStats rolling = stats.get(webhook.getWebhookId());
+                    return toResponse(rolling != null ? rolling
+                            : new RollingStats(webhook.getWebhookId(), webhook.getMerchantId(), windowMinutes));
+                })
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Writes the stats that changed since the last snapshot.
+     */
+    public int snapshot() {
+        List<RollingStats> changed = stats.values().stream()
+                .filter(RollingStats::clearDirty)
+                .collect(Collectors.toList());
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, WebhookDeliveryStats> existing = webhookDeliveryStatsRepository
+                .findByWebhookIdIn(changed.stream().map(RollingStats::getWebhookId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(WebhookDeliveryStats::getWebhookId, Function.identity()));
+        
+        long nowMinute = currentMinute();
+        List<WebhookDeliveryStats> rows = new ArrayList<>();
+        for (RollingStats rolling : changed) {
+            WebhookDeliveryStats row = existing.getOrDefault(rolling.getWebhookId(), new WebhookDeliveryStats());
+            long[] window = rolling.window(nowMinute);
+            
+            row.setWebhookId(rolling.getWebhookId());
+            row.setMerchantId(rolling.getMerchantId());
+            row.setSuccessCount(rolling.successTotal.sum());
+            row.setFailureCount(rolling.failureTotal.sum());
+            row.setDeliveredItemCount(rolling.deliveredItemTotal.sum());
+            row.setFailedItemCount(rolling.failedItemTotal.sum());
+            row.setWindowSuccessCount(window[SUCCESS]);
+            row.setWindowFailureCount(window[FAILURE]);
+            row.setAvgResponseTimeMs(average(window));
+            row.setP50ResponseTimeMs(percentile(window, 0.50));
+            row.setP95ResponseTimeMs(percentile(window, 0.95));
+            row.setP99ResponseTimeMs(percentile(window, 0.99));
+            row.setLatencyBuckets(encodeBuckets(window));
+            row.setLastError(rolling.lastError);
+            row.setLastErrorAt(rolling.lastErrorAt);
+            row.setLastSuccessAt(rolling.lastSuccessAt);
+            row.setSnapshotAt(LocalDateTime.now());
+            rows.add(row);
+        }
+        
+        try {
+            webhookDeliveryStatsRepository.saveAll(rows);
+        } catch (Exception e) {
+            // Try again on the next run
+            changed.forEach(RollingStats::markDirty);
+            throw e;
+        }
+        return rows.size();
+    }
+    
+    /**
+     * Seeds the in-memory stats from the last snapshot. The window histogram is restored
+     * into the current slot when the snapshot is still inside the window.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshots() {
+        try {
+            long nowMinute = currentMinute();
+            for (WebhookDeliveryStats row : webhookDeliveryStatsRepository.findAll()) {
+                RollingStats rolling = new RollingStats(row.getWebhookId(), row.getMerchantId(), windowMinutes);
+                rolling.successTotal.add(row.getSuccessCount());
+                rolling.failureTotal.add(row.getFailureCount());
+                // Snapshots taken before item counts existed had one item per attempt
+                rolling.deliveredItemTotal.add(row.getDeliveredItemCount() != null ? row.getDeliveredItemCount() : row.getSuccessCount());
+                rolling.failedItemTotal.add(row.getFailedItemCount() != null ? row.getFailedItemCount() : row.getFailureCount());
+                rolling.lastError = row.getLastError();
+                rolling.lastErrorAt = row.getLastErrorAt();
+                rolling.lastSuccessAt = row.getLastSuccessAt();
+                
+                if (row.getSnapshotAt() != null
+                        && Duration.between(row.getSnapshotAt(), LocalDateTime.now()).toMinutes() < windowMinutes) {
+                    rolling.restoreWindow(decodeBuckets(row), nowMinute);
+                }
+                stats.putIfAbsent(row.getWebhookId(), rolling);
+            }
+            log.info("Loaded delivery stats for {} webhooks", stats.size());
+        } catch (Exception e) {
+            log.error("Error loading webhook delivery stats: {}", e.getMessage(), e);
+        }
+    }
+    
+    private RollingStats statsFor(Webhook webhook) {
+        return stats.computeIfAbsent(webhook.getWebhookId(),
+                id -> new RollingStats(id, webhook.getMerchantId(), windowMinutes));
+    }
+    
+    private WebhookStatsResponse toResponse(RollingStats rolling) {
+        long[] window = rolling.window(currentMinute());
+        long windowTotal = window[SUCCESS] + window[FAILURE];
+        
+        WebhookStatsResponse response = new WebhookStatsResponse();
+        response.setSuccess(true);
+        response.setMessage("Webhook stats retrieved successfully");
+        response.setWebhookId(rolling.getWebhookId());
+        response.setMerchantId(rolling.getMerchantId());
+        response.setSuccessCount(rolling.successTotal.sum());
+        response.setFailureCount(rolling.failureTotal.sum());
+        response.setDeliveredItemCount(rolling.deliveredItemTotal.sum());
+        response.setFailedItemCount(rolling.failedItemTotal.sum());
+        response.setWindowMinutes(windowMinutes);
+        response.setWindowSuccessCount(window[SUCCESS]);
+        response.setWindowFailureCount(window[FAILURE]);
+        response.setWindowSuccessRate(windowTotal > 0 ? (double) window[SUCCESS] / windowTotal : null);
+        response.setAvgResponseTimeMs(average(window));
+        response.setP50ResponseTimeMs(percentile(window, 0.50));
+        response.setP95ResponseTimeMs(percentile(window, 0.95));
+        response.setP99ResponseTimeMs(percentile(window, 0.99));
+        response.setLastError(rolling.lastError);
+        response.setLastErrorAt(rolling.lastErrorAt);
+        response.setLastSuccessAt(rolling.lastSuccessAt);
+        response.setHealthy(windowTotal < minSamples
+                || (double) window[FAILURE] / windowTotal < unhealthyFailureRate);
+        return response;
+    }
+    
+    private Double average(long[] window) {
+        return window[SUCCESS] > 0 ? (double) window[LATENCY_SUM] / window[SUCCESS] : null;
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given quantile.
+     */
+    private Integer percentile(long[] window, double quantile) {
+        long count = window[SUCCESS];
+        if (count == 0) {
+            return null;
+        }
+        long target = (long) Math.ceil(quantile * count);
+        long cumulative = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            cumulative += window[FIRST_BUCKET + b];
+            if (cumulative >= target) {
+                return LATENCY_BOUNDS_MS[Math.min(b, LATENCY_BOUNDS_MS.length - 1)];
+            }
+        }
+        return LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 1];
+    }
+    
+    private String encodeBuckets(long[] window) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(window[i]);
+        }
+        return sb.toString();
+    }
+    
+    private long[] decodeBuckets(WebhookDeliveryStats row) {
+        long[] values = new long[SLOT_SIZE];
+        if (row.getLatencyBuckets() == null || row.getLatencyBuckets().isBlank()) {
+            return values;
+        }
+        String[] parts = row.getLatencyBuckets().split(",");
+        if (parts.length != SLOT_SIZE) {
+            // Bucket layout changed, the window starts empty
+            return values;
+        }
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            values[i] = Long.parseLong(parts[i].trim());
+        }
+        return values;
+    }
+    
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+    
+    private static int bucketIndex(int responseTimeMs) {
+        for (int b = 0; b < LATENCY_BOUNDS_MS.length; b++) {
+            if (responseTimeMs <= LATENCY_BOUNDS_MS[b]) {
+                return b;
+            }
+        }
+        return LATENCY_BOUNDS_MS.length;
+    }
+    
+    private static WebhookStatsResponse createErrorResponse(String message) {
+        WebhookStatsResponse response = new WebhookStatsResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+    
+    private static final class Slot {
+        volatile long minute = -1;
+        final AtomicLongArray counters = new AtomicLongArray(SLOT_SIZE);
+    }
+    
+    private static final class RollingStats {
+        private final String webhookId;
+        private final String merchantId;
+        private final Slot[] slots;
+        private final LongAdder successTotal = new LongAdder();
+        private final LongAdder failureTotal = new LongAdder();
+        private final LongAdder deliveredItemTotal = new LongAdder();
+        private final LongAdder failedItemTotal = new LongAdder();
+        private volatile String lastError;
+        private volatile LocalDateTime lastErrorAt;
+        private volatile LocalDateTime lastSuccessAt;
+        private volatile boolean dirty;
+        
+        RollingStats(String webhookId, String merchantId, int windowMinutes) {
+            this.webhookId = webhookId;
+            this.merchantId = merchantId;
+            this.slots = new Slot[Math.max(1, windowMinutes)];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot();
+            }
+        }
+        
+        String getWebhookId() {
+            return webhookId;
+        }
+        
+        String getMerchantId() {
+            return merchantId;
+        }
+        
+        void recordSuccess(int responseTimeMs, long minute) {
+            AtomicLongArray counters = slot(minute).counters;
+            counters.incrementAndGet(SUCCESS);
+            counters.addAndGet(LATENCY_SUM, Math.max(0, responseTimeMs));
+            counters.incrementAndGet(FIRST_BUCKET + bucketIndex(responseTimeMs));
+            successTotal.increment();
+            lastSuccessAt = LocalDateTime.now();
+            dirty = true;
+        }
+        
+        void recordFailure(String errorMessage, long minute) {
+            slot(minute).counters.incrementAndGet(FAILURE);
+            failureTotal.increment();
+            lastError = errorMessage;
+            lastErrorAt = LocalDateTime.now();
+            dirty = true;
+        }
+        
+        /**
+         * Sums the slots that still fall inside the window.
+         */
+        long[] window(long nowMinute) {
+            long[] sum = new long[SLOT_SIZE];
+            for (Slot slot : slots) {
+                if (slot.minute > nowMinute - slots.length && slot.minute <= nowMinute) {
+                    for (int i = 0; i < SLOT_SIZE; i++) {
+                        sum[i] += slot.counters.get(i);
+                    }
+                }
+            }
+            return sum;
+        }
+        
+        void restoreWindow(long[] values, long minute) {
+            AtomicLongArray counters = slot(minute).counters;
+            for (int i = 0; i < SLOT_SIZE; i++) {
+                counters.addAndGet(i, values[i]);
+            }
+        }
+        
+        boolean clearDirty() {
+            boolean wasDirty = dirty;
+            dirty = false;
+            return wasDirty;
+        }
+        
+        void markDirty() {
+            dirty = true;
+        }
+        
+        /**
+         * Returns the slot for the given minute, recycling it if it still holds an older minute.
+         */
+        private Slot slot(long minute) {
+            Slot slot = slots[(int) (minute % slots.length)];
+            if (slot.minute != minute) {
+                synchronized (slot) {
+                    if (slot.minute != minute) {
+                        for (int i = 0; i < SLOT_SIZE; i++) {
+                            slot.counters.set(i, 0);
+                        }
+                        slot.minute = minute;
+                    }
+                }
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.payment.gateway.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch: sabit bellekte (width x depth sayaç) yaklaşık frekans sayımı.
+ * Tahmin hiçbir zaman gerçek değerin altında kalmaz; çakışmalar yüzünden üstünde kalabilir.
+ * Sayaçlar lock-free artırılır, thread-safe'dir.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    public void add(String key, long delta) {
+        long hash = hash64(key);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(cellIndex(hash, row, width), delta);
+        }
+    }
+
+    public long estimate(String key) {
+        long hash = hash64(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(cellIndex(hash, row, width)));
+        }
+        return min;
+    }
+
+    /**
+     * Aynı boyuttaki sketch'lerin toplamı üzerinden tahmin: min_row(sum_sketch(cell)).
+     * Zaman pencereleri için bucket başına tahminleri toplamaktan daha sıkı bir üst sınırdır.
+     */
+    public static long estimateSum(Iterable<CountMinSketch> sketches, String key, int width, int depth) {
+        long hash = hash64(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = cellIndex(hash, row, width);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                if (sketch.width != width || sketch.depth != depth) {
+                    throw new IllegalArgumentException("Sketch dimensions do not match");
+                }
+                sum += sketch.counters.get(index);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private static int cellIndex(long hash, int row, int width) {
+        // double hashing: h1 + row * h2
+        return row * width + (int) Math.floorMod(mix(hash) + row * (mix(~hash) | 1L), (long) width);
+    }
+
+    /**
+     * FNV-1a 64
+     */
+    public static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * MurmurHash3 fmix64
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
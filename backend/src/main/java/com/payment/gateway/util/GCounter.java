@@ -0,0 +1,45 @@
+package com.payment.gateway.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grow-only counter CRDT. Her node sadece kendi girdisini artırır; birleştirme node bazında max alır,
+ * bu yüzden delta'lar tekrar, sırasız veya birden fazla yoldan gelse de sonuç aynıdır.
+ * Değer, tüm node girdilerinin toplamıdır.
+ */
+public class GCounter {
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+    public void increment(String nodeId, long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("G-counter cannot be decremented");
+        }
+        counts.merge(nodeId, delta, Long::sum);
+    }
+
+    public void merge(String nodeId, long count) {
+        counts.merge(nodeId, count, Math::max);
+    }
+
+    public void merge(Map<String, Long> other) {
+        other.forEach(this::merge);
+    }
+
+    public long value() {
+        long sum = 0;
+        for (long count : counts.values()) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    public long get(String nodeId) {
+        return counts.getOrDefault(nodeId, 0L);
+    }
+
+    public Map<String, Long> snapshot() {
+        return Map.copyOf(counts);
+    }
+}
@@ -0,0 +1,89 @@
+package com.payment.gateway.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter on a byte[] of 2^precision registers.
+ *
+ * Callers pass a 64-bit hash (e.g. {@link CountMinSketch#hash64}); it is re-mixed here so weak low
+ * bits do not bias the register choice. Relative error is about 1.04 / sqrt(2^precision), e.g. 6.5%
+ * at precision 8 (256 bytes). Not thread-safe; callers lock the owner.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(long hash) {
+        long h = mix(hash);
+        int index = (int) (h >>> (64 - precision));
+        // The guard bit keeps the rank bounded when the remaining bits are all zero
+        long rest = (h << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public long estimate() {
+        return estimateUnion(this);
+    }
+
+    /**
+     * Estimate of the union of sketches with the same precision, without materializing the merge
+     */
+    public static long estimateUnion(HyperLogLog... sketches) {
+        int m = sketches[0].registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int j = 0; j < m; j++) {
+            int max = 0;
+            for (HyperLogLog sketch : sketches) {
+                max = Math.max(max, sketch.registers[j]);
+            }
+            sum += 1.0 / (1L << max);
+            if (max == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // Small-range correction (linear counting)
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * MurmurHash3 fmix64
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
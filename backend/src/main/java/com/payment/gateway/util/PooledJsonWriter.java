@@ -0,0 +1,59 @@
+package com.payment.gateway.util;
+
+import java.io.Writer;
+
+/**
+ * Thread başına yeniden kullanılan karakter buffer'ı
+ * JsonGenerator çıktısını her seferinde yeni StringWriter açmadan toplamak için kullanılır.
+ * acquire() buffer'ı sıfırlar; bir sonraki acquire()'dan önce toString() ile sonuç alınmalıdır.
+ */
+public final class PooledJsonWriter extends Writer {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024; // Bundan büyük buffer'lar havuzda tutulmaz
+    
+    private static final ThreadLocal<PooledJsonWriter> POOL = ThreadLocal.withInitial(PooledJsonWriter::new);
+    
+    private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+    
+    private PooledJsonWriter() {
+    }
+    
+    public static PooledJsonWriter acquire() {
+        PooledJsonWriter writer = POOL.get();
+        if (writer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            writer = new PooledJsonWriter();
+            POOL.set(writer);
+        }
+        writer.buffer.setLength(0);
+        return writer;
+    }
+    
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        buffer.append(chars, offset, length);
+    }
+    
+    @Override
+    public void write(int c) {
+        buffer.append((char) c);
+    }
+    
+    @Override
+    public void write(String str, int offset, int length) {
+        buffer.append(str, offset, offset + length);
+    }
+    
+    @Override
+    public void flush() {
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
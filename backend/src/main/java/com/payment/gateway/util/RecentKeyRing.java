@@ -0,0 +1,80 @@
+package com.payment.gateway.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-capacity set of hashed keys with their last-seen time, on two primitive arrays.
+ *
+ * Keys are distinct; adding a known key refreshes its time. When full, the least recently seen key
+ * is replaced, so distinct counts saturate at the capacity. Not thread-safe; callers lock the owner.
+ */
+public final class RecentKeyRing {
+
+    private final long[] keys;
+    private final long[] times;
+    private int size;
+
+    public RecentKeyRing(int capacity) {
+        this.keys = new long[capacity];
+        this.times = new long[capacity];
+    }
+
+    public void add(long key, long timeMs) {
+        int oldest = 0;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                times[i] = Math.max(times[i], timeMs);
+                return;
+            }
+            if (times[i] < times[oldest]) {
+                oldest = i;
+            }
+        }
+        int slot = size < keys.length ? size++ : oldest;
+        keys[slot] = key;
+        times[slot] = timeMs;
+    }
+
+    public boolean contains(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distinct keys seen at or after sinceMs
+     */
+    public int countSince(long sinceMs) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (times[i] >= sinceMs) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(keys[i]);
+            out.writeLong(times[i]);
+        }
+    }
+
+    public void read(DataInput in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            add(in.readLong(), in.readLong());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.payment.gateway.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log stored in memory-mapped segment files.
+ *
+ * Every record is written as [int length][int crc32][payload]. A segment is a file of fixed
+ * size named after its base offset (20 digit, zero padded); a zero length marks the end of
+ * the written part. Offsets are byte positions in the whole log, so the offset of the next
+ * record is offset + 8 + length and the next segment starts at base + segment size.
+ * On open the last segment is scanned and any torn or corrupt tail is ignored; a corrupt
+ * record in an older segment makes readers skip to the next segment.
+ *
+ * Appends are serialized; reads can run concurrently and only see fully written records.
+ */
+@Slf4j
+public class SegmentedLog implements Closeable {
+
+    public static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean forceOnAppend;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+    private long activeBase;
+    private volatile long endOffset;
+
+    public SegmentedLog(Path directory, int segmentBytes, boolean forceOnAppend) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.forceOnAppend = forceOnAppend;
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                 .forEach(file -> segments.put(parseBase(file), file));
+        }
+
+        if (segments.isEmpty()) {
+            openActive(0);
+        } else {
+            openActive(segments.lastKey());
+            activeBuffer.position(scanValidLength(activeBuffer));
+        }
+        endOffset = activeBase + activeBuffer.position();
+    }
+
+    /**
+     * Appends a record and returns its offset.
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        if (payload.length == 0 || payload.length > segmentBytes - HEADER_BYTES) {
+            throw new IllegalArgumentException("Record size out of range: " + payload.length);
+        }
+        if (activeBuffer.remaining() < HEADER_BYTES + payload.length) {
+            roll();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int position = activeBuffer.position();
+
+        // Payload and checksum first, length last: a reader never sees a length without its data
+        activeBuffer.putInt(position + 4, (int) crc.getValue());
+        activeBuffer.put(position + HEADER_BYTES, payload);
+        activeBuffer.putInt(position, payload.length);
+        activeBuffer.position(position + HEADER_BYTES + payload.length);
+        if (forceOnAppend) {
+            activeBuffer.force();
+        }
+
+        long offset = activeBase + position;
+        endOffset = activeBase + activeBuffer.position();
+        return offset;
+    }
+
+    /**
+     * Reads up to maxRecords records starting at fromOffset. An offset inside a deleted
+     * segment starts at the oldest remaining record; an offset that is not a record boundary
+     * starts at the next record.
+     */
+    public List<LogRecord> read(long fromOffset, int maxRecords) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        long end = endOffset;
+        long offset = Math.max(fromOffset, getStartOffset());
+        boolean aligned = false;
+
+        while (records.size() < maxRecords && offset < end) {
+            Long base;
+            Path file;
+            synchronized (this) {
+                base = segments.floorKey(offset);
+                file = base != null ? segments.get(base) : null;
+            }
+            if (base == null) {
+                break;
+            }
+
+            ByteBuffer buffer = base == activeBase ? activeView() : mapReadOnly(file);
+            int position = (int) (offset - base);
+            boolean segmentDone = false;
+            if (!aligned) {
+                // Later offsets come from record lengths or segment bases, only the caller's can be off
+                int boundary = alignToRecord(buffer, position);
+                if (boundary != position) {
+                    log.debug("Offset {} is not a record boundary, reading from {}", offset,
+                            boundary < 0 ? base + segmentBytes : base + boundary);
+                }
+                position = boundary < 0 ? segmentBytes : boundary;
+                segmentDone = boundary < 0;
+                aligned = true;
+            }
+
+            while (!segmentDone && records.size() < maxRecords && base + position < end) {
+                if (position + HEADER_BYTES > buffer.limit()) {
+                    segmentDone = true;
+                    break;
+                }
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+                    segmentDone = true;
+                    break;
+                }
+                int expectedCrc = buffer.getInt(position + 4);
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    // The rest of this segment cannot be trusted, continue with the next one
+                    log.error("Checksum mismatch at offset {} in {}, skipping rest of segment", base + position, file);
+                    segmentDone = true;
+                    break;
+                }
+
+                long next = base + position + HEADER_BYTES + length;
+                records.add(new LogRecord(base + position, next, payload));
+                position += HEADER_BYTES + length;
+            }
+
+            if (segmentDone || base + position >= base + segmentBytes) {
+                offset = base + segmentBytes;
+            } else {
+                offset = base + position;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes every segment that lies completely before the given offset.
+     * The active segment is never deleted.
+     */
+    public synchronized int deleteSegmentsBefore(long offset) throws IOException {
+        int deleted = 0;
+        while (segments.size() > 1) {
+            long base = segments.firstKey();
+            if (base + segmentBytes > offset || base == activeBase) {
+                break;
+            }
+            Files.deleteIfExists(segments.remove(base));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized long getStartOffset() {
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public synchronized List<Segment> getSegments() throws IOException {
+        List<Segment> result = new ArrayList<>();
+        for (var entry : segments.entrySet()) {
+            result.add(new Segment(entry.getKey(), entry.getValue(),
+                    Files.getLastModifiedTime(entry.getValue()).toMillis()));
+        }
+        return result;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public synchronized void flush() {
+        activeBuffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        activeBuffer.force();
+        activeChannel.close();
+    }
+
+    private void roll() throws IOException {
+        activeBuffer.force();
+        activeChannel.close();
+        openActive(activeBase + segmentBytes);
+    }
+
+    private void openActive(long base) throws IOException {
+        Path file = segments.get(base);
+        if (file == null) {
+            file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+            segments.put(base, file);
+        }
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        activeBase = base;
+    }
+
+    private synchronized ByteBuffer activeView() {
+        return activeBuffer.duplicate();
+    }
+
+    private ByteBuffer mapReadOnly(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentBytes));
+        }
+    }
+
+    /**
+     * First record boundary at or after position, found by following the record lengths from
+     * the segment start; -1 if the written part of the segment ends before it.
+     */
+    private static int alignToRecord(ByteBuffer buffer, int position) {
+        int boundary = 0;
+        while (boundary < position) {
+            if (boundary + HEADER_BYTES > buffer.limit()) {
+                return -1;
+            }
+            int length = buffer.getInt(boundary);
+            if (length <= 0 || boundary + HEADER_BYTES + length > buffer.limit()) {
+                return -1;
+            }
+            boundary += HEADER_BYTES + length;
+        }
+        return boundary;
+    }
+
+    /**
+     * Length of the valid prefix of a segment: stops at the first empty, truncated or corrupt record.
+     */
+    private static int scanValidLength(ByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        // Clear a torn tail so it is not mistaken for a record later
+        for (int i = position; i < Math.min(position + HEADER_BYTES, buffer.limit()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private static long parseBase(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public record LogRecord(long offset, long nextOffset, byte[] payload) {
+    }
+
+    public record Segment(long baseOffset, Path file, long lastModifiedMs) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.payment.gateway.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zaman bucket'larına bölünmüş count-min sketch halkası.
+ * Pencere = bucketCount x bucketMillis; süresi geçen bucket yeniden kullanılırken sıfırlanır,
+ * böylece bellek anahtar sayısından bağımsız olarak sabit kalır.
+ * Pencere kenarı bucket hassasiyetindedir (en fazla bir bucket kadar fazla sayabilir).
+ */
+public class SlidingWindowSketch {
+
+    private final long bucketMillis;
+    private final int width;
+    private final int depth;
+    private final Bucket[] buckets;
+
+    public SlidingWindowSketch(long bucketMillis, int bucketCount, int width, int depth) {
+        if (bucketMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketMillis and bucketCount must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.width = width;
+        this.depth = depth;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(width, depth));
+        }
+    }
+
+    /**
+     * Anahtarı sayar ve penceredeki tahmini toplamı döner
+     */
+    public long addAndEstimate(String key, long nowMillis) {
+        currentBucket(nowMillis).sketch.add(key, 1);
+        return estimate(key, nowMillis);
+    }
+
+    public long estimate(String key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        List<CountMinSketch> live = new ArrayList<>(buckets.length);
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - buckets.length) {
+                live.add(bucket.sketch);
+            }
+        }
+        if (live.isEmpty()) {
+            return 0;
+        }
+        return CountMinSketch.estimateSum(live, key, width, depth);
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * buckets.length;
+    }
+
+    private Bucket currentBucket(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        if (bucket.epoch != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch != epoch) {
+                    // Reset sırasında eski bucket'a yazan eşzamanlı bir add kaybolabilir; yaklaşık sayımda kabul edilebilir
+                    bucket.sketch.clear();
+                    bucket.epoch = epoch;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private volatile long epoch = Long.MIN_VALUE;
+
+        private Bucket(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+    }
+}
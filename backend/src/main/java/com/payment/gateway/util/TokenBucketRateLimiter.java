@@ -0,0 +1,46 @@
+package com.payment.gateway.util;
+
+/**
+ * Basit token bucket rate limiter
+ * Bulk replay gibi arka plan işlerinin hızını sınırlamak için kullanılır
+ */
+public class TokenBucketRateLimiter {
+    
+    private final double permitsPerSecond;
+    private final double maxBurst;
+    private double availableTokens;
+    private long lastRefillNanos;
+    
+    public TokenBucketRateLimiter(double permitsPerSecond, double maxBurst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxBurst = Math.max(1, maxBurst);
+        this.availableTokens = this.maxBurst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    /**
+     * Bir token alınana kadar bekler
+     */
+    public synchronized void acquire() throws InterruptedException {
+        refill();
+        while (availableTokens < 1) {
+            long waitNanos = (long) ((1 - availableTokens) / permitsPerSecond * 1_000_000_000L);
+            java.util.concurrent.TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1_000_000L));
+            refill();
+        }
+        availableTokens -= 1;
+    }
+    
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+    
+    private void refill() {
+        long now = System.nanoTime();
+        availableTokens = Math.min(maxBurst, availableTokens + (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+}
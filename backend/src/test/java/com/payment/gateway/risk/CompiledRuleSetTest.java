@@ -0,0 +1,125 @@
+package com.payment.gateway.risk;
+
+import com.payment.gateway.model.RiskAssessment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledRuleSetTest {
+
+    @Test
+    void firstMatchInGroupWins() {
+        CompiledRuleSet rules = CompiledRuleSet.compile(definition(
+                rule("amount-high", "amount", RiskFeature.AMOUNT, "GTE", 10_000, 40),
+                rule("amount-medium", "amount", RiskFeature.AMOUNT, "GTE", 5_000, 20)));
+
+        RiskEvaluation evaluation = rules.evaluate(vector(RiskFeature.AMOUNT, 12_000));
+
+        assertEquals(40, evaluation.score());
+        assertEquals(List.of("amount-high"), evaluation.matchedRules());
+        assertEquals(40, evaluation.groupScore("amount"));
+    }
+
+    @Test
+    void scoreIsCappedAndMapsToActionAndLevel() {
+        CompiledRuleSet rules = CompiledRuleSet.compile(definition(
+                rule("velocity", null, RiskFeature.VELOCITY_EXCEEDED, "EQ", 1, 60),
+                rule("blacklisted", null, RiskFeature.BLACKLISTED, "EQ", 1, 60)));
+
+        double[] vector = vector(RiskFeature.VELOCITY_EXCEEDED, 1);
+        vector[RiskFeature.BLACKLISTED.ordinal()] = 1;
+        RiskEvaluation evaluation = rules.evaluate(vector);
+
+        assertEquals(100, evaluation.score());
+        assertEquals(RiskAssessment.AssessmentAction.DECLINE, evaluation.action());
+        assertEquals(RiskAssessment.RiskLevel.CRITICAL, evaluation.riskLevel());
+    }
+
+    @Test
+    void forcedActionOverridesLowerScoreAction() {
+        RuleSetDefinition.RuleDefinition blacklisted = rule("blacklisted", null, RiskFeature.BLACKLISTED, "EQ", 1, 10);
+        blacklisted.setAction("DECLINE");
+        blacklisted.setFactor("BLACKLISTED");
+        CompiledRuleSet rules = CompiledRuleSet.compile(definition(blacklisted));
+
+        RiskEvaluation evaluation = rules.evaluate(vector(RiskFeature.BLACKLISTED, 1));
+
+        assertEquals(RiskAssessment.AssessmentAction.DECLINE, evaluation.action());
+        assertEquals(RiskAssessment.RiskLevel.LOW, evaluation.riskLevel());
+        assertEquals(List.of("BLACKLISTED"), evaluation.riskFactors());
+    }
+
+    @Test
+    void setAndRangeOperators() {
+        RuleSetDefinition.RuleDefinition bins = rule("bins", null, RiskFeature.CARD_BIN, "IN", 0, 30);
+        bins.setValue(null);
+        bins.setValues(List.of(411111.0, 222222.0));
+        RuleSetDefinition.RuleDefinition night = rule("night", null, RiskFeature.HOUR_OF_DAY, "BETWEEN", 0, 15);
+        night.setValue(null);
+        night.setMin(0.0);
+        night.setMax(5.0);
+        CompiledRuleSet rules = CompiledRuleSet.compile(definition(bins, night));
+
+        double[] vector = vector(RiskFeature.CARD_BIN, 411111);
+        vector[RiskFeature.HOUR_OF_DAY.ordinal()] = 3;
+        assertEquals(List.of("bins", "night"), rules.evaluate(vector).matchedRules());
+
+        vector[RiskFeature.CARD_BIN.ordinal()] = 400000;
+        vector[RiskFeature.HOUR_OF_DAY.ordinal()] = 12;
+        assertTrue(rules.evaluate(vector).matchedRules().isEmpty());
+    }
+
+    @Test
+    void disabledRulesAreSkippedAndHitsCounted() {
+        RuleSetDefinition.RuleDefinition disabled = rule("disabled", null, RiskFeature.AMOUNT, "GT", 0, 50);
+        disabled.setEnabled(false);
+        CompiledRuleSet rules = CompiledRuleSet.compile(definition(
+                disabled, rule("any-amount", null, RiskFeature.AMOUNT, "GT", 0, 5)));
+
+        rules.evaluate(vector(RiskFeature.AMOUNT, 10));
+        rules.evaluate(vector(RiskFeature.AMOUNT, 20));
+
+        assertEquals(1, rules.size());
+        assertEquals(2, rules.getEvaluations());
+        assertEquals(2L, rules.getHitCounts().get("any-amount"));
+    }
+
+    @Test
+    void invalidRuleNamesTheRule() {
+        RuleSetDefinition.RuleDefinition broken = rule("broken", null, RiskFeature.AMOUNT, "GT", 0, 5);
+        broken.setValue(null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> CompiledRuleSet.compile(definition(broken)));
+        assertTrue(e.getMessage().contains("broken"), e.getMessage());
+    }
+
+    private static RuleSetDefinition definition(RuleSetDefinition.RuleDefinition... rules) {
+        RuleSetDefinition definition = new RuleSetDefinition();
+        definition.setVersion("test");
+        definition.setRules(List.of(rules));
+        return definition;
+    }
+
+    private static RuleSetDefinition.RuleDefinition rule(String id, String group, RiskFeature feature,
+                                                         String op, double value, double score) {
+        RuleSetDefinition.RuleDefinition rule = new RuleSetDefinition.RuleDefinition();
+        rule.setId(id);
+        rule.setGroup(group);
+        rule.setFeature(feature.name());
+        rule.setOp(op);
+        rule.setValue(value);
+        rule.setScore(score);
+        return rule;
+    }
+
+    private static double[] vector(RiskFeature feature, double value) {
+        double[] vector = new double[RiskFeature.values().length];
+        vector[feature.ordinal()] = value;
+        return vector;
+    }
+}
@@ -0,0 +1,72 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.model.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditAggregatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void countsEventsPerKeyIntoOneRowEach() throws Exception {
+        AuditAggregator aggregator = aggregator(100);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(aggregator.record("VELOCITY_CHECK_PERFORMED", "fraud-engine", "CHECK", "MERCHANT", "M1"));
+        }
+        assertTrue(aggregator.record("VELOCITY_CHECK_PERFORMED", "fraud-engine", "CHECK", "MERCHANT", "M2"));
+
+        List<AuditLog> rows = aggregator.drainAll().stream()
+                .sorted(Comparator.comparing(AuditLog::getResourceId))
+                .toList();
+
+        assertEquals(2, rows.size());
+        JsonNode first = objectMapper.readTree(rows.get(0).getAdditionalData());
+        assertEquals("M1", rows.get(0).getResourceId());
+        assertEquals(5, first.get("count").asLong());
+        assertTrue(first.get("aggregated").asBoolean());
+        assertEquals(AuditLog.Severity.LOW, rows.get(0).getSeverity());
+        assertEquals(1, objectMapper.readTree(rows.get(1).getAdditionalData()).get("count").asLong());
+        assertTrue(aggregator.drainAll().isEmpty());
+    }
+
+    @Test
+    void currentMinuteIsNotDrainedEarly() {
+        AuditAggregator aggregator = aggregator(100);
+        long currentMinute = System.currentTimeMillis() / 60_000;
+        aggregator.record("API_CALL", null, null, "API", "R1");
+
+        assertTrue(aggregator.drainBefore(currentMinute).isEmpty());
+
+        List<AuditLog> rows = aggregator.drainBefore(currentMinute + 2);
+        assertEquals(1, rows.size());
+        assertEquals("system", rows.get(0).getActor());
+        assertEquals("AGGREGATE", rows.get(0).getAction());
+    }
+
+    @Test
+    void refusesNewKeysOverTheLimit() {
+        AuditAggregator aggregator = aggregator(2);
+
+        assertTrue(aggregator.record("API_CALL", "a", "GET", "API", "R1"));
+        assertTrue(aggregator.record("API_CALL", "a", "GET", "API", "R2"));
+        assertFalse(aggregator.record("API_CALL", "a", "GET", "API", "R3"));
+        // Existing keys keep counting
+        assertTrue(aggregator.record("API_CALL", "a", "GET", "API", "R1"));
+    }
+
+    private AuditAggregator aggregator(int maxKeys) {
+        AuditAggregator aggregator = new AuditAggregator(objectMapper);
+        ReflectionTestUtils.setField(aggregator, "maxKeys", maxKeys);
+        return aggregator;
+    }
+}
@@ -0,0 +1,172 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.AuditExportRequest;
+import com.payment.gateway.dto.AuditExportResponse;
+import com.payment.gateway.dto.AuditSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditExportServiceTest {
+
+    private static final String[] COLUMNS = {"id", "event_type", "resource_id"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final DataSource dataSource = mock(DataSource.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private AuditExportService service;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(auditService.createEvent()).thenAnswer(invocation -> new AuditService.AuditEventBuilder(auditService));
+
+        AuditSearchService searchService = new AuditSearchService(mock(NamedParameterJdbcTemplate.class), objectMapper);
+        service = new AuditExportService(searchService, auditService, dataSource, transactionManager,
+                objectMapper, Runnable::run);
+        ReflectionTestUtils.setField(service, "exportDir", dir.toString());
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+    }
+
+    @Test
+    void ndjsonExportRollsOverChunksWithChecksums() throws Exception {
+        givenRows(new Object[][]{
+                {1L, "PAYMENT", "PAY-1"},
+                {2L, "PAYMENT", "PAY-2"},
+                {3L, "REFUND", "REF-1"},
+                {4L, "REFUND", "REF-2"},
+                {5L, "DISPUTE", "DSP-1"}});
+
+        AuditExportResponse started = service.startExport(request("NDJSON", 2));
+        AuditExportResponse done = service.getExportStatus(started.getExportId());
+
+        assertEquals("COMPLETED", done.getStatus());
+        assertEquals(5L, done.getRowsExported());
+        assertEquals(List.of("part-00001.ndjson.gz", "part-00002.ndjson.gz", "part-00003.ndjson.gz"),
+                done.getChunks().stream().map(AuditExportResponse.Chunk::getFile).toList());
+        assertEquals(List.of(2L, 2L, 1L), done.getChunks().stream().map(AuditExportResponse.Chunk::getRows).toList());
+
+        Path exportDir = dir.resolve(started.getExportId());
+        for (AuditExportResponse.Chunk chunk : done.getChunks()) {
+            Path file = exportDir.resolve(chunk.getFile());
+            assertEquals(Files.size(file), chunk.getBytes());
+            assertEquals(sha256(file), chunk.getSha256());
+        }
+
+        List<String> firstChunk = readLines(exportDir.resolve("part-00001.ndjson.gz"));
+        assertEquals(2, firstChunk.size());
+        JsonNode row = objectMapper.readTree(firstChunk.get(0));
+        assertEquals("PAY-1", row.get("resource_id").asText());
+
+        JsonNode manifest = objectMapper.readTree(exportDir.resolve("manifest.json").toFile());
+        assertEquals("COMPLETED", manifest.get("status").asText());
+        assertEquals(3, manifest.get("chunks").size());
+    }
+
+    @Test
+    void csvChunksEachStartWithTheHeaderAndQuoteValues() throws Exception {
+        givenRows(new Object[][]{
+                {1L, "PAYMENT", "a,b"},
+                {2L, "PAYMENT", "say \"hi\""},
+                {3L, "PAYMENT", null}});
+
+        AuditExportResponse started = service.startExport(request("CSV", 2));
+        Path exportDir = dir.resolve(started.getExportId());
+
+        assertEquals(List.of("id,event_type,resource_id", "1,PAYMENT,\"a,b\"", "2,PAYMENT,\"say \"\"hi\"\"\""),
+                readLines(exportDir.resolve("part-00001.csv.gz")));
+        assertEquals(List.of("id,event_type,resource_id", "3,PAYMENT,"),
+                readLines(exportDir.resolve("part-00002.csv.gz")));
+    }
+
+    @Test
+    void rejectsExportWithoutTimeRange() {
+        AuditExportRequest request = request("NDJSON", 2);
+        request.getFilter().setFrom(null);
+
+        AuditExportResponse response = service.startExport(request);
+
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("from"));
+    }
+
+    private AuditExportRequest request(String format, int rowsPerChunk) {
+        AuditSearchRequest filter = new AuditSearchRequest();
+        filter.setFrom(LocalDateTime.of(2026, 1, 1, 0, 0));
+        filter.setTo(LocalDateTime.of(2026, 2, 1, 0, 0));
+        AuditExportRequest request = new AuditExportRequest();
+        request.setFormat(format);
+        request.setRowsPerChunk(rowsPerChunk);
+        request.setFilter(filter);
+        return request;
+    }
+
+    /**
+     * Serves the rows through a mocked JDBC cursor.
+     */
+    private void givenRows(Object[][] rows) throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        AtomicInteger position = new AtomicInteger(-1);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(COLUMNS.length);
+        when(metaData.getColumnLabel(anyInt())).thenAnswer(invocation -> COLUMNS[(int) invocation.getArgument(0) - 1]);
+        when(resultSet.next()).thenAnswer(invocation -> position.incrementAndGet() < rows.length);
+        when(resultSet.getObject(anyInt()))
+                .thenAnswer(invocation -> rows[position.get()][(int) invocation.getArgument(0) - 1]);
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+}
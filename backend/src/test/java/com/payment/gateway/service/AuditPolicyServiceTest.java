@@ -0,0 +1,61 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AuditPolicyServiceTest {
+
+    @Test
+    void unlistedTypesAndHighSeverityAreAlwaysWritten() {
+        AuditPolicyService service = load("VELOCITY_CHECK_PERFORMED=AGGREGATE");
+
+        assertEquals(AuditPolicyService.Decision.WRITE, service.decide("PAYMENT", AuditLog.Severity.LOW));
+        assertEquals(AuditPolicyService.Decision.WRITE, service.decide(null, AuditLog.Severity.LOW));
+        assertEquals(AuditPolicyService.Decision.WRITE,
+                service.decide("VELOCITY_CHECK_PERFORMED", AuditLog.Severity.HIGH));
+        assertEquals(AuditPolicyService.Decision.WRITE,
+                service.decide("VELOCITY_CHECK_PERFORMED", AuditLog.Severity.CRITICAL));
+        assertEquals(AuditPolicyService.Decision.AGGREGATE,
+                service.decide("VELOCITY_CHECK_PERFORMED", AuditLog.Severity.LOW));
+    }
+
+    @Test
+    void sampleWritesEveryNthEvent() {
+        AuditPolicyService service = load("API_CALL=SAMPLE:3");
+
+        List<AuditPolicyService.Decision> decisions = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            decisions.add(service.decide("API_CALL", AuditLog.Severity.LOW));
+        }
+
+        assertEquals(List.of(
+                AuditPolicyService.Decision.WRITE_SAMPLED, AuditPolicyService.Decision.DROP, AuditPolicyService.Decision.DROP,
+                AuditPolicyService.Decision.WRITE_SAMPLED, AuditPolicyService.Decision.DROP, AuditPolicyService.Decision.DROP),
+                decisions);
+        assertEquals(3, service.getSampleRate("API_CALL"));
+        assertEquals(1, service.getSampleRate("PAYMENT"));
+    }
+
+    @Test
+    void invalidEntriesAreIgnored() {
+        AuditPolicyService service = load("A=SAMPLE:0, B=SOMETIMES, C, D = always, E=sample:2");
+
+        assertEquals(AuditPolicyService.Decision.WRITE, service.decide("A", AuditLog.Severity.LOW));
+        assertEquals(AuditPolicyService.Decision.WRITE, service.decide("B", AuditLog.Severity.LOW));
+        assertEquals(AuditPolicyService.Decision.WRITE, service.decide("D", AuditLog.Severity.LOW));
+        assertEquals(2, service.getSampleRate("E"));
+    }
+
+    private static AuditPolicyService load(String config) {
+        AuditPolicyService service = new AuditPolicyService();
+        ReflectionTestUtils.setField(service, "policyConfig", config);
+        service.loadPolicies();
+        return service;
+    }
+}
@@ -0,0 +1,152 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.AuditSearchRequest;
+import com.payment.gateway.dto.AuditSearchResponse;
+import com.payment.gateway.model.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditSearchServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final AuditSearchService service = new AuditSearchService(jdbcTemplate, new ObjectMapper());
+
+    @Test
+    void fullPageReturnsCursorOfItsLastRow() {
+        whenQueried(rows(4, 100));
+
+        AuditSearchResponse response = service.search(request(3, null));
+
+        assertTrue(response.isSuccess());
+        assertEquals(3, response.getCount());
+        assertEquals(List.of(100L, 99L, 98L), response.getEvents().stream().map(AuditLog::getId).toList());
+        assertNotNull(response.getNextCursor());
+        assertEquals(4, lastParams().getValue("limit"));
+        assertFalse(lastSql().contains(":cursorId"));
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastRowOfThePreviousPage() {
+        whenQueried(rows(4, 100));
+        String cursor = service.search(request(3, null)).getNextCursor();
+
+        whenQueried(rows(2, 97));
+        AuditSearchResponse next = service.search(request(3, cursor));
+
+        assertTrue(next.isSuccess());
+        assertNull(next.getNextCursor());
+        assertTrue(lastSql().contains("(timestamp, id) < (:cursorTimestamp, :cursorId)"));
+        assertTrue(lastSql().endsWith("ORDER BY timestamp DESC, id DESC LIMIT :limit"));
+        assertEquals(98L, lastParams().getValue("cursorId"));
+        assertEquals(Timestamp.valueOf(BASE.minusSeconds(2)), lastParams().getValue("cursorTimestamp"));
+    }
+
+    @Test
+    void invalidCursorIsRejectedWithoutQuerying() {
+        AuditSearchResponse response = service.search(request(10, "not-a-cursor"));
+
+        assertFalse(response.isSuccess());
+        assertEquals("Invalid cursor", response.getMessage());
+        verify(jdbcTemplate, never()).query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class));
+    }
+
+    @Test
+    void onlySuppliedFiltersReachTheWhereClause() {
+        whenQueried(List.of());
+        AuditSearchRequest request = request(10, null);
+        request.setEventType("PAYMENT");
+        request.setComplianceTag("PCI_DSS");
+        request.getData().put("cardBin", "454360");
+
+        service.search(request);
+
+        String sql = lastSql();
+        assertTrue(sql.contains("event_type = :eventType"));
+        assertTrue(sql.contains("compliance_tags @> CAST(:complianceTags AS jsonb)"));
+        assertTrue(sql.contains("additional_data @> CAST(:additionalData AS jsonb)"));
+        assertFalse(sql.contains("actor ="));
+        assertFalse(sql.contains("resource_id ="));
+        assertEquals("[\"PCI_DSS\"]", lastParams().getValue("complianceTags"));
+        assertEquals("{\"cardBin\":\"454360\"}", lastParams().getValue("additionalData"));
+    }
+
+    @Test
+    void rejectsInvertedTimeRange() {
+        AuditSearchRequest request = request(10, null);
+        request.setFrom(BASE);
+        request.setTo(BASE.minusDays(1));
+
+        assertFalse(service.search(request).isSuccess());
+    }
+
+    private static AuditSearchRequest request(int limit, String cursor) {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setFrom(BASE.minusDays(1));
+        request.setTo(BASE.plusDays(1));
+        request.setLimit(limit);
+        request.setCursor(cursor);
+        return request;
+    }
+
+    /**
+     * Rows in (timestamp, id) descending order; id 100 is at BASE, each lower id one second earlier.
+     */
+    private static List<AuditLog> rows(int count, long firstId) {
+        List<AuditLog> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = firstId - i;
+            rows.add(AuditLog.builder()
+                    .id(id)
+                    .timestamp(BASE.minusSeconds(100 - id))
+                    .eventType("PAYMENT")
+                    .build());
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void whenQueried(List<AuditLog> result) {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new ArrayList<>(result));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String lastSql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce())
+                .query(sql.capture(), any(MapSqlParameterSource.class), any(RowMapper.class));
+        return sql.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private MapSqlParameterSource lastParams() {
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, atLeastOnce())
+                .query(anyString(), params.capture(), any(RowMapper.class));
+        return params.getValue();
+    }
+}
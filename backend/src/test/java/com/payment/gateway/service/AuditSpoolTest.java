@@ -0,0 +1,141 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.model.AuditLog;
+import com.payment.gateway.repository.AuditLogRepository;
+import com.payment.gateway.scheduler.AuditSpoolReplayScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditSpoolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<AuditSpool> opened = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (AuditSpool spool : opened) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void replayResumesFromCommittedCheckpointAfterReopen() throws IOException {
+        AuditSpool spool = open();
+        spool.append(auditLog("A1"));
+        spool.append(auditLog("A2"));
+        spool.append(auditLog("A3"));
+
+        AuditSpool.Batch first = spool.readBatch(2);
+        assertEquals(List.of("A1", "A2"), resourceIds(first));
+        spool.commit(first.nextOffset());
+        spool.close();
+        opened.remove(spool);
+
+        AuditSpool reopened = open();
+        assertTrue(reopened.hasPending());
+        AuditSpool.Batch rest = reopened.readBatch(10);
+        assertEquals(List.of("A3"), resourceIds(rest));
+        reopened.commit(rest.nextOffset());
+        assertFalse(reopened.hasPending());
+        assertEquals(0, reopened.getPendingBytes());
+    }
+
+    @Test
+    void uncommittedEventsAreReadAgain() throws IOException {
+        AuditSpool spool = open();
+        spool.append(auditLog("A1"));
+        spool.readBatch(10);
+        spool.close();
+        opened.remove(spool);
+
+        AuditSpool reopened = open();
+        AuditSpool.Batch batch = reopened.readBatch(10);
+        assertEquals(List.of("A1"), resourceIds(batch));
+        assertNull(batch.events().get(0).getId());
+    }
+
+    @Test
+    void schedulerKeepsCheckpointWhileDatabaseIsDownAndDrainsLater() throws IOException {
+        AuditSpool spool = open();
+        for (int i = 0; i < 5; i++) {
+            spool.append(auditLog("A" + i));
+        }
+        AuditLogRepository repository = mock(AuditLogRepository.class);
+        AuditSpoolReplayScheduler scheduler = new AuditSpoolReplayScheduler(spool, repository);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 2);
+
+        when(repository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        long checkpoint = spool.getCheckpoint();
+        scheduler.replaySpool();
+        assertEquals(checkpoint, spool.getCheckpoint());
+        assertTrue(spool.hasPending());
+
+        AuditLogRepository recovered = mock(AuditLogRepository.class);
+        AuditSpoolReplayScheduler retry = new AuditSpoolReplayScheduler(spool, recovered);
+        ReflectionTestUtils.setField(retry, "batchSize", 2);
+        retry.replaySpool();
+        assertFalse(spool.hasPending());
+        verify(recovered, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void schedulerDoesNothingWithoutPendingEvents() throws IOException {
+        AuditSpool spool = open();
+        AuditLogRepository repository = mock(AuditLogRepository.class);
+
+        new AuditSpoolReplayScheduler(spool, repository).replaySpool();
+
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private AuditSpool open() throws IOException {
+        AuditSpool spool = new AuditSpool(objectMapper);
+        ReflectionTestUtils.setField(spool, "spoolDir", dir.toString());
+        ReflectionTestUtils.setField(spool, "segmentBytes", 4096);
+        ReflectionTestUtils.setField(spool, "forceOnAppend", false);
+        spool.open();
+        opened.add(spool);
+        return spool;
+    }
+
+    private static AuditLog auditLog(String resourceId) {
+        return AuditLog.builder()
+                .id(42L)
+                .timestamp(LocalDateTime.now())
+                .eventType("PAYMENT")
+                .severity(AuditLog.Severity.MEDIUM)
+                .actor("system")
+                .action("UPDATE")
+                .resourceType("Payment")
+                .resourceId(resourceId)
+                .build();
+    }
+
+    private static List<String> resourceIds(AuditSpool.Batch batch) {
+        return batch.events().stream().map(AuditLog::getResourceId).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.risk.RiskFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BehaviorFeatureStoreTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotRoundTripRestoresAllFeatures() throws IOException {
+        long now = System.currentTimeMillis();
+        BehaviorFeatureStore store = store(90);
+        store.record("CUST-1", "card-a", "device-1", "MER-1", 20.0, now - 30 * HOUR_MS);
+        store.record("CUST-1", "card-a", "device-1", "MER-2", 40.0, now - 2 * HOUR_MS);
+        store.record("CUST-2", "card-a", "device-2", "MER-1", 15.0, now - HOUR_MS);
+        store.snapshot();
+
+        BehaviorFeatureStore restored = store(90);
+        restored.init();
+
+        assertEquals(store.getStats().get("customers"), restored.getStats().get("customers"));
+        assertEquals(store.getStats().get("cards"), restored.getStats().get("cards"));
+        assertEquals(store.getStats().get("devices"), restored.getStats().get("devices"));
+        assertArrayEquals(features(store, "CUST-1", "card-a", "device-1", now),
+                features(restored, "CUST-1", "card-a", "device-1", now));
+        assertArrayEquals(features(store, "CUST-2", "card-a", "device-3", now),
+                features(restored, "CUST-2", "card-a", "device-3", now));
+
+        double[] restoredFeatures = features(restored, "CUST-1", "card-a", "device-1", now);
+        assertEquals(2, restoredFeatures[RiskFeature.CUSTOMER_PAYMENTS.ordinal()]);
+        assertEquals(30.0, restoredFeatures[RiskFeature.CUSTOMER_AVG_AMOUNT.ordinal()]);
+        assertEquals(0, restoredFeatures[RiskFeature.NEW_DEVICE.ordinal()]);
+        assertEquals(3, restoredFeatures[RiskFeature.CARD_PAYMENTS.ordinal()]);
+        assertEquals(2, restoredFeatures[RiskFeature.CARD_CUSTOMERS.ordinal()]);
+    }
+
+    @Test
+    void expiredProfilesAreNotLoaded() throws IOException {
+        long now = System.currentTimeMillis();
+        BehaviorFeatureStore store = store(1);
+        store.record("CUST-OLD", null, null, "MER-1", 10.0, now - 48 * HOUR_MS);
+        store.record("CUST-NEW", null, null, "MER-1", 10.0, now);
+        store.snapshot();
+
+        BehaviorFeatureStore restored = store(1);
+        restored.init();
+
+        assertEquals(1, restored.getStats().get("customers"));
+        assertEquals(0, features(restored, "CUST-OLD", null, null, now)[RiskFeature.CUSTOMER_PAYMENTS.ordinal()]);
+    }
+
+    @Test
+    void corruptSnapshotStartsEmpty() throws IOException {
+        Files.write(dir.resolve("features.snapshot"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        BehaviorFeatureStore restored = store(90);
+        restored.init();
+
+        assertEquals(0, restored.getStats().get("customers"));
+        assertEquals(0, restored.getStats().get("cards"));
+    }
+
+    private BehaviorFeatureStore store(int ttlDays) {
+        return new BehaviorFeatureStore(dir.resolve("features.snapshot").toString(), ttlDays, 16);
+    }
+
+    private static double[] features(BehaviorFeatureStore store, String customerId, String cardFingerprint,
+                                     String deviceFingerprint, long nowMs) {
+        double[] features = new double[RiskFeature.values().length];
+        store.fill(features, customerId, cardFingerprint, deviceFingerprint, 25.0, nowMs);
+        return features;
+    }
+}
@@ -0,0 +1,85 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.EventLogResponse;
+import com.payment.gateway.event.PaymentCreated;
+import com.payment.gateway.model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentEventLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private PaymentEventLog eventLog;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLog = new PaymentEventLog(objectMapper);
+        ReflectionTestUtils.setField(eventLog, "logDir", dir.toString());
+        ReflectionTestUtils.setField(eventLog, "segmentBytes", 4096);
+        ReflectionTestUtils.setField(eventLog, "maxBatch", 100);
+        ReflectionTestUtils.setField(eventLog, "maxGapEventIds", 2);
+        eventLog.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        eventLog.close();
+    }
+
+    @Test
+    void missedEventsAreWrittenAsGapRecordBeforeNextAppend() throws IOException {
+        PaymentCreated first = event("PAY-1");
+        PaymentCreated second = event("PAY-2");
+        eventLog.recordGap(first);
+        eventLog.recordGap(second);
+        eventLog.recordGap(event("PAY-3"));
+
+        EventLogResponse pending = eventLog.read(0, 10);
+        assertEquals(0, pending.getCount());
+        assertEquals(3L, pending.getMissedEvents());
+
+        eventLog.append(event("PAY-4"));
+
+        EventLogResponse response = eventLog.read(0, 10);
+        assertEquals(0L, response.getMissedEvents());
+        assertEquals(List.of("EventLogGap", "PAYMENT_CREATED"),
+                response.getEvents().stream().map(EventLogResponse.Entry::getType).toList());
+        JsonNode gap = response.getEvents().get(0).getEvent();
+        assertEquals(3, gap.get("missed").asInt());
+        assertEquals(List.of(first.getEventId(), second.getEventId()),
+                objectMapper.convertValue(gap.get("eventIds"), List.class));
+    }
+
+    @Test
+    void appendWithoutMissedEventsWritesNoGapRecord() throws IOException {
+        eventLog.append(event("PAY-1"));
+
+        EventLogResponse response = eventLog.read(0, 10);
+        assertEquals(1, response.getCount());
+        assertEquals("PAYMENT_CREATED", response.getEvents().get(0).getType());
+    }
+
+    private static PaymentCreated event(String paymentId) {
+        Payment payment = new Payment();
+        payment.setPaymentId(paymentId);
+        payment.setMerchantId("MER-1");
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setCurrency("USD");
+        return new PaymentCreated(payment, null);
+    }
+}
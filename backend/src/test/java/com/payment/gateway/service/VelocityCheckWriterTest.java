@@ -0,0 +1,138 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.model.VelocityCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VelocityCheckWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @Test
+    void policyFiltersChecksBeforeBuffering() {
+        VelocityCheckWriter exceededOnly = writer(VelocityCheckWriter.PersistPolicy.EXCEEDED_ONLY, 10, 10);
+        exceededOnly.submit(check("C1", false));
+        exceededOnly.submit(check("C2", true));
+        assertEquals(1, exceededOnly.getStats().get("pending"));
+
+        VelocityCheckWriter none = writer(VelocityCheckWriter.PersistPolicy.NONE, 10, 10);
+        none.submit(check("C3", true));
+        assertEquals(0, none.getStats().get("pending"));
+    }
+
+    @Test
+    void flushInsertsBufferInBatchesInsideATransaction() {
+        VelocityCheckWriter writer = writer(VelocityCheckWriter.PersistPolicy.ALL, 10, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.submit(check("C" + i, false));
+        }
+
+        assertEquals(5, writer.flush());
+
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(5L, writer.getStats().get("persisted"));
+        assertEquals(0, writer.getStats().get("pending"));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndRejectedRowsAreDropped() {
+        VelocityCheckWriter writer = writer(VelocityCheckWriter.PersistPolicy.ALL, 10, 10);
+        writer.submit(check("C1", false));
+        writer.submit(check("BAD", false));
+        writer.submit(check("C3", false));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if ("BAD".equals(invocation.getArgument(1))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return 1;
+        });
+
+        assertEquals(2, writer.flush());
+
+        verify(transactionManager).rollback(any());
+        Map<String, Object> stats = writer.getStats();
+        assertEquals(2L, stats.get("persisted"));
+        assertEquals(1L, stats.get("rejected"));
+        assertEquals(1L, stats.get("failedBatches"));
+        assertEquals(0, stats.get("pending"));
+    }
+
+    @Test
+    void rowsAreRequeuedWhenTheDatabaseIsUnavailable() {
+        VelocityCheckWriter writer = writer(VelocityCheckWriter.PersistPolicy.ALL, 10, 2);
+        for (int i = 0; i < 4; i++) {
+            writer.submit(check("C" + i, false));
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertEquals(0, writer.flush());
+
+        // The run stops at the first unavailable batch instead of draining the rest
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertEquals(4, writer.getStats().get("pending"));
+        assertEquals(0L, writer.getStats().get("rejected"));
+    }
+
+    @Test
+    void fullBufferDropsNewChecks() {
+        VelocityCheckWriter writer = writer(VelocityCheckWriter.PersistPolicy.ALL, 2, 10);
+        writer.submit(check("C1", false));
+        writer.submit(check("C2", false));
+        writer.submit(check("C3", false));
+
+        assertEquals(2, writer.getStats().get("pending"));
+        assertEquals(1L, writer.getStats().get("dropped"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private VelocityCheckWriter writer(VelocityCheckWriter.PersistPolicy policy, int capacity, int batchSize) {
+        return new VelocityCheckWriter(jdbcTemplate, transactionManager, policy, capacity, batchSize);
+    }
+
+    private static VelocityCheck check(String checkId, boolean limitExceeded) {
+        LocalDateTime now = LocalDateTime.now();
+        VelocityCheck check = new VelocityCheck();
+        check.setCheckId(checkId);
+        check.setType(VelocityCheck.VelocityType.CARD_TRANSACTIONS_PER_MINUTE);
+        check.setIdentifier("card-fingerprint");
+        check.setMerchantId("MER-1");
+        check.setTransactionCount(1);
+        check.setTotalAmount(BigDecimal.TEN);
+        check.setWindowStart(now.minusMinutes(1));
+        check.setWindowEnd(now);
+        check.setLimitExceeded(limitExceeded);
+        check.setCheckedAt(now);
+        return check;
+    }
+}
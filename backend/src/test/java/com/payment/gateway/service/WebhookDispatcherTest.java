@@ -0,0 +1,173 @@
+package com.payment.gateway.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookDispatcherTest {
+
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new WebhookDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "partitionCount", 2);
+        ReflectionTestUtils.setField(dispatcher, "workersPerPartition", 4);
+        ReflectionTestUtils.setField(dispatcher, "partitionCapacity", 1000);
+        ReflectionTestUtils.setField(dispatcher, "maxEventsPerEntity", 100);
+        ReflectionTestUtils.setField(dispatcher, "headMaxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "headRetryBackoffMs", 1L);
+        ReflectionTestUtils.setField(dispatcher, "headRetryMaxBackoffMs", 5L);
+        ReflectionTestUtils.setField(dispatcher, "throttleBackoffMs", 1L);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void eventsOfOneEntityRunInOrderOneAtATime() throws InterruptedException {
+        int events = 50;
+        List<Integer> attempted = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(events);
+
+        for (int i = 0; i < events; i++) {
+            int sequence = i;
+            assertTrue(dispatcher.submit("PAY-1", "WH-1", task(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                attempted.add(sequence);
+                inFlight.decrementAndGet();
+                done.countDown();
+                return WebhookDispatcher.AttemptResult.DONE;
+            })));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxInFlight.get());
+        for (int i = 0; i < events; i++) {
+            assertEquals(i, attempted.get(i));
+        }
+    }
+
+    @Test
+    void failingHeadIsRetriedInPlaceAndReportedAsStalled() throws InterruptedException {
+        List<String> attempted = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger stalled = new AtomicInteger();
+        AtomicInteger headFailuresLeft = new AtomicInteger(4);
+        CountDownLatch done = new CountDownLatch(2);
+
+        dispatcher.submit("PAY-1", "WH-1", new WebhookDispatcher.DispatchTask() {
+            @Override
+            public WebhookDispatcher.AttemptResult attempt() {
+                attempted.add("first");
+                if (headFailuresLeft.getAndDecrement() > 0) {
+                    return WebhookDispatcher.AttemptResult.FAILED;
+                }
+                done.countDown();
+                return WebhookDispatcher.AttemptResult.DONE;
+            }
+
+            @Override
+            public void stalled() {
+                stalled.incrementAndGet();
+            }
+        });
+        dispatcher.submit("PAY-1", "WH-1", task(() -> {
+            attempted.add("second");
+            done.countDown();
+            return WebhookDispatcher.AttemptResult.DONE;
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "first", "first", "first", "first", "second"), attempted);
+        assertEquals(1, stalled.get());
+    }
+
+    @Test
+    void throttledHeadIsNotCountedAsFailure() throws InterruptedException {
+        AtomicInteger throttlesLeft = new AtomicInteger(10);
+        AtomicInteger stalled = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.submit("PAY-1", "WH-1", new WebhookDispatcher.DispatchTask() {
+            @Override
+            public WebhookDispatcher.AttemptResult attempt() {
+                if (throttlesLeft.getAndDecrement() > 0) {
+                    return WebhookDispatcher.AttemptResult.THROTTLED;
+                }
+                done.countDown();
+                return WebhookDispatcher.AttemptResult.DONE;
+            }
+
+            @Override
+            public void stalled() {
+                stalled.incrementAndGet();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stalled.get());
+    }
+
+    @Test
+    void otherEntitiesKeepFlowingBehindAParkedStream() throws InterruptedException {
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        dispatcher.submit("PAY-1", "WH-1", task(() -> WebhookDispatcher.AttemptResult.FAILED));
+        dispatcher.submit("PAY-2", "WH-1", task(() -> {
+            otherDone.countDown();
+            return WebhookDispatcher.AttemptResult.DONE;
+        }));
+
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsEventsOverTheStreamLimit() {
+        ReflectionTestUtils.setField(dispatcher, "maxEventsPerEntity", 2);
+        CountDownLatch blocker = new CountDownLatch(1);
+        WebhookDispatcher.DispatchTask blocked = task(() -> {
+            try {
+                blocker.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return WebhookDispatcher.AttemptResult.DONE;
+        });
+
+        assertTrue(dispatcher.submit("PAY-1", "WH-1", blocked));
+        assertTrue(dispatcher.submit("PAY-1", "WH-1", blocked));
+        assertFalse(dispatcher.submit("PAY-1", "WH-1", blocked));
+        blocker.countDown();
+    }
+
+    private static WebhookDispatcher.DispatchTask task(Supplier<WebhookDispatcher.AttemptResult> attempt) {
+        return new WebhookDispatcher.DispatchTask() {
+            @Override
+            public WebhookDispatcher.AttemptResult attempt() {
+                return attempt.get();
+            }
+
+            @Override
+            public void stalled() {
+            }
+        };
+    }
+}
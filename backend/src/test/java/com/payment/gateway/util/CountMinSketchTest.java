@@ -0,0 +1,62 @@
+package com.payment.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimateNeverUnderCounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("ip-" + (i % 200), 1);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(sketch.estimate("ip-" + i) >= 5, "under-counted ip-" + i);
+        }
+    }
+
+    @Test
+    void estimateIsExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(16384, 4);
+        sketch.add("10.0.0.1", 3);
+        sketch.add("10.0.0.2", 1);
+        sketch.add("10.0.0.1", 2);
+
+        assertEquals(5, sketch.estimate("10.0.0.1"));
+        assertEquals(1, sketch.estimate("10.0.0.2"));
+        assertEquals(0, sketch.estimate("10.0.0.3"));
+    }
+
+    @Test
+    void estimateSumCoversAllSketches() {
+        CountMinSketch first = new CountMinSketch(1024, 4);
+        CountMinSketch second = new CountMinSketch(1024, 4);
+        first.add("key", 4);
+        second.add("key", 6);
+
+        assertEquals(10, CountMinSketch.estimateSum(List.of(first, second), "key", 1024, 4));
+    }
+
+    @Test
+    void estimateSumRejectsMismatchedDimensions() {
+        List<CountMinSketch> sketches = List.of(new CountMinSketch(1024, 4), new CountMinSketch(512, 4));
+
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.estimateSum(sketches, "key", 1024, 4));
+    }
+
+    @Test
+    void clearResetsCounters() {
+        CountMinSketch sketch = new CountMinSketch(128, 3);
+        sketch.add("key", 9);
+        sketch.clear();
+
+        assertEquals(0, sketch.estimate("key"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GCounterTest {
+
+    @Test
+    void valueIsSumOfNodeEntries() {
+        GCounter counter = new GCounter();
+        counter.increment("a", 3);
+        counter.increment("b", 2);
+        counter.increment("a", 1);
+
+        assertEquals(6, counter.value());
+        assertEquals(4, counter.get("a"));
+        assertEquals(0, counter.get("c"));
+    }
+
+    @Test
+    void mergeTakesMaxPerNodeAndIsIdempotent() {
+        GCounter local = new GCounter();
+        local.increment("a", 5);
+
+        GCounter remote = new GCounter();
+        remote.increment("a", 2);
+        remote.increment("b", 7);
+
+        local.merge(remote.snapshot());
+        local.merge(remote.snapshot());
+
+        assertEquals(5, local.get("a"));
+        assertEquals(7, local.get("b"));
+        assertEquals(12, local.value());
+    }
+
+    @Test
+    void mergeOrderDoesNotMatter() {
+        Map<String, Long> first = Map.of("a", 1L, "b", 4L);
+        Map<String, Long> second = Map.of("a", 3L, "c", 2L);
+
+        GCounter left = new GCounter();
+        left.merge(first);
+        left.merge(second);
+
+        GCounter right = new GCounter();
+        right.merge(second);
+        right.merge(first);
+
+        assertEquals(left.snapshot(), right.snapshot());
+        assertEquals(9, left.value());
+    }
+
+    @Test
+    void rejectsNegativeIncrement() {
+        assertThrows(IllegalArgumentException.class, () -> new GCounter().increment("a", -1));
+    }
+}
@@ -0,0 +1,57 @@
+package com.payment.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog(8).estimate());
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(CountMinSketch.hash64("customer-1"));
+        }
+
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void estimateIsWithinExpectedError() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        int distinct = 20_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(CountMinSketch.hash64("card-" + i));
+        }
+
+        // 1.04 / sqrt(4096) ~ 1.6%; allow three standard errors
+        double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        assertTrue(error < 0.05, "relative error " + error);
+    }
+
+    @Test
+    void unionCountsSharedValuesOnce() {
+        HyperLogLog first = new HyperLogLog(10);
+        HyperLogLog second = new HyperLogLog(10);
+        for (int i = 0; i < 500; i++) {
+            first.add(CountMinSketch.hash64("device-" + i));
+            second.add(CountMinSketch.hash64("device-" + (i + 250)));
+        }
+
+        long union = HyperLogLog.estimateUnion(first, second);
+        assertTrue(union > 650 && union < 850, "union estimate " + union);
+    }
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+}
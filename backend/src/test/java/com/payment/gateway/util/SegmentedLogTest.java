@@ -0,0 +1,107 @@
+package com.payment.gateway.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedLogTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackAppendedRecordsAcrossSegments() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(payload(i));
+            }
+
+            List<SegmentedLog.LogRecord> records = log.read(0, 100);
+
+            assertEquals(20, records.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(text(i), new String(records.get(i).payload(), StandardCharsets.UTF_8));
+            }
+            assertTrue(log.getSegments().size() > 1);
+        }
+    }
+
+    @Test
+    void nextOffsetContinuesWhereTheLastBatchEnded() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(payload(i));
+            }
+
+            List<SegmentedLog.LogRecord> first = log.read(0, 4);
+            List<SegmentedLog.LogRecord> rest = log.read(first.get(first.size() - 1).nextOffset(), 100);
+
+            assertEquals(4, first.size());
+            assertEquals(6, rest.size());
+            assertEquals(text(4), new String(rest.get(0).payload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void offsetInsideARecordStartsAtTheNextRecord() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            long first = log.append(payload(0));
+            long second = log.append(payload(1));
+            log.append(payload(2));
+
+            List<SegmentedLog.LogRecord> records = log.read(first + 3, 100);
+
+            assertEquals(2, records.size());
+            assertEquals(second, records.get(0).offset());
+        }
+    }
+
+    @Test
+    void reopenKeepsRecordsAndAppendsAfterThem() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            log.append(payload(0));
+            log.append(payload(1));
+        }
+
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            log.append(payload(2));
+
+            List<SegmentedLog.LogRecord> records = log.read(0, 100);
+            assertEquals(3, records.size());
+            assertEquals(text(2), new String(records.get(2).payload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void deletedSegmentsMoveTheStartOffset() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(payload(i));
+            }
+            long secondSegment = log.getSegments().get(1).baseOffset();
+
+            assertEquals(1, log.deleteSegmentsBefore(secondSegment));
+            assertEquals(secondSegment, log.getStartOffset());
+
+            List<SegmentedLog.LogRecord> records = log.read(0, 100);
+            assertEquals(secondSegment, records.get(0).offset());
+        }
+    }
+
+    private static String text(int i) {
+        return "{\"event\":" + i + ",\"type\":\"PAYMENT_STATUS_CHANGED\"}";
+    }
+
+    private static byte[] payload(int i) {
+        return text(i).getBytes(StandardCharsets.UTF_8);
+    }
+}